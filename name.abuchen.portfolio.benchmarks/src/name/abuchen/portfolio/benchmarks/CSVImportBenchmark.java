@@ -0,0 +1,116 @@
+package name.abuchen.portfolio.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import name.abuchen.portfolio.Messages;
+import name.abuchen.portfolio.datatransfer.Extractor.Item;
+import name.abuchen.portfolio.datatransfer.csv.CSVImporter;
+import name.abuchen.portfolio.model.AccountTransaction;
+import name.abuchen.portfolio.model.Security;
+
+/**
+ * Benchmarks the CSV import of account transactions (reading the file, mapping
+ * the columns and creating the import items).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CSVImportBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class CSVFileState
+    {
+        @Param({ "10000" })
+        public int lines;
+
+        public File file;
+
+        @Setup(Level.Trial)
+        public void setup(ClientState state) throws IOException
+        {
+            file = File.createTempFile("benchmark", ".csv"); //$NON-NLS-1$ //$NON-NLS-2$
+
+            AccountTransaction.Type[] types = { AccountTransaction.Type.DEPOSIT, AccountTransaction.Type.INTEREST,
+                            AccountTransaction.Type.DIVIDENDS };
+
+            List<Security> securities = state.client.getSecurities();
+            NumberFormat amountFormat = NumberFormat.getInstance(Locale.GERMANY);
+            amountFormat.setMinimumFractionDigits(2);
+
+            Random random = new Random(42);
+            LocalDate start = state.period.getStartDate();
+            int days = (int) (state.period.getEndDate().toEpochDay() - start.toEpochDay());
+
+            try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name()))
+            {
+                writer.println(String.join(";", Messages.CSVColumn_Date, Messages.CSVColumn_ISIN, //$NON-NLS-1$
+                                Messages.CSVColumn_Value, Messages.CSVColumn_TransactionCurrency,
+                                Messages.CSVColumn_Type, Messages.CSVColumn_Note));
+
+                for (int ii = 0; ii < lines; ii++)
+                {
+                    AccountTransaction.Type type = types[random.nextInt(types.length)];
+                    String isin = type == AccountTransaction.Type.DIVIDENDS && !securities.isEmpty()
+                                    ? securities.get(random.nextInt(securities.size())).getIsin() : ""; //$NON-NLS-1$
+
+                    writer.println(String.join(";", //$NON-NLS-1$
+                                    start.plusDays(random.nextInt(days + 1)).toString(), //
+                                    isin, //
+                                    amountFormat.format(random.nextInt(1_000_000) / 100d), //
+                                    state.client.getBaseCurrency(), //
+                                    type.toString(), //
+                                    "line " + ii)); //$NON-NLS-1$
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            if (!file.delete())
+                file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public List<Item> importAccountTransactions(ClientState state, CSVFileState csv) throws IOException
+    {
+        CSVImporter importer = new CSVImporter(state.client, csv.file);
+        importer.setEncoding(StandardCharsets.UTF_8);
+        importer.processFile();
+
+        List<Exception> errors = new ArrayList<>();
+        List<Item> items = importer.createItems(errors);
+
+        if (!errors.isEmpty())
+            throw new IllegalStateException(errors.get(0));
+
+        return items;
+    }
+}
@@ -0,0 +1,128 @@
+package name.abuchen.portfolio.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
+import name.abuchen.portfolio.model.LatestSecurityPrice;
+import name.abuchen.portfolio.model.Security;
+
+/**
+ * Benchmarks reading and writing the synthetic client as XML and as binary
+ * file, and appending a journal record to a binary file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ClientFactoryBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class FileState
+    {
+        @Param({ "xml", "ppb" })
+        public String extension;
+
+        public File file;
+
+        @Setup(Level.Trial)
+        public void setup(ClientState state) throws IOException
+        {
+            file = File.createTempFile("benchmark", "." + extension); //$NON-NLS-1$ //$NON-NLS-2$
+            ClientFactory.save(state.client, file, null, null);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            if (!file.delete())
+                file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Deletes the file before every invocation: the client is written
+     * completely instead of appending a journal record to the binary file.
+     */
+    @State(Scope.Benchmark)
+    public static class EmptyFileState extends FileState
+    {
+        @Setup(Level.Invocation)
+        public void deleteFile()
+        {
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes a new base snapshot before every invocation so that every
+     * journal record is appended to a file of the same size.
+     */
+    @State(Scope.Benchmark)
+    public static class JournalState
+    {
+        public File file;
+        private long value;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException
+        {
+            file = File.createTempFile("benchmark", ".ppb"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        @Setup(Level.Invocation)
+        public void writeBase(ClientState state) throws IOException
+        {
+            file.delete();
+            ClientFactory.save(state.client, file, null, null);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            if (!file.delete())
+                file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public Client load(FileState file) throws IOException
+    {
+        return ClientFactory.load(file.file, null, new NullProgressMonitor());
+    }
+
+    @Benchmark
+    public void save(ClientState state, EmptyFileState file) throws IOException
+    {
+        ClientFactory.save(state.client, file.file, null, null);
+    }
+
+    @Benchmark
+    public void append(ClientState state, JournalState journal) throws IOException
+    {
+        // a typical change: the latest price of a security
+        Security security = state.client.getSecurities().get(0);
+        security.setLatest(new LatestSecurityPrice(LocalDate.now(), ++journal.value));
+
+        ClientFactory.save(state.client, journal.file, null, null);
+    }
+}
@@ -0,0 +1,262 @@
+package name.abuchen.portfolio.benchmarks;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.AccountTransaction;
+import name.abuchen.portfolio.model.BuySellEntry;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.PortfolioTransaction;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.SecurityPrice;
+import name.abuchen.portfolio.money.CurrencyUnit;
+import name.abuchen.portfolio.money.ExchangeRate;
+import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
+import name.abuchen.portfolio.money.ExchangeRateTimeSeries;
+import name.abuchen.portfolio.money.Values;
+import name.abuchen.portfolio.money.impl.ExchangeRateTimeSeriesImpl;
+import name.abuchen.portfolio.money.impl.InverseExchangeRateTimeSeries;
+
+/**
+ * Generates a synthetic client with the given number of securities,
+ * transactions, years of historical quotes and currencies. The generator uses
+ * a fixed seed and a fixed end date: the same configuration always creates
+ * the same client.
+ * <p>
+ * For every currency the client has one account and one portfolio using the
+ * account as reference account. Securities are traded in the portfolio of
+ * their currency. The base currency is EUR, exchange rates for the other
+ * currencies are provided by {@link #getExchangeRateProviderFactory()}.
+ */
+public class ClientGenerator
+{
+    /**
+     * Exchange rates generated together with the client. The rates of the
+     * registered providers are not used.
+     */
+    private static class SyntheticExchangeRates extends ExchangeRateProviderFactory
+    {
+        private final Map<String, ExchangeRateTimeSeriesImpl> eur2currency = new HashMap<>();
+
+        @Override
+        public ExchangeRateTimeSeries getTimeSeries(String baseCurrency, String termCurrency)
+        {
+            if (CurrencyUnit.EUR.equals(baseCurrency))
+                return eur2currency.get(termCurrency);
+            if (CurrencyUnit.EUR.equals(termCurrency))
+            {
+                ExchangeRateTimeSeries series = eur2currency.get(baseCurrency);
+                return series != null ? new InverseExchangeRateTimeSeries(series) : null;
+            }
+            return null;
+        }
+    }
+
+    private static final String[] CURRENCIES = { CurrencyUnit.EUR, "USD", "CHF", "GBP", "JPY", "CAD", "AUD", "SEK", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+                    "NOK", "DKK" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+    public static final LocalDate END_DATE = LocalDate.of(2016, 12, 30);
+
+    private int numberOfSecurities = 50;
+    private int numberOfTransactions = 5000;
+    private int numberOfYears = 10;
+    private int numberOfCurrencies = 1;
+    private long seed = 42;
+
+    private SyntheticExchangeRates exchangeRates;
+
+    public ClientGenerator securities(int numberOfSecurities)
+    {
+        this.numberOfSecurities = numberOfSecurities;
+        return this;
+    }
+
+    public ClientGenerator transactions(int numberOfTransactions)
+    {
+        this.numberOfTransactions = numberOfTransactions;
+        return this;
+    }
+
+    public ClientGenerator years(int numberOfYears)
+    {
+        this.numberOfYears = numberOfYears;
+        return this;
+    }
+
+    public ClientGenerator currencies(int numberOfCurrencies)
+    {
+        if (numberOfCurrencies < 1 || numberOfCurrencies > CURRENCIES.length)
+            throw new IllegalArgumentException(String.valueOf(numberOfCurrencies));
+
+        this.numberOfCurrencies = numberOfCurrencies;
+        return this;
+    }
+
+    public ClientGenerator seed(long seed)
+    {
+        this.seed = seed;
+        return this;
+    }
+
+    public LocalDate getStartDate()
+    {
+        return END_DATE.minusYears(numberOfYears);
+    }
+
+    /**
+     * Returns the exchange rates of the last generated client.
+     */
+    public ExchangeRateProviderFactory getExchangeRateProviderFactory()
+    {
+        if (exchangeRates == null)
+            throw new IllegalStateException();
+        return exchangeRates;
+    }
+
+    public Client generate()
+    {
+        Random random = new Random(seed);
+
+        List<LocalDate> tradingDays = new ArrayList<>();
+        for (LocalDate date = getStartDate(); !date.isAfter(END_DATE); date = date.plusDays(1))
+        {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY)
+                tradingDays.add(date);
+        }
+
+        Client client = new Client();
+
+        exchangeRates = new SyntheticExchangeRates();
+        for (int ii = 1; ii < numberOfCurrencies; ii++)
+            exchangeRates.eur2currency.put(CURRENCIES[ii], generateRates(random, tradingDays, CURRENCIES[ii]));
+
+        List<Account> accounts = new ArrayList<>();
+        List<Portfolio> portfolios = new ArrayList<>();
+        for (int ii = 0; ii < numberOfCurrencies; ii++)
+        {
+            Account account = new Account("Account " + CURRENCIES[ii]); //$NON-NLS-1$
+            account.setCurrencyCode(CURRENCIES[ii]);
+            client.addAccount(account);
+            accounts.add(account);
+
+            Portfolio portfolio = new Portfolio();
+            portfolio.setName("Portfolio " + CURRENCIES[ii]); //$NON-NLS-1$
+            portfolio.setReferenceAccount(account);
+            client.addPortfolio(portfolio);
+            portfolios.add(portfolio);
+        }
+
+        for (int ii = 0; ii < numberOfSecurities; ii++)
+        {
+            Security security = new Security("Security " + ii, CURRENCIES[ii % numberOfCurrencies]); //$NON-NLS-1$
+            security.setIsin(String.format("XX%010d", ii)); //$NON-NLS-1$
+            security.addAllPrices(generatePrices(random, tradingDays));
+            client.addSecurity(security);
+        }
+
+        generateTransactions(random, tradingDays, client, accounts, portfolios);
+
+        return client;
+    }
+
+    private ExchangeRateTimeSeriesImpl generateRates(Random random, List<LocalDate> tradingDays, String currency)
+    {
+        ExchangeRateTimeSeriesImpl series = new ExchangeRateTimeSeriesImpl(null, CurrencyUnit.EUR, currency);
+
+        double rate = 0.5 + random.nextDouble() * 2;
+        for (LocalDate date : tradingDays)
+        {
+            rate *= 1 + random.nextGaussian() * 0.005;
+            series.addRate(new ExchangeRate(date, BigDecimal.valueOf(rate).setScale(4, RoundingMode.HALF_EVEN)));
+        }
+
+        return series;
+    }
+
+    private List<SecurityPrice> generatePrices(Random random, List<LocalDate> tradingDays)
+    {
+        List<SecurityPrice> prices = new ArrayList<>(tradingDays.size());
+
+        double price = 10 + random.nextDouble() * 190;
+        for (LocalDate date : tradingDays)
+        {
+            price = Math.max(0.01, price * (1 + random.nextGaussian() * 0.015));
+            prices.add(new SecurityPrice(date, Math.round(price * Values.Quote.factor())));
+        }
+
+        return prices;
+    }
+
+    private void generateTransactions(Random random, List<LocalDate> tradingDays, Client client,
+                    List<Account> accounts, List<Portfolio> portfolios)
+    {
+        // initial deposit to fund the purchases
+        for (Account account : accounts)
+            account.addTransaction(new AccountTransaction(tradingDays.get(0), account.getCurrencyCode(),
+                            Values.Amount.factorize(1_000_000), null, AccountTransaction.Type.DEPOSIT));
+
+        Map<Security, Long> holdings = new HashMap<>();
+        List<Security> securities = client.getSecurities();
+
+        // create transactions in chronological order to sell only shares
+        // which have been bought before
+        int[] days = random.ints(numberOfTransactions - accounts.size(), 0, tradingDays.size()).sorted().toArray();
+
+        for (int day : days)
+        {
+            LocalDate date = tradingDays.get(day);
+            int kind = random.nextInt(10);
+            int index = securities.isEmpty() ? -1 : random.nextInt(securities.size());
+
+            if (kind < 6 && index >= 0)
+            {
+                Security security = securities.get(index);
+                Portfolio portfolio = portfolios.get(index % portfolios.size());
+
+                long held = holdings.getOrDefault(security, 0L);
+                boolean isBuy = kind < 4 || held == 0;
+                long shares = isBuy ? Values.Share.factorize(1 + random.nextInt(100)) : held / 2 + 1;
+
+                long quote = security.getSecurityPrice(date).getValue();
+                long amount = Math.max(1, Math.round(shares / Values.Share.divider() * quote
+                                / Values.Quote.dividerToMoney()));
+
+                BuySellEntry entry = new BuySellEntry(portfolio, portfolio.getReferenceAccount());
+                entry.setType(isBuy ? PortfolioTransaction.Type.BUY : PortfolioTransaction.Type.SELL);
+                entry.setDate(date);
+                entry.setSecurity(security);
+                entry.setShares(shares);
+                entry.setCurrencyCode(security.getCurrencyCode());
+                entry.setAmount(amount);
+                entry.insert();
+
+                holdings.put(security, isBuy ? held + shares : held - shares);
+            }
+            else if (kind < 8 && index >= 0)
+            {
+                Security security = securities.get(index);
+                Account account = accounts.get(index % accounts.size());
+                account.addTransaction(new AccountTransaction(date, account.getCurrencyCode(),
+                                Values.Amount.factorize(1 + random.nextInt(500)), security,
+                                AccountTransaction.Type.DIVIDENDS));
+            }
+            else
+            {
+                Account account = accounts.get(random.nextInt(accounts.size()));
+                AccountTransaction.Type type = kind == 8 ? AccountTransaction.Type.DEPOSIT
+                                : AccountTransaction.Type.INTEREST;
+                account.addTransaction(new AccountTransaction(date, account.getCurrencyCode(),
+                                Values.Amount.factorize(1 + random.nextInt(1000)), null, type));
+            }
+        }
+    }
+}
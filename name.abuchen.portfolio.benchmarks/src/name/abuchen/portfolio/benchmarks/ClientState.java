@@ -0,0 +1,51 @@
+package name.abuchen.portfolio.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.CurrencyConverterImpl;
+import name.abuchen.portfolio.snapshot.ReportingPeriod;
+
+/**
+ * Synthetic client shared by the benchmarks. The size of the client is
+ * configured with JMH parameters, e.g. <code>-p transactions=50000</code>.
+ */
+@State(Scope.Benchmark)
+public class ClientState
+{
+    @Param({ "50" })
+    public int securities;
+
+    @Param({ "5000" })
+    public int transactions;
+
+    @Param({ "10" })
+    public int years;
+
+    @Param({ "2" })
+    public int currencies;
+
+    public Client client;
+    public CurrencyConverter converter;
+    public ReportingPeriod period;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ClientGenerator generator = new ClientGenerator() //
+                        .securities(securities) //
+                        .transactions(transactions) //
+                        .years(years) //
+                        .currencies(currencies);
+
+        client = generator.generate();
+        converter = new CurrencyConverterImpl(generator.getExchangeRateProviderFactory(),
+                        client.getBaseCurrency());
+        period = new ReportingPeriod.FromXtoY(generator.getStartDate(), ClientGenerator.END_DATE);
+    }
+}
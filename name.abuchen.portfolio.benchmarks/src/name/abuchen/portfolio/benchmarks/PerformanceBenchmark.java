@@ -0,0 +1,46 @@
+package name.abuchen.portfolio.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import name.abuchen.portfolio.snapshot.ClientPerformanceSnapshot;
+import name.abuchen.portfolio.snapshot.PerformanceIndex;
+import name.abuchen.portfolio.snapshot.security.SecurityPerformanceSnapshot;
+
+/**
+ * Benchmarks the calculation of the performance index and the performance
+ * snapshots over the full reporting period of the synthetic client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PerformanceBenchmark
+{
+    @Benchmark
+    public PerformanceIndex clientIndex(ClientState state)
+    {
+        return PerformanceIndex.forClient(state.client, state.converter, state.period, new ArrayList<>());
+    }
+
+    @Benchmark
+    public SecurityPerformanceSnapshot securityPerformanceSnapshot(ClientState state)
+    {
+        return SecurityPerformanceSnapshot.create(state.client, state.converter, state.period);
+    }
+
+    @Benchmark
+    public ClientPerformanceSnapshot clientPerformanceSnapshot(ClientState state)
+    {
+        return new ClientPerformanceSnapshot(state.client, state.converter, state.period);
+    }
+}
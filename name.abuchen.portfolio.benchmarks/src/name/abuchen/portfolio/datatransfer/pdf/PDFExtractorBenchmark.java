@@ -0,0 +1,147 @@
+package name.abuchen.portfolio.datatransfer.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import name.abuchen.portfolio.datatransfer.Extractor.Item;
+import name.abuchen.portfolio.model.Client;
+
+/**
+ * Benchmarks parsing the text of bank documents with the PDF extractors. The
+ * documents are the text files of the extractor tests. Like the tests, the
+ * benchmark replaces the stripping of the PDF file with the text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PDFExtractorBenchmark
+{
+    private static final Map<String, String[]> DOCUMENTS = new HashMap<>();
+
+    static
+    {
+        DOCUMENTS.put("Dkb", new String[] { "DkbKauf.txt", "DkbKaufAktien.txt", "DkbVerkauf.txt", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                        "DkbErtragsgutschrift.txt" }); //$NON-NLS-1$
+        DOCUMENTS.put("DeutscheBank", new String[] { "DeutscheBankKauf.txt", "DeutscheBankVerkauf.txt", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                        "DeutscheBankDividendengutschrift.txt" }); //$NON-NLS-1$
+        DOCUMENTS.put("Flatex", new String[] { "FlatexKauf.txt", "FlatexVerkauf.txt", "FlatexErtragsgutschrift.txt", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                        "FlatexKontoauszug.txt" }); //$NON-NLS-1$
+        DOCUMENTS.put("INGDiBa", new String[] { "INGDiBa_Kauf1.txt", "INGDiBa_Verkauf1.txt", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                        "INGDiBa_Ertragsgutschrift1.txt" }); //$NON-NLS-1$
+    }
+
+    @State(Scope.Benchmark)
+    public static class DocumentState
+    {
+        @Param({ "Dkb", "DeutscheBank", "Flatex", "INGDiBa" })
+        public String bank;
+
+        /**
+         * number of documents extracted in one invocation
+         */
+        @Param({ "100" })
+        public int documents;
+
+        public Map<String, String> texts = new HashMap<>();
+        public List<File> files = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            String[] names = DOCUMENTS.get(bank);
+
+            for (String name : names)
+            {
+                try (Scanner scanner = new Scanner(PDFExtractorBenchmark.class.getResourceAsStream(name),
+                                StandardCharsets.UTF_8.name()))
+                {
+                    texts.put(name, scanner.useDelimiter("\\A").next()); //$NON-NLS-1$
+                }
+            }
+
+            for (int ii = 0; ii < documents; ii++)
+                files.add(new File(names[ii % names.length]));
+        }
+    }
+
+    @Benchmark
+    public List<Item> extract(DocumentState state) throws IOException
+    {
+        List<Exception> errors = new ArrayList<>();
+        List<Item> items = createExtractor(state.bank, state.texts).extract(state.files, errors);
+
+        if (!errors.isEmpty())
+            throw new IllegalStateException(errors.get(0));
+
+        return items;
+    }
+
+    private AbstractPDFExtractor createExtractor(String bank, Map<String, String> texts) throws IOException
+    {
+        Client client = new Client();
+
+        switch (bank)
+        {
+            case "Dkb": //$NON-NLS-1$
+                return new DkbPDFExtractor(client)
+                {
+                    @Override
+                    String strip(File file)
+                    {
+                        return texts.get(file.getName());
+                    }
+                };
+            case "DeutscheBank": //$NON-NLS-1$
+                return new DeutscheBankPDFExctractor(client)
+                {
+                    @Override
+                    String strip(File file)
+                    {
+                        return texts.get(file.getName());
+                    }
+                };
+            case "Flatex": //$NON-NLS-1$
+                return new FlatexPDFExtractor(client)
+                {
+                    @Override
+                    String strip(File file)
+                    {
+                        return texts.get(file.getName());
+                    }
+                };
+            case "INGDiBa": //$NON-NLS-1$
+                return new INGDiBaExtractor(client)
+                {
+                    @Override
+                    String strip(File file)
+                    {
+                        return texts.get(file.getName());
+                    }
+                };
+            default:
+                throw new IllegalArgumentException(bank);
+        }
+    }
+}
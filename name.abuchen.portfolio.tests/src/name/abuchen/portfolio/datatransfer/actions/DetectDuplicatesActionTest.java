@@ -56,6 +56,52 @@ public class DetectDuplicatesActionTest
                                         .run();
     }
 
+    @Test
+    public void testDuplicateDetectionWithToleranceForDateAndAmount()
+    {
+        Security security = new Security();
+        Portfolio portfolio = new Portfolio();
+        for (int ii = 0; ii < 100; ii++)
+            portfolio.addTransaction(transaction(security, LocalDate.of(2015, 1, 1).plusDays(ii * 7), 1000 + ii));
+
+        DetectDuplicatesAction exact = new DetectDuplicatesAction();
+        DetectDuplicatesAction fuzzy = new DetectDuplicatesAction(2, 5);
+
+        PortfolioTransaction subject = transaction(security, LocalDate.of(2015, 1, 15), 1002);
+        assertThat(exact.process(subject, portfolio).getCode(), is(Code.WARNING));
+        assertThat(fuzzy.process(subject, portfolio).getCode(), is(Code.WARNING));
+
+        subject = transaction(security, LocalDate.of(2015, 1, 17), 1006);
+        assertThat(exact.process(subject, portfolio).getCode(), is(Code.OK));
+        assertThat(fuzzy.process(subject, portfolio).getCode(), is(Code.WARNING));
+
+        subject = transaction(security, LocalDate.of(2015, 1, 18), 1002);
+        assertThat(fuzzy.process(subject, portfolio).getCode(), is(Code.OK));
+
+        subject = transaction(security, LocalDate.of(2015, 1, 15), 1008);
+        assertThat(fuzzy.process(subject, portfolio).getCode(), is(Code.OK));
+
+        subject = transaction(new Security(), LocalDate.of(2015, 1, 15), 1002);
+        assertThat(fuzzy.process(subject, portfolio).getCode(), is(Code.OK));
+
+        // transactions added after the first check are detected as well
+        portfolio.addTransaction(transaction(security, LocalDate.of(2016, 1, 1), 42));
+        subject = transaction(security, LocalDate.of(2016, 1, 1), 42);
+        assertThat(exact.process(subject, portfolio).getCode(), is(Code.WARNING));
+    }
+
+    private PortfolioTransaction transaction(Security security, LocalDate date, long amount)
+    {
+        PortfolioTransaction t = new PortfolioTransaction();
+        t.setType(PortfolioTransaction.Type.BUY);
+        t.setSecurity(security);
+        t.setDate(date);
+        t.setCurrencyCode("EUR"); //$NON-NLS-1$
+        t.setAmount(amount);
+        t.setShares(10);
+        return t;
+    }
+
     private Account account(AccountTransaction t)
     {
         Account a = new Account();
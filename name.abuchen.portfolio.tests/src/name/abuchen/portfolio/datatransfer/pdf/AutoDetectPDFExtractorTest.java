@@ -0,0 +1,129 @@
+package name.abuchen.portfolio.datatransfer.pdf;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.datatransfer.Extractor.Item;
+import name.abuchen.portfolio.datatransfer.Extractor.SecurityItem;
+import name.abuchen.portfolio.datatransfer.SecurityCache;
+import name.abuchen.portfolio.model.Client;
+
+@SuppressWarnings("nls")
+public class AutoDetectPDFExtractorTest
+{
+    @Test
+    public void testThatAllPatternsAreFound()
+    {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(
+                        Arrays.asList("he", "she", "his", "hers", "", "x", "ushe"));
+
+        BitSet found = matcher.match("ushers");
+
+        assertThat(found.get(0), is(true));
+        assertThat(found.get(1), is(true));
+        assertThat(found.get(2), is(false));
+        assertThat(found.get(3), is(true));
+        assertThat(found.get(4), is(true));
+        assertThat(found.get(5), is(false));
+        assertThat(found.get(6), is(true));
+
+        assertThat(matcher.match("").cardinality(), is(1));
+    }
+
+    @Test
+    public void testThatDocumentsOfMultipleBanksAreImported() throws IOException
+    {
+        Client client = new Client();
+
+        Map<String, AbstractPDFExtractor> files = new LinkedHashMap<>();
+        files.put("comdirectWertpapierabrechnung_Kauf.txt", new ComdirectPDFExtractor(client));
+        files.put("ConsorsbankKauf.txt", new ConsorsbankPDFExctractor(client));
+        files.put("DABKauf.txt", new DABPDFExctractor(client));
+        files.put("DeutscheBankKauf.txt", new DeutscheBankPDFExctractor(client));
+        files.put("DkbKauf.txt", new DkbPDFExtractor(client));
+        files.put("FlatexKauf.txt", new FlatexPDFExtractor(client));
+        files.put("OnvistaKaufAktien.txt", new OnvistaPDFExtractor(client));
+
+        AutoDetectPDFExtractor extractor = new AutoDetectPDFExtractor(client)
+        {
+            @Override
+            String strip(File file) throws IOException
+            {
+                return from(file.getName());
+            }
+        };
+
+        List<Exception> errors = new ArrayList<Exception>();
+        List<Item> results = extractor.extract(
+                        files.keySet().stream().map(File::new).collect(Collectors.toList()), errors);
+
+        assertThat(errors, empty());
+
+        for (Map.Entry<String, AbstractPDFExtractor> entry : files.entrySet())
+        {
+            List<Item> expected = entry.getValue().extract(new SecurityCache(client), entry.getKey(),
+                            from(entry.getKey()), errors);
+            List<Item> actual = results.stream().filter(i -> !(i instanceof SecurityItem))
+                            .filter(i -> entry.getKey().equals(i.getSubject().getNote()))
+                            .collect(Collectors.toList());
+
+            assertThat(entry.getKey(), errors, empty());
+            assertThat(entry.getKey(), expected.isEmpty(), is(false));
+            assertThat(entry.getKey(), actual.size(), is(expected.size()));
+
+            for (int ii = 0; ii < expected.size(); ii++)
+            {
+                assertThat(entry.getKey(), actual.get(ii).getTypeInformation(),
+                                is(expected.get(ii).getTypeInformation()));
+                assertThat(entry.getKey(), actual.get(ii).getDate(), is(expected.get(ii).getDate()));
+                assertThat(entry.getKey(), actual.get(ii).getAmount(), is(expected.get(ii).getAmount()));
+                assertThat(entry.getKey(), actual.get(ii).getShares(), is(expected.get(ii).getShares()));
+            }
+        }
+    }
+
+    @Test
+    public void testThatUnknownDocumentsAreReported() throws IOException
+    {
+        AutoDetectPDFExtractor extractor = new AutoDetectPDFExtractor(new Client())
+        {
+            @Override
+            String strip(File file) throws IOException
+            {
+                return "some text";
+            }
+        };
+
+        List<Exception> errors = new ArrayList<Exception>();
+        List<Item> results = extractor.extract(Collections.singletonList(new File("t")), errors);
+
+        assertThat(results, empty());
+        assertThat(errors.size(), is(1));
+        assertThat(errors.get(0), instanceOf(UnsupportedOperationException.class));
+    }
+
+    private String from(String resource)
+    {
+        try (Scanner scanner = new Scanner(getClass().getResourceAsStream(resource), StandardCharsets.UTF_8.name()))
+        {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+}
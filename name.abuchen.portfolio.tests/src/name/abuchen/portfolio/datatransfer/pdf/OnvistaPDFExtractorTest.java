@@ -414,6 +414,39 @@ public class OnvistaPDFExtractorTest
                         is(Money.of(CurrencyUnit.EUR, Values.Amount.factorize(7.05))));
     }
 
+    @Test
+    public void testThatMultipleFilesAreExtractedInOrder() throws IOException
+    {
+        OnvistaPDFExtractor extractor = new OnvistaPDFExtractor(new Client())
+        {
+            @Override
+            String strip(File file) throws IOException
+            {
+                if ("broken".equals(file.getName()))
+                    throw new IOException("broken file");
+                return from("OnvistaKaufAktien.txt");
+            }
+        };
+        List<Exception> errors = new ArrayList<Exception>();
+
+        List<String> names = Arrays.asList("a", "b", "broken", "c", "d", "e", "f", "g", "h");
+        List<Item> results = extractor.extract(names.stream().map(File::new).collect(Collectors.toList()), errors);
+
+        assertThat(errors.size(), is(1));
+        assertThat(errors.get(0), instanceOf(IOException.class));
+        assertThat(errors.get(0).getMessage(), is("broken: broken file"));
+
+        // one transaction per file in the order of the files and the security
+        // created only once
+        assertThat(results.size(), is(names.size()));
+        assertThat(results.stream().limit(names.size() - 1).map(i -> i.getSubject().getNote())
+                        .collect(Collectors.toList()),
+                        is(names.stream().filter(n -> !"broken".equals(n)).collect(Collectors.toList())));
+
+        Security security = assertSecurityBuyAktien(results);
+        assertThat(results.stream().filter(i -> i.getSecurity() != security).count(), is(0L));
+    }
+
     @Test
     public void testWertpapierKaufBezugsrechte() throws IOException // Aktien
     {
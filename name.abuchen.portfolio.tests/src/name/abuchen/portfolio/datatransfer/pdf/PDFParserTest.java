@@ -0,0 +1,54 @@
+package name.abuchen.portfolio.datatransfer.pdf;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.datatransfer.pdf.PDFParser.Block;
+import name.abuchen.portfolio.datatransfer.pdf.PDFParser.BlockDispatcher;
+
+@SuppressWarnings("nls")
+public class PDFParserTest
+{
+    @Test
+    public void testLiteralPrefix()
+    {
+        assertThat(BlockDispatcher.literalPrefix("Wertpapier Abrechnung Kauf"), is("Wertpapier Abrechnung Kauf"));
+        assertThat(BlockDispatcher.literalPrefix("^Kauf .*$"), is("Kauf "));
+        assertThat(BlockDispatcher.literalPrefix("Wertpapierkauf *"), is("Wertpapierkauf"));
+        assertThat(BlockDispatcher.literalPrefix("Nr.(\\d*)/(\\d*)  Kauf.*"), is("Nr"));
+        assertThat(BlockDispatcher.literalPrefix("Abs\\. 3\\.?"), is("Abs. 3"));
+        assertThat(BlockDispatcher.literalPrefix("\\d+\\.\\d+\\."), is(""));
+        assertThat(BlockDispatcher.literalPrefix("(Aus|Ein)buchung:(.*)"), is(""));
+        assertThat(BlockDispatcher.literalPrefix("Dividende.*|Kupon.*"), is(""));
+        assertThat(BlockDispatcher.literalPrefix(" *biw AG *"), is(""));
+    }
+
+    @Test
+    public void testThatLinesAreDispatchedToAllMatchingBlocks()
+    {
+        List<Block> blocks = new ArrayList<>();
+        for (String marker : Arrays.asList("Kauf .*", "Kauf", "Verkauf .*", ".*kauf.*", "(Ver)?[kK]auf .*"))
+            blocks.add(new Block(marker));
+
+        String[] lines = new String[] { "Kauf 1", "Verkauf 2", "Kauf", "", "verkauft", "Kauf 3" };
+
+        List<List<Integer>> expected = new ArrayList<>();
+        for (Block block : blocks)
+        {
+            List<Integer> lineNumbers = new ArrayList<>();
+            for (int ii = 0; ii < lines.length; ii++)
+                if (block.getMarker().matcher(lines[ii]).matches())
+                    lineNumbers.add(ii);
+            expected.add(lineNumbers);
+        }
+
+        assertThat(new BlockDispatcher(blocks).dispatch(lines), is(expected));
+        assertThat(expected.get(0), is(Arrays.asList(0, 5)));
+    }
+}
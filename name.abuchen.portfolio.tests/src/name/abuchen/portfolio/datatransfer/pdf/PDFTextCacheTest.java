@@ -0,0 +1,147 @@
+package name.abuchen.portfolio.datatransfer.pdf;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class PDFTextCacheTest
+{
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException
+    {
+        folder = Files.createTempDirectory("pdftext").toFile();
+    }
+
+    @After
+    public void deleteFolder()
+    {
+        delete(folder);
+    }
+
+    private void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+            for (File child : children)
+                delete(child);
+        file.delete();
+    }
+
+    @Test
+    public void testThatTextIsCachedByContent() throws IOException
+    {
+        File directory = new File(folder, "cache");
+        File a = write("a.pdf", "document 1");
+        File b = write("b.pdf", "document 1");
+        File c = write("c.pdf", "document 2");
+
+        AtomicInteger loaded = new AtomicInteger();
+        PDFTextCache.TextLoader loader = f -> {
+            loaded.incrementAndGet();
+            return "text of " + new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+        };
+
+        PDFTextCache cache = new PDFTextCache(directory, "1.8.7", 1024);
+
+        assertThat(cache.getText(a, loader), is("text of document 1"));
+        assertThat(cache.getText(a, loader), is("text of document 1"));
+        assertThat(cache.getText(b, loader), is("text of document 1"));
+        assertThat(loaded.get(), is(1));
+
+        assertThat(cache.getText(c, loader), is("text of document 2"));
+        assertThat(loaded.get(), is(2));
+
+        // entries survive a restart
+        assertThat(new PDFTextCache(directory, "1.8.7", 1024).getText(c, loader), is("text of document 2"));
+        assertThat(loaded.get(), is(2));
+
+        // entries are not used with another version of PDFBox
+        assertThat(new PDFTextCache(directory, "2.0.0", 1024).getText(c, loader), is("text of document 2"));
+        assertThat(loaded.get(), is(3));
+    }
+
+    @Test
+    public void testThatLeastRecentlyUsedEntriesAreEvicted() throws IOException
+    {
+        File directory = new File(folder, "cache");
+        PDFTextCache cache = new PDFTextCache(directory, "1.8.7", 250);
+
+        AtomicInteger loaded = new AtomicInteger();
+        PDFTextCache.TextLoader loader = f -> {
+            loaded.incrementAndGet();
+            return new String(new char[100]).replace('\0', f.getName().charAt(0));
+        };
+
+        File a = write("a.pdf", "a");
+        File b = write("b.pdf", "b");
+        File c = write("c.pdf", "c");
+
+        cache.getText(a, loader);
+        cache.getText(b, loader);
+        assertThat(directory.listFiles().length, is(2));
+
+        // access a -> b is the least recently used entry
+        new File(directory, directory.list()[0]).setLastModified(0);
+        new File(directory, directory.list()[1]).setLastModified(0);
+        cache.getText(a, loader);
+        assertThat(loaded.get(), is(2));
+
+        cache.getText(c, loader);
+        assertThat(loaded.get(), is(3));
+        assertThat(directory.listFiles().length, is(2));
+
+        cache.getText(a, loader);
+        assertThat(loaded.get(), is(3));
+        cache.getText(b, loader);
+        assertThat(loaded.get(), is(4));
+    }
+
+    @Test
+    public void testThatClearDeletesAllEntries() throws IOException
+    {
+        File directory = new File(folder, "cache");
+        PDFTextCache cache = new PDFTextCache(directory, "1.8.7", 250);
+
+        AtomicInteger loaded = new AtomicInteger();
+        PDFTextCache.TextLoader loader = f -> {
+            loaded.incrementAndGet();
+            return new String(new char[100]).replace('\0', f.getName().charAt(0));
+        };
+
+        File a = write("a.pdf", "a");
+        File b = write("b.pdf", "b");
+
+        cache.getText(a, loader);
+        cache.getText(b, loader);
+        assertThat(directory.listFiles().length, is(2));
+
+        cache.clear();
+        assertThat(directory.listFiles().length, is(0));
+
+        cache.getText(a, loader);
+        assertThat(loaded.get(), is(3));
+
+        // the size is recalculated after clearing, i.e. nothing is evicted
+        cache.getText(b, loader);
+        assertThat(directory.listFiles().length, is(2));
+    }
+
+    private File write(String name, String content) throws IOException
+    {
+        File file = new File(folder, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
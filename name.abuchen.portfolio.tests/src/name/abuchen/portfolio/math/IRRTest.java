@@ -6,7 +6,10 @@ import static org.junit.Assert.assertThat;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.hamcrest.number.IsCloseTo;
 import org.junit.Test;
@@ -47,4 +50,96 @@ public class IRRTest
         assertThat(result, IsCloseTo.closeTo(excel, 0.0001d));
     }
 
+    @Test
+    public void testConvergesFromDistantStartValues()
+    {
+        List<LocalDate> dates = Arrays.asList( //
+                        LocalDate.of(2010, Month.JANUARY, 1), //
+                        LocalDate.of(2010, Month.JULY, 1), //
+                        LocalDate.of(2014, Month.DECEMBER, 31));
+        List<Double> values = Arrays.asList(-1000d, -500d, 2500d);
+
+        double expected = IRR.calculate(dates, values);
+
+        for (double guess : new double[] { -0.99d, 0d, 10d, 1000d })
+        {
+            IRR.Result result = IRR.solve(dates, values, guess);
+            assertThat(result.isConverged(), is(true));
+            assertThat(result.getRate(), IsCloseTo.closeTo(expected, 1e-8));
+        }
+    }
+
+    @Test
+    public void testNotConvergedIfCashFlowsDoNotChangeSign()
+    {
+        IRR.Result result = IRR.solve(Arrays.asList( //
+                        LocalDate.of(2010, Month.JANUARY, 1), //
+                        LocalDate.of(2010, Month.DECEMBER, 31)), //
+                        Arrays.asList(200d, 210d), Double.NaN);
+
+        // the last estimate is returned (and not NaN) as before
+        assertThat(result.isConverged(), is(false));
+        assertThat(Double.isFinite(result.getRate()), is(true));
+        assertThat(result.getRate() > -1, is(true));
+    }
+
+    @Test
+    public void testSolveAll()
+    {
+        List<LocalDate> dates = Arrays.asList( //
+                        LocalDate.of(2010, Month.JANUARY, 1), //
+                        LocalDate.of(2010, Month.DECEMBER, 31));
+
+        List<List<Double>> values = new ArrayList<>();
+        for (int ii = 0; ii < 100; ii++)
+            values.add(Arrays.asList(-200d, 150d + ii));
+
+        // every other series is solved with a start value
+        List<Double> guesses = new ArrayList<>();
+        for (int ii = 0; ii < values.size(); ii++)
+            guesses.add(ii % 2 == 0 ? Double.NaN : 0d);
+
+        List<IRR.Result> results = IRR.solveAll(Collections.nCopies(values.size(), dates), values, guesses);
+
+        assertThat(results.size(), is(values.size()));
+        for (int ii = 0; ii < values.size(); ii++)
+        {
+            assertThat(results.get(ii).isConverged(), is(true));
+            assertThat(results.get(ii).getRate(),
+                            IsCloseTo.closeTo(IRR.calculate(dates, values.get(ii)), 1e-12));
+        }
+    }
+
+    @Test
+    public void testSolveConsecutive()
+    {
+        List<List<LocalDate>> dates = new ArrayList<>();
+        List<List<Double>> values = new ArrayList<>();
+        for (int year = 2000; year < 2020; year++)
+        {
+            dates.add(Arrays.asList(LocalDate.of(year, Month.JANUARY, 1), LocalDate.of(year, Month.JUNE, 30),
+                            LocalDate.of(year, Month.DECEMBER, 31)));
+            values.add(Arrays.asList(-1000d, -100d, 1150d + year - 2000));
+        }
+
+        List<IRR.Result> results = IRR.solveConsecutive(dates, values);
+
+        assertThat(results.size(), is(values.size()));
+
+        int iterations = 0;
+        int iterationsWithoutGuess = 0;
+        for (int ii = 0; ii < values.size(); ii++)
+        {
+            IRR.Result withoutGuess = IRR.solve(dates.get(ii), values.get(ii), Double.NaN);
+
+            assertThat(results.get(ii).isConverged(), is(true));
+            assertThat(results.get(ii).getRate(), IsCloseTo.closeTo(withoutGuess.getRate(), 1e-10));
+
+            iterations += results.get(ii).getIterations();
+            iterationsWithoutGuess += withoutGuess.getIterations();
+        }
+
+        // the rate of the previous period is a better start value
+        assertThat(iterations <= iterationsWithoutGuess, is(true));
+    }
 }
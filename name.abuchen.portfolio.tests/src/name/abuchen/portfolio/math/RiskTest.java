@@ -5,9 +5,14 @@ import static org.hamcrest.number.IsCloseTo.closeTo;
 import static org.junit.Assert.assertThat;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
 
 import name.abuchen.portfolio.math.Risk.Drawdown;
+import name.abuchen.portfolio.math.Risk.Rolling;
 import name.abuchen.portfolio.math.Risk.Volatility;
 
 import org.junit.Test;
@@ -90,4 +95,67 @@ public class RiskTest
         assertThat(volatility.getStandardDeviation(), closeTo(0d, 0.1e-10));
         assertThat(volatility.getSemiDeviation(), closeTo(0d, 0.1e-10));
     }
+
+    @Test
+    public void testRollingMatchesFullCalculation()
+    {
+        Random random = new Random(42);
+        int size = 500;
+        int window = 20;
+
+        double[] delta = new double[size];
+        double[] accumulated = new double[size];
+        for (int ii = 1; ii < size; ii++)
+        {
+            delta[ii] = random.nextGaussian() * 0.02;
+            accumulated[ii] = (1 + accumulated[ii - 1]) * (1 + delta[ii]) - 1;
+        }
+
+        IntPredicate filter = index -> index > 0 && index % 7 != 3;
+        Rolling rolling = new Rolling(delta, accumulated, filter, window);
+
+        List<Integer> days = new ArrayList<>();
+        for (int ii = 0; ii < size; ii++)
+        {
+            if (!filter.test(ii))
+            {
+                if (ii > 0)
+                    assertThat(rolling.getVolatility()[ii], is(rolling.getVolatility()[ii - 1]));
+                continue;
+            }
+
+            days.add(ii);
+            if (days.size() < window + 1)
+            {
+                assertThat(Double.isNaN(rolling.getVolatility()[ii]), is(true));
+                continue;
+            }
+
+            List<Integer> buffer = days.subList(days.size() - window - 1, days.size());
+            double[] returns = buffer.subList(1, buffer.size()).stream().mapToDouble(d -> delta[d]).toArray();
+
+            Volatility volatility = new Volatility(returns, index -> true);
+            assertThat(rolling.getVolatility()[ii], closeTo(volatility.getStandardDeviation(), 1e-12));
+
+            double downside = Arrays.stream(returns).filter(r -> r < 0).map(r -> r * r).sum();
+            assertThat(rolling.getSemiDeviation()[ii], closeTo(Math.sqrt(downside / window), 1e-12));
+
+            double mean = Arrays.stream(returns).average().getAsDouble();
+            assertThat(rolling.getSharpeRatio()[ii],
+                            closeTo(mean / volatility.getStandardDeviation(), 1e-9));
+
+            assertThat(rolling.getReturns()[ii],
+                            closeTo((1 + accumulated[ii]) / (1 + accumulated[buffer.get(0)]) - 1, 1e-12));
+
+            double maxDrawdown = 0;
+            for (int jj = days.size() - window - 1; jj < days.size(); jj++)
+            {
+                double peak = 0;
+                for (int kk = Math.max(0, jj - window); kk <= jj; kk++)
+                    peak = Math.max(peak, 1 + accumulated[days.get(kk)]);
+                maxDrawdown = Math.max(maxDrawdown, (peak - 1 - accumulated[days.get(jj)]) / peak);
+            }
+            assertThat(rolling.getMaxDrawdown()[ii], closeTo(maxDrawdown, 1e-12));
+        }
+    }
 }
@@ -0,0 +1,468 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+
+import name.abuchen.portfolio.AccountBuilder;
+import name.abuchen.portfolio.PortfolioBuilder;
+import name.abuchen.portfolio.SecurityBuilder;
+import name.abuchen.portfolio.TaxonomyBuilder;
+import name.abuchen.portfolio.model.Transaction.Unit;
+import name.abuchen.portfolio.money.CurrencyUnit;
+import name.abuchen.portfolio.money.Money;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class BinarySerializationTest
+{
+    private Client createClient()
+    {
+        Client client = new Client();
+
+        Taxonomy taxonomy = new TaxonomyBuilder() //
+                        .addClassification("debt") //
+                        .addClassification("debt", "bonds") //
+                        .addTo(client);
+
+        Security security = new SecurityBuilder() //
+                        .addPrice("2015-01-02", Values.Quote.factorize(50)) //
+                        .addPrice("2015-01-05", Values.Quote.factorize(49.5)) //
+                        .addPrice("2015-01-06", Values.Quote.factorize(51)) //
+                        .assign(taxonomy, "bonds", Classification.ONE_HUNDRED_PERCENT / 2) //
+                        .addTo(client);
+        security.setName("Security with 'quotes' & <umlauts> äöü");
+        security.setLatest(new LatestSecurityPrice(LocalDate.parse("2015-01-07"), Values.Quote.factorize(52)));
+        security.addEvent(new SecurityEvent(LocalDate.parse("2015-01-05"), SecurityEvent.Type.STOCK_SPLIT, "1:2"));
+        AttributeType ter = client.getSettings().getAttributeTypes().filter(t -> "ter".equals(t.getId())).findAny()
+                        .get();
+        security.getAttributes().put(ter, 0.0125d);
+
+        Account account = new AccountBuilder() //
+                        .deposit_("2015-01-01", Values.Amount.factorize(10000)) //
+                        .dividend("2015-01-06", Values.Amount.factorize(12), security) //
+                        .addTo(client);
+        account.setNote("note");
+
+        Account other = new AccountBuilder(CurrencyUnit.USD).addTo(client);
+        AccountTransferEntry transfer = new AccountTransferEntry(account, other);
+        transfer.setDate(LocalDate.parse("2015-01-03"));
+        transfer.setAmount(Values.Amount.factorize(100));
+        transfer.setCurrencyCode(CurrencyUnit.EUR);
+        transfer.getTargetTransaction().setAmount(Values.Amount.factorize(110));
+        transfer.getTargetTransaction().setCurrencyCode(CurrencyUnit.USD);
+        transfer.getSourceTransaction().addUnit(new Unit(Unit.Type.GROSS_VALUE,
+                        Money.of(CurrencyUnit.EUR, Values.Amount.factorize(100)),
+                        Money.of(CurrencyUnit.USD, Values.Amount.factorize(110)), new BigDecimal("0.9091")));
+        transfer.insert();
+
+        Portfolio portfolio = new PortfolioBuilder(account) //
+                        .buy(security, "2015-01-02", Values.Share.factorize(10), 50000) //
+                        .sell(security, "2015-01-06", Values.Share.factorize(5), 25500, 500) //
+                        .addTo(client);
+
+        InvestmentPlan plan = new InvestmentPlan("plan");
+        plan.setSecurity(security);
+        plan.setPortfolio(portfolio);
+        plan.setStart(LocalDate.parse("2015-01-02"));
+        plan.setAmount(Values.Amount.factorize(100));
+        plan.getTransactions().add(portfolio.getTransactions().get(0));
+        client.addPlan(plan);
+
+        Watchlist watchlist = new Watchlist();
+        watchlist.setName("watchlist");
+        watchlist.addSecurity(security);
+        client.getWatchlists().add(watchlist);
+
+        Dashboard dashboard = new Dashboard();
+        dashboard.setName("dashboard");
+        Dashboard.Column column = new Dashboard.Column();
+        Dashboard.Widget widget = new Dashboard.Widget();
+        widget.setType("HEADING");
+        widget.setLabel("label");
+        widget.getConfiguration().put(Dashboard.Config.REPORTING_PERIOD.name(), "L1Y0");
+        column.getWidgets().add(widget);
+        dashboard.getColumns().add(column);
+        client.addDashboard(dashboard);
+
+        client.getSettings().getConfigurationSet("view").add(new ConfigurationSet.Configuration("name", "data"));
+        client.setProperty("key", "value");
+
+        return client;
+    }
+
+    private Client saveAndLoad(Client client, String extension, String method) throws IOException
+    {
+        File file = File.createTempFile("client", extension);
+        try
+        {
+            char[] password = ClientFactory.isEncrypted(file) ? "secret".toCharArray() : null;
+            ClientFactory.save(client, file, method, password);
+            return ClientFactory.load(file, password, new NullProgressMonitor());
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    private void assertRoundTrip(Client expected, Client actual)
+    {
+        assertThat(actual.getSecurities().size(), is(1));
+        Security security = actual.getSecurities().get(0);
+        Security original = expected.getSecurities().get(0);
+        assertThat(security.getUUID(), is(original.getUUID()));
+        assertThat(security.getName(), is(original.getName()));
+        assertThat(security.getPrices(), is(original.getPrices()));
+        assertThat(security.getLatest(), is(original.getLatest()));
+        assertThat(security.getEvents().get(0).getDetails(), is("1:2"));
+        assertThat(security.getAttributes().get(actual.getSettings().getAttributeTypes()
+                        .filter(t -> "ter".equals(t.getId())).findAny().get()), is(0.0125d));
+
+        Account account = actual.getAccounts().get(0);
+        assertThat(account.getUUID(), is(expected.getAccounts().get(0).getUUID()));
+        assertThat(account.getNote(), is("note"));
+        assertThat(account.getTransactions().size(), is(expected.getAccounts().get(0).getTransactions().size()));
+        assertThat(account.getTransactions().get(1).getSecurity(), sameInstance(security));
+
+        // cross entries are restored with the transactions of the owners
+        Portfolio portfolio = actual.getPortfolios().get(0);
+        assertThat(portfolio.getReferenceAccount(), sameInstance(account));
+        PortfolioTransaction sell = portfolio.getTransactions().get(1);
+        assertThat(sell.getCrossEntry(), instanceOf(BuySellEntry.class));
+        assertThat(sell.getCrossEntry().getCrossTransaction(sell), sameInstance(account.getTransactions().get(4)));
+        assertThat(sell.getUnitSum(Unit.Type.FEE), is(Money.of(CurrencyUnit.EUR, 500)));
+
+        AccountTransaction transfer = account.getTransactions().get(2);
+        assertThat(transfer.getType(), is(AccountTransaction.Type.TRANSFER_OUT));
+        Transaction target = transfer.getCrossEntry().getCrossTransaction(transfer);
+        assertThat(target, sameInstance(actual.getAccounts().get(1).getTransactions().get(0)));
+        assertThat(target.getAmount(), is(Values.Amount.factorize(110)));
+        assertThat(transfer.getUnit(Unit.Type.GROSS_VALUE).get().getExchangeRate(), is(new BigDecimal("0.9091")));
+
+        InvestmentPlan plan = actual.getPlans().get(0);
+        assertThat(plan.getTransactions().get(0), sameInstance(portfolio.getTransactions().get(0)));
+        assertThat(plan.getNote(), is(nullValue()));
+
+        assertThat(actual.getWatchlists().get(0).getSecurities().get(0), sameInstance(security));
+
+        Taxonomy taxonomy = actual.getTaxonomies().get(0);
+        assertThat(taxonomy.getId(), is(expected.getTaxonomies().get(0).getId()));
+        Classification bonds = taxonomy.getClassificationById("bonds");
+        assertThat(bonds.getParent().getId(), is("debt"));
+        assertThat(bonds.getAssignments().get(0).getInvestmentVehicle(), sameInstance(security));
+        assertThat(bonds.getAssignments().get(0).getWeight(), is(Classification.ONE_HUNDRED_PERCENT / 2));
+
+        Dashboard.Widget widget = actual.getDashboards().findAny().get().getColumns().get(0).getWidgets().get(0);
+        assertThat(widget.getConfiguration().get(Dashboard.Config.REPORTING_PERIOD.name()), is("L1Y0"));
+
+        assertThat(actual.getSettings().getBookmarks().size(), is(expected.getSettings().getBookmarks().size()));
+        assertThat(actual.getSettings().getAttributeTypes().map(AttributeType::getId).collect(Collectors.toList()),
+                        is(expected.getSettings().getAttributeTypes().map(AttributeType::getId)
+                                        .collect(Collectors.toList())));
+        assertThat(actual.getSettings().getConfigurationSet("view").getConfigurations().findAny().get().getData(),
+                        is("data"));
+        assertThat(actual.getProperty("key"), is("value"));
+    }
+
+    @Test
+    public void testPlainBinaryFile() throws IOException
+    {
+        Client client = createClient();
+        assertRoundTrip(client, saveAndLoad(client, ".ppb", null));
+    }
+
+    @Test
+    public void testEncryptedBinaryFile() throws IOException
+    {
+        Client client = createClient();
+        Client loaded = saveAndLoad(client, ".portfolio", "AES128_BINARY");
+        assertRoundTrip(client, loaded);
+        assertThat(loaded.isEncryptedAsBinary(), is(true));
+    }
+
+    @Test
+    public void testEncryptedXmlFileIsNotConvertedToBinary() throws IOException
+    {
+        File file = File.createTempFile("client", ".portfolio");
+        try
+        {
+            char[] password = "secret".toCharArray();
+            Client client = createClient();
+            ClientFactory.save(client, file, "AES256", password);
+            assertThat(client.isEncryptedAsBinary(), is(false));
+            assertThat(client.getJournal(), is(nullValue()));
+
+            Client loaded = ClientFactory.load(file, password, new NullProgressMonitor());
+            assertThat(loaded.isEncryptedAsBinary(), is(false));
+            assertRoundTrip(client, loaded);
+
+            // saving without new password keeps the XML content
+            loaded.getSecurities().get(0)
+                            .addPrice(new SecurityPrice(LocalDate.parse("2015-01-07"), Values.Quote.factorize(52)));
+            ClientFactory.save(loaded, file, null, null);
+            assertThat(loaded.getJournal(), is(nullValue()));
+
+            Client reloaded = ClientFactory.load(file, password, new NullProgressMonitor());
+            assertThat(reloaded.isEncryptedAsBinary(), is(false));
+            assertThat(reloaded.getSecurities().get(0).getPrices(), is(loaded.getSecurities().get(0).getPrices()));
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    private Client saveTwice(Client client, File file, char[] password) throws IOException
+    {
+        ClientFactory.save(client, file, "AES128_BINARY", password);
+        long baseLength = file.length();
+
+        Security security = client.getSecurities().get(0);
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-07"), Values.Quote.factorize(52)));
+        AccountTransaction interest = new AccountTransaction(LocalDate.parse("2015-01-07"), CurrencyUnit.EUR,
+                        Values.Amount.factorize(5), null, AccountTransaction.Type.INTEREST);
+        client.getAccounts().get(0).addTransaction(interest);
+
+        ClientFactory.save(client, file, null, null);
+        assertThat(file.length(), greaterThan(baseLength));
+        assertThat(client.getJournal().isAppendableTo(file), is(true));
+
+        return ClientFactory.load(file, password, new NullProgressMonitor());
+    }
+
+    @Test
+    public void testChangesAreAppendedToJournal() throws IOException
+    {
+        File file = File.createTempFile("client", ".ppb");
+        try
+        {
+            Client client = createClient();
+            Client loaded = saveTwice(client, file, null);
+
+            assertThat(loaded.getSecurities().get(0).getPrices(), is(client.getSecurities().get(0).getPrices()));
+            assertThat(loaded.getAccounts().get(0).getTransactions().size(),
+                            is(client.getAccounts().get(0).getTransactions().size()));
+            assertRoundTrip(client, loaded);
+
+            // modify a price within the prefix stored in the base snapshot
+            Security security = loaded.getSecurities().get(0);
+            security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-05"), Values.Quote.factorize(48)));
+            ClientFactory.save(loaded, file, null, null);
+
+            Client reloaded = ClientFactory.load(file, null, new NullProgressMonitor());
+            assertThat(reloaded.getSecurities().get(0).getPrices(), is(security.getPrices()));
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsIgnored() throws IOException
+    {
+        File file = File.createTempFile("client", ".ppb");
+        try
+        {
+            Client client = createClient();
+            int transactions = client.getAccounts().get(0).getTransactions().size();
+            saveTwice(client, file, null);
+
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+            {
+                raf.setLength(raf.length() - 10);
+            }
+
+            Client loaded = ClientFactory.load(file, null, new NullProgressMonitor());
+            assertThat(loaded.getAccounts().get(0).getTransactions().size(), is(transactions));
+            assertThat(loaded.getSecurities().get(0).getPrices().size(), is(3));
+
+            // the next record replaces the incomplete record
+            Security security = loaded.getSecurities().get(0);
+            security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-08"), Values.Quote.factorize(53)));
+            ClientFactory.save(loaded, file, null, null);
+            assertThat(loaded.getJournal().isAppendableTo(file), is(true));
+
+            Client reloaded = ClientFactory.load(file, null, new NullProgressMonitor());
+            assertThat(reloaded.getAccounts().get(0).getTransactions().size(), is(transactions));
+            assertThat(reloaded.getSecurities().get(0).getPrices(), is(security.getPrices()));
+            assertThat(reloaded.getSecurities().get(0).getPrices().size(), is(4));
+            assertRoundTrip(loaded, reloaded);
+
+            // records are appended after the replaced record
+            reloaded.getAccounts().get(0).addTransaction(new AccountTransaction(LocalDate.parse("2015-01-09"),
+                            CurrencyUnit.EUR, Values.Amount.factorize(7), null, AccountTransaction.Type.INTEREST));
+            ClientFactory.save(reloaded, file, null, null);
+
+            Client last = ClientFactory.load(file, null, new NullProgressMonitor());
+            assertThat(last.getAccounts().get(0).getTransactions().size(), is(transactions + 1));
+            assertThat(last.getSecurities().get(0).getPrices(), is(security.getPrices()));
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testJournalIsCompacted() throws IOException
+    {
+        File file = File.createTempFile("client", ".ppb");
+        try
+        {
+            Client client = createClient();
+            saveTwice(client, file, null);
+
+            // the journal record is as large as the base snapshot
+            ClientFactory.save(client, file, null, null);
+            assertThat(ClientFactory.isCompactionDue(client), is(true));
+
+            long length = file.length();
+            ClientFactory.compact(client);
+            assertThat(file.length(), lessThan(length));
+            assertThat(ClientFactory.isCompactionDue(client), is(false));
+
+            client.getSecurities().get(0)
+                            .addPrice(new SecurityPrice(LocalDate.parse("2015-01-08"), Values.Quote.factorize(53)));
+            ClientFactory.save(client, file, null, null);
+
+            Client loaded = ClientFactory.load(file, null, new NullProgressMonitor());
+            assertThat(loaded.getSecurities().get(0).getPrices(), is(client.getSecurities().get(0).getPrices()));
+            assertRoundTrip(client, loaded);
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testEncryptedChangesAreAppendedToJournal() throws IOException
+    {
+        File file = File.createTempFile("client", ".portfolio");
+        try
+        {
+            Client client = createClient();
+            Client loaded = saveTwice(client, file, "secret".toCharArray());
+
+            assertThat(loaded.getSecurities().get(0).getPrices(), is(client.getSecurities().get(0).getPrices()));
+            assertRoundTrip(client, loaded);
+
+            ClientFactory.save(client, file, null, null);
+            ClientFactory.compact(client);
+            loaded = ClientFactory.load(file, "secret".toCharArray(), new NullProgressMonitor());
+            assertThat(loaded.getJournal().isCompactionDue(), is(false));
+            assertRoundTrip(client, loaded);
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    private File[] sidecarFiles(File file)
+    {
+        return file.getParentFile().listFiles(
+                        (dir, name) -> name.startsWith(file.getName() + '.') && name.endsWith(".quotes"));
+    }
+
+    @Test
+    public void testQuotesAreStoredInSidecar() throws IOException
+    {
+        File file = File.createTempFile("client", ".ppb");
+        try
+        {
+            Client client = createClient();
+            ClientFactory.save(client, file, null, null, true);
+            assertThat(sidecarFiles(file).length, is(1));
+
+            Client loaded = ClientFactory.load(file, null, new NullProgressMonitor());
+            SecurityPriceSeries series = loaded.getSecurities().get(0).getPriceSeries();
+            assertThat(series.isLoaded(), is(false));
+            assertThat(series.size(), is(3));
+            assertThat(series.asList(), is(client.getSecurities().get(0).getPrices()));
+            assertThat(series.isLoaded(), is(true));
+            assertRoundTrip(client, loaded);
+
+            // appended records refer to the prices of the sidecar
+            Security security = loaded.getSecurities().get(0);
+            security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-07"), Values.Quote.factorize(52)));
+            ClientFactory.save(loaded, file, null, null);
+            assertThat(loaded.getJournal().isAppendableTo(file), is(true));
+
+            Client reloaded = ClientFactory.load(file, null, new NullProgressMonitor());
+            assertThat(reloaded.getSecurities().get(0).getPriceSeries().isLoaded(), is(false));
+            assertThat(reloaded.getSecurities().get(0).getPrices(), is(security.getPrices()));
+
+            // the sidecar is kept when compacting the journal
+            ClientFactory.save(loaded, file, null, null);
+            ClientFactory.compact(loaded);
+            assertThat(sidecarFiles(file).length, is(1));
+            assertThat(ClientFactory.load(file, null, new NullProgressMonitor()).getSecurities().get(0).getPrices(),
+                            is(security.getPrices()));
+
+            // the prices are stored in the file again (the file is rewritten
+            // because it has been modified since reloaded has been read)
+            assertThat(reloaded.getJournal().isAppendableTo(file), is(false));
+            ClientFactory.save(reloaded, file, null, null, false);
+            assertThat(ClientFactory.load(file, null, new NullProgressMonitor()).getSecurities().get(0)
+                            .getPriceSeries().isLoaded(), is(true));
+        }
+        finally
+        {
+            for (File sidecar : sidecarFiles(file))
+                sidecar.delete();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testOutdatedSidecarIsReplaced() throws IOException
+    {
+        File file = File.createTempFile("client", ".ppb");
+        try
+        {
+            Client client = createClient();
+            ClientFactory.save(client, file, null, null, true);
+            String name = client.getQuoteSidecar().getName();
+
+            // the file is modified by another instance -> the next save
+            // rewrites the file instead of appending a record
+            Client other = ClientFactory.load(file, null, new NullProgressMonitor());
+            other.setProperty("key", "other");
+            ClientFactory.save(other, file, null, null);
+            assertThat(client.getJournal().isAppendableTo(file), is(false));
+
+            Security security = client.getSecurities().get(0);
+            security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-02"), Values.Quote.factorize(40)));
+            ClientFactory.save(client, file, null, null);
+
+            assertThat(client.getQuoteSidecar().getName().equals(name), is(false));
+            assertThat(sidecarFiles(file).length, is(2));
+
+            Client loaded = ClientFactory.load(file, null, new NullProgressMonitor());
+            assertThat(loaded.getSecurities().get(0).getPrices(), is(security.getPrices()));
+        }
+        finally
+        {
+            for (File sidecar : sidecarFiles(file))
+                sidecar.delete();
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class ClientChangeTest
+{
+    @Test
+    public void testMergeOfChanges()
+    {
+        Account account = new Account();
+        Security security = new Security();
+        Portfolio portfolio = new Portfolio();
+
+        ClientChange a = ClientChange.of(LocalDate.parse("2016-03-01"), account);
+        ClientChange b = ClientChange.of(LocalDate.parse("2016-01-15"), security, null);
+
+        ClientChange merged = a.merge(b);
+        assertThat(merged.isAll(), is(false));
+        assertThat(merged.getChangedFrom(), is(LocalDate.parse("2016-01-15")));
+        assertThat(merged.affects(account), is(true));
+        assertThat(merged.affects(security), is(true));
+        assertThat(merged.affects(portfolio), is(false));
+        assertThat(merged.affectsAny(Arrays.asList(portfolio, security)), is(true));
+        assertThat(merged.affectsAny(Arrays.asList(portfolio)), is(false));
+
+        assertThat(a.merge(ClientChange.settings()), sameInstance(a));
+        assertThat(ClientChange.settings().merge(a), sameInstance(a));
+        assertThat(a.merge(ClientChange.all()).affects(portfolio), is(true));
+    }
+
+    @Test
+    public void testThatSettingsDoNotAffectElements()
+    {
+        assertThat(ClientChange.settings().affects(new Account()), is(false));
+        assertThat(ClientChange.all().affects(new Account()), is(true));
+        assertThat(ClientChange.all().getChangedFrom(), is(LocalDate.MIN));
+    }
+
+    @Test
+    public void testThatListenersReceiveChange()
+    {
+        Client client = new Client();
+        Security security = new Security();
+
+        List<Object> events = new ArrayList<>();
+        client.addPropertyChangeListener(event -> events.add(event.getNewValue()));
+
+        ClientChange change = ClientChange.of(LocalDate.parse("2016-01-15"), security);
+        client.markDirty(change);
+        client.markDirty(change);
+        client.markDirty();
+
+        assertThat(events, is(Arrays.asList(change, change, ClientChange.all())));
+    }
+}
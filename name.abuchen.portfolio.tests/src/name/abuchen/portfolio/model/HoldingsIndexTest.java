@@ -0,0 +1,123 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.SecurityBuilder;
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.money.CurrencyUnit;
+import name.abuchen.portfolio.snapshot.AccountSnapshot;
+import name.abuchen.portfolio.snapshot.PortfolioSnapshot;
+import name.abuchen.portfolio.snapshot.SecurityPosition;
+
+@SuppressWarnings("nls")
+public class HoldingsIndexTest
+{
+    private static PortfolioTransaction tx(String date, Security security, PortfolioTransaction.Type type,
+                    long shares)
+    {
+        return new PortfolioTransaction(LocalDate.parse(date), CurrencyUnit.EUR, shares * 10, security, shares,
+                        type, 0, 0);
+    }
+
+    private static Map<Security, Long> holdings(Portfolio portfolio, String date)
+    {
+        Map<Security, Long> answer = new HashMap<>();
+        for (SecurityPosition position : PortfolioSnapshot
+                        .create(portfolio, new TestCurrencyConverter(), LocalDate.parse(date)).getPositions())
+            answer.put(position.getSecurity(), position.getShares());
+        return answer;
+    }
+
+    @Test
+    public void testHoldingsAtDate()
+    {
+        Client client = new Client();
+        Security a = new SecurityBuilder().addPrice("2015-01-01", 1000).addTo(client);
+        Security b = new SecurityBuilder().addPrice("2015-01-01", 1000).addTo(client);
+
+        // transactions are not sorted by date
+        Portfolio portfolio = new Portfolio();
+        portfolio.addTransaction(tx("2015-03-01", a, PortfolioTransaction.Type.SELL, 40));
+        portfolio.addTransaction(tx("2015-01-01", a, PortfolioTransaction.Type.BUY, 100));
+        portfolio.addTransaction(tx("2015-02-01", b, PortfolioTransaction.Type.DELIVERY_INBOUND, 10));
+        portfolio.addTransaction(tx("2015-04-01", a, PortfolioTransaction.Type.TRANSFER_OUT, 60));
+
+        assertThat(holdings(portfolio, "2014-12-31").isEmpty(), is(true));
+        assertThat(holdings(portfolio, "2015-01-31").get(a), is(100L));
+        assertThat(holdings(portfolio, "2015-02-01").get(b), is(10L));
+        assertThat(holdings(portfolio, "2015-03-01").get(a), is(60L));
+
+        // closed positions are not part of the snapshot
+        assertThat(holdings(portfolio, "2015-04-01").containsKey(a), is(false));
+        assertThat(holdings(portfolio, "2015-04-01").size(), is(1));
+    }
+
+    @Test
+    public void testIndexIsUpdated()
+    {
+        Client client = new Client();
+        Security a = new SecurityBuilder().addPrice("2015-01-01", 1000).addTo(client);
+
+        Portfolio portfolio = new Portfolio();
+        client.addPortfolio(portfolio);
+        portfolio.addTransaction(tx("2015-01-01", a, PortfolioTransaction.Type.BUY, 100));
+        assertThat(holdings(portfolio, "2015-06-01").get(a), is(100L));
+
+        PortfolioTransaction sell = tx("2015-02-01", a, PortfolioTransaction.Type.SELL, 30);
+        portfolio.addTransaction(sell);
+        assertThat(holdings(portfolio, "2015-01-31").get(a), is(100L));
+        assertThat(holdings(portfolio, "2015-06-01").get(a), is(70L));
+
+        portfolio.shallowDeleteTransaction(sell, client);
+        assertThat(holdings(portfolio, "2015-06-01").get(a), is(100L));
+
+        // modified directly in the list
+        portfolio.getTransactions().add(tx("2015-03-01", a, PortfolioTransaction.Type.BUY, 5));
+        assertThat(holdings(portfolio, "2015-06-01").get(a), is(105L));
+
+        // modified in place
+        portfolio.getTransactions().get(1).setDate(LocalDate.parse("2015-07-01"));
+        client.markDirty();
+        assertThat(holdings(portfolio, "2015-06-01").get(a), is(100L));
+    }
+
+    @Test
+    public void testBalanceAtDate()
+    {
+        Client client = new Client();
+        Account account = new Account();
+        client.addAccount(account);
+        account.addTransaction(new AccountTransaction(LocalDate.parse("2015-02-01"), CurrencyUnit.EUR, 300, null,
+                        AccountTransaction.Type.REMOVAL));
+        account.addTransaction(new AccountTransaction(LocalDate.parse("2015-01-01"), CurrencyUnit.EUR, 1000, null,
+                        AccountTransaction.Type.DEPOSIT));
+
+        TestCurrencyConverter converter = new TestCurrencyConverter();
+        assertThat(AccountSnapshot.create(account, converter, LocalDate.parse("2014-12-31")).getFunds().getAmount(),
+                        is(0L));
+        assertThat(AccountSnapshot.create(account, converter, LocalDate.parse("2015-01-01")).getFunds().getAmount(),
+                        is(1000L));
+
+        AccountTransaction interest = new AccountTransaction(LocalDate.parse("2015-01-15"), CurrencyUnit.EUR, 50,
+                        null, AccountTransaction.Type.INTEREST);
+        account.addTransaction(interest);
+        assertThat(AccountSnapshot.create(account, converter, LocalDate.parse("2015-03-01")).getFunds().getAmount(),
+                        is(750L));
+
+        account.shallowDeleteTransaction(interest, client);
+        assertThat(AccountSnapshot.create(account, converter, LocalDate.parse("2015-03-01")).getFunds().getAmount(),
+                        is(700L));
+
+        account.getTransactions().get(0).setAmount(500);
+        client.markDirty();
+        assertThat(AccountSnapshot.create(account, converter, LocalDate.parse("2015-03-01")).getFunds().getAmount(),
+                        is(500L));
+    }
+}
@@ -0,0 +1,126 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class SecurityPriceSeriesTest
+{
+    private static SecurityPrice price(String date, long value)
+    {
+        return new SecurityPrice(LocalDate.parse(date), value);
+    }
+
+    @Test
+    public void testThatPricesAreSortedAndReplaced()
+    {
+        Security security = new Security();
+
+        assertThat(security.addPrice(price("2015-01-05", 5)), is(true));
+        assertThat(security.addPrice(price("2015-01-02", 2)), is(true));
+        assertThat(security.addPrice(price("2015-01-03", 3)), is(true));
+        assertThat(security.addPrice(price("2015-01-03", 3)), is(false));
+        assertThat(security.addPrice(price("2015-01-03", 4)), is(true));
+
+        assertThat(security.getPrices(),
+                        is(Arrays.asList(price("2015-01-02", 2), price("2015-01-03", 4), price("2015-01-05", 5))));
+    }
+
+    @Test
+    public void testBulkAppend()
+    {
+        Security security = new Security();
+        security.addPrice(price("2015-01-02", 2));
+
+        assertThat(security.addAllPrices(Arrays.asList(price("2015-01-03", 3), price("2015-01-04", 4))), is(true));
+
+        SecurityPriceSeries series = security.getPriceSeries();
+        assertThat(series.size(), is(3));
+        assertThat(series.getDate(2), is(LocalDate.parse("2015-01-04")));
+        assertThat(series.getValue(2), is(4L));
+    }
+
+    @Test
+    public void testBulkMergeOfUnsortedPrices()
+    {
+        Security security = new Security();
+        security.addAllPrices(Arrays.asList(price("2015-01-02", 2), price("2015-01-04", 4), price("2015-01-06", 6)));
+
+        // descending, overlapping, and with a duplicate date
+        assertThat(security.addAllPrices(Arrays.asList(price("2015-01-07", 7), price("2015-01-05", 5),
+                        price("2015-01-04", 40), price("2015-01-01", 1), price("2015-01-05", 50))), is(true));
+
+        assertThat(security.getPrices(),
+                        is(Arrays.asList(price("2015-01-01", 1), price("2015-01-02", 2), price("2015-01-04", 40),
+                                        price("2015-01-05", 50), price("2015-01-06", 6), price("2015-01-07", 7))));
+
+        // nothing new
+        assertThat(security.addAllPrices(Arrays.asList(price("2015-01-06", 6), price("2015-01-02", 2))), is(false));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        Security security = new Security();
+        security.addAllPrices(Arrays.asList(price("2015-01-02", 2), price("2015-01-03", 3), price("2015-01-04", 4)));
+
+        // value does not match
+        security.removePrice(price("2015-01-03", 4));
+        assertThat(security.getPrices().size(), is(3));
+
+        security.removePrice(price("2015-01-03", 3));
+        assertThat(security.getPrices(), is(Arrays.asList(price("2015-01-02", 2), price("2015-01-04", 4))));
+    }
+
+    @Test
+    public void testListViews()
+    {
+        Security security = new Security();
+        security.addAllPrices(Arrays.asList(price("2015-01-02", 2), price("2015-01-05", 5), price("2015-01-06", 6),
+                        price("2015-01-09", 9)));
+
+        List<SecurityPrice> all = security.getPrices();
+        assertThat(all.indexOf(price("2015-01-06", 6)), is(2));
+        assertThat(all.indexOf(price("2015-01-06", 7)), is(-1));
+        assertThat(all.contains(price("2015-01-03", 3)), is(false));
+
+        List<SecurityPrice> range = security.getPriceSeries().asList(LocalDate.parse("2015-01-03"),
+                        LocalDate.parse("2015-01-08"));
+        assertThat(range, is(Arrays.asList(price("2015-01-05", 5), price("2015-01-06", 6))));
+        assertThat(range.indexOf(price("2015-01-06", 6)), is(1));
+        assertThat(range.indexOf(price("2015-01-02", 2)), is(-1));
+
+        assertThat(security.getPriceSeries().asList(LocalDate.parse("2015-01-10"), LocalDate.parse("2015-01-12"))
+                        .isEmpty(), is(true));
+
+        // view reflects later changes
+        security.addPrice(price("2015-01-10", 10));
+        assertThat(all.size(), is(5));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testThatListViewIsReadOnly()
+    {
+        Security security = new Security();
+        security.getPrices().add(price("2015-01-02", 2));
+    }
+
+    @Test
+    public void testThatDeepCopyDoesNotShareSeries()
+    {
+        Security security = new Security();
+        security.addPrice(price("2015-01-02", 2));
+
+        Security copy = security.deepCopy();
+        copy.addPrice(price("2015-01-03", 3));
+
+        assertThat(security.getPrices().size(), is(1));
+        assertThat(copy.getPrices().size(), is(2));
+    }
+}
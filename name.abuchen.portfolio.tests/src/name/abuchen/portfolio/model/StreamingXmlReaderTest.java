@@ -0,0 +1,189 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+
+import name.abuchen.portfolio.model.Transaction.Unit;
+import name.abuchen.portfolio.money.CurrencyUnit;
+import name.abuchen.portfolio.money.Money;
+import scenarios.SecurityTestCase;
+
+@SuppressWarnings("nls")
+public class StreamingXmlReaderTest
+{
+    private String read(Class<?> base, String resource) throws IOException
+    {
+        try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(base.getResourceAsStream(resource), StandardCharsets.UTF_8)))
+        {
+            String xml = reader.lines().collect(Collectors.joining("\n"));
+            return xml.replaceFirst("<version>\\d+</version>", "<version>" + Client.CURRENT_VERSION + "</version>");
+        }
+    }
+
+    private Client load(Class<?> base, String resource) throws IOException
+    {
+        BufferedReader input = new BufferedReader(new StringReader(read(base, resource)));
+        assertThat(StreamingXmlReader.peekVersion(input), is(Client.CURRENT_VERSION));
+        return new StreamingXmlReader().load(input);
+    }
+
+    @Test
+    public void testReferencesAreResolved() throws IOException
+    {
+        Client client = load(getClass(), "streaming_reader_sample.xml");
+
+        Security index = client.getSecurities().get(0);
+        assertThat(index.getCurrencyCode(), is(nullValue()));
+        assertThat(index.getPrices().get(0).getTime(), is(LocalDate.parse("2015-01-02")));
+
+        Security fund = client.getSecurities().get(1);
+        assertThat(fund.getPrices().size(), is(2));
+        assertThat(fund.getLatest().getPreviousClose(), is(510000L));
+        assertThat(fund.getEvents().get(0).getType(), is(SecurityEvent.Type.STOCK_SPLIT));
+        assertThat(client.getWatchlists().get(0).getSecurities().get(0), sameInstance(fund));
+
+        // account defined first as target of the transfer
+        Account eur = client.getAccounts().get(0);
+        Account usd = client.getAccounts().get(1);
+        assertThat(usd.getCurrencyCode(), is("USD"));
+
+        AccountTransaction transferOut = eur.getTransactions().get(0);
+        AccountTransaction transferIn = usd.getTransactions().get(0);
+        assertThat(transferOut.getCrossEntry(), instanceOf(AccountTransferEntry.class));
+        assertThat(transferOut.getCrossEntry().getCrossTransaction(transferOut), sameInstance(transferIn));
+        assertThat(transferOut.getCrossEntry().getCrossOwner(transferOut), sameInstance(usd));
+        assertThat(transferIn.getDate(), sameInstance(transferOut.getDate()));
+        assertThat(transferIn.getUnit(Unit.Type.GROSS_VALUE).get().getExchangeRate(), is(new BigDecimal("1.1")));
+
+        // portfolio defined first within the buy/sell entry
+        Portfolio portfolio = client.getPortfolios().get(0);
+        assertThat(portfolio.getReferenceAccount(), sameInstance(eur));
+        PortfolioTransaction buy = portfolio.getTransactions().get(0);
+        assertThat(buy.getSecurity(), sameInstance(fund));
+        assertThat(buy.getCrossEntry().getCrossTransaction(buy), sameInstance(eur.getTransactions().get(1)));
+        assertThat(buy.getUnitSum(Unit.Type.FEE), is(Money.of(CurrencyUnit.EUR, 1000)));
+
+        InvestmentPlan plan = client.getPlans().get(0);
+        assertThat(plan.getPortfolio(), sameInstance(portfolio));
+        assertThat(plan.getTransactions().get(0), sameInstance(buy));
+
+        Taxonomy taxonomy = client.getTaxonomies().get(0);
+        assertThat(taxonomy.getDimensions(), is(Arrays.asList("Asset Class")));
+        Classification equity = taxonomy.getClassificationById("equity");
+        assertThat(equity.getParent(), sameInstance(taxonomy.getRoot()));
+        assertThat(equity.getNote(), is("Stocks & funds"));
+        assertThat(equity.getAssignments().get(0).getInvestmentVehicle(), sameInstance(fund));
+        assertThat(equity.getAssignments().get(1).getInvestmentVehicle(), sameInstance(usd));
+        assertThat(equity.getAssignments().get(1).getRank(), is(2));
+    }
+
+    @Test
+    public void testSettingsReplaceDefaults() throws IOException
+    {
+        Client client = load(getClass(), "streaming_reader_sample.xml");
+
+        Dashboard.Widget widget = client.getDashboards().findAny().get().getColumns().get(0).getWidgets().get(0);
+        assertThat(widget.getType(), is("HEADING"));
+        assertThat(widget.getConfiguration().get("REPORTING_PERIOD"), is("L1Y0"));
+        assertThat(client.getProperty("key"), is("value"));
+
+        ClientSettings settings = client.getSettings();
+        assertThat(settings.getBookmarks().size(), is(1));
+
+        AttributeType ter = settings.getAttributeTypes().findAny().get();
+        assertThat(settings.getAttributeTypes().count(), is(1L));
+        assertThat(ter.getTarget(), is((Object) Security.class));
+        assertThat(ter.getType(), is((Object) Double.class));
+        assertThat(ter.getConverter(), instanceOf(AttributeType.PercentPlainConverter.class));
+
+        Security fund = client.getSecurities().get(1);
+        assertThat(fund.getAttributes().get(ter), is(0.0125d));
+
+        assertThat(settings.getConfigurationSet("view").getConfigurations().findAny().get().getData(),
+                        is("column1;column2"));
+    }
+
+    @Test
+    public void testUnknownElementIsReadWithXStream() throws IOException
+    {
+        String xml = read(getClass(), "streaming_reader_sample.xml").replace("<baseCurrency>EUR</baseCurrency>",
+                        "<baseCurrency>EUR</baseCurrency><industryTaxonomyId>industry</industryTaxonomyId>");
+
+        try
+        {
+            new StreamingXmlReader().load(new StringReader(xml));
+            fail("the streaming reader does not know the legacy element");
+        }
+        catch (IOException expected)
+        {
+            // read again by XStream
+        }
+
+        // the file is opened again for XStream
+        File file = File.createTempFile("client", ".xml");
+        try
+        {
+            Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+
+            Client client = ClientFactory.load(file, null, new NullProgressMonitor());
+            assertThat(client.getVersion(), is(Client.CURRENT_VERSION));
+            assertThat(client.getSecurities().size(), is(2));
+            assertThat(client.getPortfolios().get(0).getReferenceAccount(),
+                            sameInstance(client.getAccounts().get(0)));
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSampleFileWithNestedCrossEntries() throws IOException
+    {
+        Client client = load(SecurityTestCase.class, "currency_sample.xml");
+
+        assertThat(client.getSecurities().size(), is(2));
+        assertThat(client.getAccounts().size(), is(2));
+        assertThat(client.getPortfolios().size(), is(2));
+
+        for (Account account : client.getAccounts())
+        {
+            for (AccountTransaction t : account.getTransactions())
+            {
+                if (t.getCrossEntry() != null)
+                    assertThat(t.getCrossEntry().getCrossTransaction(t).getCrossEntry(),
+                                    sameInstance(t.getCrossEntry()));
+            }
+        }
+
+        for (Portfolio portfolio : client.getPortfolios())
+        {
+            for (PortfolioTransaction t : portfolio.getTransactions())
+            {
+                assertThat(t.getCrossEntry().getCrossOwner(t), sameInstance(portfolio.getReferenceAccount()));
+                assertThat(portfolio.getReferenceAccount().getTransactions()
+                                .contains(t.getCrossEntry().getCrossTransaction(t)), is(true));
+            }
+        }
+    }
+}
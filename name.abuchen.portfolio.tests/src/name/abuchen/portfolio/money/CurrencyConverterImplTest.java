@@ -0,0 +1,153 @@
+package name.abuchen.portfolio.money;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.money.impl.ExchangeRateTimeSeriesImpl;
+import name.abuchen.portfolio.money.impl.InverseExchangeRateTimeSeries;
+
+@SuppressWarnings("nls")
+public class CurrencyConverterImplTest
+{
+    private static class TestFactory extends ExchangeRateProviderFactory
+    {
+        private ExchangeRateTimeSeriesImpl eurUsd;
+
+        public TestFactory()
+        {
+            eurUsd = new ExchangeRateTimeSeriesImpl(null, CurrencyUnit.EUR, "USD");
+            eurUsd.addRate(new ExchangeRate(LocalDate.parse("2015-01-02"), new BigDecimal("1.2043")));
+            eurUsd.addRate(new ExchangeRate(LocalDate.parse("2015-01-05"), new BigDecimal("1.1915")));
+            eurUsd.addRate(new ExchangeRate(LocalDate.parse("2015-01-06"), new BigDecimal("1.1914")));
+            eurUsd.addRate(new ExchangeRate(LocalDate.parse("2015-01-09"), new BigDecimal("1.1813")));
+        }
+
+        public void replace(BigDecimal rate)
+        {
+            eurUsd = new ExchangeRateTimeSeriesImpl(null, CurrencyUnit.EUR, "USD");
+            eurUsd.addRate(new ExchangeRate(LocalDate.parse("2015-01-02"), rate));
+            ratesChanged();
+        }
+
+        @Override
+        public ExchangeRateTimeSeries getTimeSeries(String baseCurrency, String termCurrency)
+        {
+            if (CurrencyUnit.EUR.equals(baseCurrency) && "USD".equals(termCurrency))
+                return eurUsd;
+            if ("USD".equals(baseCurrency) && CurrencyUnit.EUR.equals(termCurrency))
+                return new InverseExchangeRateTimeSeries(eurUsd);
+            return null;
+        }
+    }
+
+    @Test
+    public void testThatMaterializedRatesMatchTimeSeries()
+    {
+        CurrencyConverter converter = new CurrencyConverterImpl(new TestFactory(), CurrencyUnit.EUR);
+        CurrencyConverter materialized = converter.materialize(LocalDate.parse("2015-01-01"),
+                        LocalDate.parse("2015-01-10"));
+
+        assertThat(materialized, not(sameInstance(converter)));
+
+        // including dates before the first rate and outside of the interval
+        LocalDate date = LocalDate.parse("2014-12-30");
+        while (!date.isAfter(LocalDate.parse("2015-01-12")))
+        {
+            for (long amount : new long[] { 1, 100, 123456, -5000 })
+            {
+                long expected = converter.convert(date, Money.of("USD", amount)).getAmount();
+                assertThat(date.toString(), materialized.convert(date, "USD", amount), is(expected));
+                assertThat(date.toString(), materialized.convert(date, Money.of("USD", amount)),
+                                is(Money.of(CurrencyUnit.EUR, expected)));
+            }
+
+            date = date.plusDays(1);
+        }
+
+        assertThat(materialized.convert(date, CurrencyUnit.EUR, 42), is(42L));
+    }
+
+    @Test
+    public void testThatMaterializedModeIsKeptForOtherTermCurrencies()
+    {
+        CurrencyConverter converter = new CurrencyConverterImpl(new TestFactory(), CurrencyUnit.EUR);
+        CurrencyConverter materialized = converter.materialize(LocalDate.parse("2015-01-01"),
+                        LocalDate.parse("2015-01-10"));
+
+        assertThat(materialized.materialize(LocalDate.parse("2015-01-02"), LocalDate.parse("2015-01-09")),
+                        sameInstance(materialized));
+
+        CurrencyConverter usd = materialized.with("USD");
+        assertThat(usd.getTermCurrency(), is("USD"));
+        assertThat(usd.convert(LocalDate.parse("2015-01-05"), CurrencyUnit.EUR, 10000), is(11915L));
+        assertThat(usd.with(CurrencyUnit.EUR).convert(LocalDate.parse("2015-01-05"), "USD", 11915),
+                        is(converter.convert(LocalDate.parse("2015-01-05"), "USD", 11915)));
+    }
+
+    @Test
+    public void testThatBulkConversionMatchesConversionOfSingleAmounts()
+    {
+        CurrencyConverter converter = new CurrencyConverterImpl(new TestFactory(), CurrencyUnit.EUR);
+
+        LocalDate from = LocalDate.parse("2014-12-30");
+        long[] amounts = new long[14];
+        long[] days = new long[amounts.length];
+        for (int ii = 0; ii < amounts.length; ii++)
+        {
+            amounts[ii] = ii * 12345L - 5000;
+            days[ii] = from.plusDays(amounts.length - 1 - ii).toEpochDay();
+        }
+
+        long[] consecutive = new long[amounts.length];
+        converter.convert(from, "USD", amounts, consecutive);
+
+        long[] target = new long[amounts.length];
+        converter.convert(days, "USD", amounts, target);
+
+        for (int ii = 0; ii < amounts.length; ii++)
+        {
+            Money amount = Money.of("USD", amounts[ii]);
+            assertThat(consecutive[ii], is(converter.convert(from.plusDays(ii), amount).getAmount()));
+            assertThat(target[ii], is(converter.convert(LocalDate.ofEpochDay(days[ii]), amount).getAmount()));
+        }
+
+        // converting in place and into the term currency
+        long[] copy = amounts.clone();
+        converter.convert(from, CurrencyUnit.EUR, copy, copy);
+        assertThat(copy, is(amounts));
+    }
+
+    @Test(expected = MonetaryException.class)
+    public void testThatMissingTimeSeriesIsReported()
+    {
+        CurrencyConverter converter = new CurrencyConverterImpl(new TestFactory(), CurrencyUnit.EUR)
+                        .materialize(LocalDate.parse("2015-01-01"), LocalDate.parse("2015-01-10"));
+        converter.convert(LocalDate.parse("2015-01-05"), "CHF", 100);
+    }
+
+    @Test
+    public void testThatUpdatedRatesAreUsedByExistingConverters()
+    {
+        TestFactory factory = new TestFactory();
+        CurrencyConverter converter = new CurrencyConverterImpl(factory, CurrencyUnit.EUR);
+        CurrencyConverter materialized = converter.materialize(LocalDate.parse("2015-01-01"),
+                        LocalDate.parse("2015-01-10"));
+
+        LocalDate date = LocalDate.parse("2015-01-05");
+        long expected = converter.convert(date, "USD", 11915);
+        assertThat(materialized.convert(date, "USD", 11915), is(expected));
+
+        factory.replace(new BigDecimal("1.25"));
+
+        assertThat(converter.convert(date, "USD", 12500), is(10000L));
+        assertThat(materialized.convert(date, "USD", 12500), is(10000L));
+        assertThat(materialized.with("USD").convert(date, CurrencyUnit.EUR, 10000), is(12500L));
+    }
+}
@@ -0,0 +1,41 @@
+package name.abuchen.portfolio.money;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.TestCurrencyConverter;
+
+@SuppressWarnings("nls")
+public class MutableMoneyTest
+{
+    @Test
+    public void testAddConvertedAmounts()
+    {
+        CurrencyConverter converter = new TestCurrencyConverter();
+        LocalDate date = LocalDate.parse("2015-01-09");
+
+        MutableMoney sum = MutableMoney.of(CurrencyUnit.EUR);
+        sum.add(converter, date, CurrencyUnit.EUR, 1000);
+        sum.add(converter, date, "USD", 11813);
+        sum.add(converter, date, null, 0);
+
+        long expected = 1000 + converter.convert(date, Money.of("USD", 11813)).getAmount();
+        assertThat(sum.getAmount(), is(expected));
+    }
+
+    @Test
+    public void testAddConvertedAmountsIntoOtherTermCurrency()
+    {
+        CurrencyConverter converter = new TestCurrencyConverter();
+        LocalDate date = LocalDate.parse("2015-01-09");
+
+        MutableMoney sum = MutableMoney.of("USD");
+        sum.add(converter, date, "USD", 500);
+
+        assertThat(sum.getAmount(), is(500L));
+    }
+}
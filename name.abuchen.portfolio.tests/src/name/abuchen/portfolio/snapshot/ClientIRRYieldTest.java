@@ -0,0 +1,83 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.AccountTransaction;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.CurrencyUnit;
+import name.abuchen.portfolio.util.Interval;
+
+public class ClientIRRYieldTest
+{
+    private Client createClient()
+    {
+        Client client = new Client();
+
+        Account account = new Account();
+        account.addTransaction(new AccountTransaction(LocalDate.of(2010, Month.JANUARY, 1), CurrencyUnit.EUR, 1000_00,
+                        null, AccountTransaction.Type.DEPOSIT));
+        account.addTransaction(new AccountTransaction(LocalDate.of(2011, Month.JUNE, 1), CurrencyUnit.EUR, 50_00, null,
+                        AccountTransaction.Type.INTEREST));
+        account.addTransaction(new AccountTransaction(LocalDate.of(2012, Month.JUNE, 1), CurrencyUnit.EUR, 100_00,
+                        null, AccountTransaction.Type.INTEREST));
+        client.addAccount(account);
+
+        return client;
+    }
+
+    @Test
+    public void testYearlyIRR()
+    {
+        Client client = createClient();
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        Map<Integer, ClientIRRYield> yields = ClientIRRYield.createYearly(client, converter,
+                        Interval.of(LocalDate.of(2010, Month.DECEMBER, 31), LocalDate.of(2012, Month.DECEMBER, 31)));
+
+        assertThat(new ArrayList<>(yields.keySet()), is(Arrays.asList(2011, 2012)));
+
+        assertThat(yields.get(2011).isConverged(), is(true));
+        assertThat(yields.get(2011).getIrr(), closeTo(0.05, 1e-8));
+
+        assertThat(yields.get(2012).isConverged(), is(true));
+        // 2012 is a leap year, i.e. the rate is annualized from 366 days
+        assertThat(yields.get(2012).getIrr(), closeTo(Math.pow(1150d / 1050d, 365d / 366d) - 1, 1e-8));
+    }
+
+    @Test
+    public void testYearlyIRRIsEqualToIRROfEachYear()
+    {
+        Client client = createClient();
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        LocalDate start = LocalDate.of(2011, Month.MARCH, 31);
+        LocalDate endOfYear = LocalDate.of(2011, Month.DECEMBER, 31);
+        LocalDate end = LocalDate.of(2012, Month.SEPTEMBER, 30);
+
+        Map<Integer, ClientIRRYield> yields = ClientIRRYield.createYearly(client, converter, Interval.of(start, end));
+
+        assertThat(new ArrayList<>(yields.keySet()), is(Arrays.asList(2011, 2012)));
+
+        ClientSnapshot snapshotStart = ClientSnapshot.create(client, converter, start);
+        ClientSnapshot snapshotEndOfYear = ClientSnapshot.create(client, converter, endOfYear);
+        ClientSnapshot snapshotEnd = ClientSnapshot.create(client, converter, end);
+
+        assertThat(yields.get(2011).getIrr(),
+                        closeTo(ClientIRRYield.create(client, snapshotStart, snapshotEndOfYear).getIrr(), 1e-10));
+        assertThat(yields.get(2012).getIrr(),
+                        closeTo(ClientIRRYield.create(client, snapshotEndOfYear, snapshotEnd).getIrr(), 1e-10));
+    }
+}
@@ -327,6 +327,59 @@ public class ClientIndexTest
         }
     }
 
+    @Test
+    public void testThatAllAggregationsAreCalculatedAndCached()
+    {
+        Client client = new Client();
+
+        new AccountBuilder() //
+                        .deposit_("2011-01-15", 100000) //
+                        .interest("2011-03-31", 1000) //
+                        .deposit_("2011-08-01", 50000) //
+                        .interest("2012-02-29", 2000) //
+                        .interest("2012-12-31", 1500) //
+                        .addTo(client);
+
+        ReportingPeriod.FromXtoY reportInterval = new ReportingPeriod.FromXtoY( //
+                        LocalDate.of(2011, Month.JANUARY, 10), LocalDate.of(2013, Month.FEBRUARY, 10));
+        PerformanceIndex index = PerformanceIndex.forClient(client, new TestCurrencyConverter(), reportInterval,
+                        new ArrayList<Exception>());
+
+        long sumOfTransferals = 0;
+        for (long t : index.getTransferals())
+            sumOfTransferals += t;
+
+        for (Aggregation.Period period : Aggregation.Period.values())
+        {
+            PerformanceIndex aggregated = Aggregation.aggregate(index, period);
+            assertThat(Aggregation.aggregate(index, period) == aggregated, is(true));
+
+            LocalDate[] dates = aggregated.getDates();
+            double[] accumulated = aggregated.getAccumulatedPercentage();
+            double[] delta = aggregated.getDeltaPercentage();
+            long transferals = 0;
+
+            for (int ii = 0; ii < dates.length; ii++)
+            {
+                // every period ends with the day before the next period
+                if (ii < dates.length - 1)
+                    assertThat(period.getStartDateFor(dates[ii].plusDays(1)), is(dates[ii].plusDays(1)));
+                else
+                    assertThat(dates[ii], is(LocalDate.of(2013, Month.FEBRUARY, 10)));
+
+                double previous = ii == 0 ? 0 : accumulated[ii - 1];
+                assertThat(delta[ii], IsCloseTo.closeTo((accumulated[ii] + 1) / (previous + 1) - 1, PRECISION));
+                transferals += aggregated.getTransferals()[ii];
+            }
+
+            assertThat(transferals, is(sumOfTransferals));
+        }
+
+        assertThat(Aggregation.aggregate(index, Aggregation.Period.MONTHLY).getDates().length, is(26));
+        assertThat(Aggregation.aggregate(index, Aggregation.Period.QUARTERLY).getDates().length, is(9));
+        assertThat(Aggregation.aggregate(index, Aggregation.Period.YEARLY).getDates().length, is(3));
+    }
+
     @Test
     public void testThatDepositsOnTheLastDayArePerformanceNeutral()
     {
@@ -0,0 +1,200 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.AccountBuilder;
+import name.abuchen.portfolio.PortfolioBuilder;
+import name.abuchen.portfolio.SecurityBuilder;
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.SecurityPrice;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class ClientIndexUpdateTest
+{
+    private final CurrencyConverter converter = new TestCurrencyConverter();
+    private final ReportingPeriod period = new ReportingPeriod.FromXtoY(LocalDate.parse("2015-01-01"),
+                    LocalDate.parse("2015-01-15"));
+
+    private Client client;
+    private Security security;
+    private Account account;
+    private Portfolio portfolio;
+
+    private void createClient()
+    {
+        client = new Client();
+
+        security = new SecurityBuilder() //
+                        .generatePrices(Values.Quote.factorize(50), LocalDate.parse("2015-01-01"),
+                                        LocalDate.parse("2015-01-16"))
+                        .addTo(client);
+
+        account = new AccountBuilder() //
+                        .deposit_("2014-12-31", Values.Amount.factorize(10000)) //
+                        .interest("2015-01-07", Values.Amount.factorize(12)) //
+                        .addTo(client);
+
+        portfolio = new PortfolioBuilder(account) //
+                        .buy(security, "2015-01-02", Values.Share.factorize(10), 50000) //
+                        .addTo(client);
+    }
+
+    private void assertEquals(PerformanceIndex actual, PerformanceIndex expected)
+    {
+        assertThat(actual.getDates(), is(expected.getDates()));
+        assertThat(actual.getTotals(), is(expected.getTotals()));
+        assertThat(actual.getTransferals(), is(expected.getTransferals()));
+        assertThat(actual.getTaxes(), is(expected.getTaxes()));
+        assertThat(actual.getDividends(), is(expected.getDividends()));
+        assertThat(actual.getInterest(), is(expected.getInterest()));
+        assertThat(actual.getDeltaPercentage(), is(expected.getDeltaPercentage()));
+        assertThat(actual.getAccumulatedPercentage(), is(expected.getAccumulatedPercentage()));
+    }
+
+    @Test
+    public void testThatUpdatedTailIsIdenticalToFullCalculation()
+    {
+        createClient();
+
+        PerformanceIndex index = PerformanceIndex.forClient(client, converter, period, new ArrayList<>());
+
+        // change client starting 2015-01-09
+        new AccountBuilder() //
+                        .deposit_("2015-01-09", Values.Amount.factorize(500)) //
+                        .addTo(client);
+        new PortfolioBuilder(account) //
+                        .sell(security, "2015-01-10", Values.Share.factorize(5), 26000) //
+                        .addTo(client);
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-12"), Values.Quote.factorize(60)));
+
+        PerformanceIndex updated = index.update(LocalDate.parse("2015-01-09"), new ArrayList<>()).get();
+
+        assertEquals(updated, PerformanceIndex.forClient(client, converter, period, new ArrayList<>()));
+
+        // values before the change are copied
+        assertThat(updated.getTotals()[7], is(index.getTotals()[7]));
+    }
+
+    @Test
+    public void testUpdateWithChangeBeforeStartOfPeriod()
+    {
+        createClient();
+
+        PerformanceIndex index = PerformanceIndex.forClient(client, converter, period, new ArrayList<>());
+
+        new AccountBuilder() //
+                        .deposit_("2014-12-01", Values.Amount.factorize(500)) //
+                        .addTo(client);
+
+        PerformanceIndex updated = index.update(LocalDate.parse("2014-06-01"), new ArrayList<>()).get();
+
+        assertEquals(updated, PerformanceIndex.forClient(client, converter, period, new ArrayList<>()));
+    }
+
+    @Test
+    public void testUpdateWithChangeAfterEndOfPeriod()
+    {
+        createClient();
+
+        PerformanceIndex index = PerformanceIndex.forClient(client, converter, period, new ArrayList<>());
+        PerformanceIndex updated = index.update(LocalDate.parse("2015-02-01"), new ArrayList<>()).get();
+
+        assertEquals(updated, index);
+    }
+
+    @Test
+    public void testThatIndicesOfFilteredClientsAreNotUpdated()
+    {
+        createClient();
+
+        PerformanceIndex index = PerformanceIndex.forPortfolio(client, converter, portfolio, period,
+                        new ArrayList<>());
+        assertThat(index.update(LocalDate.parse("2015-01-09"), new ArrayList<>()).isPresent(), is(false));
+
+        index = PerformanceIndex.forInvestment(client, converter, security, period, new ArrayList<>());
+        assertThat(index.update(LocalDate.parse("2015-01-09"), new ArrayList<>()).isPresent(), is(false));
+    }
+
+    @Test
+    public void testThatIndexIsExtendedWhenNewDayStarts()
+    {
+        createClient();
+
+        // the index of a period ending in the future ends with the current
+        // day. Moving the end simulates the start of a new day
+        ClientIndex index = PerformanceIndex.forClient(client, converter,
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2015-01-01"), LocalDate.parse("2015-01-10")),
+                        new ArrayList<>());
+
+        PerformanceIndex updated = index.update(period, LocalDate.MAX, new ArrayList<>()).get();
+
+        assertEquals(updated, PerformanceIndex.forClient(client, converter, period, new ArrayList<>()));
+        assertThat(updated.getTotals()[8], is(index.getTotals()[8]));
+    }
+
+    @Test
+    public void testThatIndexIsMovedWhenStartOfPeriodMoves()
+    {
+        createClient();
+
+        ClientIndex index = PerformanceIndex.forClient(client, converter,
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2014-12-29"), LocalDate.parse("2015-01-12")),
+                        new ArrayList<>());
+
+        new AccountBuilder() //
+                        .deposit_("2015-01-11", Values.Amount.factorize(500)) //
+                        .addTo(client);
+
+        PerformanceIndex updated = index.update(period, LocalDate.parse("2015-01-11"), new ArrayList<>()).get();
+
+        assertEquals(updated, PerformanceIndex.forClient(client, converter, period, new ArrayList<>()));
+
+        // moving the start backwards calculates the index completely
+        ReportingPeriod earlier = new ReportingPeriod.FromXtoY(LocalDate.parse("2014-12-01"),
+                        LocalDate.parse("2015-01-15"));
+        assertEquals(index.update(earlier, LocalDate.MAX, new ArrayList<>()).get(),
+                        PerformanceIndex.forClient(client, converter, earlier, new ArrayList<>()));
+    }
+
+    @Test
+    public void testThatResumedSweepMatchesCompleteSweep()
+    {
+        createClient();
+
+        // shares are summed up across portfolios
+        new PortfolioBuilder(account) //
+                        .buy(security, "2015-01-03", Values.Share.factorize(3), 15000) //
+                        .sell(security, "2015-01-08", Values.Share.factorize(3), 16000) //
+                        .addTo(client);
+
+        new PortfolioBuilder(account) //
+                        .sell(security, "2015-01-12", Values.Share.factorize(10), 52000) //
+                        .addTo(client);
+
+        LocalDate[] dates = PerformanceIndex.forClient(client, converter, period, new ArrayList<>()).getDates();
+
+        for (int from = 0; from < dates.length; from++)
+        {
+            ValuationSweep complete = new ValuationSweep(client, converter);
+            ValuationSweep resumed = new ValuationSweep(client, converter, dates[from]);
+
+            for (int ii = 0; ii < from; ii++)
+                complete.valuate(dates[ii]);
+
+            for (int ii = from; ii < dates.length; ii++)
+                assertThat(dates[ii].toString(), resumed.valuate(dates[ii]), is(complete.valuate(dates[ii])));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.AccountBuilder;
+import name.abuchen.portfolio.PortfolioBuilder;
+import name.abuchen.portfolio.SecurityBuilder;
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.PortfolioTransaction;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.Transaction.Unit;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.CurrencyUnit;
+import name.abuchen.portfolio.money.Money;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class InvestmentIndexTest
+{
+    @Test
+    public void testThatBatchIsIdenticalToSingleInvestmentIndex()
+    {
+        Client client = new Client();
+
+        Security euro = new SecurityBuilder() //
+                        .generatePrices(Values.Quote.factorize(50), LocalDate.parse("2015-01-01"),
+                                        LocalDate.parse("2015-01-16"))
+                        .addTo(client);
+
+        Security dollar = new SecurityBuilder("USD") //
+                        .generatePrices(Values.Quote.factorize(20), LocalDate.parse("2015-01-01"),
+                                        LocalDate.parse("2015-01-16"))
+                        .addTo(client);
+
+        Account account = new AccountBuilder() //
+                        .deposit_("2014-12-31", Values.Amount.factorize(10000)) //
+                        .dividend("2015-01-07", Values.Amount.factorize(12), euro) //
+                        .addTo(client);
+
+        new AccountBuilder("USD") //
+                        .dividend("2015-01-09", Values.Amount.factorize(7), dollar) //
+                        .addTo(client);
+
+        new PortfolioBuilder(account) //
+                        .buy(euro, "2015-01-02", Values.Share.factorize(10), 50000) //
+                        .buy(dollar, "2015-01-05", Values.Share.factorize(5), 10000) //
+                        .sell(euro, "2015-01-08", Values.Share.factorize(4), 21000, 500) //
+                        .addTo(client);
+
+        PortfolioTransaction taxed = client.getPortfolios().get(0).getTransactions().get(0);
+        taxed.addUnit(new Unit(Unit.Type.TAX, Money.of(CurrencyUnit.EUR, 300)));
+
+        CurrencyConverter converter = new TestCurrencyConverter();
+        ReportingPeriod period = new ReportingPeriod.FromXtoY(LocalDate.parse("2015-01-01"),
+                        LocalDate.parse("2015-01-15"));
+
+        Map<Security, PerformanceIndex> indices = PerformanceIndex.forInvestments(client, converter,
+                        Arrays.asList(euro, dollar), period, new ArrayList<Exception>());
+
+        for (Security security : Arrays.asList(euro, dollar))
+        {
+            PerformanceIndex expected = PerformanceIndex.forInvestment(client, converter, security, period,
+                            new ArrayList<Exception>());
+            PerformanceIndex actual = indices.get(security);
+
+            assertThat(actual.getDates(), is(expected.getDates()));
+            assertThat(actual.getTotals(), is(expected.getTotals()));
+            assertThat(actual.getTransferals(), is(expected.getTransferals()));
+            assertThat(actual.getDividends(), is(expected.getDividends()));
+            assertThat(actual.getTaxes(), is(expected.getTaxes()));
+            assertThat(actual.getDeltaPercentage(), is(expected.getDeltaPercentage()));
+            assertThat(actual.getAccumulatedPercentage(), is(expected.getAccumulatedPercentage()));
+        }
+    }
+}
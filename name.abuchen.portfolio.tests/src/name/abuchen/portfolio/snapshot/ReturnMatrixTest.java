@@ -0,0 +1,89 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+
+import org.hamcrest.number.IsCloseTo;
+import org.junit.Test;
+
+import name.abuchen.portfolio.AccountBuilder;
+import name.abuchen.portfolio.PortfolioBuilder;
+import name.abuchen.portfolio.SecurityBuilder;
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.CurrencyConverter;
+
+@SuppressWarnings("nls")
+public class ReturnMatrixTest
+{
+    private static final double PRECISION = 0.0000001d;
+
+    @Test
+    public void testReturnsMatchIndicesPerMonth()
+    {
+        Client client = new Client();
+
+        SecurityBuilder securityBuilder = new SecurityBuilder();
+        LocalDate date = LocalDate.parse("2011-01-01");
+        for (int ii = 0; ii < 800; ii++, date = date.plusDays(1))
+            securityBuilder.addPrice(date.toString(), 10000 + (ii * 37) % 1000);
+        Security security = securityBuilder.addTo(client);
+
+        Account account = new AccountBuilder() //
+                        .deposit_("2011-01-01", 1000000) //
+                        .interest("2011-06-30", 5000) //
+                        .deposit_("2012-02-15", 200000) //
+                        .addTo(client);
+
+        new PortfolioBuilder(account) //
+                        .buy(security, "2011-03-15", 100000000, 500000) //
+                        .sell(security, "2012-09-10", 50000000, 260000) //
+                        .addTo(client);
+
+        CurrencyConverter converter = new TestCurrencyConverter();
+        ReportingPeriod period = new ReportingPeriod.FromXtoY(LocalDate.parse("2011-01-20"),
+                        LocalDate.parse("2013-02-20"));
+        PerformanceIndex index = PerformanceIndex.forClient(client, converter, period, new ArrayList<Exception>());
+
+        ReturnMatrix matrix = index.getReturnMatrix();
+        assertThat(index.getReturnMatrix() == matrix, is(true));
+        assertThat(matrix.getFirstYear(), is(2011));
+        assertThat(matrix.getLastYear(), is(2013));
+
+        // partial first month and year are not included
+        assertThat(Double.isNaN(matrix.getReturn(2011, Month.JANUARY)), is(true));
+        assertThat(Double.isNaN(matrix.getReturn(2011)), is(true));
+        assertThat(Double.isNaN(matrix.getReturn(2013, Month.MARCH)), is(true));
+        assertThat(Double.isNaN(matrix.getReturn(2010)), is(true));
+
+        for (LocalDate month = LocalDate.parse("2011-02-01"); month.isBefore(LocalDate.parse("2013-02-01")); month = month
+                        .plusMonths(1))
+        {
+            PerformanceIndex monthly = PerformanceIndex.forClient(client, converter,
+                            new ReportingPeriod.FromXtoY(month.minusDays(1),
+                                            month.withDayOfMonth(month.lengthOfMonth())),
+                            new ArrayList<Exception>());
+
+            assertThat(month.toString(), matrix.getReturn(month.getYear(), month.getMonth()),
+                            IsCloseTo.closeTo(monthly.getFinalAccumulatedPercentage(), PRECISION));
+        }
+
+        // partial last month until the end of the index
+        PerformanceIndex february = PerformanceIndex.forClient(client, converter,
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2013-01-31"), LocalDate.parse("2013-02-20")),
+                        new ArrayList<Exception>());
+        assertThat(matrix.getReturn(2013, Month.FEBRUARY),
+                        IsCloseTo.closeTo(february.getFinalAccumulatedPercentage(), PRECISION));
+
+        PerformanceIndex year = PerformanceIndex.forClient(client, converter,
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2011-12-31"), LocalDate.parse("2012-12-31")),
+                        new ArrayList<Exception>());
+        assertThat(matrix.getReturn(2012), IsCloseTo.closeTo(year.getFinalAccumulatedPercentage(), PRECISION));
+    }
+}
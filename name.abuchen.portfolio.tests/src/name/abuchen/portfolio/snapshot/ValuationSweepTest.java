@@ -0,0 +1,87 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.junit.Assert.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.AccountBuilder;
+import name.abuchen.portfolio.PortfolioBuilder;
+import name.abuchen.portfolio.SecurityBuilder;
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.LatestSecurityPrice;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class ValuationSweepTest
+{
+    private Client createClient()
+    {
+        Client client = new Client();
+
+        Security euro = new SecurityBuilder() //
+                        .generatePrices(Values.Quote.factorize(50), LocalDate.parse("2015-01-02"),
+                                        LocalDate.parse("2015-01-10"))
+                        .addTo(client);
+
+        Security dollar = new SecurityBuilder("USD") //
+                        .addPrice("2015-01-05", Values.Quote.factorize(20)) //
+                        .addPrice("2015-01-09", Values.Quote.factorize(22)) //
+                        .addTo(client);
+        dollar.setLatest(new LatestSecurityPrice(LocalDate.parse("2015-01-14"), Values.Quote.factorize(25)));
+
+        Account account = new AccountBuilder() //
+                        .deposit_("2014-12-31", Values.Amount.factorize(10000)) //
+                        .interest("2015-01-07", Values.Amount.factorize(12)) //
+                        .addTo(client);
+
+        new AccountBuilder("USD") //
+                        .deposit_("2015-01-03", Values.Amount.factorize(500)) //
+                        .withdraw("2015-01-12", Values.Amount.factorize(500)) //
+                        .addTo(client);
+
+        new PortfolioBuilder(account) //
+                        .buy(euro, "2015-01-02", Values.Share.factorize(10), 50000) //
+                        .buy(dollar, "2015-01-04", Values.Share.factorize(5), 10000) //
+                        .sell(euro, "2015-01-08", Values.Share.factorize(10), 51000) //
+                        .addTo(client);
+
+        new PortfolioBuilder(account) //
+                        .buy(dollar, "2015-01-06", Values.Share.factorize(3), 6000) //
+                        .buy(euro, "2015-01-11", Values.Share.factorize(2), 10000) //
+                        .addTo(client);
+
+        return client;
+    }
+
+    @Test
+    public void testThatSweepIsIdenticalToClientSnapshot()
+    {
+        Client client = createClient();
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        ValuationSweep sweep = new ValuationSweep(client, converter);
+
+        LocalDate date = LocalDate.parse("2014-12-31");
+        while (!date.isAfter(LocalDate.parse("2015-01-16")))
+        {
+            long expected = ClientSnapshot.create(client, converter, date).getMonetaryAssets().getAmount();
+            assertThat(date.toString(), sweep.valuate(date), is(expected));
+            date = date.plusDays(1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatDatesMustBeAscending()
+    {
+        ValuationSweep sweep = new ValuationSweep(createClient(), new TestCurrencyConverter());
+        sweep.valuate(LocalDate.parse("2015-01-05"));
+        sweep.valuate(LocalDate.parse("2015-01-04"));
+    }
+}
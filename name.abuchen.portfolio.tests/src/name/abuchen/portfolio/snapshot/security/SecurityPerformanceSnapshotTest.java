@@ -0,0 +1,84 @@
+package name.abuchen.portfolio.snapshot.security;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.hamcrest.number.IsCloseTo;
+import org.junit.Test;
+
+import name.abuchen.portfolio.AccountBuilder;
+import name.abuchen.portfolio.PortfolioBuilder;
+import name.abuchen.portfolio.SecurityBuilder;
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.Values;
+import name.abuchen.portfolio.snapshot.ReportingPeriod;
+
+@SuppressWarnings("nls")
+public class SecurityPerformanceSnapshotTest
+{
+    private Client createClient(int securities)
+    {
+        Client client = new Client();
+
+        Account account = new AccountBuilder().deposit_("2015-01-01", Values.Amount.factorize(1000000))
+                        .addTo(client);
+        PortfolioBuilder portfolio = new PortfolioBuilder(account);
+
+        for (int ii = 0; ii < securities; ii++)
+        {
+            Security security = new SecurityBuilder() //
+                            .addPrice("2015-01-01", Values.Quote.factorize(100)) //
+                            .addPrice("2016-01-01", Values.Quote.factorize(100 + ii)) //
+                            .addTo(client);
+
+            portfolio.buy(security, "2015-01-01", Values.Share.factorize(10), (int) Values.Amount.factorize(1000));
+        }
+
+        portfolio.addTo(client);
+        return client;
+    }
+
+    @Test
+    public void testRecordsAreCalculatedInParallel()
+    {
+        Client client = createClient(50);
+        CurrencyConverter converter = new TestCurrencyConverter();
+        ReportingPeriod period = new ReportingPeriod.FromXtoY(LocalDate.parse("2014-12-31"),
+                        LocalDate.parse("2016-01-01"));
+
+        SecurityPerformanceSnapshot snapshot = SecurityPerformanceSnapshot.create(client, converter, period);
+
+        assertThat(snapshot.getRecords().size(), is(50));
+        for (SecurityPerformanceRecord record : snapshot.getRecords())
+        {
+            int ii = client.getSecurities().indexOf(record.getSecurity());
+            assertThat(record.getMarketValue().getAmount(), is(Values.Amount.factorize(10 * (100 + ii))));
+            assertThat(record.getIrr(), IsCloseTo.closeTo(ii / 100d, 0.001));
+        }
+    }
+
+    @Test(expected = OperationCanceledException.class)
+    public void testCalculationCanBeCanceled()
+    {
+        NullProgressMonitor monitor = new NullProgressMonitor()
+        {
+            @Override
+            public boolean isCanceled()
+            {
+                return true;
+            }
+        };
+
+        SecurityPerformanceSnapshot.create(createClient(5), new TestCurrencyConverter(),
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2014-12-31"), LocalDate.parse("2016-01-01")),
+                        monitor);
+    }
+}
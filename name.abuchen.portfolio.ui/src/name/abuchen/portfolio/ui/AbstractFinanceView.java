@@ -26,6 +26,7 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.ToolBar;
 
 import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.ui.util.Colors;
 
 public abstract class AbstractFinanceView
@@ -54,6 +55,15 @@ public abstract class AbstractFinanceView
     public void notifyModelUpdated()
     {}
 
+    /**
+     * called when the model is modified; views caching calculation results
+     * can use the change to invalidate only the affected results
+     */
+    public void notifyModelUpdated(ClientChange change)
+    {
+        notifyModelUpdated();
+    }
+
     public void init(PortfolioPart part, Object parameter)
     {
         this.part = part;
@@ -89,6 +99,16 @@ public abstract class AbstractFinanceView
         part.markDirty();
     }
 
+    /**
+     * Marks the client dirty after this view changed the given elements.
+     * Listeners of the client receive the change but the view itself is not
+     * notified because it updates itself.
+     */
+    public void markDirty(ClientChange change)
+    {
+        part.markDirty(change);
+    }
+
     public Shell getActiveShell()
     {
         return Display.getDefault().getActiveShell();
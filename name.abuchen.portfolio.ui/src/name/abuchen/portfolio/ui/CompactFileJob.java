@@ -0,0 +1,42 @@
+package name.abuchen.portfolio.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.MessageFormat;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
+
+/**
+ * Compacts the journal records appended to the file into a new base snapshot.
+ */
+public final class CompactFileJob extends AbstractClientJob
+{
+    public CompactFileJob(Client client, File file)
+    {
+        super(client, MessageFormat.format(Messages.JobLabelCompactFile, file.getName()));
+        setSystem(true);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor)
+    {
+        monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+
+        try
+        {
+            ClientFactory.compact(getClient());
+        }
+        catch (IOException e)
+        {
+            // the file remains valid with the journal records
+            PortfolioPlugin.log(e);
+        }
+
+        return Status.OK_STATUS;
+    }
+}
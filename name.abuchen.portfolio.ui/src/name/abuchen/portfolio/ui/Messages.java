@@ -293,6 +293,8 @@ public class Messages extends NLS
     public static String InvestmentPlanOptionDelivery;
     public static String InvestmentPlanTitleEditPlan;
     public static String InvestmentPlanTitleNewPlan;
+    public static String JobLabelCalculateSecurityPerformance;
+    public static String JobLabelCompactFile;
     public static String JobLabelUpdateCPI;
     public static String JobLabelUpdateQuotes;
     public static String JobLabelUpdateStackedLineChart;
@@ -378,6 +380,10 @@ public class Messages extends NLS
     public static String LabelReportingPeriod;
     public static String LabelReportInterval;
     public static String LabelRiskIndicators;
+    public static String LabelRollingMaxDrawdown;
+    public static String LabelRollingReturn;
+    public static String LabelRollingSemiDeviation;
+    public static String LabelRollingVolatility;
     public static String LabelSave;
     public static String LabelSaveAndNew;
     public static String LabelSearch;
@@ -509,6 +515,7 @@ public class Messages extends NLS
     public static String MsgIncorrectTotal;
     public static String MsgInfoChangingCurrencyNotPossible;
     public static String MsgInfoRetiredSecurities;
+    public static String MsgIRRNotConverged;
     public static String MsgLoadingFile;
     public static String MsgMissingAccount;
     public static String MsgMissingPortfolio;
@@ -520,6 +527,7 @@ public class Messages extends NLS
     public static String MsgNoProfileFound;
     public static String MsgNoUpdatesAvailable;
     public static String MsgOpenFile;
+    public static String MsgPDFTextCacheCleared;
     public static String MsgPasswordMinCharacters;
     public static String MsgPasswordNotIdentical;
     public static String MsgPortfolioFromMissing;
@@ -561,6 +569,7 @@ public class Messages extends NLS
     public static String PortfolioMenuAdd;
     public static String PortfolioMenuDeactivate;
     public static String PortfolioMenuDelete;
+    public static String PrefCachePDFText;
     public static String PrefCheckOnStartup;
     public static String PrefCreateBackupBeforeSaving;
     public static String PrefDescriptionProxy;
@@ -571,6 +580,7 @@ public class Messages extends NLS
     public static String PrefMsgConfigureUpdates;
     public static String PrefMsgLanguageConfig;
     public static String PrefNoteIndirectQuotation;
+    public static String PrefStoreQuotesInSidecar;
     public static String PrefUpdateSite;
     public static String PrefTitle;
     public static String PrefTitleGeneral;
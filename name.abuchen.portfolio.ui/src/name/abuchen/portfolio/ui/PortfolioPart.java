@@ -54,6 +54,7 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
 
 import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.ClientFactory;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
 import name.abuchen.portfolio.ui.dialogs.PasswordDialog;
@@ -101,6 +102,11 @@ public class PortfolioPart implements LoadClientThread.Callback
     private PageBook book;
     private AbstractFinanceView view;
 
+    /**
+     * The change currently made by the active view
+     */
+    private ClientChange ownChange;
+
     private Control focus;
 
     @Inject
@@ -290,7 +296,15 @@ public class PortfolioPart implements LoadClientThread.Callback
         this.dirty.setDirty(false);
         this.context.set(Client.class, client);
 
-        client.addPropertyChangeListener(event -> notifyModelUpdated());
+        client.addPropertyChangeListener(event -> {
+            // the view has updated itself after its own change (which is made
+            // on the UI thread unlike the changes of background jobs)
+            if (ownChange != null && event.getNewValue() == ownChange && Display.getCurrent() != null)
+                return;
+
+            notifyModelUpdated(event.getNewValue() instanceof ClientChange ? (ClientChange) event.getNewValue()
+                            : ClientChange.all());
+        });
 
         if (client.getFileVersionAfterRead() < Client.VERSION_WITH_CURRENCY_SUPPORT)
             Display.getDefault().asyncExec(
@@ -346,10 +360,14 @@ public class PortfolioPart implements LoadClientThread.Callback
             if (preferences.getBoolean(UIConstants.Preferences.CREATE_BACKUP_BEFORE_SAVING, true))
                 createBackup(shell, clientFile);
 
-            ClientFactory.save(client, clientFile, null, null);
+            ClientFactory.save(client, clientFile, null, null,
+                            preferences.getBoolean(UIConstants.Preferences.STORE_QUOTES_IN_SIDECAR, false));
             broker.post(UIConstants.Event.File.SAVED, clientFile.getAbsolutePath());
             dirty.setDirty(false);
 
+            if (ClientFactory.isCompactionDue(client))
+                new CompactFileJob(client, clientFile).schedule();
+
             storePreferences();
         }
         catch (IOException e)
@@ -422,7 +440,8 @@ public class PortfolioPart implements LoadClientThread.Callback
             clientFile = localFile;
 
             part.getPersistedState().put(UIConstants.File.PERSISTED_STATE_KEY, clientFile.getAbsolutePath());
-            ClientFactory.save(client, clientFile, encryptionMethod, password);
+            ClientFactory.save(client, clientFile, encryptionMethod, password,
+                            preferences.getBoolean(UIConstants.Preferences.STORE_QUOTES_IN_SIDECAR, false));
             broker.post(UIConstants.Event.File.SAVED, clientFile.getAbsolutePath());
 
             dirty.setDirty(false);
@@ -443,6 +462,11 @@ public class PortfolioPart implements LoadClientThread.Callback
         return client;
     }
 
+    public File getClientFile()
+    {
+        return clientFile;
+    }
+
     public IPreferenceStore getPreferenceStore()
     {
         return preferenceStore;
@@ -453,13 +477,39 @@ public class PortfolioPart implements LoadClientThread.Callback
         dirty.setDirty(true);
     }
 
+    /**
+     * Marks the client dirty after the active view changed the given
+     * elements. The change is passed to the listeners of the client, e.g. to
+     * invalidate the indices of the transaction owners, but not back to the
+     * view.
+     */
+    /* package */void markDirty(ClientChange change)
+    {
+        dirty.setDirty(true);
+
+        ownChange = change;
+        try
+        {
+            client.markDirty(change);
+        }
+        finally
+        {
+            ownChange = null;
+        }
+    }
+
     public void notifyModelUpdated()
+    {
+        notifyModelUpdated(ClientChange.all());
+    }
+
+    public void notifyModelUpdated(ClientChange change)
     {
         Display.getDefault().asyncExec(() -> {
             markDirty();
 
             if (view != null && view.getControl() != null && !view.getControl().isDisposed())
-                view.notifyModelUpdated();
+                view.notifyModelUpdated(change);
         });
     }
 
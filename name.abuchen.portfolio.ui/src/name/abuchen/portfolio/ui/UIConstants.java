@@ -76,6 +76,19 @@ public interface UIConstants
          */
         String CREATE_BACKUP_BEFORE_SAVING = "CREATE_BACKUP_BEFORE_SAVING"; //$NON-NLS-1$
 
+        /**
+         * Preference key whether to store the historical quotes of binary
+         * files in a separate file which is read on demand.
+         */
+        String STORE_QUOTES_IN_SIDECAR = "STORE_QUOTES_IN_SIDECAR"; //$NON-NLS-1$
+
+        /**
+         * Preference key whether to cache the text stripped from imported PDF
+         * documents. The text of documents imported into encrypted files is
+         * never cached.
+         */
+        String CACHE_PDF_TEXT = "CACHE_PDF_TEXT"; //$NON-NLS-1$
+
         /**
          * Preference key to store a comma-separated list of recent files
          */
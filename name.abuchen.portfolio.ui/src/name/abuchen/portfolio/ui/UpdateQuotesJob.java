@@ -2,6 +2,7 @@ package name.abuchen.portfolio.ui;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -22,6 +23,7 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.jobs.JobGroup;
 
 import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.online.Factory;
 import name.abuchen.portfolio.online.QuoteFeed;
@@ -46,23 +48,45 @@ public final class UpdateQuotesJob extends AbstractClientJob
         private final Client client;
         private AtomicInteger counter;
 
+        /**
+         * The changes since the last event sent; merged to send one event
+         */
+        private ClientChange pending;
+
         public Dirtyable(Client client)
         {
             this.client = client;
             this.counter = new AtomicInteger();
         }
 
-        public void markDirty()
+        public void markDirty(ClientChange change)
         {
-            int count = counter.incrementAndGet();
-            if (count % THRESHOLD == 0)
-                client.markDirty();
+            ClientChange merged;
+
+            synchronized (this)
+            {
+                pending = pending == null ? change : pending.merge(change);
+
+                int count = counter.incrementAndGet();
+                if (count % THRESHOLD != 0)
+                    return;
+
+                merged = pending;
+                pending = null;
+            }
+
+            client.markDirty(merged);
         }
 
         public boolean isDirty()
         {
             return counter.get() % THRESHOLD != 0;
         }
+
+        public synchronized ClientChange getPendingChange()
+        {
+            return pending != null ? pending : ClientChange.all();
+        }
     }
 
     /**
@@ -158,7 +182,7 @@ public final class UpdateQuotesJob extends AbstractClientJob
             runJobs(monitor, jobs);
 
         if (!monitor.isCanceled() && dirtyable.isDirty())
-            getClient().markDirty();
+            getClient().markDirty(dirtyable.getPendingChange());
 
         if (repeatPeriod > 0)
             schedule(repeatPeriod);
@@ -230,8 +254,25 @@ public final class UpdateQuotesJob extends AbstractClientJob
             {
                 ArrayList<Exception> exceptions = new ArrayList<>();
 
+                // latest quotes are used starting with the date of the
+                // previous or the new latest quote, whichever is earlier
+                LocalDate changedFrom = LocalDate.MAX;
+                for (Security security : securities)
+                {
+                    if (security.getLatest() != null && security.getLatest().getTime().isBefore(changedFrom))
+                        changedFrom = security.getLatest().getTime();
+                }
+
                 if (feed.updateLatestQuotes(securities, exceptions))
-                    dirtyable.markDirty();
+                {
+                    for (Security security : securities)
+                    {
+                        if (security.getLatest() != null && security.getLatest().getTime().isBefore(changedFrom))
+                            changedFrom = security.getLatest().getTime();
+                    }
+
+                    dirtyable.markDirty(ClientChange.of(changedFrom, securities.toArray()));
+                }
 
                 if (!exceptions.isEmpty())
                     PortfolioPlugin.log(createErrorStatus(feed.getName(), exceptions));
@@ -260,8 +301,9 @@ public final class UpdateQuotesJob extends AbstractClientJob
 
                     ArrayList<Exception> exceptions = new ArrayList<>();
 
+                    // feeds do not report which quotes changed
                     if (feed.updateHistoricalQuotes(security, exceptions))
-                        dirtyable.markDirty();
+                        dirtyable.markDirty(ClientChange.of(LocalDate.MIN, security));
 
                     if (!exceptions.isEmpty())
                         PortfolioPlugin.log(createErrorStatus(security.getName(), exceptions));
@@ -3,10 +3,12 @@ package name.abuchen.portfolio.ui.dialogs.transactions;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 import org.eclipse.core.databinding.validation.ValidationStatus;
 import org.eclipse.core.runtime.IStatus;
 
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
 import name.abuchen.portfolio.money.Values;
 
@@ -15,6 +17,11 @@ public abstract class AbstractModel
     private PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
     private ExchangeRateProviderFactory factory;
 
+    /**
+     * The accounts, portfolios and securities changed by this model
+     */
+    private ClientChange change;
+
     public abstract String getHeading();
 
     /**
@@ -27,6 +34,27 @@ public abstract class AbstractModel
      */
     public abstract void resetToNewTransaction();
 
+    /**
+     * Returns the change of the client made by {@link #applyChanges()}, i.e.
+     * the transaction owners and securities of the original and of the
+     * updated transaction. Models which do not record their changes return
+     * {@link ClientChange#all()}.
+     */
+    public ClientChange getChange()
+    {
+        return change != null ? change : ClientChange.all();
+    }
+
+    /**
+     * Records a change of the given transaction owners and securities
+     * starting with the given date.
+     */
+    protected void changed(LocalDate date, Object... elements)
+    {
+        ClientChange c = ClientChange.of(date, elements);
+        change = change == null ? c : change.merge(c);
+    }
+
     public IStatus getCalculationStatus()
     {
         return ValidationStatus.ok();
@@ -36,6 +36,7 @@ import com.ibm.icu.text.DecimalFormat;
 import com.ibm.icu.text.NumberFormat;
 
 import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.Portfolio;
 import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.money.Values;
@@ -188,6 +189,14 @@ public abstract class AbstractTransactionDialog extends TitleAreaDialog
         this.model = model;
     }
 
+    /**
+     * Returns the change of the client made by the dialog.
+     */
+    public ClientChange getChange()
+    {
+        return model.getChange();
+    }
+
     @PostConstruct
     public void registerValidationStatusListener()
     {
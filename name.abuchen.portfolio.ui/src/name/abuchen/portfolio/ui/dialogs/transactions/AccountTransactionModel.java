@@ -149,6 +149,8 @@ public class AccountTransactionModel extends AbstractModel
                                 Money.of(getSecurityCurrencyCode(), fxTaxes), //
                                 exchangeRate));
         }
+
+        changed(date, account, t.getSecurity());
     }
 
     @Override
@@ -230,6 +232,8 @@ public class AccountTransactionModel extends AbstractModel
             this.fxGrossAmount = grossAmount;
 
         this.note = transaction.getNote();
+
+        changed(date, account, transaction.getSecurity());
     }
 
     @Override
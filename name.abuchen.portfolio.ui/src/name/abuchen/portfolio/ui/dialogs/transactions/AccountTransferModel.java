@@ -120,6 +120,8 @@ public class AccountTransferModel extends AbstractModel
 
             sourceTransaction.addUnit(forex);
         }
+
+        changed(date, sourceAccount, targetAccount);
     }
 
     @Override
@@ -155,6 +157,8 @@ public class AccountTransferModel extends AbstractModel
         {
             this.exchangeRate = BigDecimal.ONE;
         }
+
+        changed(date, sourceAccount, targetAccount);
     }
 
     @Override
@@ -38,6 +38,8 @@ import name.abuchen.portfolio.ui.Messages;
         this.portfolio = (Portfolio) source.getOwner(source.getPortfolioTransaction());
         this.account = (Account) source.getOwner(source.getAccountTransaction());
         fillFromTransaction(source.getPortfolioTransaction());
+
+        changed(date, portfolio, account, security);
     }
 
     @Override
@@ -79,6 +81,8 @@ import name.abuchen.portfolio.ui.Messages;
         entry.setNote(note);
 
         writeToTransaction(entry.getPortfolioTransaction());
+
+        changed(date, portfolio, account, security);
     }
 
     @Override
@@ -105,7 +105,7 @@ public class OpenDialogAction extends Action
             }
             else
             {
-                owner.markDirty();
+                owner.markDirty(dialog.getChange());
                 owner.notifyModelUpdated();
             }
         }
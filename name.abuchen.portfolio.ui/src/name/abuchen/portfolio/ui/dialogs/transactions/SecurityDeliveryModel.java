@@ -41,6 +41,8 @@ public class SecurityDeliveryModel extends AbstractSecurityTransactionModel
         this.portfolio = (Portfolio) source.getOwner();
         this.transactionCurrency = CurrencyUnit.getInstance(source.getTransaction().getCurrencyCode());
         fillFromTransaction(source.getTransaction());
+
+        changed(date, portfolio, security);
     }
 
     @Override
@@ -80,6 +82,8 @@ public class SecurityDeliveryModel extends AbstractSecurityTransactionModel
         transaction.setNote(note);
 
         writeToTransaction(transaction);
+
+        changed(date, portfolio, security);
     }
 
     @Override
@@ -95,6 +95,8 @@ public class SecurityTransferModel extends AbstractModel
         t.setAmount(amount);
         t.setCurrencyCode(security.getCurrencyCode());
         t.setNote(note);
+
+        changed(date, sourcePortfolio, targetPortfolio, security);
     }
 
     @Override
@@ -167,6 +169,8 @@ public class SecurityTransferModel extends AbstractModel
         this.quote = entry.getSourceTransaction().getGrossPricePerShare().toBigDecimal();
         this.amount = entry.getTargetTransaction().getAmount();
         this.note = entry.getSourceTransaction().getNote();
+
+        changed(date, sourcePortfolio, targetPortfolio, security);
     }
 
     @Override
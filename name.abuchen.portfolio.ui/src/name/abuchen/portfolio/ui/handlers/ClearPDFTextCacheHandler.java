@@ -0,0 +1,21 @@
+package name.abuchen.portfolio.ui.handlers;
+
+import javax.inject.Named;
+
+import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.ui.services.IServiceConstants;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.widgets.Shell;
+
+import name.abuchen.portfolio.datatransfer.pdf.PDFTextCache;
+import name.abuchen.portfolio.ui.Messages;
+
+public class ClearPDFTextCacheHandler
+{
+    @Execute
+    public void execute(@Named(IServiceConstants.ACTIVE_SHELL) Shell shell)
+    {
+        PDFTextCache.getDefault().clear();
+        MessageDialog.openInformation(shell, Messages.LabelInfo, Messages.MsgPDFTextCacheCleared);
+    }
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 
 import javax.inject.Named;
 
+import name.abuchen.portfolio.datatransfer.pdf.PDFTextCache;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPlugin;
 import name.abuchen.portfolio.ui.dialogs.DisplayTextDialog;
@@ -37,11 +38,19 @@ public class CreateTextFromPDFHandler
             return;
         File file = new File(fileDialog.getFilterPath(), fileName);
 
-        try (PDDocument doc = PDDocument.load(file))
+        try
         {
-            PDFTextStripper textStripper = new PDFTextStripper();
-            textStripper.setSortByPosition(true);
-            String text = textStripper.getText(doc);
+            PDFTextCache.TextLoader loader = f -> {
+                try (PDDocument doc = PDDocument.load(f))
+                {
+                    PDFTextStripper textStripper = new PDFTextStripper();
+                    textStripper.setSortByPosition(true);
+                    return textStripper.getText(doc);
+                }
+            };
+
+            String text = MenuHelper.isPDFTextCached(part) ? PDFTextCache.getDefault().getText(file, loader)
+                            : loader.load(file);
 
             new DisplayTextDialog(shell, text).open();
         }
@@ -22,17 +22,7 @@ import org.eclipse.swt.widgets.Shell;
 
 import name.abuchen.portfolio.datatransfer.Extractor;
 import name.abuchen.portfolio.datatransfer.IBFlexStatementExtractor;
-import name.abuchen.portfolio.datatransfer.pdf.BankSLMPDFExctractor;
-import name.abuchen.portfolio.datatransfer.pdf.ComdirectPDFExtractor;
-import name.abuchen.portfolio.datatransfer.pdf.CommerzbankPDFExctractor;
-import name.abuchen.portfolio.datatransfer.pdf.ConsorsbankPDFExctractor;
-import name.abuchen.portfolio.datatransfer.pdf.DABPDFExctractor;
-import name.abuchen.portfolio.datatransfer.pdf.DeutscheBankPDFExctractor;
-import name.abuchen.portfolio.datatransfer.pdf.DkbPDFExtractor;
-import name.abuchen.portfolio.datatransfer.pdf.FlatexPDFExtractor;
-import name.abuchen.portfolio.datatransfer.pdf.INGDiBaExtractor;
-import name.abuchen.portfolio.datatransfer.pdf.OnvistaPDFExtractor;
-import name.abuchen.portfolio.datatransfer.pdf.SBrokerPDFExtractor;
+import name.abuchen.portfolio.datatransfer.pdf.PDFExtractorFactory;
 import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPart;
@@ -59,7 +49,7 @@ public class ImportPDFHandler
         try
         {
             // determine extractor class
-            Extractor extractor = createExtractor(type, client);
+            Extractor extractor = createExtractor(type, client, MenuHelper.isPDFTextCached(part));
 
             // open file dialog to pick pdf files
 
@@ -92,36 +82,15 @@ public class ImportPDFHandler
         }
     }
 
-    private Extractor createExtractor(String type, Client client) throws IOException, IllegalArgumentException
+    private Extractor createExtractor(String type, Client client, boolean isTextCached)
+                    throws IOException, IllegalArgumentException
     {
-        switch (type)
-        {
-            case "bankslm": //$NON-NLS-1$
-                return new BankSLMPDFExctractor(client);
-            case "comdirect": //$NON-NLS-1$
-                return new ComdirectPDFExtractor(client);
-            case "commerzbank": //$NON-NLS-1$
-                return new CommerzbankPDFExctractor(client);
-            case "consorsbank": //$NON-NLS-1$
-                return new ConsorsbankPDFExctractor(client);
-            case "dab": //$NON-NLS-1$
-                return new DABPDFExctractor(client);
-            case "db": //$NON-NLS-1$
-                return new DeutscheBankPDFExctractor(client);
-            case "dkb": //$NON-NLS-1$
-                return new DkbPDFExtractor(client);
-            case "flatex": //$NON-NLS-1$
-                return new FlatexPDFExtractor(client);
-            case "ingdiba": //$NON-NLS-1$
-                return new INGDiBaExtractor(client);
-            case "onvista": //$NON-NLS-1$
-                return new OnvistaPDFExtractor(client);
-            case "sbroker": //$NON-NLS-1$
-                return new SBrokerPDFExtractor(client);
-            case "ib": //$NON-NLS-1$
-                return new IBFlexStatementExtractor(client);
-            default:
-                throw new UnsupportedOperationException("Unknown pdf type: " + type); //$NON-NLS-1$
-        }
+        if ("ib".equals(type)) //$NON-NLS-1$
+            return new IBFlexStatementExtractor(client);
+
+        Extractor extractor = PDFExtractorFactory.create(type, client, isTextCached);
+        if (extractor == null)
+            throw new UnsupportedOperationException("Unknown pdf type: " + type); //$NON-NLS-1$
+        return extractor;
     }
 }
@@ -1,8 +1,13 @@
 package name.abuchen.portfolio.ui.handlers;
 
+import java.io.File;
+
 import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPart;
+import name.abuchen.portfolio.ui.PortfolioPlugin;
+import name.abuchen.portfolio.ui.UIConstants;
 
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.e4.ui.model.application.ui.basic.MPart;
@@ -38,4 +43,21 @@ import org.eclipse.swt.widgets.Display;
 
         return ((PortfolioPart) part.getObject()).getClient();
     }
+
+    /**
+     * Returns true if the text stripped from PDF documents may be cached,
+     * i.e. caching is enabled and the active file is not encrypted.
+     */
+    /* package */static boolean isPDFTextCached(MPart part)
+    {
+        if (!PortfolioPlugin.getDefault().getPreferenceStore().getBoolean(UIConstants.Preferences.CACHE_PDF_TEXT))
+            return false;
+
+        // the cache stores the text unencrypted
+        if (part == null || !(part.getObject() instanceof PortfolioPart))
+            return true;
+
+        File file = ((PortfolioPart) part.getObject()).getClientFile();
+        return file == null || !ClientFactory.isEncrypted(file);
+    }
 }
@@ -28,7 +28,7 @@ public class OpenFileHandler
                     MApplication app, EPartService partService, EModelService modelService)
     {
         FileDialog dialog = new FileDialog(shell, SWT.OPEN);
-        dialog.setFilterExtensions(new String[] { "*.xml;*.portfolio", "*.*" }); //$NON-NLS-1$ //$NON-NLS-2$
+        dialog.setFilterExtensions(new String[] { "*.xml;*.portfolio;*.ppb", "*.*" }); //$NON-NLS-1$ //$NON-NLS-2$
         dialog.setFilterNames(new String[] { Messages.LabelPortfolioPerformanceFile, Messages.LabelAllFiles });
         String fileSelected = dialog.open();
 
@@ -19,5 +19,9 @@ public class GeneralPreferencePage extends FieldEditorPreferencePage
     {
         addField(new BooleanFieldEditor(UIConstants.Preferences.CREATE_BACKUP_BEFORE_SAVING, //
                         Messages.PrefCreateBackupBeforeSaving, getFieldEditorParent()));
+        addField(new BooleanFieldEditor(UIConstants.Preferences.STORE_QUOTES_IN_SIDECAR, //
+                        Messages.PrefStoreQuotesInSidecar, getFieldEditorParent()));
+        addField(new BooleanFieldEditor(UIConstants.Preferences.CACHE_PDF_TEXT, //
+                        Messages.PrefCachePDFText, getFieldEditorParent()));
     }
 }
@@ -16,5 +16,7 @@ public class PreferencesInitializer extends AbstractPreferenceInitializer
         store.setDefault(UIConstants.Preferences.UPDATE_SITE, "http://updates.abuchen.name/portfolio"); //$NON-NLS-1$
         store.setDefault(UIConstants.Preferences.USE_INDIRECT_QUOTATION, true);
         store.setDefault(UIConstants.Preferences.CREATE_BACKUP_BEFORE_SAVING, true);
+        store.setDefault(UIConstants.Preferences.STORE_QUOTES_IN_SIDECAR, false);
+        store.setDefault(UIConstants.Preferences.CACHE_PDF_TEXT, true);
     }
 }
@@ -15,11 +15,18 @@ public final class NumberColorLabelProvider<N extends Number> extends ColumnLabe
 {
     private final Values<N> format;
     private final Function<Object, N> provider;
+    private final Function<Object, String> tooltip;
 
     public NumberColorLabelProvider(Values<N> format, Function<Object, N> provider)
+    {
+        this(format, provider, null);
+    }
+
+    public NumberColorLabelProvider(Values<N> format, Function<Object, N> provider, Function<Object, String> tooltip)
     {
         this.format = format;
         this.provider = provider;
+        this.tooltip = tooltip;
     }
 
     @Override
@@ -52,4 +59,10 @@ public final class NumberColorLabelProvider<N extends Number> extends ColumnLabe
 
         return format.format(value);
     }
+
+    @Override
+    public String getToolTipText(Object element)
+    {
+        return tooltip != null ? tooltip.apply(element) : null;
+    }
 }
\ No newline at end of file
@@ -40,6 +40,7 @@ import name.abuchen.portfolio.model.AccountTransaction;
 import name.abuchen.portfolio.model.AccountTransaction.Type;
 import name.abuchen.portfolio.model.AccountTransferEntry;
 import name.abuchen.portfolio.model.BuySellEntry;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.PortfolioTransaction;
 import name.abuchen.portfolio.model.Transaction;
 import name.abuchen.portfolio.money.CurrencyConverter;
@@ -207,12 +208,32 @@ public class AccountListView extends AbstractListView implements ModificationLis
             AccountTransaction t = (AccountTransaction) element;
             if (t.getCrossEntry() != null)
                 t.getCrossEntry().updateFrom(t);
-            accounts.refresh(true);
 
-            updateOnAccountSelected((Account) transactions.getData(Account.class.toString()));
+            LocalDate changedFrom = t.getDate();
+            if (oldValue instanceof LocalDate && ((LocalDate) oldValue).isBefore(changedFrom))
+                changedFrom = (LocalDate) oldValue;
+
+            Account account = (Account) transactions.getData(Account.class.toString());
+            markDirty(changeOf(account, t, changedFrom));
+
+            accounts.refresh(true);
+            updateOnAccountSelected(account);
+        }
+        else
+        {
+            // the name, currency or note of an account has been changed
+            markDirty(ClientChange.of(LocalDate.MIN, element));
         }
+    }
 
-        markDirty();
+    /**
+     * Returns the change of the account, the cross owner and the security of
+     * the transaction starting with the given date.
+     */
+    private ClientChange changeOf(Account account, AccountTransaction t, LocalDate changedFrom)
+    {
+        return ClientChange.of(changedFrom, account,
+                        t.getCrossEntry() != null ? t.getCrossEntry().getCrossOwner(t) : null, t.getSecurity());
     }
 
     // //////////////////////////////////////////////////////////////
@@ -649,10 +670,16 @@ public class AccountListView extends AbstractListView implements ModificationLis
                     if (selection == null || selection.length == 0 || account == null)
                         return;
 
-                    for (Object transaction : selection)
-                        account.deleteTransaction((AccountTransaction) transaction, getClient());
+                    ClientChange change = null;
+                    for (Object element : selection)
+                    {
+                        AccountTransaction transaction = (AccountTransaction) element;
+                        ClientChange c = changeOf(account, transaction, transaction.getDate());
+                        change = change == null ? c : change.merge(c);
+                        account.deleteTransaction(transaction, getClient());
+                    }
 
-                    markDirty();
+                    markDirty(change);
                     transaction2balance.clear();
                     updateBalance(account);
                     accounts.refresh();
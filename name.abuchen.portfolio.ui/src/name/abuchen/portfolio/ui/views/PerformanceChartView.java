@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.text.DecimalFormat;
 import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
+import java.util.List;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.ActionContributionItem;
@@ -19,6 +20,7 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.ToolBar;
 import org.swtchart.ISeries;
 
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.snapshot.Aggregation;
 import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.ui.Images;
@@ -162,6 +164,13 @@ public class PerformanceChartView extends AbstractHistoricView
         updateChart();
     }
 
+    @Override
+    public void notifyModelUpdated(ClientChange change)
+    {
+        seriesBuilder.getCache().update(change);
+        updateChart();
+    }
+
     private void updateChart()
     {
         try
@@ -189,8 +198,12 @@ public class PerformanceChartView extends AbstractHistoricView
 
     private void setChartSeries()
     {
-        picker.getSelectedDataSeries()
-                        .forEach(series -> seriesBuilder.build(series, getReportingPeriod(), aggregationPeriod));
+        List<DataSeries> series = picker.getSelectedDataSeries();
+
+        // calculate all data series in parallel before adding them to the chart
+        seriesBuilder.getCache().lookup(series, getReportingPeriod());
+
+        series.forEach(s -> seriesBuilder.build(s, getReportingPeriod(), aggregationPeriod));
     }
 
     private final class AggregationPeriodDropDown extends AbstractDropDown
@@ -1,5 +1,6 @@
 package name.abuchen.portfolio.ui.views;
 
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -25,6 +26,7 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Menu;
 
 import name.abuchen.portfolio.model.BuySellEntry;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.CrossEntry;
 import name.abuchen.portfolio.model.Portfolio;
 import name.abuchen.portfolio.model.PortfolioTransaction;
@@ -124,7 +126,8 @@ public final class PortfolioTransactionsViewer implements ModificationListener
 
             portfolio.addTransaction(delivery);
 
-            owner.markDirty();
+            owner.markDirty(ClientChange.of(transaction.getDate(), portfolio, source.getCrossOwner(transaction),
+                            transaction.getSecurity()));
             owner.notifyModelUpdated();
         }
     }
@@ -203,10 +206,24 @@ public final class PortfolioTransactionsViewer implements ModificationListener
         if (t.getCrossEntry() != null)
             t.getCrossEntry().updateFrom(t);
 
-        owner.markDirty();
+        LocalDate changedFrom = t.getDate();
+        if (oldValue instanceof LocalDate && ((LocalDate) oldValue).isBefore(changedFrom))
+            changedFrom = (LocalDate) oldValue;
+
+        owner.markDirty(changeOf(t, changedFrom));
         owner.notifyModelUpdated();
     }
 
+    /**
+     * Returns the change of the portfolio, the cross owner and the security
+     * of the transaction starting with the given date.
+     */
+    private ClientChange changeOf(PortfolioTransaction t, LocalDate changedFrom)
+    {
+        return ClientChange.of(changedFrom, portfolio,
+                        t.getCrossEntry() != null ? t.getCrossEntry().getCrossOwner(t) : null, t.getSecurity());
+    }
+
     private void addColumns()
     {
         Column column = new Column(Messages.ColumnDate, SWT.None, 80);
@@ -455,10 +472,16 @@ public final class PortfolioTransactionsViewer implements ModificationListener
                 public void run()
                 {
                     Object[] selection = ((IStructuredSelection) tableViewer.getSelection()).toArray();
-                    for (Object transaction : selection)
-                        portfolio.deleteTransaction((PortfolioTransaction) transaction, owner.getClient());
-
-                    owner.markDirty();
+                    ClientChange change = null;
+                    for (Object element : selection)
+                    {
+                        PortfolioTransaction transaction = (PortfolioTransaction) element;
+                        ClientChange c = changeOf(transaction, transaction.getDate());
+                        change = change == null ? c : change.merge(c);
+                        portfolio.deleteTransaction(transaction, owner.getClient());
+                    }
+
+                    owner.markDirty(change != null ? change : ClientChange.all());
                     owner.notifyModelUpdated();
                 }
             });
@@ -27,6 +27,7 @@ import org.swtchart.IPlotArea;
 import org.swtchart.ISeries;
 
 import name.abuchen.portfolio.math.Risk.Volatility;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
@@ -153,6 +154,13 @@ public class ReturnsVolatilityChartView extends AbstractHistoricView
         updateChart();
     }
 
+    @Override
+    public void notifyModelUpdated(ClientChange change)
+    {
+        cache.update(change);
+        updateChart();
+    }
+
     private void updateChart()
     {
         try
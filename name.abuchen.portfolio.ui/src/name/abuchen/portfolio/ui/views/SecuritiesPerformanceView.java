@@ -7,6 +7,11 @@ import java.util.function.Predicate;
 
 import javax.inject.Inject;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.ActionContributionItem;
 import org.eclipse.jface.action.IMenuManager;
@@ -30,6 +35,7 @@ import org.eclipse.swt.dnd.DND;
 import org.eclipse.swt.dnd.Transfer;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.ToolBar;
 
 import com.ibm.icu.text.MessageFormat;
@@ -146,6 +152,8 @@ public class SecuritiesPerformanceView extends AbstractListView implements Repor
     private SecuritiesChart chart;
     private SecurityDetailsViewer latest;
 
+    private Job calculation;
+
     @Override
     protected String getDefaultTitle()
     {
@@ -433,8 +441,9 @@ public class SecuritiesPerformanceView extends AbstractListView implements Repor
         column = new Column("izf", Messages.ColumnIRR, SWT.RIGHT, 80); //$NON-NLS-1$
         column.setGroupLabel(Messages.GroupLabelPerformance);
         column.setMenuLabel(Messages.ColumnIRR_MenuLabel);
-        column.setLabelProvider(
-                        new NumberColorLabelProvider<>(Values.Percent2, r -> ((SecurityPerformanceRecord) r).getIrr()));
+        column.setLabelProvider(new NumberColorLabelProvider<>(Values.Percent2,
+                        r -> ((SecurityPerformanceRecord) r).getIrr(),
+                        r -> ((SecurityPerformanceRecord) r).isIrrConverged() ? null : Messages.MsgIRRNotConverged));
         column.setSorter(ColumnViewerSorter.create(SecurityPerformanceRecord.class, "irr")); //$NON-NLS-1$
         recordColumns.addColumn(column);
 
@@ -879,8 +888,47 @@ public class SecuritiesPerformanceView extends AbstractListView implements Repor
     {
         ReportingPeriod period = dropDown.getPeriods().getFirst();
         CurrencyConverter converter = new CurrencyConverterImpl(factory, getClient().getBaseCurrency());
-        records.setInput(SecurityPerformanceSnapshot.create(getClient(), converter, period).getRecords());
-        records.refresh();
+
+        // the result of a running calculation is outdated
+        if (calculation != null)
+            calculation.cancel();
+
+        calculation = new Job(Messages.JobLabelCalculateSecurityPerformance)
+        {
+            @Override
+            protected IStatus run(IProgressMonitor monitor)
+            {
+                try
+                {
+                    List<SecurityPerformanceRecord> result = SecurityPerformanceSnapshot
+                                    .create(getClient(), converter, period, monitor).getRecords();
+
+                    Display.getDefault().asyncExec(() -> {
+                        if (calculation != this || records.getTable().isDisposed())
+                            return;
+
+                        records.setInput(result);
+                        records.refresh();
+                    });
+
+                    return Status.OK_STATUS;
+                }
+                catch (OperationCanceledException e)
+                {
+                    return Status.CANCEL_STATUS;
+                }
+            }
+        };
+        calculation.schedule();
+    }
+
+    @Override
+    public void dispose()
+    {
+        if (calculation != null)
+            calculation.cancel();
+
+        super.dispose();
     }
 
     private void fillContextMenu(IMenuManager manager) // NOSONAR
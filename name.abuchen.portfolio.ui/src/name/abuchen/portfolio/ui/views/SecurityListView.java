@@ -256,13 +256,13 @@ public class SecurityListView extends AbstractListView implements ModificationLi
         // called from prices table
         Security security = (Security) prices.getData(Security.class.toString());
 
-        // if the date changed, the prices must be reordered --> binary search
+        // the table shows copies of the historical quotes --> write back the
+        // modified price (and remove the quote at the old date if the date
+        // changed)
+        SecurityPrice price = (SecurityPrice) element;
         if (newValue instanceof LocalDate)
-        {
-            SecurityPrice price = (SecurityPrice) element;
-            security.removePrice(price);
-            security.addPrice(price);
-        }
+            security.removePrice(new SecurityPrice((LocalDate) oldValue, price.getValue()));
+        security.addPrice(price);
 
         securities.refresh(security);
         prices.refresh(element);
@@ -13,6 +13,7 @@ import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.ToolBar;
 import org.swtchart.ISeries;
 
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.util.chart.TimelineChart;
@@ -160,6 +161,13 @@ public class StatementOfAssetsHistoryView extends AbstractHistoricView
         updateChart();
     }
 
+    @Override
+    public void notifyModelUpdated(ClientChange change)
+    {
+        seriesBuilder.getCache().update(change);
+        updateChart();
+    }
+
     @Override
     public void reportingPeriodUpdated()
     {
@@ -17,6 +17,7 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Label;
 import org.swtchart.ISeries;
 
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.ConfigurationSet;
 import name.abuchen.portfolio.model.Dashboard;
 import name.abuchen.portfolio.model.Dashboard.Widget;
@@ -68,7 +69,7 @@ public class ChartWidget extends WidgetDelegate
                 SimpleAction action = new SimpleAction(c.getName(), a -> {
                     config = c;
                     delegate.getWidget().getConfiguration().put(Dashboard.Config.CONFIG_UUID.name(), c.getUUID());
-                    delegate.getClient().markDirty();
+                    delegate.getClient().markDirty(ClientChange.settings());
                 });
                 action.setChecked(c.equals(config));
                 subMenu.add(action);
@@ -122,7 +123,7 @@ public class ChartWidget extends WidgetDelegate
             Action action = new SimpleAction(Messages.LabelAggregationDaily, a -> {
                 aggregation = null;
                 delegate.getWidget().getConfiguration().remove(Dashboard.Config.AGGREGATION.name());
-                delegate.getClient().markDirty();
+                delegate.getClient().markDirty(ClientChange.settings());
             });
             action.setChecked(aggregation == null);
             subMenu.add(action);
@@ -131,7 +132,7 @@ public class ChartWidget extends WidgetDelegate
                 Action menu = new SimpleAction(a.toString(), x -> {
                     aggregation = a;
                     delegate.getWidget().getConfiguration().put(Dashboard.Config.AGGREGATION.name(), a.name());
-                    delegate.getClient().markDirty();
+                    delegate.getClient().markDirty(ClientChange.settings());
                 });
                 menu.setChecked(aggregation == a);
                 subMenu.add(menu);
@@ -227,6 +228,10 @@ public class ChartWidget extends WidgetDelegate
 
             ReportingPeriod reportingPeriod = get(ReportingPeriodConfig.class).getReportingPeriod();
 
+            // calculate all data series in parallel before adding them to the
+            // chart
+            getDashboardData().getDataSeriesCache().lookup(series, reportingPeriod);
+
             switch (useCase)
             {
                 case STATEMENT_OF_ASSETS:
@@ -1,21 +1,28 @@
 package name.abuchen.portfolio.ui.views.dashboard;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 import javax.inject.Inject;
 
 import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.Dashboard;
+import name.abuchen.portfolio.model.Taxonomy;
 import name.abuchen.portfolio.money.CurrencyConverter;
 import name.abuchen.portfolio.money.CurrencyConverterImpl;
 import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
+import name.abuchen.portfolio.snapshot.ClientIRRYield;
 import name.abuchen.portfolio.snapshot.ClientPerformanceSnapshot;
 import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
+import name.abuchen.portfolio.ui.PortfolioPlugin;
 import name.abuchen.portfolio.ui.views.dataseries.DataSeries;
 import name.abuchen.portfolio.ui.views.dataseries.DataSeriesCache;
 import name.abuchen.portfolio.ui.views.dataseries.DataSeriesSet;
@@ -63,6 +70,7 @@ public class DashboardData
     private final CurrencyConverter converter;
 
     private final Map<CacheKey, Object> cache = new HashMap<>();
+    private LocalDate cacheDate = LocalDate.now();
 
     private List<ReportingPeriod> defaultReportingPeriods = new ArrayList<>();
     private ReportingPeriod defaultReportingPeriod;
@@ -128,12 +136,112 @@ public class DashboardData
         dataSeriesCache.clear();
     }
 
+    /**
+     * Updates the cached calculation results after the given change of the
+     * client. Performance indices of the client are updated incrementally,
+     * all other results are removed from the cache if the change affects any
+     * account, portfolio or security.
+     */
+    public void updateCache(ClientChange change)
+    {
+        if (change.isAll())
+        {
+            clearCache();
+            return;
+        }
+
+        if (change.getElements().stream().anyMatch(e -> !(e instanceof Taxonomy)))
+        {
+            List<Exception> warnings = new ArrayList<>();
+
+            Iterator<Map.Entry<CacheKey, Object>> iter = cache.entrySet().iterator();
+            while (iter.hasNext())
+            {
+                Map.Entry<CacheKey, Object> entry = iter.next();
+
+                Optional<PerformanceIndex> updated = entry.getValue() instanceof PerformanceIndex
+                                ? ((PerformanceIndex) entry.getValue()).update(change.getChangedFrom(), warnings)
+                                : Optional.empty();
+
+                if (updated.isPresent())
+                    entry.setValue(updated.get());
+                else
+                    iter.remove();
+            }
+
+            if (!warnings.isEmpty())
+                PortfolioPlugin.log(warnings);
+        }
+
+        dataSeriesCache.update(change);
+    }
+
+    /**
+     * Moves cached performance indices to the current day after a new day
+     * started. All other results are removed from the cache.
+     */
+    private void moveCacheToToday()
+    {
+        List<Exception> warnings = new ArrayList<>();
+
+        Iterator<Map.Entry<CacheKey, Object>> iter = cache.entrySet().iterator();
+        while (iter.hasNext())
+        {
+            Map.Entry<CacheKey, Object> entry = iter.next();
+
+            if (!(entry.getValue() instanceof PerformanceIndex))
+            {
+                iter.remove();
+                continue;
+            }
+
+            PerformanceIndex index = (PerformanceIndex) entry.getValue();
+            if (!index.isOutdated())
+                continue;
+
+            Optional<PerformanceIndex> updated = index.update(LocalDate.MAX, warnings);
+            if (updated.isPresent())
+                entry.setValue(updated.get());
+            else
+                iter.remove();
+        }
+
+        if (!warnings.isEmpty())
+            PortfolioPlugin.log(warnings);
+    }
+
+    private void checkCacheDate()
+    {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(cacheDate))
+        {
+            moveCacheToToday();
+            cacheDate = today;
+        }
+    }
+
     public <T> T calculate(Class<T> type, ReportingPeriod period)
     {
+        checkCacheDate();
+
         CacheKey key = new CacheKey(type, period);
         return type.cast(cache.computeIfAbsent(key, k -> doCalculate(type, period)));
     }
 
+    /**
+     * Returns the internal rate of return of the client per calendar year of
+     * the reporting period.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, ClientIRRYield> calculateYearlyIRR(ReportingPeriod period)
+    {
+        checkCacheDate();
+
+        CacheKey key = new CacheKey(ClientIRRYield.class, period);
+        return (Map<Integer, ClientIRRYield>) cache.computeIfAbsent(key,
+                        k -> ClientIRRYield.createYearly(client, converter, period.toInterval()));
+    }
+
     private Object doCalculate(Class<?> type, ReportingPeriod period)
     {
         if (type.equals(ClientPerformanceSnapshot.class))
@@ -33,6 +33,7 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.ToolBar;
 
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.Dashboard;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
@@ -198,6 +199,13 @@ public class DashboardView extends AbstractHistoricView
         updateWidgets();
     }
 
+    @Override
+    public void notifyModelUpdated(ClientChange change)
+    {
+        dashboardData.updateCache(change);
+        updateWidgets();
+    }
+
     @Override
     public void reportingPeriodUpdated()
     {
@@ -8,6 +8,7 @@ import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
 import org.eclipse.swt.widgets.Display;
 
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.Dashboard;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.dialogs.ListSelectionDialog;
@@ -84,7 +85,7 @@ public class DataSeriesConfig implements WidgetConfig
         String label = WidgetFactory.valueOf(delegate.getWidget().getType()).getLabel() + ", " + dataSeries.getLabel(); //$NON-NLS-1$
         delegate.getWidget().setLabel(label);
 
-        delegate.getClient().markDirty();
+        delegate.getClient().markDirty(ClientChange.settings());
     }
 
 
@@ -4,6 +4,7 @@ import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.dialogs.InputDialog;
 import org.eclipse.swt.widgets.Display;
 
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.util.LabelOnly;
 import name.abuchen.portfolio.ui.util.SimpleAction;
@@ -30,7 +31,7 @@ public class LabelConfig implements WidgetConfig
                 return;
 
             delegate.getWidget().setLabel(dialog.getValue());
-            delegate.getClient().markDirty();
+            delegate.getClient().markDirty(ClientChange.settings());
         }));
     }
 
@@ -1,8 +1,11 @@
 package name.abuchen.portfolio.ui.views.dashboard;
 
 import java.time.LocalDate;
+import java.time.Month;
 import java.time.format.TextStyle;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
 
 import org.eclipse.jface.layout.GridDataFactory;
 import org.eclipse.jface.layout.GridLayoutFactory;
@@ -15,8 +18,9 @@ import org.eclipse.swt.widgets.Label;
 
 import name.abuchen.portfolio.model.Dashboard.Widget;
 import name.abuchen.portfolio.money.Values;
-import name.abuchen.portfolio.snapshot.PerformanceIndex;
+import name.abuchen.portfolio.snapshot.ClientIRRYield;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
+import name.abuchen.portfolio.snapshot.ReturnMatrix;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.util.InfoToolTip;
 import name.abuchen.portfolio.ui.views.dataseries.DataSeries;
@@ -50,8 +54,6 @@ public class PerformanceHeatmapWidget extends WidgetDelegate
         GridDataFactory.fillDefaults().grab(true, false).applyTo(title);
 
         table = new Composite(container, SWT.NONE);
-        // 13 columns, one for the legend and 12 for the months
-        GridLayoutFactory.fillDefaults().numColumns(13).spacing(1, 1).applyTo(table);
         table.setBackground(container.getBackground());
         fillTable();
 
@@ -70,11 +72,20 @@ public class PerformanceHeatmapWidget extends WidgetDelegate
     private void fillTable()
     {
         // fill the table lines according to the supplied period
-        // calculate the performance with a temporary reporting period
+        // calculate the monthly returns from the (cached) index of the period
         // calculate the color interpolated between red and green with white as
         // the median
-        Interval interval = get(ReportingPeriodConfig.class).getReportingPeriod().toInterval();
-        ReportingPeriod currPeriod;
+        ReportingPeriod reportingPeriod = get(ReportingPeriodConfig.class).getReportingPeriod();
+        Interval interval = reportingPeriod.toInterval();
+
+        // the yearly internal rate of return is available for the client only
+        DataSeries dataSeries = get(DataSeriesConfig.class).getDataSeries();
+        boolean showIRR = dataSeries.getType() == DataSeries.Type.CLIENT
+                        && dataSeries.getInstance() == DataSeries.ClientDataSeries.TOTALS;
+
+        // 13 columns, one for the legend and 12 for the months (plus one for
+        // the yearly internal rate of return)
+        GridLayoutFactory.fillDefaults().numColumns(showIRR ? 14 : 13).spacing(1, 1).applyTo(table);
 
         // Top Left is empty
         Label topLeft = new Label(table, SWT.NONE);
@@ -90,8 +101,17 @@ public class PerformanceHeatmapWidget extends WidgetDelegate
             currLabel.setAlignment(SWT.CENTER);
         }
 
+        Map<Integer, ClientIRRYield> irr = Collections.emptyMap();
+        if (showIRR)
+        {
+            Label irrLabel = new Label(table, SWT.NONE);
+            irrLabel.setText(Messages.ColumnIRR);
+            irrLabel.setAlignment(SWT.CENTER);
+            irr = getDashboardData().calculateYearlyIRR(reportingPeriod);
+        }
+
         // now loop the years
-        DataSeries dataSeries = get(DataSeriesConfig.class).getDataSeries();
+        ReturnMatrix returns = getDashboardData().calculate(dataSeries, reportingPeriod).getReturnMatrix();
 
         for (LocalDate yearDate : interval.iterYears())
         {
@@ -99,27 +119,40 @@ public class PerformanceHeatmapWidget extends WidgetDelegate
             currLabel.setText(String.valueOf(yearDate.getYear()));
             GridDataFactory.fillDefaults().grab(true, false).applyTo(currLabel);
 
-            for (LocalDate currMonth = LocalDate.of(yearDate.getYear(), 1, 1); currMonth.getYear() == yearDate
-                            .getYear(); currMonth = currMonth.plusMonths(1))
+            for (Month month : Month.values())
             {
                 currLabel = new Label(table, SWT.RIGHT);
-                if (interval.contains(currMonth))
+                double performance = returns.getReturn(yearDate.getYear(), month);
+                if (!Double.isNaN(performance))
                 {
-                    currPeriod = new ReportingPeriod.FromXtoY(currMonth.minusDays(1),
-                                    currMonth.withDayOfMonth(currMonth.lengthOfMonth()));
-                    PerformanceIndex performance = getDashboardData().calculate(dataSeries, currPeriod);
-
                     currLabel.setFont(resources.getSmallFont());
-                    currLabel.setText(Values.PercentShort.format(performance.getFinalAccumulatedPercentage()));
-                    currLabel.setBackground(getScaledColorForPerformance(performance.getFinalAccumulatedPercentage()));
+                    currLabel.setText(Values.PercentShort.format(performance));
+                    currLabel.setBackground(getScaledColorForPerformance(performance));
                     InfoToolTip.attach(currLabel, Messages.PerformanceHeatmapToolTip);
                 }
                 GridDataFactory.fillDefaults().align(SWT.FILL, SWT.FILL).applyTo(currLabel);
             }
+
+            if (showIRR)
+                addIRRLabel(irr.get(yearDate.getYear()));
         }
         table.layout(true);
     }
 
+    private void addIRRLabel(ClientIRRYield yield)
+    {
+        Label label = new Label(table, SWT.RIGHT);
+        if (yield != null && !Double.isNaN(yield.getIrr()))
+        {
+            label.setFont(resources.getSmallFont());
+            label.setText(Values.PercentShort.format(yield.getIrr()));
+            label.setBackground(getScaledColorForPerformance(yield.getIrr()));
+            InfoToolTip.attach(label, yield.isConverged() ? Messages.LabelIRR
+                            : Messages.LabelIRR + "\n" + Messages.MsgIRRNotConverged); //$NON-NLS-1$
+        }
+        GridDataFactory.fillDefaults().align(SWT.FILL, SWT.FILL).applyTo(label);
+    }
+
     @Override
     void update()
     {
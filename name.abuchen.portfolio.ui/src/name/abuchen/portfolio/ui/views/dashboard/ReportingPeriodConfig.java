@@ -9,6 +9,7 @@ import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
 import org.eclipse.swt.widgets.Display;
 
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.Dashboard;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
 import name.abuchen.portfolio.ui.Messages;
@@ -60,7 +61,7 @@ public class ReportingPeriodConfig implements WidgetConfig
         subMenu.add(new SimpleAction(Messages.MenuUseDashboardDefaultReportingPeriod, a -> {
             reportingPeriod = null;
             delegate.getWidget().getConfiguration().remove(Dashboard.Config.REPORTING_PERIOD.name());
-            delegate.getClient().markDirty();
+            delegate.getClient().markDirty(ClientChange.settings());
         }));
 
         delegate.getDashboardData().getDefaultReportingPeriods().stream()
@@ -68,7 +69,7 @@ public class ReportingPeriodConfig implements WidgetConfig
                             reportingPeriod = p;
                             delegate.getWidget().getConfiguration().put(Dashboard.Config.REPORTING_PERIOD.name(),
                                             p.getCode());
-                            delegate.getClient().markDirty();
+                            delegate.getClient().markDirty(ClientChange.settings());
                         })));
         subMenu.add(new Separator());
 
@@ -84,7 +85,7 @@ public class ReportingPeriodConfig implements WidgetConfig
 
                 delegate.getWidget().getConfiguration().put(Dashboard.Config.REPORTING_PERIOD.name(),
                                 reportingPeriod.getCode());
-                delegate.getClient().markDirty();
+                delegate.getClient().markDirty(ClientChange.settings());
             }
         }));
 
@@ -32,9 +32,15 @@ public final class DataSeries
      */
     public enum ClientDataSeries
     {
-        TOTALS, INVESTED_CAPITAL, TRANSFERALS, TAXES, ABSOLUTE_DELTA, DIVIDENDS, DIVIDENDS_ACCUMULATED, INTEREST, INTEREST_ACCUMULATED, DELTA_PERCENTAGE;
+        TOTALS, INVESTED_CAPITAL, TRANSFERALS, TAXES, ABSOLUTE_DELTA, DIVIDENDS, DIVIDENDS_ACCUMULATED, INTEREST, INTEREST_ACCUMULATED, DELTA_PERCENTAGE, //
+        ROLLING_RETURN, ROLLING_VOLATILITY, ROLLING_SEMI_DEVIATION, ROLLING_MAX_DRAWDOWN;
     }
 
+    /**
+     * Number of trading days of the rolling risk metrics.
+     */
+    public static final int ROLLING_WINDOW = 20;
+
     /**
      * Type of objects for which the PerformanceIndex is calculated.
      */
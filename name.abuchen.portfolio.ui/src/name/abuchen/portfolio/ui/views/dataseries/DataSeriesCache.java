@@ -1,18 +1,27 @@
 package name.abuchen.portfolio.ui.views.dataseries;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import javax.inject.Inject;
 
 import name.abuchen.portfolio.model.Account;
 import name.abuchen.portfolio.model.Classification;
 import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientChange;
 import name.abuchen.portfolio.model.Portfolio;
 import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.Taxonomy;
 import name.abuchen.portfolio.money.CurrencyConverter;
 import name.abuchen.portfolio.money.CurrencyConverterImpl;
 import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
@@ -21,7 +30,9 @@ import name.abuchen.portfolio.snapshot.ReportingPeriod;
 import name.abuchen.portfolio.ui.PortfolioPlugin;
 
 /**
- * Cache for calculation results of DataSeries.
+ * Cache for calculation results of DataSeries. The cache can be used
+ * concurrently: independent data series are calculated in parallel with
+ * {@link #lookup(List, ReportingPeriod)}.
  */
 public class DataSeriesCache
 {
@@ -61,10 +72,35 @@ public class DataSeriesCache
         }
     }
 
+    private static class CacheEntry
+    {
+        private final PerformanceIndex index;
+
+        /**
+         * The accounts, portfolios, securities and taxonomies the index
+         * depends upon. If null, the index depends on all accounts,
+         * portfolios and securities (the client index).
+         */
+        private final Set<Object> dependencies;
+
+        /**
+         * True if the index is derived from the client index of the same
+         * reporting period (benchmarks, consumer price index).
+         */
+        private final boolean isDerivedFromClient;
+
+        CacheEntry(PerformanceIndex index, Set<Object> dependencies, boolean isDerivedFromClient)
+        {
+            this.index = index;
+            this.dependencies = dependencies;
+            this.isDerivedFromClient = isDerivedFromClient;
+        }
+    }
+
     private final Client client;
     private final CurrencyConverter converter;
 
-    private final Map<CacheKey, PerformanceIndex> cache = new HashMap<>();
+    private final Map<CacheKey, CacheEntry> cache = new ConcurrentHashMap<>();
 
     @Inject
     public DataSeriesCache(Client client, ExchangeRateProviderFactory factory)
@@ -78,6 +114,51 @@ public class DataSeriesCache
         this.cache.clear();
     }
 
+    /**
+     * Updates the cached performance indices after the given change of the
+     * client. The client index only recalculates the days after the change,
+     * all other indices are removed from the cache if they depend on a changed
+     * element. They are calculated again on the next lookup.
+     */
+    public void update(ClientChange change)
+    {
+        if (change.isAll())
+        {
+            clear();
+            return;
+        }
+
+        List<Exception> warnings = new ArrayList<>();
+        Set<ReportingPeriod> updatedPeriods = new HashSet<>();
+
+        boolean affectsClient = change.getElements().stream().anyMatch(e -> !(e instanceof Taxonomy));
+
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iter = cache.entrySet().iterator();
+        while (iter.hasNext())
+        {
+            Map.Entry<CacheKey, CacheEntry> entry = iter.next();
+            if (entry.getValue().dependencies != null || !affectsClient)
+                continue;
+
+            updatedPeriods.add(entry.getKey().reportingPeriod);
+
+            Optional<PerformanceIndex> updated = entry.getValue().index.update(change.getChangedFrom(), warnings);
+            if (updated.isPresent())
+                entry.setValue(new CacheEntry(updated.get(), null, false));
+            else
+                iter.remove();
+        }
+
+        // remove dependent indices after updating the client indices
+        cache.entrySet().removeIf(entry -> entry.getValue().dependencies != null
+                        && (change.affectsAny(entry.getValue().dependencies)
+                                        || (entry.getValue().isDerivedFromClient
+                                                        && updatedPeriods.contains(entry.getKey().reportingPeriod))));
+
+        if (!warnings.isEmpty())
+            PortfolioPlugin.log(warnings);
+    }
+
     public PerformanceIndex lookup(DataSeries series, ReportingPeriod reportingPeriod)
     {
         // Every data series is cached separately except the for the client. The
@@ -86,7 +167,125 @@ public class DataSeriesCache
         String uuid = series.getType() == DataSeries.Type.CLIENT ? "$client$" : series.getUUID(); //$NON-NLS-1$
 
         CacheKey key = new CacheKey(uuid, reportingPeriod);
-        return cache.computeIfAbsent(key, k -> calculate(series, reportingPeriod));
+
+        // do not calculate within computeIfAbsent: the calculation of some
+        // data series recursively looks up the client data series
+        CacheEntry entry = cache.get(key);
+        if (entry != null && !entry.index.isOutdated())
+            return entry.index;
+
+        // a new day started: move the index to the current day if possible
+        if (entry != null)
+        {
+            List<Exception> warnings = new ArrayList<>();
+            Optional<PerformanceIndex> updated = entry.index.update(LocalDate.MAX, warnings);
+            if (!warnings.isEmpty())
+                PortfolioPlugin.log(warnings);
+
+            if (updated.isPresent())
+            {
+                cache.replace(key, entry, new CacheEntry(updated.get(), entry.dependencies, entry.isDerivedFromClient));
+                return updated.get();
+            }
+
+            cache.remove(key, entry);
+        }
+
+        PerformanceIndex index = calculate(series, reportingPeriod);
+
+        boolean isDerivedFromClient = series.getType() == DataSeries.Type.SECURITY_BENCHMARK
+                        || series.getType() == DataSeries.Type.CONSUMER_PRICE_INDEX;
+        entry = new CacheEntry(index, dependencies(series), isDerivedFromClient);
+
+        CacheEntry other = cache.putIfAbsent(key, entry);
+        return other != null ? other.index : index;
+    }
+
+    /**
+     * Returns the accounts, portfolios, securities and taxonomies the index of
+     * the data series depends upon or null if it depends on all of them.
+     */
+    private Set<Object> dependencies(DataSeries series)
+    {
+        Set<Object> dependencies = new HashSet<>();
+
+        switch (series.getType())
+        {
+            case CLIENT:
+                return null;
+
+            case SECURITY:
+                // the performance of a security includes the dividends booked
+                // on the accounts
+                Security security = (Security) series.getInstance();
+                dependencies.add(security);
+                client.getAccounts().stream()
+                                .filter(a -> a.getTransactions().stream()
+                                                .anyMatch(t -> security.equals(t.getSecurity())))
+                                .forEach(dependencies::add);
+                break;
+
+            case SECURITY_BENCHMARK:
+                dependencies.add(series.getInstance());
+                break;
+
+            case PORTFOLIO_PLUS_ACCOUNT:
+                dependencies.add(((Portfolio) series.getInstance()).getReferenceAccount());
+                // fall through
+            case PORTFOLIO:
+                Portfolio portfolio = (Portfolio) series.getInstance();
+                dependencies.add(portfolio);
+                portfolio.getTransactions().forEach(t -> dependencies.add(t.getSecurity()));
+                break;
+
+            case ACCOUNT:
+                dependencies.add(series.getInstance());
+                break;
+
+            case CLASSIFICATION:
+                Classification classification = (Classification) series.getInstance();
+                Classification root = classification.getPathToRoot().get(0);
+                client.getTaxonomies().stream().filter(t -> root.equals(t.getRoot())).forEach(dependencies::add);
+                List<Classification> classifications = new ArrayList<>(classification.getTreeElements());
+                classifications.add(classification);
+                classifications.forEach(c -> c.getAssignments()
+                                .forEach(a -> dependencies.add(a.getInvestmentVehicle())));
+                break;
+
+            case CONSUMER_PRICE_INDEX:
+                break;
+
+            default:
+                throw new IllegalArgumentException(series.getType().name());
+        }
+
+        return dependencies;
+    }
+
+    /**
+     * Looks up multiple data series at once. Data series which are not cached
+     * yet are calculated in parallel.
+     *
+     * @return the performance indices in the order of the given data series
+     */
+    public List<PerformanceIndex> lookup(List<DataSeries> series, ReportingPeriod reportingPeriod)
+    {
+        // benchmarks and the consumer price index are derived from the client
+        // index -> calculate it upfront instead of multiple times in parallel
+        boolean needsClient = series.stream().anyMatch(s -> s.getType() == DataSeries.Type.CLIENT
+                        || s.getType() == DataSeries.Type.SECURITY_BENCHMARK
+                        || s.getType() == DataSeries.Type.CONSUMER_PRICE_INDEX);
+        if (needsClient)
+            lookup(new DataSeries(DataSeries.Type.CLIENT, null, null, null), reportingPeriod);
+
+        List<ForkJoinTask<PerformanceIndex>> tasks = new ArrayList<>(series.size());
+        for (DataSeries s : series)
+            tasks.add(ForkJoinPool.commonPool().submit(() -> lookup(s, reportingPeriod)));
+
+        List<PerformanceIndex> answer = new ArrayList<>(series.size());
+        for (ForkJoinTask<PerformanceIndex> task : tasks)
+            answer.add(task.join());
+        return answer;
     }
 
     private PerformanceIndex calculate(DataSeries series, ReportingPeriod reportingPeriod)
@@ -1,5 +1,6 @@
 package name.abuchen.portfolio.ui.views.dataseries;
 
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -124,6 +125,28 @@ public class DataSeriesSet
         series.setLineChart(false);
         availableSeries.add(series);
 
+        // risk metrics over the last trading days
+        series = new DataSeries(DataSeries.Type.CLIENT, ClientDataSeries.ROLLING_RETURN,
+                        MessageFormat.format(Messages.LabelRollingReturn, DataSeries.ROLLING_WINDOW),
+                        Display.getDefault().getSystemColor(SWT.COLOR_DARK_BLUE).getRGB());
+        availableSeries.add(series);
+
+        series = new DataSeries(DataSeries.Type.CLIENT, ClientDataSeries.ROLLING_VOLATILITY,
+                        MessageFormat.format(Messages.LabelRollingVolatility, DataSeries.ROLLING_WINDOW),
+                        Display.getDefault().getSystemColor(SWT.COLOR_DARK_YELLOW).getRGB());
+        availableSeries.add(series);
+
+        series = new DataSeries(DataSeries.Type.CLIENT, ClientDataSeries.ROLLING_SEMI_DEVIATION,
+                        MessageFormat.format(Messages.LabelRollingSemiDeviation, DataSeries.ROLLING_WINDOW),
+                        Display.getDefault().getSystemColor(SWT.COLOR_DARK_CYAN).getRGB());
+        availableSeries.add(series);
+
+        series = new DataSeries(DataSeries.Type.CLIENT, ClientDataSeries.ROLLING_MAX_DRAWDOWN,
+                        MessageFormat.format(Messages.LabelRollingMaxDrawdown, DataSeries.ROLLING_WINDOW),
+                        Display.getDefault().getSystemColor(SWT.COLOR_DARK_RED).getRGB());
+        series.setShowArea(true);
+        availableSeries.add(series);
+
         // consumer price index
         series = new DataSeries(DataSeries.Type.CONSUMER_PRICE_INDEX, ConsumerPriceIndex.class,
                         Messages.LabelConsumerPriceIndex, Colors.CPI.swt());
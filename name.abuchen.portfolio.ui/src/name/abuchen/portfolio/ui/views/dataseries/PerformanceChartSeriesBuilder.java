@@ -1,5 +1,7 @@
 package name.abuchen.portfolio.ui.views.dataseries;
 
+import java.util.Arrays;
+
 import org.swtchart.IBarSeries;
 import org.swtchart.ILineSeries;
 
@@ -68,8 +70,43 @@ public class PerformanceChartSeriesBuilder extends AbstractChartSeriesBuilder
                 series.setLabel(aggreagtionPeriodLabel);
                 configure(series, barSeries);
                 break;
+            case ROLLING_RETURN:
+                addRolling(series, clientIndex, clientIndex.getRollingRisk(DataSeries.ROLLING_WINDOW).getReturns());
+                break;
+            case ROLLING_VOLATILITY:
+                addRolling(series, clientIndex,
+                                clientIndex.getRollingRisk(DataSeries.ROLLING_WINDOW).getVolatility());
+                break;
+            case ROLLING_SEMI_DEVIATION:
+                addRolling(series, clientIndex,
+                                clientIndex.getRollingRisk(DataSeries.ROLLING_WINDOW).getSemiDeviation());
+                break;
+            case ROLLING_MAX_DRAWDOWN:
+                // plot drawdowns below the zero line
+                double[] drawdown = clientIndex.getRollingRisk(DataSeries.ROLLING_WINDOW).getMaxDrawdown();
+                addRolling(series, clientIndex, Arrays.stream(drawdown).map(d -> -d).toArray());
+                break;
             default:
                 break;
         }
     }
+
+    /**
+     * Adds the rolling metric starting with the first complete window. The
+     * rolling metrics are always calculated on daily values.
+     */
+    private void addRolling(DataSeries series, PerformanceIndex index, double[] values)
+    {
+        int start = 0;
+        while (start < values.length && Double.isNaN(values[start]))
+            start++;
+
+        if (start == values.length)
+            return;
+
+        ILineSeries lineSeries = getChart().addDateSeries(
+                        Arrays.copyOfRange(index.getDates(), start, values.length),
+                        Arrays.copyOfRange(values, start, values.length), series.getLabel());
+        configure(series, lineSeries);
+    }
 }
@@ -10,6 +10,7 @@ import java.util.stream.IntStream;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuManager;
@@ -499,10 +500,18 @@ public class ReviewExtractedItemsPage extends AbstractWizardPage implements Impo
                     monitor.beginTask(Messages.PDFImportWizardMsgExtracting, files.size());
 
                     final List<Exception> errors = new ArrayList<Exception>();
-                    List<ExtractedEntry> entries = extractor //
-                                    .extract(files, errors).stream() //
-                                    .map(i -> new ExtractedEntry(i)) //
-                                    .collect(Collectors.toList());
+                    List<ExtractedEntry> entries;
+                    try
+                    {
+                        entries = extractor //
+                                        .extract(files, errors, monitor).stream() //
+                                        .map(i -> new ExtractedEntry(i)) //
+                                        .collect(Collectors.toList());
+                    }
+                    catch (OperationCanceledException e)
+                    {
+                        return Status.CANCEL_STATUS;
+                    }
 
                     // Logging them is not a bad idea if the whole method fails
                     PortfolioPlugin.log(errors);
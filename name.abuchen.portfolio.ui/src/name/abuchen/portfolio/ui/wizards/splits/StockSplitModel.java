@@ -2,6 +2,7 @@ package name.abuchen.portfolio.ui.wizards.splits;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.Security;
@@ -109,12 +110,11 @@ public class StockSplitModel extends BindingHelper.Model
 
         if (isChangeHistoricalQuotes())
         {
-            List<SecurityPrice> quotes = security.getPrices();
-            for (SecurityPrice p : quotes)
-            {
-                if (p.getTime().isBefore(exDate))
-                    p.setValue(p.getValue() * oldShares / newShares);
-            }
+            List<SecurityPrice> quotes = security.getPrices().stream() //
+                            .filter(p -> p.getTime().isBefore(exDate)) //
+                            .map(p -> new SecurityPrice(p.getTime(), p.getValue() * oldShares / newShares)) //
+                            .collect(Collectors.toList());
+            security.addAllPrices(quotes);
         }
 
     }
@@ -115,6 +115,7 @@ public class Messages extends NLS
     public static String LabelWithoutClassification;
     public static String LabelYahooFinance;
     public static String LabelYahooFinanceAdjustedClose;
+    public static String MsgCalculatingSecurityPerformance;
     public static String MsgCheckInvalidTransactionType;
     public static String MsgCheckGrossValueUnitMissing;
     public static String MsgCheckGrossValueUnitNotValid;
@@ -163,7 +164,9 @@ public class Messages extends NLS
     public static String MsgXMLFormatInvalid;
     public static String PDFdbLabel;
     public static String PDFdbMsgCannotDetermineFileType;
+    public static String PDFLabelAutoDetect;
     public static String PDFMsgFileNotSupported;
+    public static String PDFMsgNoBankDetected;
     public static String QuoteFeedManual;
     static
     {
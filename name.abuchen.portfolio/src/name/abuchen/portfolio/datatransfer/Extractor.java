@@ -5,6 +5,8 @@ import java.time.LocalDate;
 import java.util.EnumSet;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
 import name.abuchen.portfolio.Messages;
 import name.abuchen.portfolio.datatransfer.ImportAction.Context;
 import name.abuchen.portfolio.datatransfer.ImportAction.Status;
@@ -333,4 +335,16 @@ public interface Extractor
      */
     List<Item> extract(List<File> files, List<Exception> errors);
 
+    /**
+     * Returns a list of extracted items. Reports one unit of work per file to
+     * the progress monitor.
+     * 
+     * @throws org.eclipse.core.runtime.OperationCanceledException
+     *             if the extraction has been canceled by the user
+     */
+    default List<Item> extract(List<File> files, List<Exception> errors, IProgressMonitor monitor)
+    {
+        return extract(files, errors);
+    }
+
 }
@@ -1,7 +1,13 @@
 package name.abuchen.portfolio.datatransfer.actions;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 
 import name.abuchen.portfolio.Messages;
 import name.abuchen.portfolio.datatransfer.ImportAction;
@@ -15,8 +21,100 @@ import name.abuchen.portfolio.model.PortfolioTransferEntry;
 import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.model.Transaction;
 
+/**
+ * Reports imported transactions as potential duplicates if the target account
+ * or portfolio already contains a transaction of the same type, date,
+ * currency, amount, shares, and security.
+ * <p>
+ * The existing transactions of an account or portfolio are indexed with the
+ * first check against it, i.e. an action is meant to check one set of imported
+ * items. Optionally, the action also reports transactions whose date differs
+ * by a number of days and whose amount differs by a tolerance.
+ */
 public class DetectDuplicatesAction implements ImportAction
 {
+    /**
+     * The attributes of a transaction except for the amount.
+     */
+    private static final class Key
+    {
+        private final Object type;
+        private final LocalDate date;
+        private final String currencyCode;
+        private final long shares;
+        private final Security security;
+
+        public Key(Object type, LocalDate date, Transaction transaction)
+        {
+            this.type = type;
+            this.date = date;
+            this.currencyCode = transaction.getCurrencyCode();
+            this.shares = transaction.getShares();
+            this.security = transaction.getSecurity();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(type, date, currencyCode, shares, security);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+
+            Key other = (Key) obj;
+            return type == other.type && shares == other.shares && Objects.equals(date, other.date)
+                            && Objects.equals(currencyCode, other.currencyCode)
+                            && Objects.equals(security, other.security);
+        }
+    }
+
+    /**
+     * The transactions of an account or portfolio grouped by all attributes
+     * except for the amount.
+     */
+    private static final class Index
+    {
+        private final int size;
+        private final Map<Key, List<Transaction>> buckets = new HashMap<>();
+
+        public <T extends Transaction> Index(List<T> transactions, Function<T, Object> type)
+        {
+            this.size = transactions.size();
+
+            for (T t : transactions)
+                buckets.computeIfAbsent(new Key(type.apply(t), t.getDate(), t), k -> new ArrayList<>()).add(t);
+        }
+    }
+
+    private final int days;
+    private final long amountTolerance;
+
+    /**
+     * List of transactions -&gt; index
+     */
+    private final Map<List<? extends Transaction>, Index> indices = new IdentityHashMap<>();
+
+    public DetectDuplicatesAction()
+    {
+        this(0, 0);
+    }
+
+    /**
+     * Creates an action which also reports transactions as potential
+     * duplicates if the dates differ by up to the given number of days and the
+     * amounts differ by up to the given tolerance.
+     */
+    public DetectDuplicatesAction(int days, long amountTolerance)
+    {
+        this.days = days;
+        this.amountTolerance = amountTolerance;
+    }
 
     @Override
     public Status process(Security security)
@@ -59,49 +157,42 @@ public class DetectDuplicatesAction implements ImportAction
 
     private Status check(AccountTransaction subject, List<AccountTransaction> transactions)
     {
-        for (AccountTransaction t : transactions)
-        {
-            if (subject.getType() != t.getType())
-                continue;
-
-            if (isPotentialDuplicate(subject, t))
-                return new Status(Status.Code.WARNING, Messages.LabelPotentialDuplicate);
-        }
-
-        return Status.OK_STATUS;
+        return check(subject, transactions, AccountTransaction::getType);
     }
 
     private Status check(PortfolioTransaction subject, List<PortfolioTransaction> transactions)
     {
-        for (PortfolioTransaction t : transactions)
-        {
-            if (subject.getType() != t.getType())
-                continue;
-
-            if (isPotentialDuplicate(subject, t))
-                return new Status(Status.Code.WARNING, Messages.LabelPotentialDuplicate);
-        }
-
-        return Status.OK_STATUS;
+        return check(subject, transactions, PortfolioTransaction::getType);
     }
 
-    private boolean isPotentialDuplicate(Transaction subject, Transaction other)
+    private <T extends Transaction> Status check(T subject, List<T> transactions, Function<T, Object> type)
     {
-        if (!other.getDate().equals(subject.getDate()))
-            return false;
+        Index index = indices.get(transactions);
 
-        if (!other.getCurrencyCode().equals(subject.getCurrencyCode()))
-            return false;
+        // rebuild the index if transactions have been added in the meantime
+        if (index == null || index.size != transactions.size())
+        {
+            index = new Index(transactions, type);
+            indices.put(transactions, index);
+        }
 
-        if (other.getAmount() != subject.getAmount())
-            return false;
+        for (int offset = -days; offset <= days; offset++)
+        {
+            LocalDate date = offset == 0 ? subject.getDate() : subject.getDate().plusDays(offset);
 
-        if (other.getShares() != subject.getShares())
-            return false;
+            List<Transaction> bucket = index.buckets.get(new Key(type.apply(subject), date, subject));
+            if (bucket == null)
+                continue;
 
-        if (!Objects.equals(other.getSecurity(), subject.getSecurity()))
-            return false;
+            for (Transaction t : bucket)
+            {
+                boolean isMatch = t.getAmount() == subject.getAmount() || (amountTolerance > 0
+                                && Math.abs(t.getAmount() - subject.getAmount()) <= amountTolerance);
+                if (isMatch)
+                    return new Status(Status.Code.WARNING, Messages.LabelPotentialDuplicate);
+            }
+        }
 
-        return true;
+        return Status.OK_STATUS;
     }
 }
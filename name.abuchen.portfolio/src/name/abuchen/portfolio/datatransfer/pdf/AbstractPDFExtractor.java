@@ -13,6 +13,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 import name.abuchen.portfolio.Messages;
 import name.abuchen.portfolio.datatransfer.Extractor;
@@ -34,7 +43,18 @@ import org.apache.pdfbox.util.PDFTextStripper;
 
     private final Client client;
     private SecurityCache securityCache;
-    private final PDFTextStripper textStripper;
+
+    /**
+     * The text stripper is not thread-safe: every thread stripping documents
+     * uses its own instance.
+     */
+    private final ThreadLocal<PDFTextStripper> textStripper = new ThreadLocal<>();
+
+    /**
+     * Whether the stripped text is stored in the {@link PDFTextCache}
+     */
+    private boolean isTextCached = true;
+
     private final List<String> bankIdentifier = new ArrayList<>();
     private final List<DocumentType> documentTypes = new ArrayList<>();
 
@@ -42,8 +62,13 @@ import org.apache.pdfbox.util.PDFTextStripper;
     {
         this.client = client;
 
-        textStripper = new PDFTextStripper();
-        textStripper.setSortByPosition(true);
+        // fail early if the text stripper cannot be created
+        getTextStripper();
+    }
+
+    /* package */void setTextCached(boolean isTextCached)
+    {
+        this.isTextCached = isTextCached;
     }
 
     protected final void addDocumentTyp(DocumentType type)
@@ -65,51 +90,138 @@ import org.apache.pdfbox.util.PDFTextStripper;
     @Override
     public List<Item> extract(List<File> files, List<Exception> errors)
     {
-        // careful: security cache makes extractor stateful
-        securityCache = new SecurityCache(client);
+        return extract(files, errors, new NullProgressMonitor());
+    }
+
+    /**
+     * Loads and strips the documents on a pool of worker threads while the
+     * texts are parsed in the order of the files. Parsing is not parallelized
+     * because the document types and the number format are stateful, but
+     * parsing the documents in order also keeps the created securities (and
+     * therefore the result) independent of the thread scheduling.
+     */
+    @Override
+    public List<Item> extract(List<File> files, List<Exception> errors, IProgressMonitor monitor)
+    {
+        if (files.isEmpty())
+            return new ArrayList<>();
+
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        SecurityCache securityCache = new SecurityCache(client);
 
-        List<Item> results = new ArrayList<>();
-        for (File f : files)
+        try
         {
-            try
-            {
-                String text = strip(f);
-                results.addAll(extract(f.getName(), text, errors));
-            }
-            catch (IOException e)
+            List<Future<String>> texts = new ArrayList<>();
+            for (File f : files)
+                texts.add(executor.submit(() -> monitor.isCanceled() ? null : strip(f)));
+
+            List<Item> results = new ArrayList<>();
+            for (int ii = 0; ii < files.size(); ii++)
             {
-                errors.add(new IOException(f.getName() + ": " + e.getMessage(), e)); //$NON-NLS-1$
+                if (monitor.isCanceled())
+                    throw new OperationCanceledException();
+
+                File f = files.get(ii);
+                monitor.subTask(f.getName());
+
+                try
+                {
+                    // null if the stripping has been skipped after canceling
+                    String text = texts.get(ii).get();
+                    if (text == null)
+                        throw new OperationCanceledException();
+
+                    results.addAll(extract(securityCache, f.getName(), text, errors));
+                }
+                catch (ExecutionException e)
+                {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+
+                    errors.add(new IOException(f.getName() + ": " + cause.getMessage(), cause)); //$NON-NLS-1$
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new OperationCanceledException();
+                }
+
+                monitor.worked(1);
             }
+
+            results.addAll(securityCache.createMissingSecurityItems(results));
+
+            return results;
+        }
+        finally
+        {
+            executor.shutdownNow();
         }
+    }
 
-        results.addAll(securityCache.createMissingSecurityItems(results));
+                    /* testing */String strip(File file) throws IOException
+    {
+        PDFTextCache.TextLoader loader = f -> {
+            try (PDDocument doc = PDDocument.load(f))
+            {
+                return getTextStripper().getText(doc);
+            }
+        };
 
-        securityCache = null;
+        return isTextCached ? PDFTextCache.getDefault().getText(file, loader) : loader.load(file);
+    }
 
-        return results;
+    private PDFTextStripper getTextStripper() throws IOException
+    {
+        PDFTextStripper stripper = textStripper.get();
+        if (stripper == null)
+        {
+            stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+            textStripper.set(stripper);
+        }
+        return stripper;
     }
 
-                    /* testing */String strip(File file) throws IOException
+    /**
+     * Extracts the items of one document if the document belongs to the bank
+     * of this extractor.
+     */
+    /* package */List<Item> extract(SecurityCache securityCache, String filename, String text,
+                    List<Exception> errors)
     {
-        try (PDDocument doc = PDDocument.load(file))
+        if (getBankIdentifier().stream().noneMatch(text::contains))
         {
-            return textStripper.getText(doc);
+            errors.add(new UnsupportedOperationException(
+                            MessageFormat.format(Messages.PDFMsgFileNotSupported, filename, getLabel())));
+            return Collections.emptyList();
         }
+
+        List<DocumentType> types = documentTypes.stream().filter(t -> t.matches(text)).collect(Collectors.toList());
+        return parse(securityCache, filename, text, types, errors);
     }
 
-    private List<Item> extract(String filename, String text, List<Exception> errors)
+    /**
+     * Parses the document with the given document types, i.e. the document
+     * types of this extractor whose marker is contained in the text.
+     */
+    /* package */List<Item> parse(SecurityCache securityCache, String filename, String text, List<DocumentType> types,
+                    List<Exception> errors)
     {
+        // careful: security cache makes extractor stateful
+        this.securityCache = securityCache;
+
         try
         {
-            checkBankIdentifier(filename, text);
-
             List<Item> items = new ArrayList<>();
 
-            for (DocumentType type : documentTypes)
-            {
-                if (type.matches(text))
-                    type.parse(filename, items, text);
-            }
+            for (DocumentType type : types)
+                type.parse(filename, items, text);
 
             if (items.isEmpty())
             {
@@ -132,19 +244,22 @@ import org.apache.pdfbox.util.PDFTextStripper;
             errors.add(e);
             return Collections.emptyList();
         }
+        finally
+        {
+            this.securityCache = null;
+        }
     }
 
-    private void checkBankIdentifier(String filename, String text)
+    /* package */List<String> getBankIdentifier()
     {
         if (bankIdentifier.isEmpty())
             bankIdentifier.add(getLabel());
+        return bankIdentifier;
+    }
 
-        for (String identifier : bankIdentifier)
-            if (text.contains(identifier))
-                return;
-
-        throw new UnsupportedOperationException( //
-                        MessageFormat.format(Messages.PDFMsgFileNotSupported, filename, getLabel()));
+    /* package */List<DocumentType> getDocumentTypes()
+    {
+        return documentTypes;
     }
 
     protected Security getOrCreateSecurity(Map<String, String> values)
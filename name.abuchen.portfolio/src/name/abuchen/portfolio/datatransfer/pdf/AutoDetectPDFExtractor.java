@@ -0,0 +1,153 @@
+package name.abuchen.portfolio.datatransfer.pdf;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import name.abuchen.portfolio.Messages;
+import name.abuchen.portfolio.datatransfer.SecurityCache;
+import name.abuchen.portfolio.datatransfer.pdf.PDFParser.DocumentType;
+import name.abuchen.portfolio.model.Client;
+
+/**
+ * Imports documents of all banks. Every document is stripped once and its text
+ * is matched against the bank identifiers and document type markers of all
+ * PDF extractors in a single scan. The document is then parsed by the
+ * extractor whose bank identifier and at least one document type matched.
+ */
+public class AutoDetectPDFExtractor extends AbstractPDFExtractor
+{
+    private final List<AbstractPDFExtractor> extractors;
+    private final MultiPatternMatcher matcher;
+
+    /**
+     * Extractor -&gt; indices of the bank identifiers
+     */
+    private final int[][] bankIdentifier;
+
+    /**
+     * Extractor -&gt; indices of the document type markers
+     */
+    private final int[][] documentTypes;
+
+    public AutoDetectPDFExtractor(Client client) throws IOException
+    {
+        this(client, PDFExtractorFactory.createAll(client));
+    }
+
+    /* package */AutoDetectPDFExtractor(Client client, List<AbstractPDFExtractor> extractors) throws IOException
+    {
+        super(client);
+
+        this.extractors = extractors;
+        this.bankIdentifier = new int[extractors.size()][];
+        this.documentTypes = new int[extractors.size()][];
+
+        // the same string can be a marker of multiple extractors
+        Map<String, Integer> patterns = new LinkedHashMap<>();
+
+        for (int ii = 0; ii < extractors.size(); ii++)
+        {
+            AbstractPDFExtractor extractor = extractors.get(ii);
+
+            bankIdentifier[ii] = extractor.getBankIdentifier().stream()
+                            .mapToInt(s -> patterns.computeIfAbsent(s, k -> patterns.size())).toArray();
+            documentTypes[ii] = extractor.getDocumentTypes().stream()
+                            .mapToInt(t -> patterns.computeIfAbsent(t.getMarker(), k -> patterns.size())).toArray();
+        }
+
+        this.matcher = new MultiPatternMatcher(new ArrayList<>(patterns.keySet()));
+    }
+
+    @Override
+    public String getLabel()
+    {
+        return Messages.PDFLabelAutoDetect;
+    }
+
+    /**
+     * Parses the document with the extractors whose bank identifier and
+     * document types are contained in the text. Extractors with a non-empty
+     * bank identifier take precedence over extractors accepting the documents
+     * of any bank. If an extractor finds no transactions, the next candidate
+     * is tried.
+     */
+    @Override
+    /* package */List<Item> extract(SecurityCache securityCache, String filename, String text,
+                    List<Exception> errors)
+    {
+        BitSet found = matcher.match(text);
+
+        List<Integer> candidates = new ArrayList<>();
+        List<Integer> fallbacks = new ArrayList<>();
+
+        for (int ii = 0; ii < extractors.size(); ii++)
+        {
+            if (Arrays.stream(documentTypes[ii]).noneMatch(found::get))
+                continue;
+
+            List<String> identifier = extractors.get(ii).getBankIdentifier();
+            boolean isSpecific = false;
+            boolean isGeneric = false;
+            for (int jj = 0; jj < bankIdentifier[ii].length; jj++)
+            {
+                if (found.get(bankIdentifier[ii][jj]))
+                {
+                    if (identifier.get(jj).isEmpty())
+                        isGeneric = true;
+                    else
+                        isSpecific = true;
+                }
+            }
+
+            if (isSpecific)
+                candidates.add(ii);
+            else if (isGeneric)
+                fallbacks.add(ii);
+        }
+
+        candidates.addAll(fallbacks);
+
+        if (candidates.isEmpty())
+        {
+            errors.add(new UnsupportedOperationException(
+                            MessageFormat.format(Messages.PDFMsgNoBankDetected, filename)));
+            return Collections.emptyList();
+        }
+
+        List<Exception> firstErrors = null;
+
+        for (int index : candidates)
+        {
+            AbstractPDFExtractor extractor = extractors.get(index);
+
+            List<DocumentType> types = new ArrayList<>();
+            for (int ii = 0; ii < documentTypes[index].length; ii++)
+            {
+                if (found.get(documentTypes[index][ii]))
+                    types.add(extractor.getDocumentTypes().get(ii));
+            }
+
+            List<Exception> attempt = new ArrayList<>();
+            List<Item> items = extractor.parse(securityCache, filename, text, types, attempt);
+
+            if (!items.isEmpty())
+            {
+                errors.addAll(attempt);
+                return items;
+            }
+
+            if (firstErrors == null)
+                firstErrors = attempt;
+        }
+
+        errors.addAll(firstErrors);
+        return Collections.emptyList();
+    }
+}
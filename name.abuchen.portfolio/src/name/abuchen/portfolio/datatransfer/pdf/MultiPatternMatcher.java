@@ -0,0 +1,113 @@
+package name.abuchen.portfolio.datatransfer.pdf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds all of a given set of strings in a text with a single scan of the
+ * text (Aho-Corasick automaton).
+ */
+/* package */final class MultiPatternMatcher
+{
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<BitSet> outputs = new ArrayList<>();
+    private int[] failures;
+
+    /* package */MultiPatternMatcher(List<String> patterns)
+    {
+        addState();
+
+        for (int index = 0; index < patterns.size(); index++)
+        {
+            String pattern = patterns.get(index);
+
+            int state = 0;
+            for (int ii = 0; ii < pattern.length(); ii++)
+            {
+                Integer next = transitions.get(state).get(pattern.charAt(ii));
+                if (next == null)
+                {
+                    next = addState();
+                    transitions.get(state).put(pattern.charAt(ii), next);
+                }
+                state = next;
+            }
+
+            outputs.get(state).set(index);
+        }
+
+        buildFailures();
+    }
+
+    private int addState()
+    {
+        transitions.add(new HashMap<>());
+        outputs.add(new BitSet());
+        return transitions.size() - 1;
+    }
+
+    /**
+     * Computes the failure transitions breadth first: the failure transition
+     * of a state points to the state of the longest proper suffix which is
+     * also a prefix of a pattern. The outputs of that state are merged into
+     * the state.
+     */
+    private void buildFailures()
+    {
+        failures = new int[transitions.size()];
+
+        Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+
+        while (!queue.isEmpty())
+        {
+            int state = queue.poll();
+
+            for (Map.Entry<Character, Integer> entry : transitions.get(state).entrySet())
+            {
+                int child = entry.getValue();
+                queue.add(child);
+
+                int failure = failures[state];
+                while (failure != 0 && !transitions.get(failure).containsKey(entry.getKey()))
+                    failure = failures[failure];
+
+                Integer next = transitions.get(failure).get(entry.getKey());
+                failures[child] = next != null ? next : 0;
+                outputs.get(child).or(outputs.get(failures[child]));
+            }
+        }
+    }
+
+    /**
+     * Returns the indices of the patterns contained in the text.
+     */
+    /* package */BitSet match(String text)
+    {
+        // empty patterns are always contained
+        BitSet answer = (BitSet) outputs.get(0).clone();
+
+        int state = 0;
+        for (int ii = 0; ii < text.length(); ii++)
+        {
+            char c = text.charAt(ii);
+
+            Integer next = transitions.get(state).get(c);
+            while (next == null && state != 0)
+            {
+                state = failures[state];
+                next = transitions.get(state).get(c);
+            }
+            state = next != null ? next : 0;
+
+            if (!outputs.get(state).isEmpty())
+                answer.or(outputs.get(state));
+        }
+
+        return answer;
+    }
+}
@@ -0,0 +1,84 @@
+package name.abuchen.portfolio.datatransfer.pdf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import name.abuchen.portfolio.datatransfer.Extractor;
+import name.abuchen.portfolio.model.Client;
+
+/**
+ * Registry of the PDF extractors of all banks. The automatic detection
+ * imports the documents of all registered banks.
+ */
+public final class PDFExtractorFactory
+{
+    @FunctionalInterface
+    private interface Constructor
+    {
+        AbstractPDFExtractor create(Client client) throws IOException;
+    }
+
+    public static final String AUTO_DETECT = "auto"; //$NON-NLS-1$
+
+    private static final Map<String, Constructor> EXTRACTORS = new LinkedHashMap<>();
+
+    static
+    {
+        EXTRACTORS.put("bankslm", BankSLMPDFExctractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("comdirect", ComdirectPDFExtractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("commerzbank", CommerzbankPDFExctractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("consorsbank", ConsorsbankPDFExctractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("dab", DABPDFExctractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("db", DeutscheBankPDFExctractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("dkb", DkbPDFExtractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("flatex", FlatexPDFExtractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("ingdiba", INGDiBaExtractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("onvista", OnvistaPDFExtractor::new); //$NON-NLS-1$
+        EXTRACTORS.put("sbroker", SBrokerPDFExtractor::new); //$NON-NLS-1$
+    }
+
+    private PDFExtractorFactory()
+    {}
+
+    /**
+     * Returns the extractor for the given type or null if the type is not
+     * registered.
+     * 
+     * @param isTextCached
+     *            whether the text stripped from the documents is stored in
+     *            the {@link PDFTextCache}
+     */
+    public static Extractor create(String type, Client client, boolean isTextCached) throws IOException
+    {
+        AbstractPDFExtractor extractor;
+
+        if (AUTO_DETECT.equals(type))
+        {
+            extractor = new AutoDetectPDFExtractor(client);
+        }
+        else
+        {
+            Constructor constructor = EXTRACTORS.get(type);
+            if (constructor == null)
+                return null;
+            extractor = constructor.create(client);
+        }
+
+        extractor.setTextCached(isTextCached);
+        return extractor;
+    }
+
+    /**
+     * Creates the extractors of all registered banks.
+     */
+    /* package */static List<AbstractPDFExtractor> createAll(Client client) throws IOException
+    {
+        List<AbstractPDFExtractor> answer = new ArrayList<>();
+        for (Constructor constructor : EXTRACTORS.values())
+            answer.add(constructor.create(client));
+        return answer;
+    }
+}
@@ -23,6 +23,7 @@ import name.abuchen.portfolio.datatransfer.Extractor.Item;
         private List<Block> blocks = new ArrayList<>();
         private Map<String, String> context = new HashMap<>();
         private BiConsumer<Map<String, String>, String[]> contextProvider;
+        private BlockDispatcher dispatcher;
 
         public DocumentType(String marker)
         {
@@ -35,6 +36,11 @@ import name.abuchen.portfolio.datatransfer.Extractor.Item;
             this.contextProvider = contextProvider;
         }
 
+        public String getMarker()
+        {
+            return marker;
+        }
+
         public boolean matches(String text)
         {
             return text.contains(marker);
@@ -68,8 +74,18 @@ import name.abuchen.portfolio.datatransfer.Extractor.Item;
             context.clear();
             parseContext(context, filename, lines);
 
-            for (Block block : blocks)
-                block.parse(filename, items, lines);
+            // the blocks are parsed one after another (and not in the order
+            // of the lines) in order to keep the order of the items
+            List<List<Integer>> matches = getDispatcher().dispatch(lines);
+            for (int ii = 0; ii < blocks.size(); ii++)
+                blocks.get(ii).parse(filename, items, lines, matches.get(ii));
+        }
+
+        private BlockDispatcher getDispatcher()
+        {
+            if (dispatcher == null || dispatcher.size() != blocks.size())
+                dispatcher = new BlockDispatcher(blocks);
+            return dispatcher;
         }
 
         /**
@@ -109,15 +125,133 @@ import name.abuchen.portfolio.datatransfer.Extractor.Item;
             this.transaction = transaction;
         }
 
-        public void parse(String filename, List<Item> items, String[] lines)
+        /* package */Pattern getMarker()
         {
-            for (int ii = 0; ii < lines.length; ii++)
+            return marker;
+        }
+
+        /**
+         * Parses the transactions starting at the given lines which are known
+         * to match the marker of the block.
+         */
+        /* package */void parse(String filename, List<Item> items, String[] lines, List<Integer> lineNumbers)
+        {
+            for (int lineNo : lineNumbers)
+                transaction.parse(filename, items, lines, lineNo);
+        }
+    }
+
+    /**
+     * Finds the lines matching the markers of all blocks of a document type
+     * with one pass over the lines. The literal prefixes of the markers are
+     * stored in a trie: a line is matched against the marker of a block only
+     * if the line starts with its prefix. Markers without literal prefix are
+     * matched against every line.
+     */
+    /* package */static final class BlockDispatcher
+    {
+        private static final class Node
+        {
+            private final Map<Character, Node> children = new HashMap<>();
+            private final List<Integer> blocks = new ArrayList<>();
+        }
+
+        private static final String META_CHARACTERS = "\\.[]{}()*+?^$|"; //$NON-NLS-1$
+        private static final String QUANTIFIERS = "?*+{"; //$NON-NLS-1$
+
+        private final List<Pattern> markers = new ArrayList<>();
+        private final Node root = new Node();
+
+        /* package */BlockDispatcher(List<Block> blocks)
+        {
+            for (int index = 0; index < blocks.size(); index++)
             {
-                Matcher matcher = marker.matcher(lines[ii]);
-                if (matcher.matches())
-                    transaction.parse(filename, items, lines, ii);
+                Pattern marker = blocks.get(index).getMarker();
+                markers.add(marker);
+
+                Node node = root;
+                for (char c : literalPrefix(marker.pattern()).toCharArray())
+                    node = node.children.computeIfAbsent(c, k -> new Node());
+                node.blocks.add(index);
             }
         }
+
+        /**
+         * Returns the characters every string matching the regular expression
+         * starts with.
+         */
+        /* package */static String literalPrefix(String regex)
+        {
+            // alternatives do not share a prefix
+            if (regex.indexOf('|') >= 0)
+                return ""; //$NON-NLS-1$
+
+            StringBuilder prefix = new StringBuilder();
+
+            int ii = regex.startsWith("^") ? 1 : 0; //$NON-NLS-1$
+            while (ii < regex.length())
+            {
+                char c = regex.charAt(ii);
+
+                if (c == '\\' && ii + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(ii + 1)))
+                {
+                    c = regex.charAt(ii + 1);
+                    ii += 2;
+                }
+                else if (META_CHARACTERS.indexOf(c) >= 0)
+                {
+                    break;
+                }
+                else
+                {
+                    ii++;
+                }
+
+                // the preceding character is optional or repeated
+                if (ii < regex.length() && QUANTIFIERS.indexOf(regex.charAt(ii)) >= 0)
+                    break;
+
+                prefix.append(c);
+            }
+
+            return prefix.toString();
+        }
+
+        /* package */int size()
+        {
+            return markers.size();
+        }
+
+        /**
+         * Returns for every block the numbers of the lines matching its
+         * marker.
+         */
+        /* package */List<List<Integer>> dispatch(String[] lines)
+        {
+            List<List<Integer>> answer = new ArrayList<>();
+            for (int ii = 0; ii < markers.size(); ii++)
+                answer.add(new ArrayList<>());
+
+            for (int lineNo = 0; lineNo < lines.length; lineNo++)
+            {
+                String line = lines[lineNo];
+
+                Node node = root;
+                int position = 0;
+                while (node != null)
+                {
+                    for (int index : node.blocks)
+                    {
+                        if (markers.get(index).matcher(line).matches())
+                            answer.get(index).add(lineNo);
+                    }
+
+                    node = position < line.length() ? node.children.get(line.charAt(position++)) : null;
+                }
+            }
+
+            return answer;
+        }
     }
 
     /* package */static class Transaction<T>
@@ -0,0 +1,238 @@
+package name.abuchen.portfolio.datatransfer.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Caches the text stripped from PDF documents on disk. The text is stored
+ * under the hash of the content of the document and the version of PDFBox,
+ * i.e. the cache entry is used for a copy of the document as well and is not
+ * used anymore if a new version of PDFBox strips the text differently.
+ * <p>
+ * If the size of the cache exceeds the maximum size, the least recently used
+ * entries are deleted. The cache is safe to be used by multiple threads.
+ * <p>
+ * The cache stores the text of the documents in plain text. Documents
+ * belonging to an encrypted file must therefore not be stripped via the cache.
+ */
+public final class PDFTextCache
+{
+    @FunctionalInterface
+    public interface TextLoader
+    {
+        String load(File file) throws IOException;
+    }
+
+    private static final String DIRECTORY = "pdftext"; //$NON-NLS-1$
+    private static final String EXTENSION = ".txt"; //$NON-NLS-1$
+    private static final long MAX_SIZE = 50L * 1024 * 1024;
+
+    private static PDFTextCache instance;
+
+    private final File directory;
+    private final String version;
+    private final long maxSize;
+
+    /**
+     * Size of all cache entries or -1 if not yet calculated
+     */
+    private long size = -1;
+
+    /* package */PDFTextCache(File directory, String version, long maxSize)
+    {
+        this.directory = directory;
+        this.version = version;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cache stored in the data area of the bundle. If running
+     * outside of an OSGi container, the returned cache does not store any
+     * text.
+     */
+    public static synchronized PDFTextCache getDefault()
+    {
+        if (instance == null)
+        {
+            Bundle bundle = FrameworkUtil.getBundle(PDFTextCache.class);
+            Bundle pdfbox = FrameworkUtil.getBundle(PDDocument.class);
+
+            File directory = bundle != null && pdfbox != null ? bundle.getDataFile(DIRECTORY) : null;
+            instance = new PDFTextCache(directory, directory != null ? pdfbox.getVersion().toString() : null,
+                            MAX_SIZE);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the text of the document either from the cache or by calling
+     * the loader.
+     */
+    public String getText(File file, TextLoader loader) throws IOException
+    {
+        if (directory == null)
+            return loader.load(file);
+
+        File entry = new File(directory, hash(file) + EXTENSION);
+
+        if (entry.exists())
+        {
+            try
+            {
+                String text = new String(Files.readAllBytes(entry.toPath()), StandardCharsets.UTF_8);
+
+                // remember access for the eviction of least recently used
+                // entries
+                entry.setLastModified(System.currentTimeMillis());
+
+                return text;
+            }
+            catch (IOException ignore)
+            {
+                // entry has been evicted concurrently -> strip again
+            }
+        }
+
+        String text = loader.load(file);
+        put(entry, text);
+        return text;
+    }
+
+    /**
+     * Deletes all entries of the cache.
+     */
+    public synchronized void clear()
+    {
+        if (directory == null)
+            return;
+
+        for (File entry : listEntries())
+            entry.delete();
+
+        size = -1;
+    }
+
+    private String hash(File file) throws IOException
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+            digest.update(version.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+
+            try (InputStream in = Files.newInputStream(file.toPath()))
+            {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) >= 0)
+                    digest.update(buffer, 0, read);
+            }
+
+            StringBuilder answer = new StringBuilder();
+            for (byte b : digest.digest())
+                answer.append(String.format("%02x", b)); //$NON-NLS-1$
+            return answer.toString();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void put(File entry, String text)
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        try
+        {
+            directory.mkdirs();
+
+            File temp = File.createTempFile(entry.getName(), ".tmp", directory); //$NON-NLS-1$
+            try
+            {
+                Files.write(temp.toPath(), bytes);
+
+                try
+                {
+                    Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                                    StandardCopyOption.REPLACE_EXISTING);
+                }
+                catch (AtomicMoveNotSupportedException e)
+                {
+                    Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            finally
+            {
+                Files.deleteIfExists(temp.toPath());
+            }
+        }
+        catch (IOException ignore)
+        {
+            // the cache is an optimization only: if the text cannot be
+            // written, it is stripped again with the next import
+            return;
+        }
+
+        added(bytes.length);
+    }
+
+    private synchronized void added(long length)
+    {
+        if (size < 0)
+            size = sizeOf(listEntries());
+        else
+            size += length;
+
+        if (size <= maxSize)
+            return;
+
+        // delete the least recently used entries until the cache is reduced
+        // to 80% of the maximum size to not evict entries with every write.
+        // The access time of an entry can change while sorting, therefore
+        // sort by a snapshot of the access times.
+        File[] entries = listEntries();
+        Map<File, Long> accessed = new HashMap<>();
+        for (File entry : entries)
+            accessed.put(entry, entry.lastModified());
+        Arrays.sort(entries, Comparator.comparing(accessed::get));
+
+        size = sizeOf(entries);
+        for (int ii = 0; ii < entries.length && size > maxSize * 4 / 5; ii++)
+        {
+            long entrySize = entries[ii].length();
+            if (entries[ii].delete())
+                size -= entrySize;
+        }
+    }
+
+    private File[] listEntries()
+    {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        return entries != null ? entries : new File[0];
+    }
+
+    private long sizeOf(File[] entries)
+    {
+        long answer = 0;
+        for (File entry : entries)
+            answer += entry.length();
+        return answer;
+    }
+}
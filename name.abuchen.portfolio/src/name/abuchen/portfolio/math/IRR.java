@@ -1,16 +1,315 @@
 package name.abuchen.portfolio.math;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-import name.abuchen.portfolio.math.NewtonGoalSeek.Function;
-
+/**
+ * Calculates the internal rate of return of a series of cash flows.
+ * <p>
+ * The solver runs Newton's method with the analytic derivative of the net
+ * present value, starting from an estimate derived from the cash flows (or a
+ * given start value, for example the result of a similar calculation). If
+ * Newton's method does not converge, the rate is searched within a bracket
+ * with a sign change using Brent's method. If no such bracket exists, for
+ * example because the cash flows do not change their sign, the last estimate
+ * of Newton's method is returned and the result is marked as not converged.
+ */
 public final class IRR
 {
+    public static final class Result
+    {
+        private final double rate;
+        private final int iterations;
+        private final boolean converged;
+
+        private Result(double rate, int iterations, boolean converged)
+        {
+            this.rate = rate;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+        /**
+         * Returns the internal rate of return. If the solver did not
+         * converge, the rate is the last estimate of the solver.
+         */
+        public double getRate()
+        {
+            return rate;
+        }
+
+        public int getIterations()
+        {
+            return iterations;
+        }
+
+        public boolean isConverged()
+        {
+            return converged;
+        }
+    }
+
+    private static final double TOLERANCE = 1e-10;
+    private static final int MAX_NEWTON_ITERATIONS = 50;
+    private static final int MAX_BRENT_ITERATIONS = 200;
+    private static final int MAX_BRACKET_STEPS = 30;
+
+    private IRR()
+    {}
+
     public static double calculate(List<LocalDate> dates, List<Double> values)
     {
-        Function npv = new NPVFunction(dates, values);
-        Function derivative = new PseudoDerivativeFunction(npv);
-        return NewtonGoalSeek.seek(npv, derivative, 0.05d) - 1;
+        return solve(dates, values, Double.NaN).getRate();
+    }
+
+    /**
+     * Calculates the internal rate of return.
+     *
+     * @param guess
+     *            start value for the rate or {@link Double#NaN} to estimate
+     *            the start value from the cash flows
+     */
+    public static Result solve(List<LocalDate> dates, List<Double> values, double guess)
+    {
+        NPVFunction npv = new NPVFunction(dates, values);
+
+        double x0 = Double.isNaN(guess) || guess <= -1 ? npv.estimate() : guess + 1;
+        if (!Double.isFinite(x0) || x0 <= 0)
+            x0 = 1.05d;
+
+        return solve(npv, x0);
+    }
+
+    /**
+     * Calculates the internal rates of return of multiple series of cash
+     * flows in parallel. The results are in the order of the given series.
+     *
+     * @param guesses
+     *            start value per series or {@link Double#NaN} to estimate the
+     *            start value from the cash flows
+     */
+    public static List<Result> solveAll(List<List<LocalDate>> dates, List<List<Double>> values,
+                    List<Double> guesses)
+    {
+        if (dates.size() != values.size() || dates.size() != guesses.size())
+            throw new IllegalArgumentException();
+
+        return IntStream.range(0, dates.size()).parallel() //
+                        .mapToObj(ii -> solve(dates.get(ii), values.get(ii), guesses.get(ii))) //
+                        .collect(Collectors.toList());
+    }
+
+    /**
+     * Calculates the internal rates of return of consecutive periods, e.g.
+     * of every year of a reporting period. The rate of a period usually is
+     * close to the rate of the previous period and therefore is the start
+     * value for the next period.
+     */
+    public static List<Result> solveConsecutive(List<List<LocalDate>> dates, List<List<Double>> values)
+    {
+        if (dates.size() != values.size())
+            throw new IllegalArgumentException();
+
+        List<Result> answer = new ArrayList<>();
+
+        double guess = Double.NaN;
+        for (int ii = 0; ii < dates.size(); ii++)
+        {
+            Result result = solve(dates.get(ii), values.get(ii), guess);
+            answer.add(result);
+            guess = result.isConverged() ? result.getRate() : Double.NaN;
+        }
+
+        return answer;
+    }
+
+    private static Result solve(NPVFunction npv, double x0)
+    {
+        double[] derivative = new double[1];
+
+        // remember the latest points with a negative and a positive value as
+        // bracket for the fallback
+        double negative = Double.NaN;
+        double fnegative = Double.NaN;
+        double positive = Double.NaN;
+        double fpositive = Double.NaN;
+
+        // the last point with a finite value is the estimate if no rate is
+        // found
+        double estimate = x0;
+
+        double x = x0;
+        int iterations = 0;
+        while (iterations < MAX_NEWTON_ITERATIONS)
+        {
+            iterations++;
+
+            double fx = npv.compute(x, derivative);
+            if (fx == 0)
+                return new Result(x - 1, iterations, true);
+            if (!Double.isFinite(fx))
+                break;
+
+            estimate = x;
+
+            if (fx < 0)
+            {
+                negative = x;
+                fnegative = fx;
+            }
+            else
+            {
+                positive = x;
+                fpositive = fx;
+            }
+
+            double x1 = x - fx / derivative[0];
+            if (!Double.isFinite(x1))
+                break;
+
+            // stay within the domain of the function
+            if (x1 <= 0)
+                x1 = x / 2;
+
+            if (Math.abs(x1 - x) <= TOLERANCE * Math.max(1d, x))
+                return new Result(x1 - 1, iterations, true);
+
+            x = x1;
+        }
+
+        if (Double.isNaN(negative) || Double.isNaN(positive))
+        {
+            double[] bracket = bracket(npv, x0);
+            if (bracket == null)
+                return new Result(estimate - 1, iterations, false);
+
+            negative = bracket[0];
+            fnegative = bracket[1];
+            positive = bracket[2];
+            fpositive = bracket[3];
+        }
+
+        return brent(npv, negative, fnegative, positive, fpositive, iterations);
+    }
+
+    /**
+     * Widens the interval around the start value until the function changes
+     * its sign.
+     */
+    private static double[] bracket(NPVFunction npv, double x0)
+    {
+        double f0 = npv.compute(x0);
+        if (!Double.isFinite(f0))
+            return null;
+        if (f0 == 0)
+            return new double[] { x0, f0, x0, f0 };
+
+        double low = x0;
+        double high = x0;
+
+        for (int ii = 0; ii < MAX_BRACKET_STEPS; ii++)
+        {
+            high *= 2;
+            double fhigh = npv.compute(high);
+            if (Double.isFinite(fhigh) && Math.signum(fhigh) != Math.signum(f0))
+                return f0 < 0 ? new double[] { x0, f0, high, fhigh } : new double[] { high, fhigh, x0, f0 };
+
+            low /= 2;
+            double flow = npv.compute(low);
+            if (Double.isFinite(flow) && Math.signum(flow) != Math.signum(f0))
+                return f0 < 0 ? new double[] { x0, f0, low, flow } : new double[] { low, flow, x0, f0 };
+        }
+
+        return null;
+    }
+
+    /**
+     * http://en.wikipedia.org/wiki/Brent's_method
+     */
+    private static Result brent(NPVFunction npv, double a, double fa, double b, double fb, int iterations)
+    {
+        double c = b;
+        double fc = fb;
+        double d = b - a;
+        double e = d;
+
+        for (int ii = 0; ii < MAX_BRENT_ITERATIONS; ii++)
+        {
+            if ((fb > 0 && fc > 0) || (fb < 0 && fc < 0))
+            {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+
+            if (Math.abs(fc) < Math.abs(fb))
+            {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+
+            double tolerance = 2 * Math.ulp(b) + TOLERANCE * Math.max(1d, Math.abs(b)) / 2;
+            double middle = (c - b) / 2;
+
+            if (Math.abs(middle) <= tolerance || fb == 0)
+                return new Result(b - 1, iterations + ii, true);
+
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb))
+            {
+                // inverse quadratic interpolation or secant
+                double s = fb / fa;
+                double p;
+                double q;
+
+                if (a == c)
+                {
+                    p = 2 * middle * s;
+                    q = 1 - s;
+                }
+                else
+                {
+                    double r = fb / fc;
+                    q = fa / fc;
+                    p = s * (2 * middle * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                }
+
+                if (p > 0)
+                    q = -q;
+                p = Math.abs(p);
+
+                if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q), Math.abs(e * q)))
+                {
+                    e = d;
+                    d = p / q;
+                }
+                else
+                {
+                    d = middle;
+                    e = d;
+                }
+            }
+            else
+            {
+                // bisection
+                d = middle;
+                e = d;
+            }
+
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+            fb = npv.compute(b);
+        }
+
+        return new Result(b - 1, iterations + MAX_BRENT_ITERATIONS, false);
     }
 }
@@ -3,13 +3,12 @@ package name.abuchen.portfolio.math;
 import java.time.LocalDate;
 import java.util.List;
 
-import name.abuchen.portfolio.math.NewtonGoalSeek.Function;
 import name.abuchen.portfolio.util.Dates;
 
 @SuppressWarnings("nls")
-/* package */class NPVFunction implements Function
+/* package */class NPVFunction
 {
-    private final int[] days;
+    private final double[] years;
     private final double[] values;
 
     public NPVFunction(List<LocalDate> dates, List<Double> values)
@@ -21,26 +20,71 @@ import name.abuchen.portfolio.util.Dates;
         if (dates.isEmpty() || values.isEmpty())
             throw new UnsupportedOperationException("at least one data point must be provided");
 
-        this.days = new int[dates.size()];
+        this.years = new double[dates.size()];
         for (int ii = 0; ii < dates.size(); ii++)
-            this.days[ii] = Dates.daysBetween(dates.get(0), dates.get(ii));
+            this.years[ii] = Dates.daysBetween(dates.get(0), dates.get(ii)) / 365.0;
 
         this.values = new double[values.size()];
         for (int ii = 0; ii < values.size(); ii++)
             this.values[ii] = values.get(ii);
     }
 
-    @Override
     public double compute(double rate)
     {
         double answer = 0;
 
-        for (int ii = 0; ii < days.length; ii++)
+        for (int ii = 0; ii < years.length; ii++)
         {
-            answer += values[ii] / Math.pow(rate, days[ii] / 365.0);
+            answer += values[ii] / Math.pow(rate, years[ii]);
         }
 
         return answer;
     }
 
+    /**
+     * Computes the net present value and stores the analytic first derivative
+     * in derivative[0]. Both are calculated in one pass with one power per
+     * cash flow.
+     */
+    public double compute(double rate, double[] derivative)
+    {
+        double answer = 0;
+        double slope = 0;
+
+        for (int ii = 0; ii < years.length; ii++)
+        {
+            double term = values[ii] / Math.pow(rate, years[ii]);
+            answer += term;
+            slope -= years[ii] * term;
+        }
+
+        derivative[0] = slope / rate;
+        return answer;
+    }
+
+    /**
+     * Returns a start value for the goal seek: the annualized ratio of all
+     * inflows to all outflows.
+     */
+    public double estimate()
+    {
+        double inflow = 0;
+        double outflow = 0;
+        double duration = 0;
+
+        for (int ii = 0; ii < years.length; ii++)
+        {
+            if (values[ii] > 0)
+                inflow += values[ii];
+            else
+                outflow -= values[ii];
+            duration = Math.max(duration, years[ii]);
+        }
+
+        if (inflow == 0 || outflow == 0 || duration == 0)
+            return 1.05d;
+
+        return Math.pow(inflow / outflow, 1 / Math.max(duration, 1d));
+    }
+
 }
@@ -2,7 +2,7 @@ package name.abuchen.portfolio.math;
 
 import java.time.LocalDate;
 import java.util.Objects;
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 
 import name.abuchen.portfolio.util.Interval;
 
@@ -105,7 +105,7 @@ public final class Risk
         private final double stdDeviation;
         private final double semiDeviation;
 
-        public Volatility(double[] returns, Predicate<Integer> filter)
+        public Volatility(double[] returns, IntPredicate filter)
         {
             Objects.requireNonNull(returns);
 
@@ -132,7 +132,7 @@ public final class Risk
             semiDeviation = Math.sqrt(tempSemi / count);
         }
 
-        private double average(double[] returns, Predicate<Integer> filter)
+        private double average(double[] returns, IntPredicate filter)
         {
             double sum = 0;
             int count = 0;
@@ -175,6 +175,203 @@ public final class Risk
         }
     }
 
+    /**
+     * Risk metrics over a window of the last N trading days, calculated for
+     * every day of the performance index in one pass. Days excluded by the
+     * filter (weekends, holidays, days without holdings) are not part of the
+     * window and carry the value of the previous day. Until the window is
+     * complete, the values are {@link Double#NaN}.
+     */
+    public static class Rolling
+    {
+        private final int window;
+        private final double[] volatility;
+        private final double[] semiDeviation;
+        private final double[] maxDrawdown;
+        private final double[] sharpeRatio;
+        private final double[] returns;
+
+        public Rolling(double[] delta, double[] accumulated, IntPredicate filter, int window)
+        {
+            Objects.requireNonNull(delta);
+            Objects.requireNonNull(accumulated);
+            if (window < 2)
+                throw new IllegalArgumentException(String.valueOf(window));
+
+            this.window = window;
+
+            int length = delta.length;
+            volatility = new double[length];
+            semiDeviation = new double[length];
+            maxDrawdown = new double[length];
+            sharpeRatio = new double[length];
+            returns = new double[length];
+
+            // ring buffer with the indices of the trading days in the window
+            // (plus the trading day before, i.e. the base of the return)
+            int[] days = new int[window + 1];
+            int head = 0;
+            int count = 0;
+
+            // Welford's online algorithm for mean and variance
+            double mean = 0;
+            double m2 = 0;
+            double downside = 0;
+
+            // monotonic deques (indices into the days ring buffer) for the
+            // highest value and the largest drawdown within the window
+            int[] peaks = new int[window + 1];
+            int peakHead = 0;
+            int peakSize = 0;
+            int[] drawdowns = new int[window + 1];
+            int drawdownHead = 0;
+            int drawdownSize = 0;
+            double[] drawdown = new double[length];
+
+            for (int ii = 0; ii < length; ii++)
+            {
+                if (!filter.test(ii))
+                {
+                    carryOver(ii);
+                    continue;
+                }
+
+                // slide the window
+                if (count == window + 1)
+                {
+                    int leaving = days[head];
+                    head = (head + 1) % days.length;
+                    count--;
+
+                    double x = delta[days[head]];
+                    int n = count - 1;
+                    double d = x - mean;
+                    mean = n > 0 ? mean - d / n : 0;
+                    m2 = n > 0 ? Math.max(0, m2 - d * (x - mean)) : 0;
+                    downside -= x < 0 ? x * x : 0;
+
+                    if (peakSize > 0 && peaks[peakHead] == leaving)
+                    {
+                        peakHead = (peakHead + 1) % peaks.length;
+                        peakSize--;
+                    }
+                    if (drawdownSize > 0 && drawdowns[drawdownHead] == leaving)
+                    {
+                        drawdownHead = (drawdownHead + 1) % drawdowns.length;
+                        drawdownSize--;
+                    }
+                }
+
+                days[(head + count) % days.length] = ii;
+                count++;
+
+                // the return of the first trading day in the buffer is not
+                // part of the window because it is the base for the others
+                if (count > 1)
+                {
+                    double x = delta[ii];
+                    int n = count - 1;
+                    double d = x - mean;
+                    mean += d / n;
+                    m2 += d * (x - mean);
+                    downside += x < 0 ? x * x : 0;
+                }
+
+                double value = 1 + accumulated[ii];
+                while (peakSize > 0 && 1 + accumulated[peaks[(peakHead + peakSize - 1) % peaks.length]] <= value)
+                    peakSize--;
+                peaks[(peakHead + peakSize) % peaks.length] = ii;
+                peakSize++;
+
+                double peak = 1 + accumulated[peaks[peakHead]];
+                drawdown[ii] = peak > 0 ? (peak - value) / peak : 0;
+                while (drawdownSize > 0 && drawdown[drawdowns[(drawdownHead + drawdownSize - 1)
+                                % drawdowns.length]] <= drawdown[ii])
+                    drawdownSize--;
+                drawdowns[(drawdownHead + drawdownSize) % drawdowns.length] = ii;
+                drawdownSize++;
+
+                if (count < window + 1)
+                {
+                    volatility[ii] = Double.NaN;
+                    semiDeviation[ii] = Double.NaN;
+                    maxDrawdown[ii] = Double.NaN;
+                    sharpeRatio[ii] = Double.NaN;
+                    returns[ii] = Double.NaN;
+                }
+                else
+                {
+                    double stdDeviation = Math.sqrt(m2 / window);
+                    volatility[ii] = stdDeviation;
+                    semiDeviation[ii] = Math.sqrt(downside / window);
+                    maxDrawdown[ii] = drawdown[drawdowns[drawdownHead]];
+                    sharpeRatio[ii] = stdDeviation > 0 ? mean / stdDeviation : Double.NaN;
+                    returns[ii] = (1 + accumulated[ii]) / (1 + accumulated[days[head]]) - 1;
+                }
+            }
+        }
+
+        private void carryOver(int index)
+        {
+            boolean first = index == 0;
+            volatility[index] = first ? Double.NaN : volatility[index - 1];
+            semiDeviation[index] = first ? Double.NaN : semiDeviation[index - 1];
+            maxDrawdown[index] = first ? Double.NaN : maxDrawdown[index - 1];
+            sharpeRatio[index] = first ? Double.NaN : sharpeRatio[index - 1];
+            returns[index] = first ? Double.NaN : returns[index - 1];
+        }
+
+        public int getWindow()
+        {
+            return window;
+        }
+
+        /**
+         * Returns the standard deviation of the daily returns within the
+         * window.
+         */
+        public double[] getVolatility()
+        {
+            return volatility;
+        }
+
+        /**
+         * Returns the deviation of the negative daily returns (below a target
+         * return of zero) within the window.
+         */
+        public double[] getSemiDeviation()
+        {
+            return semiDeviation;
+        }
+
+        /**
+         * Returns the largest drawdown within the window. Each drawdown is
+         * measured from the highest value of the N trading days before.
+         */
+        public double[] getMaxDrawdown()
+        {
+            return maxDrawdown;
+        }
+
+        /**
+         * Returns the average daily return divided by the standard deviation
+         * of the daily returns within the window (assuming a risk-free rate
+         * of zero).
+         */
+        public double[] getSharpeRatio()
+        {
+            return sharpeRatio;
+        }
+
+        /**
+         * Returns the accumulated return over the window.
+         */
+        public double[] getReturns()
+        {
+            return returns;
+        }
+    }
+
     private Risk()
     {}
 }
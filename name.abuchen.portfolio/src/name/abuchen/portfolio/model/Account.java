@@ -16,6 +16,8 @@ public class Account implements TransactionOwner<AccountTransaction>, Investment
 
     private List<AccountTransaction> transactions = new ArrayList<AccountTransaction>();
 
+    private transient BalanceIndex balanceIndex;
+
     public Account()
     {
         this.uuid = UUID.randomUUID().toString();
@@ -39,6 +41,12 @@ public class Account implements TransactionOwner<AccountTransaction>, Investment
         uuid = UUID.randomUUID().toString();
     }
 
+    /* package */void setUUID(String uuid)
+    {
+        // needed to restore UUIDs when loading without XStream
+        this.uuid = uuid;
+    }
+
     @Override
     public String getName()
     {
@@ -95,12 +103,32 @@ public class Account implements TransactionOwner<AccountTransaction>, Investment
     public void addTransaction(AccountTransaction transaction)
     {
         this.transactions.add(transaction);
+
+        if (balanceIndex != null)
+            balanceIndex.added(transaction);
     }
 
     @Override
     public void shallowDeleteTransaction(AccountTransaction transaction, Client client)
     {
-        this.transactions.remove(transaction);
+        if (this.transactions.remove(transaction) && balanceIndex != null)
+            balanceIndex.removed(transaction);
+    }
+
+    /**
+     * Returns the index to look up the balance at a given date.
+     */
+    public synchronized BalanceIndex getBalanceIndex()
+    {
+        if (balanceIndex == null)
+            balanceIndex = new BalanceIndex(this);
+        return balanceIndex;
+    }
+
+    /* package */void invalidateBalanceIndex()
+    {
+        if (balanceIndex != null)
+            balanceIndex.invalidate();
     }
 
     public long getCurrentAmount()
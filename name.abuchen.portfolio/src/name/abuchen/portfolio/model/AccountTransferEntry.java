@@ -37,6 +37,17 @@ public class AccountTransferEntry implements CrossEntry, Annotated
         return this.transactionTo;
     }
 
+    /* package */void setSourceTransaction(AccountTransaction transaction)
+    {
+        // needed to link the transactions read by the streaming XML reader
+        this.transactionFrom = transaction;
+    }
+
+    /* package */void setTargetTransaction(AccountTransaction transaction)
+    {
+        this.transactionTo = transaction;
+    }
+
     public void setSourceAccount(Account account)
     {
         this.accountFrom = account;
@@ -290,6 +290,17 @@ public class AttributeType
         this.converter = null; // in case it was used before
     }
 
+    /* package */String getConverterClass()
+    {
+        return converterClass;
+    }
+
+    /* package */void setConverterClass(String converterClass)
+    {
+        this.converterClass = converterClass;
+        this.converter = null;
+    }
+
     public Converter getConverter()
     {
         try
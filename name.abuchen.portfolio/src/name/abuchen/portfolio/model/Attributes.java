@@ -27,4 +27,9 @@ public class Attributes
         return map.containsKey(attribute.getId());
     }
 
+    /* package */Map<String, Object> getMap()
+    {
+        return map;
+    }
+
 }
@@ -0,0 +1,80 @@
+package name.abuchen.portfolio.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index of the transactions of an account by date which answers the balance
+ * at a given date without scanning all transactions. The index is maintained
+ * like the {@link HoldingsIndex}.
+ */
+public final class BalanceIndex
+{
+    private final Account account;
+
+    private CumulativeIndex<AccountTransaction> index;
+    private int count;
+
+    /* package */BalanceIndex(Account account)
+    {
+        this.account = account;
+    }
+
+    /* package */synchronized void added(AccountTransaction transaction)
+    {
+        if (index != null)
+        {
+            index.add(transaction);
+            count++;
+        }
+    }
+
+    /* package */synchronized void removed(AccountTransaction transaction)
+    {
+        if (index == null)
+            return;
+
+        if (index.remove(transaction))
+            count--;
+        else
+            index = null;
+    }
+
+    /* package */synchronized void invalidate()
+    {
+        index = null;
+    }
+
+    /**
+     * Returns the balance at the end of the given date in the currency of the
+     * account.
+     */
+    public synchronized long getBalance(LocalDate date)
+    {
+        ensureIndexed();
+        return index.sum(index.count(date));
+    }
+
+    /**
+     * Returns the transactions after the given date sorted by date.
+     */
+    public synchronized List<AccountTransaction> getTransactionsAfter(LocalDate date)
+    {
+        ensureIndexed();
+        return new ArrayList<>(index.tail(index.count(date)));
+    }
+
+    private void ensureIndexed()
+    {
+        List<AccountTransaction> transactions = account.getTransactions();
+
+        // transactions might have been added or removed directly to the list
+        if (index == null || count != transactions.size())
+        {
+            index = new CumulativeIndex<>(t -> t.getType().isDebit() ? -t.getAmount() : t.getAmount());
+            index.addAll(transactions);
+            count = transactions.size();
+        }
+    }
+}
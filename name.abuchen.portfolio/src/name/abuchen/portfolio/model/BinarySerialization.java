@@ -0,0 +1,1492 @@
+package name.abuchen.portfolio.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import name.abuchen.portfolio.Messages;
+import name.abuchen.portfolio.model.Classification.Assignment;
+import name.abuchen.portfolio.model.ConfigurationSet.Configuration;
+import name.abuchen.portfolio.model.Transaction.Unit;
+import name.abuchen.portfolio.money.Money;
+
+/**
+ * Reads and writes the client in a compact binary format. Compared to the XML
+ * format, the binary format
+ * <ul>
+ * <li>stores every string once in a string table and refers to it by index
+ * (currency codes, notes, and attribute keys are shared on load),</li>
+ * <li>refers to securities, accounts, portfolios, and transactions by their
+ * index in the reference tables instead of XStream reference paths,</li>
+ * <li>stores historical prices as columnar blocks of delta encoded dates and
+ * values which are loaded directly into the {@link SecurityPriceSeries}.</li>
+ * </ul>
+ * The file starts with the signature, the format version, the client version,
+ * and the name of the {@link QuoteSidecar} file (if any) which holds the
+ * leading prices of the base snapshot. It is followed by frames: a base
+ * snapshot and optionally journal records appended when saving (see
+ * {@link Journal}). The payload of each
+ * frame is deflated. The format covers the model of the current client
+ * version; legacy fields which are removed by {@link ClientFactory} when
+ * upgrading older files are not written.
+ */
+/* package */class BinarySerialization
+{
+    /* package */static final byte[] SIGNATURE = new byte[] { 'P', 'P', 'B', 'I', 'N' };
+
+    private static final int FORMAT_VERSION = 3;
+
+    /**
+     * Encodes the payload of a frame, for example to encrypt it.
+     */
+    /* package */interface FrameCodec
+    {
+        byte[] encode(byte[] payload) throws IOException;
+
+        byte[] decode(byte[] payload) throws IOException;
+    }
+
+    /* package */static final FrameCodec PLAIN = new FrameCodec()
+    {
+        @Override
+        public byte[] encode(byte[] payload)
+        {
+            return payload;
+        }
+
+        @Override
+        public byte[] decode(byte[] payload)
+        {
+            return payload;
+        }
+    };
+
+    // kinds of frames
+    private static final int FRAME_BASE = 1;
+    private static final int FRAME_RECORD = 2;
+
+    // length of payload, kind of frame, and client version
+    private static final int FRAME_HEADER_LENGTH = 9;
+
+    // kinds of cross entries
+    private static final int BUY_SELL = 1;
+    private static final int ACCOUNT_TRANSFER = 2;
+    private static final int PORTFOLIO_TRANSFER = 3;
+
+    // kinds of investment vehicles
+    private static final int VEHICLE_SECURITY = 1;
+    private static final int VEHICLE_ACCOUNT = 2;
+
+    // types of attribute values
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_LONG = 2;
+    private static final int VALUE_DOUBLE = 3;
+    private static final int VALUE_DATE = 4;
+    private static final int VALUE_BOOLEAN = 5;
+
+    /**
+     * The client file: sidecar files are resolved relative to it
+     */
+    private final File file;
+
+    public BinarySerialization()
+    {
+        this(null);
+    }
+
+    public BinarySerialization(File file)
+    {
+        this.file = file;
+    }
+
+    public Client load(InputStream input) throws IOException
+    {
+        DataInputStream header = new DataInputStream(input);
+
+        byte[] signature = new byte[SIGNATURE.length];
+        header.readFully(signature);
+        if (!Arrays.equals(signature, SIGNATURE))
+            throw new IOException(Messages.MsgNotAPortflioFile);
+
+        int formatVersion = header.readInt();
+        int version = header.readInt();
+        if (formatVersion > FORMAT_VERSION || version > Client.CURRENT_VERSION)
+            throw new IOException(MessageFormat.format(Messages.MsgUnsupportedVersionClientFiled, version));
+
+        if (formatVersion >= 2)
+        {
+            // format version 2: frames without quote sidecar
+            String name = formatVersion >= 3 ? header.readUTF() : ""; //$NON-NLS-1$
+            QuoteSidecar sidecar = null;
+            if (!name.isEmpty())
+            {
+                if (file == null)
+                    throw new IOException(MessageFormat.format(Messages.MsgFileNotFound, name));
+                sidecar = QuoteSidecar.open(file, name);
+            }
+
+            return readFrames(input, PLAIN, sidecar);
+        }
+
+        // format version 1: one deflated snapshot without frames
+        Client client = decode(input, false, null, null, null);
+        client.setVersion(version);
+        return client;
+    }
+
+    public void save(Client client, OutputStream output) throws IOException
+    {
+        writeHeader(client, output);
+        writeFrame(client, output, PLAIN, null);
+    }
+
+    /* package */void writeHeader(Client client, OutputStream output) throws IOException
+    {
+        DataOutputStream header = new DataOutputStream(output);
+        header.write(SIGNATURE);
+        header.writeInt(FORMAT_VERSION);
+        header.writeInt(client.getVersion());
+        QuoteSidecar sidecar = client.getQuoteSidecar();
+        header.writeUTF(sidecar != null ? sidecar.getName() : ""); //$NON-NLS-1$
+        header.flush();
+    }
+
+    /**
+     * Writes a frame with the client: a base snapshot if no journal is given,
+     * otherwise a journal record which refers to the unchanged prices of the
+     * base snapshot. A frame consists of the length of the payload, the kind
+     * of frame, the client version, and the deflated (and possibly encoded)
+     * payload.
+     */
+    /* package */Journal.Frame writeFrame(Client client, OutputStream output, FrameCodec codec, Journal journal)
+                    throws IOException
+    {
+        // the string table is only complete after the model has been written
+        // -> write the model into a buffer first
+        ClientWriter writer = new ClientWriter(journal);
+        byte[] body = writer.write(client);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 1024);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try
+        {
+            DeflaterOutputStream compressed = new DeflaterOutputStream(buffer, deflater, 64 * 1024);
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(compressed, 64 * 1024));
+
+            writeVarInt(data, writer.strings.size());
+            for (String string : writer.strings)
+            {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(data, bytes.length);
+                data.write(bytes);
+            }
+
+            data.write(body);
+            data.flush();
+            compressed.finish();
+        }
+        finally
+        {
+            deflater.end();
+        }
+
+        byte[] payload = codec.encode(buffer.toByteArray());
+
+        DataOutputStream frame = new DataOutputStream(output);
+        frame.writeInt(payload.length);
+        frame.writeByte(journal == null ? FRAME_BASE : FRAME_RECORD);
+        frame.writeInt(client.getVersion());
+        frame.write(payload);
+        frame.flush();
+
+        writer.frame.setLength(FRAME_HEADER_LENGTH + payload.length);
+        return writer.frame;
+    }
+
+    /**
+     * Reads the frames of the file. The client is read from the last complete
+     * frame: either the base snapshot or the latest journal record. An
+     * incomplete frame at the end of the file (e.g. if writing the record has
+     * been interrupted) is ignored; its length is passed to the journal which
+     * truncates the file before appending the next record.
+     */
+    /* package */Client readFrames(InputStream input, FrameCodec codec, QuoteSidecar sidecar) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+
+        byte[] base = null;
+        long baseLength = 0;
+        byte[] record = null;
+        int version = 0;
+        long journalLength = 0;
+        int records = 0;
+        long incompleteLength = 0;
+
+        byte[] header = new byte[FRAME_HEADER_LENGTH];
+
+        while (true)
+        {
+            int read = readFully(in, header);
+            if (read < header.length)
+            {
+                incompleteLength = read;
+                break;
+            }
+
+            ByteBuffer frameHeader = ByteBuffer.wrap(header);
+            int length = frameHeader.getInt();
+            if (length < 0)
+                throw new IOException(Messages.MsgNotAPortflioFile);
+            int kind = frameHeader.get() & 0xFF;
+            int frameVersion = frameHeader.getInt();
+
+            byte[] payload = new byte[length];
+            read = readFully(in, payload);
+            if (read < length)
+            {
+                incompleteLength = FRAME_HEADER_LENGTH + (long) read;
+                break;
+            }
+
+            version = frameVersion;
+
+            if (kind == FRAME_BASE)
+            {
+                base = payload;
+                baseLength = FRAME_HEADER_LENGTH + length;
+                record = null;
+                journalLength = 0;
+                records = 0;
+            }
+            else if (kind == FRAME_RECORD && base != null)
+            {
+                record = payload;
+                journalLength += FRAME_HEADER_LENGTH + length;
+                records++;
+            }
+            else
+            {
+                throw new IOException(Messages.MsgNotAPortflioFile);
+            }
+        }
+
+        if (base == null)
+            throw new IOException(Messages.MsgNotAPortflioFile);
+        if (version > Client.CURRENT_VERSION)
+            throw new IOException(MessageFormat.format(Messages.MsgUnsupportedVersionClientFiled, version));
+
+        Journal.Frame frame = new Journal.Frame();
+        Client client;
+
+        if (record == null)
+        {
+            client = decode(new ByteArrayInputStream(codec.decode(base)), true, sidecar, null, frame);
+        }
+        else
+        {
+            Map<String, SecurityPriceSeries> basePrices = new HashMap<>();
+            decode(new ByteArrayInputStream(codec.decode(base)), true, sidecar, basePrices, null);
+            client = decode(new ByteArrayInputStream(codec.decode(record)), true, null, basePrices, frame);
+        }
+
+        client.setVersion(version);
+        client.setQuoteSidecar(sidecar);
+        client.setJournal(new Journal(baseLength, journalLength, records, incompleteLength, frame));
+        return client;
+    }
+
+    /**
+     * Reads bytes into the buffer until it is full or the end of the stream
+     * is reached.
+     *
+     * @return number of bytes read
+     */
+    private static int readFully(InputStream in, byte[] buffer) throws IOException
+    {
+        int length = 0;
+        while (length < buffer.length)
+        {
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0)
+                break;
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * Decodes a deflated snapshot. If a frame is given, the base prefix of
+     * every security is collected. If the base prices are given but no frame,
+     * only the prices of the base snapshot are read.
+     */
+    private Client decode(InputStream input, boolean isFramed, QuoteSidecar sidecar,
+                    Map<String, SecurityPriceSeries> basePrices, Journal.Frame frame) throws IOException
+    {
+        Inflater inflater = new Inflater();
+        try
+        {
+            DataInputStream data = new DataInputStream(
+                            new BufferedInputStream(new InflaterInputStream(input, inflater), 64 * 1024));
+
+            return new ClientReader(data, isFramed, sidecar, basePrices, frame).read();
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    private static class ClientWriter
+    {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> string2index = new HashMap<>();
+
+        private final Map<Security, Integer> securities = new IdentityHashMap<>();
+        private final Map<Account, Integer> accounts = new IdentityHashMap<>();
+        private final Map<Portfolio, Integer> portfolios = new IdentityHashMap<>();
+        private final Map<CrossEntry, Integer> entries = new IdentityHashMap<>();
+        private final Map<PortfolioTransaction, int[]> portfolioTransactions = new IdentityHashMap<>();
+
+        private final Journal journal;
+        private final Journal.Frame frame = new Journal.Frame();
+        private QuoteSidecar sidecar;
+
+        private DataOutputStream out;
+
+        public ClientWriter(Journal journal)
+        {
+            this.journal = journal;
+        }
+
+        public byte[] write(Client client) throws IOException
+        {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024 * 1024);
+            out = new DataOutputStream(buffer);
+
+            sidecar = client.getQuoteSidecar();
+            writeString(client.getBaseCurrency());
+
+            writeSecurities(client.getSecurities());
+            writeAccounts(client.getAccounts());
+            writePortfolios(client.getPortfolios());
+            writeCrossEntries(client);
+            for (Account account : client.getAccounts())
+                writeTransactions(account.getTransactions());
+            for (Portfolio portfolio : client.getPortfolios())
+                writeTransactions(portfolio.getTransactions());
+
+            writePlans(client.getPlans());
+            writeWatchlists(client.getWatchlists());
+            writeConsumerPriceIndices(client.getConsumerPriceIndices());
+            writeTaxonomies(client.getTaxonomies());
+            writeDashboards(client.getDashboards().collect(Collectors.toList()));
+            writeMap(client.getProperties());
+            writeSettings(client.getSettings());
+
+            out.flush();
+            return buffer.toByteArray();
+        }
+
+        private void writeSecurities(List<Security> list) throws IOException
+        {
+            writeVarInt(out, list.size());
+            for (Security security : list)
+            {
+                securities.put(security, securities.size());
+
+                writeString(security.getUUID());
+                writeString(security.getName());
+                writeString(security.getCurrencyCode());
+                writeString(security.getNote());
+                writeString(security.getIsin());
+                writeString(security.getTickerSymbol());
+                writeString(security.getWkn());
+                writeString(security.getFeed());
+                writeString(security.getFeedURL());
+                writeString(security.getLatestFeed());
+                writeString(security.getLatestFeedURL());
+                out.writeBoolean(security.isRetired());
+
+                LatestSecurityPrice latest = security.getLatest();
+                out.writeBoolean(latest != null);
+                if (latest != null)
+                {
+                    writeDate(latest.getTime());
+                    writeVarLong(out, latest.getValue());
+                    writeVarLong(out, latest.getHigh());
+                    writeVarLong(out, latest.getLow());
+                    writeVarLong(out, latest.getVolume());
+                    writeVarLong(out, latest.getPreviousClose());
+                }
+
+                writeVarInt(out, security.getEvents().size());
+                for (SecurityEvent event : security.getEvents())
+                {
+                    writeDate(event.getDate());
+                    writeString(event.getType() != null ? event.getType().name() : null);
+                    writeString(event.getDetails());
+                }
+
+                Map<String, Object> attributes = security.getAttributes().getMap();
+                writeVarInt(out, attributes.size());
+                for (Map.Entry<String, Object> entry : attributes.entrySet())
+                {
+                    writeString(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+
+                writePrices(security);
+            }
+        }
+
+        /**
+         * Writes the prices as two columns: the dates as delta to the previous
+         * date and the values as delta to the previous value. Journal records
+         * only write the prices after the prefix which is unchanged since the
+         * base snapshot, base snapshots only the prices after the prefix
+         * stored in the sidecar file.
+         */
+        private void writePrices(Security security) throws IOException
+        {
+            SecurityPriceSeries prices = security.getPriceSeries();
+            int size = prices.size();
+            int prefix;
+            if (journal != null)
+                prefix = journal.getBasePrefix(security);
+            else
+                prefix = sidecar != null ? sidecar.getPrefix(security) : 0;
+
+            writeVarInt(out, prefix);
+            writeVarInt(out, size - prefix);
+            frame.add(security, journal != null ? prefix : size, size);
+
+            int previousDay = 0;
+            for (int ii = prefix; ii < size; ii++)
+            {
+                int day = prices.getEpochDay(ii);
+                writeVarLong(out, (long) day - previousDay);
+                previousDay = day;
+            }
+
+            long previousValue = 0;
+            for (int ii = prefix; ii < size; ii++)
+            {
+                long value = prices.getValue(ii);
+                writeVarLong(out, value - previousValue);
+                previousValue = value;
+            }
+        }
+
+        private void writeAccounts(List<Account> list) throws IOException
+        {
+            writeVarInt(out, list.size());
+            for (Account account : list)
+            {
+                accounts.put(account, accounts.size());
+
+                writeString(account.getUUID());
+                writeString(account.getName());
+                writeString(account.getCurrencyCode());
+                writeString(account.getNote());
+                out.writeBoolean(account.isRetired());
+            }
+        }
+
+        private void writePortfolios(List<Portfolio> list) throws IOException
+        {
+            writeVarInt(out, list.size());
+            for (Portfolio portfolio : list)
+            {
+                portfolios.put(portfolio, portfolios.size());
+
+                writeString(portfolio.getUUID());
+                writeString(portfolio.getName());
+                writeString(portfolio.getNote());
+                out.writeBoolean(portfolio.isRetired());
+                writeRef(accounts, portfolio.getReferenceAccount());
+
+                List<PortfolioTransaction> transactions = portfolio.getTransactions();
+                for (int ii = 0; ii < transactions.size(); ii++)
+                    portfolioTransactions.put(transactions.get(ii), new int[] { portfolios.size() - 1, ii });
+            }
+        }
+
+        private void writeCrossEntries(Client client) throws IOException
+        {
+            List<CrossEntry> list = new ArrayList<>();
+
+            for (Account account : client.getAccounts())
+                collectCrossEntries(account.getTransactions(), list);
+            for (Portfolio portfolio : client.getPortfolios())
+                collectCrossEntries(portfolio.getTransactions(), list);
+
+            writeVarInt(out, list.size());
+            for (CrossEntry entry : list)
+            {
+                if (entry instanceof BuySellEntry)
+                {
+                    BuySellEntry buysell = (BuySellEntry) entry;
+                    out.writeByte(BUY_SELL);
+                    writeRef(portfolios, buysell.getPortfolio());
+                    writeRef(accounts, buysell.getAccount());
+                }
+                else if (entry instanceof AccountTransferEntry)
+                {
+                    AccountTransferEntry transfer = (AccountTransferEntry) entry;
+                    out.writeByte(ACCOUNT_TRANSFER);
+                    writeRef(accounts, transfer.getSourceAccount());
+                    writeRef(accounts, transfer.getTargetAccount());
+                }
+                else
+                {
+                    PortfolioTransferEntry transfer = (PortfolioTransferEntry) entry;
+                    out.writeByte(PORTFOLIO_TRANSFER);
+                    writeRef(portfolios, (Portfolio) transfer.getOwner(transfer.getSourceTransaction()));
+                    writeRef(portfolios, (Portfolio) transfer.getOwner(transfer.getTargetTransaction()));
+                }
+            }
+        }
+
+        private void collectCrossEntries(List<? extends Transaction> transactions, List<CrossEntry> list)
+        {
+            for (Transaction t : transactions)
+            {
+                CrossEntry entry = t.getCrossEntry();
+                if (entry != null && !entries.containsKey(entry))
+                {
+                    if (!(entry instanceof BuySellEntry) && !(entry instanceof AccountTransferEntry)
+                                    && !(entry instanceof PortfolioTransferEntry))
+                        throw new UnsupportedOperationException(entry.getClass().getName());
+
+                    entries.put(entry, entries.size());
+                    list.add(entry);
+                }
+            }
+        }
+
+        private void writeTransactions(List<? extends Transaction> transactions) throws IOException
+        {
+            writeVarInt(out, transactions.size());
+            for (Transaction t : transactions)
+            {
+                // the cross entry creates the transactions on load -> write the
+                // index of the entry and which of its two transactions it is
+                CrossEntry entry = t.getCrossEntry();
+                if (entry == null)
+                    writeVarInt(out, 0);
+                else
+                    writeVarInt(out, (entries.get(entry) << 1 | role(entry, t)) + 1);
+
+                if (t instanceof AccountTransaction)
+                    writeString(((AccountTransaction) t).getType().name());
+                else
+                    writeString(((PortfolioTransaction) t).getType().name());
+
+                writeDate(t.getDate());
+                writeString(t.getCurrencyCode());
+                writeVarLong(out, t.getAmount());
+                writeRef(securities, t.getSecurity());
+                writeVarLong(out, t.getShares());
+                writeString(t.getNote());
+
+                List<Unit> units = t.getUnits().collect(Collectors.toList());
+                writeVarInt(out, units.size());
+                for (Unit unit : units)
+                {
+                    writeString(unit.getType().name());
+                    writeMoney(unit.getAmount());
+                    out.writeBoolean(unit.getForex() != null);
+                    if (unit.getForex() != null)
+                    {
+                        writeMoney(unit.getForex());
+                        writeString(unit.getExchangeRate().toString());
+                    }
+                }
+            }
+        }
+
+        private int role(CrossEntry entry, Transaction t)
+        {
+            if (entry instanceof BuySellEntry)
+                return t == ((BuySellEntry) entry).getPortfolioTransaction() ? 0 : 1;
+            else if (entry instanceof AccountTransferEntry)
+                return t == ((AccountTransferEntry) entry).getSourceTransaction() ? 0 : 1;
+            else
+                return t == ((PortfolioTransferEntry) entry).getSourceTransaction() ? 0 : 1;
+        }
+
+        private void writePlans(List<InvestmentPlan> plans) throws IOException
+        {
+            writeVarInt(out, plans.size());
+            for (InvestmentPlan plan : plans)
+            {
+                writeString(plan.getName());
+                writeString(plan.getNote());
+                writeRef(securities, plan.getSecurity());
+                writeRef(portfolios, plan.getPortfolio());
+                writeRef(accounts, plan.getAccount());
+                writeDate(plan.getStart());
+                writeVarLong(out, plan.getInterval());
+                writeVarLong(out, plan.getAmount());
+                writeVarLong(out, plan.getFees());
+
+                // transactions which are not part of a portfolio anymore are
+                // dropped
+                List<int[]> transactions = plan.getTransactions().stream().map(portfolioTransactions::get)
+                                .filter(ref -> ref != null).collect(Collectors.toList());
+                writeVarInt(out, transactions.size());
+                for (int[] ref : transactions)
+                {
+                    writeVarInt(out, ref[0]);
+                    writeVarInt(out, ref[1]);
+                }
+            }
+        }
+
+        private void writeWatchlists(List<Watchlist> watchlists) throws IOException
+        {
+            writeVarInt(out, watchlists.size());
+            for (Watchlist watchlist : watchlists)
+            {
+                writeString(watchlist.getName());
+                writeVarInt(out, watchlist.getSecurities().size());
+                for (Security security : watchlist.getSecurities())
+                    writeRef(securities, security);
+            }
+        }
+
+        private void writeConsumerPriceIndices(List<ConsumerPriceIndex> indices) throws IOException
+        {
+            writeVarInt(out, indices.size());
+            for (ConsumerPriceIndex index : indices)
+            {
+                writeVarLong(out, index.getYear());
+                writeVarLong(out, index.getMonth());
+                writeVarLong(out, index.getIndex());
+            }
+        }
+
+        private void writeTaxonomies(List<Taxonomy> taxonomies) throws IOException
+        {
+            writeVarInt(out, taxonomies.size());
+            for (Taxonomy taxonomy : taxonomies)
+            {
+                writeString(taxonomy.getId());
+                writeString(taxonomy.getName());
+
+                List<String> dimensions = taxonomy.getDimensions();
+                writeVarInt(out, dimensions == null ? 0 : dimensions.size() + 1);
+                if (dimensions != null)
+                {
+                    for (String dimension : dimensions)
+                        writeString(dimension);
+                }
+
+                writeClassification(taxonomy.getRoot());
+            }
+        }
+
+        private void writeClassification(Classification classification) throws IOException
+        {
+            writeString(classification.getId());
+            writeString(classification.getName());
+            writeString(classification.getNote());
+            writeString(classification.getColor());
+            writeVarLong(out, classification.getWeight());
+            writeVarLong(out, classification.getRank());
+
+            List<Assignment> assignments = classification.getAssignments().stream()
+                            .filter(a -> securities.containsKey(a.getInvestmentVehicle())
+                                            || accounts.containsKey(a.getInvestmentVehicle()))
+                            .collect(Collectors.toList());
+            writeVarInt(out, assignments.size());
+            for (Assignment assignment : assignments)
+            {
+                InvestmentVehicle vehicle = assignment.getInvestmentVehicle();
+                if (vehicle instanceof Security)
+                {
+                    out.writeByte(VEHICLE_SECURITY);
+                    writeVarInt(out, securities.get(vehicle));
+                }
+                else
+                {
+                    out.writeByte(VEHICLE_ACCOUNT);
+                    writeVarInt(out, accounts.get(vehicle));
+                }
+                writeVarLong(out, assignment.getWeight());
+                writeVarLong(out, assignment.getRank());
+            }
+
+            writeVarInt(out, classification.getChildren().size());
+            for (Classification child : classification.getChildren())
+                writeClassification(child);
+        }
+
+        private void writeDashboards(List<Dashboard> dashboards) throws IOException
+        {
+            writeVarInt(out, dashboards.size());
+            for (Dashboard dashboard : dashboards)
+            {
+                writeString(dashboard.getName());
+                writeMap(dashboard.getConfiguration());
+
+                writeVarInt(out, dashboard.getColumns().size());
+                for (Dashboard.Column column : dashboard.getColumns())
+                {
+                    writeVarInt(out, column.getWidgets().size());
+                    for (Dashboard.Widget widget : column.getWidgets())
+                    {
+                        writeString(widget.getType());
+                        writeString(widget.getLabel());
+                        writeMap(widget.getConfiguration());
+                    }
+                }
+            }
+        }
+
+        private void writeSettings(ClientSettings settings) throws IOException
+        {
+            writeVarInt(out, settings.getBookmarks().size());
+            for (Bookmark bookmark : settings.getBookmarks())
+            {
+                writeString(bookmark.getLabel());
+                writeString(bookmark.getPattern());
+            }
+
+            List<AttributeType> types = settings.getAttributeTypes().collect(Collectors.toList());
+            writeVarInt(out, types.size());
+            for (AttributeType type : types)
+            {
+                writeString(type.getId());
+                writeString(type.getName());
+                writeString(type.getColumnLabel());
+                writeString(type.getTarget() != null ? type.getTarget().getName() : null);
+                writeString(type.getType() != null ? type.getType().getName() : null);
+                writeString(type.getConverterClass());
+            }
+
+            Map<String, ConfigurationSet> sets = settings.getConfigurationSets();
+            writeVarInt(out, sets.size());
+            for (Map.Entry<String, ConfigurationSet> entry : sets.entrySet())
+            {
+                writeString(entry.getKey());
+
+                List<Configuration> configurations = entry.getValue().getConfigurations()
+                                .collect(Collectors.toList());
+                writeVarInt(out, configurations.size());
+                for (Configuration configuration : configurations)
+                {
+                    writeString(configuration.getUUID());
+                    writeString(configuration.getName());
+                    writeString(configuration.getData());
+                }
+            }
+        }
+
+        private void writeMap(Map<String, String> map) throws IOException
+        {
+            writeVarInt(out, map.size());
+            for (Map.Entry<String, String> entry : map.entrySet())
+            {
+                writeString(entry.getKey());
+                writeString(entry.getValue());
+            }
+        }
+
+        private void writeValue(Object value) throws IOException
+        {
+            if (value == null)
+            {
+                out.writeByte(VALUE_NULL);
+            }
+            else if (value instanceof String)
+            {
+                out.writeByte(VALUE_STRING);
+                writeString((String) value);
+            }
+            else if (value instanceof Long)
+            {
+                out.writeByte(VALUE_LONG);
+                writeVarLong(out, (Long) value);
+            }
+            else if (value instanceof Double)
+            {
+                out.writeByte(VALUE_DOUBLE);
+                out.writeDouble((Double) value);
+            }
+            else if (value instanceof LocalDate)
+            {
+                out.writeByte(VALUE_DATE);
+                writeVarLong(out, ((LocalDate) value).toEpochDay());
+            }
+            else if (value instanceof Boolean)
+            {
+                out.writeByte(VALUE_BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            }
+            else
+            {
+                throw new IOException(value.getClass().getName());
+            }
+        }
+
+        private void writeMoney(Money money) throws IOException
+        {
+            writeString(money.getCurrencyCode());
+            writeVarLong(out, money.getAmount());
+        }
+
+        private void writeDate(LocalDate date) throws IOException
+        {
+            out.writeBoolean(date != null);
+            if (date != null)
+                writeVarLong(out, date.toEpochDay());
+        }
+
+        private <T> void writeRef(Map<T, Integer> table, T object) throws IOException
+        {
+            Integer index = object != null ? table.get(object) : null;
+            writeVarInt(out, index != null ? index + 1 : 0);
+        }
+
+        private void writeString(String string) throws IOException
+        {
+            if (string == null)
+            {
+                writeVarInt(out, 0);
+                return;
+            }
+
+            Integer index = string2index.get(string);
+            if (index == null)
+            {
+                index = strings.size();
+                strings.add(string);
+                string2index.put(string, index);
+            }
+            writeVarInt(out, index + 1);
+        }
+    }
+
+    private static class ClientReader
+    {
+        private final DataInputStream in;
+
+        private String[] strings;
+        private final List<Security> securities = new ArrayList<>();
+        private final List<Account> accounts = new ArrayList<>();
+        private final List<Portfolio> portfolios = new ArrayList<>();
+        private final List<CrossEntry> entries = new ArrayList<>();
+
+        private final boolean isFramed;
+        private final QuoteSidecar sidecar;
+        private final Map<String, SecurityPriceSeries> basePrices;
+        private final Journal.Frame frame;
+
+        /**
+         * @param isFramed
+         *            true if the prices are written with a base prefix
+         * @param sidecar
+         *            the sidecar file holding the prefix of the prices of
+         *            the base snapshot
+         * @param basePrices
+         *            if no frame is given, the prices of the base snapshot
+         *            are collected; otherwise the base prefix of the prices
+         *            is resolved against them
+         * @param frame
+         *            collects the base prefix of every security
+         */
+        public ClientReader(DataInputStream in, boolean isFramed, QuoteSidecar sidecar,
+                        Map<String, SecurityPriceSeries> basePrices, Journal.Frame frame)
+        {
+            this.in = in;
+            this.isFramed = isFramed;
+            this.sidecar = sidecar;
+            this.basePrices = basePrices;
+            this.frame = frame;
+        }
+
+        public Client read() throws IOException
+        {
+            strings = new String[readVarInt(in)];
+            for (int ii = 0; ii < strings.length; ii++)
+            {
+                byte[] bytes = new byte[readVarInt(in)];
+                in.readFully(bytes);
+                strings[ii] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            Client client = new Client();
+            client.setBaseCurrency(readString());
+
+            readSecurities(client);
+
+            // reading the base snapshot of a journal: only the prices needed
+            if (basePrices != null && frame == null)
+                return client;
+
+            readAccounts(client);
+            readPortfolios(client);
+            readCrossEntries();
+            for (Account account : accounts)
+                readTransactions(account.getTransactions(), AccountTransaction.class);
+            for (Portfolio portfolio : portfolios)
+                readTransactions(portfolio.getTransactions(), PortfolioTransaction.class);
+
+            readPlans(client);
+            readWatchlists(client);
+            readConsumerPriceIndices(client);
+            readTaxonomies(client);
+            readDashboards(client);
+            readMap(client.getProperties());
+            readSettings(client.getSettings());
+
+            return client;
+        }
+
+        private void readSecurities(Client client) throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                Security security = new Security();
+                security.setUUID(readString());
+                security.setName(readString());
+                security.setCurrencyCode(readString());
+                security.setNote(readString());
+                security.setIsin(readString());
+                security.setTickerSymbol(readString());
+                security.setWkn(readString());
+                security.setFeed(readString());
+                security.setFeedURL(readString());
+                security.setLatestFeed(readString());
+                security.setLatestFeedURL(readString());
+                security.setRetired(in.readBoolean());
+
+                if (in.readBoolean())
+                {
+                    LatestSecurityPrice latest = new LatestSecurityPrice(readDate(), readVarLong(in));
+                    latest.setHigh(readVarLong(in));
+                    latest.setLow(readVarLong(in));
+                    latest.setVolume((int) readVarLong(in));
+                    latest.setPreviousClose(readVarLong(in));
+                    security.setLatest(latest);
+                }
+
+                int events = readVarInt(in);
+                for (int jj = 0; jj < events; jj++)
+                {
+                    LocalDate date = readDate();
+                    String type = readString();
+                    security.addEvent(new SecurityEvent(date, type != null ? SecurityEvent.Type.valueOf(type) : null,
+                                    readString()));
+                }
+
+                int attributes = readVarInt(in);
+                for (int jj = 0; jj < attributes; jj++)
+                    security.getAttributes().getMap().put(readString(), readValue());
+
+                readPrices(security);
+
+                client.addSecurity(security);
+                securities.add(security);
+            }
+        }
+
+        /**
+         * Reads the prices. The prefix of the prices of a base snapshot is
+         * mapped from the sidecar file; the prefix of the prices of a journal
+         * record is taken from the base snapshot.
+         */
+        private void readPrices(Security security) throws IOException
+        {
+            int prefix = isFramed ? readVarInt(in) : 0;
+            int count = readVarInt(in);
+
+            int[] days = new int[count];
+            int day = 0;
+            for (int ii = 0; ii < count; ii++)
+            {
+                day += (int) readVarLong(in);
+                days[ii] = day;
+            }
+
+            long[] values = new long[count];
+            long value = 0;
+            for (int ii = 0; ii < count; ii++)
+            {
+                value += readVarLong(in);
+                values[ii] = value;
+            }
+
+            SecurityPriceSeries prices = security.getPriceSeries();
+            boolean isRecord = basePrices != null && frame != null;
+
+            if (prefix == 0)
+            {
+                prices.setAll(days, values);
+            }
+            else if (isRecord)
+            {
+                SecurityPriceSeries base = basePrices.get(security.getUUID());
+                if (base == null || base.size() < prefix)
+                    throw new IOException(Messages.MsgNotAPortflioFile);
+                prices.setAll(base, prefix, days, values);
+            }
+            else
+            {
+                ByteBuffer records = sidecar != null ? sidecar.getRecords(security.getUUID()) : null;
+                if (records == null || records.capacity() < prefix * QuoteSidecar.RECORD_SIZE)
+                    throw new IOException(Messages.MsgNotAPortflioFile);
+                prices.setMapped(records, prefix, days, values);
+            }
+
+            int size = prefix + count;
+            if (frame != null)
+                frame.add(security, isRecord ? prefix : size, size);
+            else if (basePrices != null)
+                basePrices.put(security.getUUID(), prices);
+        }
+
+        private void readAccounts(Client client) throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                Account account = new Account();
+                account.setUUID(readString());
+                account.setName(readString());
+                account.setCurrencyCode(readString());
+                account.setNote(readString());
+                account.setRetired(in.readBoolean());
+
+                client.addAccount(account);
+                accounts.add(account);
+            }
+        }
+
+        private void readPortfolios(Client client) throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                Portfolio portfolio = new Portfolio();
+                portfolio.setUUID(readString());
+                portfolio.setName(readString());
+                portfolio.setNote(readString());
+                portfolio.setRetired(in.readBoolean());
+                portfolio.setReferenceAccount(readRef(accounts));
+
+                client.addPortfolio(portfolio);
+                portfolios.add(portfolio);
+            }
+        }
+
+        private void readCrossEntries() throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                int kind = in.readByte();
+                switch (kind)
+                {
+                    case BUY_SELL:
+                        entries.add(new BuySellEntry(readRef(portfolios), readRef(accounts)));
+                        break;
+                    case ACCOUNT_TRANSFER:
+                        entries.add(new AccountTransferEntry(readRef(accounts), readRef(accounts)));
+                        break;
+                    case PORTFOLIO_TRANSFER:
+                        entries.add(new PortfolioTransferEntry(readRef(portfolios), readRef(portfolios)));
+                        break;
+                    default:
+                        throw new IOException(Messages.MsgNotAPortflioFile);
+                }
+            }
+        }
+
+        private <T extends Transaction> void readTransactions(List<T> transactions, Class<T> type)
+                        throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                int ref = readVarInt(in);
+                Transaction t;
+                if (ref == 0)
+                    t = type == AccountTransaction.class ? new AccountTransaction() : new PortfolioTransaction();
+                else
+                    t = transaction(entries.get((ref - 1) >> 1), (ref - 1) & 1);
+
+                if (t instanceof AccountTransaction)
+                    ((AccountTransaction) t).setType(AccountTransaction.Type.valueOf(readString()));
+                else
+                    ((PortfolioTransaction) t).setType(PortfolioTransaction.Type.valueOf(readString()));
+
+                t.setDate(readDate());
+                t.setCurrencyCode(readString());
+                t.setAmount(readVarLong(in));
+                t.setSecurity(readRef(securities));
+                t.setShares(readVarLong(in));
+                t.setNote(readString());
+
+                int units = readVarInt(in);
+                for (int jj = 0; jj < units; jj++)
+                {
+                    Unit.Type unitType = Unit.Type.valueOf(readString());
+                    Money amount = readMoney();
+                    if (in.readBoolean())
+                        t.addUnit(new Unit(unitType, amount, readMoney(), new BigDecimal(readString())));
+                    else
+                        t.addUnit(new Unit(unitType, amount));
+                }
+
+                transactions.add(type.cast(t));
+            }
+        }
+
+        private Transaction transaction(CrossEntry entry, int role)
+        {
+            if (entry instanceof BuySellEntry)
+            {
+                BuySellEntry buysell = (BuySellEntry) entry;
+                return role == 0 ? buysell.getPortfolioTransaction() : buysell.getAccountTransaction();
+            }
+            else if (entry instanceof AccountTransferEntry)
+            {
+                AccountTransferEntry transfer = (AccountTransferEntry) entry;
+                return role == 0 ? transfer.getSourceTransaction() : transfer.getTargetTransaction();
+            }
+            else
+            {
+                PortfolioTransferEntry transfer = (PortfolioTransferEntry) entry;
+                return role == 0 ? transfer.getSourceTransaction() : transfer.getTargetTransaction();
+            }
+        }
+
+        private void readPlans(Client client) throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                InvestmentPlan plan = new InvestmentPlan(readString());
+                plan.setNote(readString());
+                plan.setSecurity(readRef(securities));
+                plan.setPortfolio(readRef(portfolios));
+                plan.setAccount(readRef(accounts));
+                plan.setStart(readDate());
+                plan.setInterval((int) readVarLong(in));
+                plan.setAmount(readVarLong(in));
+                plan.setFees(readVarLong(in));
+
+                int transactions = readVarInt(in);
+                for (int jj = 0; jj < transactions; jj++)
+                {
+                    Portfolio portfolio = portfolios.get(readVarInt(in));
+                    plan.getTransactions().add(portfolio.getTransactions().get(readVarInt(in)));
+                }
+
+                client.addPlan(plan);
+            }
+        }
+
+        private void readWatchlists(Client client) throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                Watchlist watchlist = new Watchlist();
+                watchlist.setName(readString());
+
+                int size = readVarInt(in);
+                for (int jj = 0; jj < size; jj++)
+                    watchlist.addSecurity(readRef(securities));
+
+                client.getWatchlists().add(watchlist);
+            }
+        }
+
+        private void readConsumerPriceIndices(Client client) throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                ConsumerPriceIndex index = new ConsumerPriceIndex();
+                index.setYear((int) readVarLong(in));
+                index.setMonth((int) readVarLong(in));
+                index.setIndex((int) readVarLong(in));
+                client.addConsumerPriceIndex(index);
+            }
+        }
+
+        private void readTaxonomies(Client client) throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                Taxonomy taxonomy = new Taxonomy(readString(), readString());
+
+                int dimensions = readVarInt(in);
+                if (dimensions > 0)
+                {
+                    List<String> list = new ArrayList<>();
+                    for (int jj = 1; jj < dimensions; jj++)
+                        list.add(readString());
+                    taxonomy.setDimensions(list);
+                }
+
+                taxonomy.setRootNode(readClassification(null));
+                client.addTaxonomy(taxonomy);
+            }
+        }
+
+        private Classification readClassification(Classification parent) throws IOException
+        {
+            String id = readString();
+            String name = readString();
+            String note = readString();
+            String color = readString();
+
+            Classification classification = new Classification(parent, id, name, color);
+            classification.setNote(note);
+            classification.setWeight((int) readVarLong(in));
+            classification.setRank((int) readVarLong(in));
+
+            int assignments = readVarInt(in);
+            for (int ii = 0; ii < assignments; ii++)
+            {
+                int kind = in.readByte();
+                InvestmentVehicle vehicle = kind == VEHICLE_SECURITY ? securities.get(readVarInt(in))
+                                : accounts.get(readVarInt(in));
+
+                Assignment assignment = new Assignment(vehicle, (int) readVarLong(in));
+                assignment.setRank((int) readVarLong(in));
+                classification.addAssignment(assignment);
+            }
+
+            int children = readVarInt(in);
+            for (int ii = 0; ii < children; ii++)
+                classification.addChild(readClassification(classification));
+
+            return classification;
+        }
+
+        private void readDashboards(Client client) throws IOException
+        {
+            int count = readVarInt(in);
+            for (int ii = 0; ii < count; ii++)
+            {
+                Dashboard dashboard = new Dashboard();
+                dashboard.setName(readString());
+                readMap(dashboard.getConfiguration());
+
+                int columns = readVarInt(in);
+                for (int jj = 0; jj < columns; jj++)
+                {
+                    Dashboard.Column column = new Dashboard.Column();
+
+                    int widgets = readVarInt(in);
+                    for (int kk = 0; kk < widgets; kk++)
+                    {
+                        Dashboard.Widget widget = new Dashboard.Widget();
+                        widget.setType(readString());
+                        widget.setLabel(readString());
+                        readMap(widget.getConfiguration());
+                        column.getWidgets().add(widget);
+                    }
+
+                    dashboard.getColumns().add(column);
+                }
+
+                client.addDashboard(dashboard);
+            }
+        }
+
+        private void readSettings(ClientSettings settings) throws IOException
+        {
+            // replace the defaults created by the constructor
+            settings.getBookmarks().clear();
+            settings.getAttributeTypes().collect(Collectors.toList()).forEach(settings::removeAttributeType);
+
+            int bookmarks = readVarInt(in);
+            for (int ii = 0; ii < bookmarks; ii++)
+                settings.getBookmarks().add(new Bookmark(readString(), readString()));
+
+            int types = readVarInt(in);
+            for (int ii = 0; ii < types; ii++)
+            {
+                AttributeType type = new AttributeType(readString());
+                type.setName(readString());
+                type.setColumnLabel(readString());
+
+                Class<?> target = readClass();
+                if (target != null)
+                    type.setTarget(target.asSubclass(Attributable.class));
+
+                type.setType(readClass());
+                type.setConverterClass(readString());
+
+                settings.addAttributeType(type);
+            }
+
+            int sets = readVarInt(in);
+            for (int ii = 0; ii < sets; ii++)
+            {
+                ConfigurationSet set = settings.getConfigurationSet(readString());
+
+                int configurations = readVarInt(in);
+                for (int jj = 0; jj < configurations; jj++)
+                    set.add(new Configuration(readString(), readString(), readString()));
+            }
+        }
+
+        private Class<?> readClass() throws IOException
+        {
+            String name = readString();
+            if (name == null)
+                return null;
+
+            try
+            {
+                return Class.forName(name, false, BinarySerialization.class.getClassLoader());
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        private void readMap(Map<String, String> map) throws IOException
+        {
+            int size = readVarInt(in);
+            for (int ii = 0; ii < size; ii++)
+                map.put(readString(), readString());
+        }
+
+        private Object readValue() throws IOException
+        {
+            int type = in.readByte();
+            switch (type)
+            {
+                case VALUE_NULL:
+                    return null;
+                case VALUE_STRING:
+                    return readString();
+                case VALUE_LONG:
+                    return readVarLong(in);
+                case VALUE_DOUBLE:
+                    return in.readDouble();
+                case VALUE_DATE:
+                    return LocalDate.ofEpochDay(readVarLong(in));
+                case VALUE_BOOLEAN:
+                    return in.readBoolean();
+                default:
+                    throw new IOException(Messages.MsgNotAPortflioFile);
+            }
+        }
+
+        private Money readMoney() throws IOException
+        {
+            return Money.of(readString(), readVarLong(in));
+        }
+
+        private LocalDate readDate() throws IOException
+        {
+            return in.readBoolean() ? LocalDate.ofEpochDay(readVarLong(in)) : null;
+        }
+
+        private <T> T readRef(List<T> table) throws IOException
+        {
+            int index = readVarInt(in);
+            return index == 0 ? null : table.get(index - 1);
+        }
+
+        private String readString() throws IOException
+        {
+            int index = readVarInt(in);
+            return index == 0 ? null : strings[index - 1];
+        }
+    }
+
+    /**
+     * Writes a non-negative int in 7 bit groups.
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException
+    {
+        if (value < 0)
+            throw new IllegalArgumentException(String.valueOf(value));
+
+        int v = value;
+        while ((v & ~0x7F) != 0)
+        {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException(Messages.MsgNotAPortflioFile);
+    }
+
+    /**
+     * Writes a signed long zig-zag encoded in 7 bit groups, i.e. small
+     * positive and negative numbers need few bytes.
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException
+    {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0)
+        {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException
+    {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return (v >>> 1) ^ -(v & 1);
+        }
+        throw new IOException(Messages.MsgNotAPortflioFile);
+    }
+}
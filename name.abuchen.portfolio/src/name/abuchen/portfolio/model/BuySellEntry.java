@@ -174,8 +174,19 @@ public class BuySellEntry implements CrossEntry, Annotated
         return portfolioTransaction;
     }
 
+    /* package */void setPortfolioTransaction(PortfolioTransaction portfolioTransaction)
+    {
+        // needed to link the transactions read by the streaming XML reader
+        this.portfolioTransaction = portfolioTransaction;
+    }
+
     public AccountTransaction getAccountTransaction()
     {
         return accountTransaction;
     }
+
+    /* package */void setAccountTransaction(AccountTransaction accountTransaction)
+    {
+        this.accountTransaction = accountTransaction;
+    }
 }
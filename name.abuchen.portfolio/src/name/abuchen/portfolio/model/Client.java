@@ -1,5 +1,6 @@
 package name.abuchen.portfolio.model;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.text.MessageFormat;
@@ -63,6 +64,9 @@ public class Client
     private Category rootCategory;
 
     private transient SecretKey secret;
+    private transient boolean encryptedAsBinary;
+    private transient Journal journal;
+    private transient QuoteSidecar quoteSidecar;
 
     public Client()
     {
@@ -382,6 +386,11 @@ public class Client
         return properties.get(key);
     }
 
+    /* package */Map<String, String> getProperties()
+    {
+        return properties;
+    }
+
     /* package */void clearProperties()
     {
         properties.clear();
@@ -399,6 +408,42 @@ public class Client
         this.secret = secret;
     }
 
+    /* package */
+    boolean isEncryptedAsBinary()
+    {
+        return encryptedAsBinary;
+    }
+
+    /* package */
+    void setEncryptedAsBinary(boolean encryptedAsBinary)
+    {
+        this.encryptedAsBinary = encryptedAsBinary;
+    }
+
+    /* package */
+    Journal getJournal()
+    {
+        return journal;
+    }
+
+    /* package */
+    void setJournal(Journal journal)
+    {
+        this.journal = journal;
+    }
+
+    /* package */
+    QuoteSidecar getQuoteSidecar()
+    {
+        return quoteSidecar;
+    }
+
+    /* package */
+    void setQuoteSidecar(QuoteSidecar quoteSidecar)
+    {
+        this.quoteSidecar = quoteSidecar;
+    }
+
     /**
      * Removes the given account as reference account from any portfolios. As
      * the model expects that there is always a reference account, an arbitrary
@@ -513,7 +558,28 @@ public class Client
 
     public void markDirty()
     {
-        propertyChangeSupport.firePropertyChange("dirty", false, true); //$NON-NLS-1$
+        markDirty(ClientChange.all());
+    }
+
+    /**
+     * Marks the client as dirty. The change is passed as new value of the
+     * "dirty" property to the listeners.
+     */
+    public void markDirty(ClientChange change)
+    {
+        // transactions might have been modified in place
+        for (Account account : accounts)
+        {
+            if (change.affects(account))
+                account.invalidateBalanceIndex();
+        }
+        for (Portfolio portfolio : portfolios)
+        {
+            if (change.affects(portfolio))
+                portfolio.invalidateHoldingsIndex();
+        }
+
+        propertyChangeSupport.firePropertyChange(new PropertyChangeEvent(this, "dirty", null, change)); //$NON-NLS-1$
     }
 
     public void addPropertyChangeListener(PropertyChangeListener listener)
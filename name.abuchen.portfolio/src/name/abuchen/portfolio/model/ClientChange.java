@@ -0,0 +1,129 @@
+package name.abuchen.portfolio.model;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Describes a change of the client: which accounts, portfolios, securities or
+ * taxonomies changed and the first date affected by the change. Listeners
+ * registered with {@link Client#addPropertyChangeListener} receive the change
+ * as new value of the "dirty" property. Calculation caches use it to
+ * invalidate only the results depending on the changed elements.
+ */
+public final class ClientChange
+{
+    private static final ClientChange ALL = new ClientChange(true, Collections.emptySet(), LocalDate.MIN);
+    private static final ClientChange SETTINGS = new ClientChange(false, Collections.emptySet(), LocalDate.MAX);
+
+    private final boolean isAll;
+    private final Set<Object> elements;
+    private final LocalDate changedFrom;
+
+    private ClientChange(boolean isAll, Set<Object> elements, LocalDate changedFrom)
+    {
+        this.isAll = isAll;
+        this.elements = elements;
+        this.changedFrom = changedFrom;
+    }
+
+    /**
+     * Returns a change which possibly affects every element of the client,
+     * e.g. if the base currency changed or the kind of change is not known.
+     */
+    public static ClientChange all()
+    {
+        return ALL;
+    }
+
+    /**
+     * Returns a change of settings (e.g. the configuration of a dashboard or
+     * bookmarks) which does not affect any calculation.
+     */
+    public static ClientChange settings()
+    {
+        return SETTINGS;
+    }
+
+    /**
+     * Returns a change of the given elements starting with the given date.
+     * Elements are accounts, portfolios, securities or taxonomies. A change of
+     * a transaction affects its owners and the security of the transaction.
+     */
+    public static ClientChange of(LocalDate changedFrom, Object... elements)
+    {
+        Objects.requireNonNull(changedFrom);
+
+        Set<Object> set = new HashSet<>();
+        for (Object element : elements)
+        {
+            if (element != null)
+                set.add(element);
+        }
+        return new ClientChange(false, Collections.unmodifiableSet(set), changedFrom);
+    }
+
+    public boolean isAll()
+    {
+        return isAll;
+    }
+
+    /**
+     * Returns the first date affected by the change. If the change affects
+     * all elements, the date is {@link LocalDate#MIN}.
+     */
+    public LocalDate getChangedFrom()
+    {
+        return changedFrom;
+    }
+
+    public Set<Object> getElements()
+    {
+        return elements;
+    }
+
+    public boolean affects(Object element)
+    {
+        return isAll || elements.contains(element);
+    }
+
+    public boolean affectsAny(Collection<?> elements)
+    {
+        if (isAll)
+            return true;
+
+        for (Object element : elements)
+        {
+            if (this.elements.contains(element))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a change covering the elements and dates of both changes.
+     */
+    public ClientChange merge(ClientChange other)
+    {
+        if (isAll || other.isAll)
+            return ALL;
+        if (other.elements.isEmpty())
+            return this;
+        if (elements.isEmpty())
+            return other;
+
+        Set<Object> set = new HashSet<>(elements);
+        set.addAll(other.elements);
+        LocalDate date = changedFrom.isBefore(other.changedFrom) ? changedFrom : other.changedFrom;
+        return new ClientChange(false, Collections.unmodifiableSet(set), date);
+    }
+
+    @Override
+    public String toString()
+    {
+        return isAll ? "all" : elements.size() + " elements from " + changedFrom; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
@@ -1,5 +1,9 @@
 package name.abuchen.portfolio.model;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -10,22 +14,29 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.SequenceInputStream;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.AlgorithmParameters;
 import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.text.MessageFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -44,8 +55,13 @@ import org.eclipse.core.runtime.IProgressMonitor;
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.XStreamException;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.converters.reflection.ReflectionConverter;
 import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import com.thoughtworks.xstream.mapper.Mapper;
 
 import name.abuchen.portfolio.Messages;
@@ -84,9 +100,104 @@ public class ClientFactory
 
     }
 
+    /**
+     * Writes the columnar price series in the same format as a list of
+     * {@link SecurityPrice} elements: &lt;price t="2015-01-02" v="123"/&gt;
+     */
+    private static class SecurityPriceSeriesConverter implements Converter
+    {
+        @Override
+        public boolean canConvert(@SuppressWarnings("rawtypes") Class type)
+        {
+            return type == SecurityPriceSeries.class;
+        }
+
+        @Override
+        public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context)
+        {
+            SecurityPriceSeries series = (SecurityPriceSeries) source;
+
+            for (int ii = 0; ii < series.size(); ii++)
+            {
+                writer.startNode("price"); //$NON-NLS-1$
+                writer.addAttribute("t", series.getDate(ii).toString()); //$NON-NLS-1$
+                writer.addAttribute("v", Long.toString(series.getValue(ii))); //$NON-NLS-1$
+                writer.endNode();
+            }
+        }
+
+        @Override
+        public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context)
+        {
+            List<SecurityPrice> prices = new ArrayList<>();
+
+            while (reader.hasMoreChildren())
+            {
+                reader.moveDown();
+                prices.add(new SecurityPrice(LocalDate.parse(reader.getAttribute("t")), //$NON-NLS-1$
+                                Long.parseLong(reader.getAttribute("v")))); //$NON-NLS-1$
+                reader.moveUp();
+            }
+
+            SecurityPriceSeries series = new SecurityPriceSeries();
+            series.putAll(prices);
+            series.trimToSize();
+            return series;
+        }
+    }
+
+    /**
+     * Opens the XML document again, e.g. to read it with XStream if the
+     * streaming reader fails.
+     */
+    @FunctionalInterface
+    private interface XmlSource
+    {
+        Reader open() throws IOException;
+    }
+
     private static class XmlSerialization
     {
-        public Client load(Reader input) throws IOException
+        /**
+         * Reads the document. Documents of the current version are streamed
+         * into the {@link StreamingXmlReader} if the source can be opened
+         * again: the streaming reader rejects elements it does not know and
+         * then the document is read again with XStream. Documents without
+         * source are read with XStream.
+         */
+        public Client load(Reader input, XmlSource source) throws IOException
+        {
+            // files of the current version are read without XStream, older
+            // files possibly contain legacy fields and need to be upgraded
+            BufferedReader buffered = new BufferedReader(input);
+            if (source != null && StreamingXmlReader.peekVersion(buffered) == Client.CURRENT_VERSION)
+            {
+                try
+                {
+                    Client client = new StreamingXmlReader().load(buffered);
+                    upgradeModel(client);
+                    return client;
+                }
+                catch (IOException e)
+                {
+                    // read again, for example if the file contains a legacy
+                    // element which the streaming reader does not know
+                    Reader again = source.open();
+                    try
+                    {
+                        return loadWithXStream(new BufferedReader(again));
+                    }
+                    finally
+                    {
+                        closeQuietly(again);
+                    }
+                }
+            }
+
+            return loadWithXStream(buffered);
+        }
+
+        private Client loadWithXStream(Reader input) throws IOException
         {
             try
             {
@@ -106,6 +217,18 @@ public class ClientFactory
             }
         }
 
+        private void closeQuietly(Reader reader)
+        {
+            try
+            {
+                reader.close();
+            }
+            catch (IOException ignore)
+            {
+                // the document has been read completely
+            }
+        }
+
         void save(Client client, OutputStream output) throws IOException
         {
             Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
@@ -123,12 +246,38 @@ public class ClientFactory
         void save(Client client, OutputStream output) throws IOException;
     }
 
+    /**
+     * Persister which can append the changes as journal record to a file
+     * instead of rewriting the complete file.
+     */
+    private interface JournaledPersister extends ClientPersister
+    {
+        /**
+         * Returns true if the client is saved in a format which supports
+         * appending journal records.
+         */
+        boolean isJournaled(Client client);
+
+        Journal.Frame saveBase(Client client, OutputStream output) throws IOException;
+
+        Journal.Frame append(Client client, OutputStream output) throws IOException;
+    }
+
     private static class PlainWriter implements ClientPersister
     {
+        private final File file;
+
+        public PlainWriter(File file)
+        {
+            this.file = file;
+        }
+
         @Override
         public Client load(InputStream input) throws IOException
         {
-            return new XmlSerialization().load(new InputStreamReader(input, StandardCharsets.UTF_8));
+            XmlSource source = file == null ? null
+                            : () -> new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+            return new XmlSerialization().load(new InputStreamReader(input, StandardCharsets.UTF_8), source);
         }
 
         @Override
@@ -138,7 +287,57 @@ public class ClientFactory
         }
     }
 
-    private static class Decryptor implements ClientPersister
+    private static class BinaryWriter implements JournaledPersister
+    {
+        private final File file;
+
+        public BinaryWriter()
+        {
+            this(null);
+        }
+
+        public BinaryWriter(File file)
+        {
+            this.file = file;
+        }
+
+        @Override
+        public Client load(InputStream input) throws IOException
+        {
+            Client client = new BinarySerialization(file).load(input);
+            upgradeModel(client);
+            return client;
+        }
+
+        @Override
+        public void save(Client client, OutputStream output) throws IOException
+        {
+            saveBase(client, output);
+        }
+
+        @Override
+        public boolean isJournaled(Client client)
+        {
+            return true;
+        }
+
+        @Override
+        public Journal.Frame saveBase(Client client, OutputStream output) throws IOException
+        {
+            BinarySerialization serialization = new BinarySerialization();
+            serialization.writeHeader(client, output);
+            return serialization.writeFrame(client, output, BinarySerialization.PLAIN, null);
+        }
+
+        @Override
+        public Journal.Frame append(Client client, OutputStream output) throws IOException
+        {
+            return new BinarySerialization().writeFrame(client, output, BinarySerialization.PLAIN,
+                            client.getJournal());
+        }
+    }
+
+    private static class Decryptor implements JournaledPersister
     {
         private static final byte[] SIGNATURE = new byte[] { 'P', 'O', 'R', 'T', 'F', 'O', 'L', 'I', 'O' };
 
@@ -147,6 +346,7 @@ public class ClientFactory
 
         private static final String AES = "AES"; //$NON-NLS-1$
         private static final String CIPHER_ALGORITHM = "AES/CBC/PKCS5Padding"; //$NON-NLS-1$
+        private static final String HEADER_ALGORITHM = "AES/CBC/NoPadding"; //$NON-NLS-1$
         private static final String SECRET_KEY_ALGORITHM = "PBKDF2WithHmacSHA1"; //$NON-NLS-1$
         private static final int ITERATION_COUNT = 65536;
         private static final int IV_LENGTH = 16;
@@ -154,13 +354,54 @@ public class ClientFactory
         private static final int AES128_KEYLENGTH = 128;
         private static final int AES256_KEYLENGTH = 256;
 
+        /**
+         * Suffix of the encryption method to store the client in the binary
+         * format. Without the suffix, the encrypted file contains zipped XML
+         * which older versions can read.
+         */
+        private static final String BINARY_SUFFIX = "_BINARY"; //$NON-NLS-1$
+
+        /**
+         * Major version of encrypted files with binary content. Older versions
+         * reject these files with the unsupported version message.
+         */
+        private static final int BINARY_MAJOR_VERSION = 2;
+
+        /**
+         * Major version of encrypted files with binary content stored in
+         * frames which are encrypted individually. Journal records can be
+         * appended without rewriting (and re-encrypting) the file.
+         */
+        private static final int JOURNAL_MAJOR_VERSION = 3;
+
         private char[] password;
+        private SecretKey secret;
         private int keyLength;
+        private boolean binary;
+
+        /**
+         * The file to read the XML document again if the streaming reader
+         * fails, or null
+         */
+        private File file;
 
-        public Decryptor(String method, char[] password)
+        public Decryptor(String method, char[] password, File file)
         {
             this.password = password;
-            this.keyLength = "AES256".equals(method) ? AES256_KEYLENGTH : AES128_KEYLENGTH; //$NON-NLS-1$
+            this.file = file;
+            this.keyLength = method != null && method.startsWith("AES256") ? AES256_KEYLENGTH //$NON-NLS-1$
+                            : AES128_KEYLENGTH;
+            this.binary = method != null && method.endsWith(BINARY_SUFFIX);
+        }
+
+        /**
+         * Creates a decryptor with the secret key of an already loaded
+         * client, for example to compact the file in the background.
+         */
+        public Decryptor(SecretKey secret)
+        {
+            this.secret = secret;
+            this.keyLength = secret.getEncoded().length * 8;
         }
 
         @Override
@@ -185,16 +426,39 @@ public class ClientFactory
                     throw new IOException(Messages.MsgKeyLengthNotSupported);
 
                 // build secret key
-                SecretKey secret = buildSecretKey();
+                SecretKey secret = this.secret != null ? this.secret : buildSecretKey();
 
                 // read initialization vector
                 byte[] iv = new byte[IV_LENGTH];
                 input.read(iv);
 
-                // build cipher and stream
-                Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
-                cipher.init(Cipher.DECRYPT_MODE, secret, new IvParameterSpec(iv));
-                decrypted = new CipherInputStream(input, cipher);
+                // files with journal store the version information as a
+                // separately encrypted block (which old versions can read)
+                byte[] block = new byte[IV_LENGTH];
+                new DataInputStream(input).readFully(block);
+
+                Cipher header = Cipher.getInstance(HEADER_ALGORITHM);
+                header.init(Cipher.DECRYPT_MODE, secret, new IvParameterSpec(iv));
+                ByteBuffer versions = ByteBuffer.wrap(header.doFinal(block));
+
+                if (versions.getInt() == JOURNAL_MAJOR_VERSION)
+                {
+                    int version = versions.getInt();
+                    if (version > Client.CURRENT_VERSION)
+                        throw new IOException(
+                                        MessageFormat.format(Messages.MsgUnsupportedVersionClientFiled, version));
+
+                    Client client = new BinarySerialization().readFrames(input, new CipherCodec(secret), null);
+                    upgradeModel(client);
+
+                    // save secret key and format for next save
+                    client.setSecret(secret);
+                    client.setEncryptedAsBinary(true);
+
+                    return client;
+                }
+
+                decrypted = decrypt(input, secret, iv, block);
 
                 // read version information
                 byte[] bytes = new byte[4];
@@ -203,17 +467,29 @@ public class ClientFactory
                 decrypted.read(bytes); // version number
                 int version = ByteBuffer.wrap(bytes).getInt();
 
-                if (majorVersion > Client.MAJOR_VERSION || version > Client.CURRENT_VERSION)
+                if (majorVersion > BINARY_MAJOR_VERSION || version > Client.CURRENT_VERSION)
                     throw new IOException(MessageFormat.format(Messages.MsgUnsupportedVersionClientFiled, version));
 
-                // wrap with zip input stream
-                ZipInputStream zipin = new ZipInputStream(decrypted);
-                zipin.getNextEntry();
+                Client client;
 
-                Client client = new XmlSerialization().load(new InputStreamReader(zipin, StandardCharsets.UTF_8));
+                if (majorVersion == BINARY_MAJOR_VERSION)
+                {
+                    client = new BinaryWriter().load(decrypted);
+                }
+                else
+                {
+                    // wrap with zip input stream
+                    ZipInputStream zipin = new ZipInputStream(decrypted);
+                    zipin.getNextEntry();
+
+                    XmlSource source = file == null ? null : () -> reopenXml(secret);
+                    client = new XmlSerialization().load(new InputStreamReader(zipin, StandardCharsets.UTF_8),
+                                    source);
+                }
 
-                // save secret key for next save
+                // save secret key and format for next save
                 client.setSecret(secret);
+                client.setEncryptedAsBinary(majorVersion == BINARY_MAJOR_VERSION);
 
                 return client;
             }
@@ -238,39 +514,63 @@ public class ClientFactory
             }
         }
 
-        @Override
-        public void save(Client client, final OutputStream output) throws IOException
+        private InputStream decrypt(InputStream input, SecretKey secret, byte[] iv, byte[] block)
+                        throws GeneralSecurityException
         {
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, secret, new IvParameterSpec(iv));
+            return new CipherInputStream(new SequenceInputStream(new ByteArrayInputStream(block), input), cipher);
+        }
+
+        /**
+         * Opens the file again and returns the XML document of a file which
+         * has already been read once, i.e. signature and versions are known
+         * to be valid.
+         */
+        private Reader reopenXml(SecretKey secret) throws IOException
+        {
+            InputStream input = new FileInputStream(file);
             try
             {
-                // check if key length is supported
-                if (!isKeyLengthSupported(this.keyLength))
-                    throw new IOException(Messages.MsgKeyLengthNotSupported);
+                DataInputStream data = new DataInputStream(input);
+                data.readFully(new byte[SIGNATURE.length + 1]); // signature, method
 
-                // get or build secret key
-                // if password is given, it is used (when the user chooses
-                // "save as" from the menu)
-                SecretKey secret = password != null ? buildSecretKey() : client.getSecret();
-                if (secret == null)
-                    throw new IOException(Messages.MsgPasswordMissing);
-
-                // save secret key for next save
-                client.setSecret(secret);
+                byte[] iv = new byte[IV_LENGTH];
+                data.readFully(iv);
+                byte[] block = new byte[IV_LENGTH];
+                data.readFully(block);
 
-                // write signature
-                output.write(SIGNATURE);
+                InputStream decrypted = decrypt(input, secret, iv, block);
+                new DataInputStream(decrypted).readFully(new byte[8]); // versions
 
-                // write method
-                output.write(secret.getEncoded().length * 8 == AES256_KEYLENGTH ? 1 : 0);
+                ZipInputStream zipin = new ZipInputStream(decrypted);
+                zipin.getNextEntry();
+                return new InputStreamReader(zipin, StandardCharsets.UTF_8);
+            }
+            catch (IOException e)
+            {
+                input.close();
+                throw e;
+            }
+            catch (GeneralSecurityException e)
+            {
+                input.close();
+                throw new IOException(MessageFormat.format(Messages.MsgErrorDecrypting, e.getMessage()), e);
+            }
+        }
 
-                // build cipher and stream
-                Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
-                cipher.init(Cipher.ENCRYPT_MODE, secret);
+        @Override
+        public void save(Client client, final OutputStream output) throws IOException
+        {
+            if (isJournaled(client))
+            {
+                saveBase(client, output);
+                return;
+            }
 
-                // write initialization vector
-                AlgorithmParameters params = cipher.getParameters();
-                byte[] iv = params.getParameterSpec(IvParameterSpec.class).getIV();
-                output.write(iv);
+            try
+            {
+                Cipher cipher = writeHeader(client, output);
 
                 // encrypted stream
                 OutputStream encrpyted = new CipherOutputStream(output, cipher);
@@ -289,6 +589,46 @@ public class ClientFactory
                 zipout.flush();
                 zipout.finish();
                 output.flush();
+
+                client.setEncryptedAsBinary(false);
+            }
+            catch (GeneralSecurityException e)
+            {
+                throw new IOException(MessageFormat.format(Messages.MsgErrorEncrypting, e.getMessage()), e);
+            }
+        }
+
+        /**
+         * Returns true if the client is saved in the binary format: either if
+         * chosen with the encryption method when saving with a new password
+         * ("save as") or if the client has been read from or written to a
+         * binary file. Files with XML content stay XML files.
+         */
+        @Override
+        public boolean isJournaled(Client client)
+        {
+            return password != null ? binary : client.isEncryptedAsBinary();
+        }
+
+        @Override
+        public Journal.Frame saveBase(Client client, final OutputStream output) throws IOException
+        {
+            try
+            {
+                Cipher cipher = writeHeader(client, output);
+
+                // write version information as one encrypted block
+                output.write(cipher.doFinal(ByteBuffer.allocate(8).putInt(JOURNAL_MAJOR_VERSION)
+                                .putInt(client.getVersion()).array()));
+
+                // the binary format is compressed already -> no zip stream
+                Journal.Frame frame = new BinarySerialization().writeFrame(client, output,
+                                new CipherCodec(client.getSecret()), null);
+
+                output.flush();
+
+                client.setEncryptedAsBinary(true);
+                return frame;
             }
             catch (GeneralSecurityException e)
             {
@@ -296,6 +636,55 @@ public class ClientFactory
             }
         }
 
+        /**
+         * Writes signature, encryption method and initialization vector and
+         * returns the cipher initialized with the vector.
+         */
+        private Cipher writeHeader(Client client, OutputStream output) throws IOException, GeneralSecurityException
+        {
+            // check if key length is supported
+            if (!isKeyLengthSupported(this.keyLength))
+                throw new IOException(Messages.MsgKeyLengthNotSupported);
+
+            // get or build secret key
+            // if password is given, it is used (when the user chooses
+            // "save as" from the menu)
+            SecretKey secret = password != null ? buildSecretKey() : client.getSecret();
+            if (secret == null)
+                throw new IOException(Messages.MsgPasswordMissing);
+
+            // save secret key for next save
+            client.setSecret(secret);
+
+            // write signature
+            output.write(SIGNATURE);
+
+            // write method
+            output.write(secret.getEncoded().length * 8 == AES256_KEYLENGTH ? 1 : 0);
+
+            // build cipher
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, secret);
+
+            // write initialization vector
+            AlgorithmParameters params = cipher.getParameters();
+            byte[] iv = params.getParameterSpec(IvParameterSpec.class).getIV();
+            output.write(iv);
+
+            return cipher;
+        }
+
+        @Override
+        public Journal.Frame append(Client client, OutputStream output) throws IOException
+        {
+            SecretKey secret = client.getSecret();
+            if (secret == null)
+                throw new IOException(Messages.MsgPasswordMissing);
+
+            return new BinarySerialization().writeFrame(client, output, new CipherCodec(secret),
+                            client.getJournal());
+        }
+
         private SecretKey buildSecretKey() throws NoSuchAlgorithmException, InvalidKeySpecException
         {
             SecretKeyFactory factory = SecretKeyFactory.getInstance(SECRET_KEY_ALGORITHM);
@@ -305,13 +694,82 @@ public class ClientFactory
         }
     }
 
+    /**
+     * Encrypts every frame of a binary file with its own initialization
+     * vector.
+     */
+    private static class CipherCodec implements BinarySerialization.FrameCodec
+    {
+        private final SecretKey secret;
+
+        public CipherCodec(SecretKey secret)
+        {
+            this.secret = secret;
+        }
+
+        @Override
+        public byte[] encode(byte[] payload) throws IOException
+        {
+            try
+            {
+                Cipher cipher = Cipher.getInstance(Decryptor.CIPHER_ALGORITHM);
+                cipher.init(Cipher.ENCRYPT_MODE, secret);
+                byte[] iv = cipher.getParameters().getParameterSpec(IvParameterSpec.class).getIV();
+
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(iv.length + payload.length + iv.length);
+                buffer.write(iv);
+                buffer.write(cipher.doFinal(payload));
+                return buffer.toByteArray();
+            }
+            catch (GeneralSecurityException e)
+            {
+                throw new IOException(MessageFormat.format(Messages.MsgErrorEncrypting, e.getMessage()), e);
+            }
+        }
+
+        @Override
+        public byte[] decode(byte[] payload) throws IOException
+        {
+            try
+            {
+                if (payload.length < Decryptor.IV_LENGTH)
+                    throw new IOException(Messages.MsgNotAPortflioFile);
+
+                Cipher cipher = Cipher.getInstance(Decryptor.CIPHER_ALGORITHM);
+                cipher.init(Cipher.DECRYPT_MODE, secret,
+                                new IvParameterSpec(payload, 0, Decryptor.IV_LENGTH));
+                return cipher.doFinal(payload, Decryptor.IV_LENGTH, payload.length - Decryptor.IV_LENGTH);
+            }
+            catch (GeneralSecurityException e)
+            {
+                throw new IOException(MessageFormat.format(Messages.MsgErrorDecrypting, e.getMessage()), e);
+            }
+        }
+    }
+
     private static XStream xstream;
 
+    /**
+     * Guards the journal of the client and the file against concurrent
+     * modifications by saving and compacting.
+     */
+    private static final Object JOURNAL_LOCK = new Object();
+
     public static boolean isEncrypted(File file)
     {
         return file.getName().endsWith(".portfolio"); //$NON-NLS-1$
     }
 
+    /**
+     * Returns true if the file is stored in the binary format without
+     * encryption. Encrypted files use the binary format only if chosen when
+     * saving (see {@link #save(Client, File, String, char[], boolean)}).
+     */
+    public static boolean isBinary(File file)
+    {
+        return file.getName().endsWith(".ppb"); //$NON-NLS-1$
+    }
+
     public static boolean isKeyLengthSupported(int keyLength)
     {
         try
@@ -339,7 +797,12 @@ public class ClientFactory
             monitor.beginTask(MessageFormat.format(Messages.MsgReadingFile, file.getName()), 20);
             input = new ProgressMonitorInputStream(new FileInputStream(file), increment, monitor);
 
-            return buildPersister(file, null, password).load(input);
+            Client client = buildPersister(file, null, password).load(input);
+
+            if (client.getJournal() != null)
+                client.getJournal().attach(file);
+
+            return client;
         }
         catch (FileNotFoundException e)
         {
@@ -356,7 +819,8 @@ public class ClientFactory
     {
         try
         {
-            return new XmlSerialization().load(input);
+            // a reader cannot be opened again if the streaming reader fails
+            return new XmlSerialization().load(input, null);
         }
         finally
         {
@@ -371,31 +835,197 @@ public class ClientFactory
     }
 
     public static void save(final Client client, final File file, String method, char[] password) throws IOException
+    {
+        save(client, file, method, password, client.getQuoteSidecar() != null);
+    }
+
+    /**
+     * Saves the client to the file.
+     *
+     * @param method
+     *            encryption method used if a password is given: AES128 or
+     *            AES256 store zipped XML, AES128_BINARY or AES256_BINARY store
+     *            the binary format. Without password, encrypted files keep the
+     *            format they have been read with.
+     * @param storeQuotesInSidecar
+     *            if true, the historical prices are stored in a separate file
+     *            which is memory mapped when loading the client (only for
+     *            binary files without encryption)
+     */
+    public static void save(final Client client, final File file, String method, char[] password,
+                    boolean storeQuotesInSidecar) throws IOException
     {
         if (isEncrypted(file) && password == null && client.getSecret() == null)
             throw new IOException(Messages.MsgPasswordMissing);
 
-        OutputStream output = null;
+        ClientPersister persister = buildPersister(file, method, password);
+        boolean useSidecar = storeQuotesInSidecar && persister instanceof BinaryWriter;
+
+        synchronized (JOURNAL_LOCK)
+        {
+            // append the changes if the file has not been modified since it
+            // has been read or written and the password is unchanged
+            Journal journal = client.getJournal();
+            boolean isJournaled = persister instanceof JournaledPersister
+                            && ((JournaledPersister) persister).isJournaled(client);
+            if (isJournaled && password == null && journal != null && journal.isAppendableTo(file)
+                            && useSidecar == (client.getQuoteSidecar() != null))
+            {
+                Journal.Frame frame;
+                try (FileOutputStream output = new FileOutputStream(file, true))
+                {
+                    // drop an incomplete record left by an interrupted save
+                    if (journal.getCompleteLength() < journal.getFileLength())
+                        output.getChannel().truncate(journal.getCompleteLength());
+
+                    frame = ((JournaledPersister) persister).append(client, output);
+                }
+                journal.recordAppended(frame);
+                return;
+            }
+
+            // keep the sidecar file referenced by the previous version of
+            // the file (and therefore by its backup copy)
+            Set<String> keep = new HashSet<>();
+            QuoteSidecar sidecar = client.getQuoteSidecar();
+            if (sidecar != null && sidecar.belongsTo(file))
+                keep.add(sidecar.getName());
+
+            if (!useSidecar)
+                sidecar = null;
+            else if (sidecar == null || !sidecar.belongsTo(file) || sidecar.isOutdated(client.getSecurities()))
+                sidecar = QuoteSidecar.write(file, client.getSecurities());
+            client.setQuoteSidecar(sidecar);
+
+            OutputStream output = null;
+            Journal.Frame base = null;
+
+            try
+            {
+                output = new FileOutputStream(file);
+
+                if (isJournaled)
+                    base = ((JournaledPersister) persister).saveBase(client, output);
+                else
+                    persister.save(client, output);
+            }
+            finally
+            {
+                if (output != null)
+                    output.close();
+            }
+
+            if (base != null)
+            {
+                journal = new Journal(base);
+                journal.attach(file);
+                client.setJournal(journal);
+            }
+            else
+            {
+                client.setJournal(null);
+            }
+
+            if (sidecar != null)
+                keep.add(sidecar.getName());
+            QuoteSidecar.deleteUnused(file, keep);
+        }
+    }
+
+    /**
+     * Returns true if the file of the client contains enough journal records
+     * to be compacted with {@link #compact(Client)}.
+     */
+    public static boolean isCompactionDue(Client client)
+    {
+        synchronized (JOURNAL_LOCK)
+        {
+            Journal journal = client.getJournal();
+            return journal != null && journal.getFile() != null && journal.isCompactionDue();
+        }
+    }
+
+    /**
+     * Replaces the base snapshot and the journal records of the file of the
+     * client with a new base snapshot. The snapshot is built from the file
+     * (not from the client) and therefore can be written in the background
+     * while the client is being edited. If the file is saved in the
+     * meantime, the snapshot is discarded.
+     */
+    public static void compact(Client client) throws IOException
+    {
+        Journal journal;
+        File file;
+        JournaledPersister persister;
+
+        synchronized (JOURNAL_LOCK)
+        {
+            journal = client.getJournal();
+            if (journal == null || journal.getFile() == null || !journal.isCompactionDue())
+                return;
+
+            file = journal.getFile();
+            if (isEncrypted(file))
+            {
+                if (client.getSecret() == null)
+                    throw new IOException(Messages.MsgPasswordMissing);
+                persister = new Decryptor(client.getSecret());
+            }
+            else
+            {
+                persister = new BinaryWriter(file);
+            }
+        }
+
+        Client snapshot;
+        try (InputStream input = new FileInputStream(file))
+        {
+            snapshot = persister.load(input);
+        }
+
+        File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile()); //$NON-NLS-1$
 
         try
         {
-            output = new FileOutputStream(file);
+            Journal.Frame base;
+            try (OutputStream output = new FileOutputStream(temp))
+            {
+                base = persister.saveBase(snapshot, output);
+            }
 
-            buildPersister(file, method, password).save(client, output);
+            synchronized (JOURNAL_LOCK)
+            {
+                // the snapshot is outdated if the file has been modified
+                if (client.getJournal() != journal || !journal.isAppendableTo(file))
+                    return;
+
+                try
+                {
+                    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                                    StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (AtomicMoveNotSupportedException e)
+                {
+                    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                journal.compacted(base.getLength());
+            }
         }
         finally
         {
-            if (output != null)
-                output.close();
+            Files.deleteIfExists(temp.toPath());
         }
     }
 
     private static ClientPersister buildPersister(File file, String method, char[] password)
     {
         if (file != null && isEncrypted(file))
-            return new Decryptor(method, password);
+            return new Decryptor(method, password, file);
+        else if (file != null && isBinary(file))
+            return new BinaryWriter(file);
         else
-            return new PlainWriter();
+            return new PlainWriter(file);
     }
 
     private static void upgradeModel(Client client)
@@ -895,7 +1525,7 @@ public class ClientFactory
 
         for (Security security : client.getSecurities())
         {
-            security.getPrices().stream().forEach(p -> p.setValue(p.getValue() * decimalPlacesAdded));
+            security.getPriceSeries().updateValues(v -> v * decimalPlacesAdded);
             if (security.getLatest() != null)
             {
                 LatestSecurityPrice l = security.getLatest();
@@ -989,6 +1619,7 @@ public class ClientFactory
                     xstream.registerConverter(new XStreamLocalDateConverter());
                     xstream.registerConverter(new PortfolioTransactionConverter(xstream.getMapper(),
                                     xstream.getReflectionProvider()));
+                    xstream.registerConverter(new SecurityPriceSeriesConverter());
 
                     xstream.useAttributeFor(Money.class, "amount");
                     xstream.useAttributeFor(Money.class, "currencyCode");
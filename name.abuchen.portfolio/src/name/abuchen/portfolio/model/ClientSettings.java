@@ -150,6 +150,11 @@ public class ClientSettings
         attributeTypes.add(index, type);
     }
 
+    /* package */Map<String, ConfigurationSet> getConfigurationSets()
+    {
+        return configurationSets;
+    }
+
     public ConfigurationSet getConfigurationSet(String key)
     {
         return configurationSets.computeIfAbsent(key, k -> new ConfigurationSet());
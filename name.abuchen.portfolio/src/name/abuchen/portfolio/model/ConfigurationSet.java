@@ -27,7 +27,12 @@ public class ConfigurationSet
 
         public Configuration(String name, String data)
         {
-            this.uuid = UUID.randomUUID().toString();
+            this(UUID.randomUUID().toString(), name, data);
+        }
+
+        /* package */ Configuration(String uuid, String name, String data)
+        {
+            this.uuid = uuid;
             this.name = name;
             this.data = data;
         }
@@ -0,0 +1,155 @@
+package name.abuchen.portfolio.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Transactions sorted by date together with the running sum of a quantity
+ * (shares or amount) after each transaction. Transactions at the same date
+ * keep the order in which they have been added. The running sums are
+ * recalculated lazily starting with the first modified position.
+ */
+/* package */final class CumulativeIndex<T extends Transaction>
+{
+    private final ToLongFunction<T> quantity;
+    private final List<T> transactions = new ArrayList<>();
+
+    private long[] sums = new long[0];
+
+    /**
+     * Number of leading running sums which are up to date
+     */
+    private int validUpTo = 0;
+
+    /* package */CumulativeIndex(ToLongFunction<T> quantity)
+    {
+        this.quantity = quantity;
+    }
+
+    /* package */void add(T transaction)
+    {
+        int index = upperBound(transaction.getDate());
+        transactions.add(index, transaction);
+        validUpTo = Math.min(validUpTo, index);
+    }
+
+    /**
+     * Adds all transactions; transactions at the same date keep the order of
+     * the given list.
+     */
+    /* package */void addAll(List<T> list)
+    {
+        transactions.addAll(list);
+        transactions.sort(new Transaction.ByDate());
+        validUpTo = 0;
+    }
+
+    /**
+     * Removes the transaction (by identity).
+     *
+     * @return false if the transaction is not indexed
+     */
+    /* package */boolean remove(T transaction)
+    {
+        int index = upperBound(transaction.getDate()) - 1;
+        while (index >= 0 && transactions.get(index) != transaction
+                        && transactions.get(index).getDate().equals(transaction.getDate()))
+            index--;
+
+        // the date might have been modified in place
+        if (index < 0 || transactions.get(index) != transaction)
+        {
+            index = -1;
+            for (int ii = 0; ii < transactions.size(); ii++)
+            {
+                if (transactions.get(ii) == transaction)
+                {
+                    index = ii;
+                    break;
+                }
+            }
+
+            if (index < 0)
+                return false;
+        }
+
+        transactions.remove(index);
+        validUpTo = Math.min(validUpTo, index);
+        return true;
+    }
+
+    /**
+     * Returns the number of transactions at or before the given date.
+     */
+    /* package */int count(LocalDate date)
+    {
+        return upperBound(date);
+    }
+
+    /**
+     * Returns the sum of the quantities of the first transactions.
+     */
+    /* package */long sum(int count)
+    {
+        if (count == 0)
+            return 0;
+
+        if (validUpTo < count)
+        {
+            if (sums.length < transactions.size())
+                sums = Arrays.copyOf(sums, Math.max(transactions.size(), sums.length + (sums.length >> 1)));
+
+            long sum = validUpTo == 0 ? 0 : sums[validUpTo - 1];
+            for (int ii = validUpTo; ii < transactions.size(); ii++)
+            {
+                sum += quantity.applyAsLong(transactions.get(ii));
+                sums[ii] = sum;
+            }
+            validUpTo = transactions.size();
+        }
+
+        return sums[count - 1];
+    }
+
+    /**
+     * Returns a read-only view of the first transactions which is valid until
+     * the index is modified.
+     */
+    /* package */List<T> head(int count)
+    {
+        return Collections.unmodifiableList(transactions.subList(0, count));
+    }
+
+    /**
+     * Returns a read-only view of the transactions after the first
+     * transactions which is valid until the index is modified.
+     */
+    /* package */List<T> tail(int count)
+    {
+        return Collections.unmodifiableList(transactions.subList(count, transactions.size()));
+    }
+
+    /**
+     * Returns the index of the first transaction after the given date.
+     */
+    private int upperBound(LocalDate date)
+    {
+        int low = 0;
+        int high = transactions.size();
+
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (transactions.get(mid).getDate().isAfter(date))
+                high = mid;
+            else
+                low = mid + 1;
+        }
+
+        return low;
+    }
+}
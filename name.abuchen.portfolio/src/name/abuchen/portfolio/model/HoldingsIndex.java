@@ -0,0 +1,128 @@
+package name.abuchen.portfolio.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Index of the transactions of a portfolio by security and date which
+ * answers the holdings at a given date without scanning all transactions.
+ * The index is built on first use, updated when transactions are added or
+ * removed through the portfolio, and rebuilt after the client has been
+ * marked dirty (transactions might have been modified in place).
+ */
+public final class HoldingsIndex
+{
+    @FunctionalInterface
+    public interface SecurityVisitor
+    {
+        void visit(Security security, long shares, List<PortfolioTransaction> later);
+    }
+
+    private final Portfolio portfolio;
+
+    private Map<Security, CumulativeIndex<PortfolioTransaction>> securities;
+    private int count;
+
+    /* package */HoldingsIndex(Portfolio portfolio)
+    {
+        this.portfolio = portfolio;
+    }
+
+    /* package */synchronized void added(PortfolioTransaction transaction)
+    {
+        if (securities != null)
+        {
+            index(transaction);
+            count++;
+        }
+    }
+
+    /* package */synchronized void removed(PortfolioTransaction transaction)
+    {
+        if (securities == null)
+            return;
+
+        CumulativeIndex<PortfolioTransaction> index = securities.get(transaction.getSecurity());
+        if (index != null && index.remove(transaction))
+            count--;
+        else
+            securities = null;
+    }
+
+    /* package */synchronized void invalidate()
+    {
+        securities = null;
+    }
+
+    /**
+     * Calls the action for every security with a non-zero number of shares at
+     * the end of the given date. The action receives the transactions of the
+     * security up to and including the date, sorted by date. The list must
+     * not be kept beyond the call.
+     */
+    public synchronized void forEachHolding(LocalDate date, BiConsumer<Security, List<PortfolioTransaction>> action)
+    {
+        ensureIndexed();
+
+        for (Map.Entry<Security, CumulativeIndex<PortfolioTransaction>> entry : securities.entrySet())
+        {
+            CumulativeIndex<PortfolioTransaction> index = entry.getValue();
+            int n = index.count(date);
+            if (n > 0 && index.sum(n) != 0)
+                action.accept(entry.getKey(), index.head(n));
+        }
+    }
+
+    /**
+     * Calls the visitor for every security with the number of shares at the
+     * end of the given date and the transactions after the date, sorted by
+     * date. Securities without shares and without later transactions are
+     * skipped. The list must not be kept beyond the call.
+     */
+    public synchronized void forEachSecurity(LocalDate date, SecurityVisitor visitor)
+    {
+        ensureIndexed();
+
+        for (Map.Entry<Security, CumulativeIndex<PortfolioTransaction>> entry : securities.entrySet())
+        {
+            CumulativeIndex<PortfolioTransaction> index = entry.getValue();
+            int n = index.count(date);
+            long shares = index.sum(n);
+            List<PortfolioTransaction> later = index.tail(n);
+            if (shares != 0 || !later.isEmpty())
+                visitor.visit(entry.getKey(), shares, later);
+        }
+    }
+
+    private void ensureIndexed()
+    {
+        List<PortfolioTransaction> transactions = portfolio.getTransactions();
+
+        // transactions might have been added or removed directly to the list
+        if (securities == null || count != transactions.size())
+        {
+            Map<Security, List<PortfolioTransaction>> bySecurity = new LinkedHashMap<>();
+            for (PortfolioTransaction t : transactions)
+                bySecurity.computeIfAbsent(t.getSecurity(), s -> new ArrayList<>()).add(t);
+
+            securities = new LinkedHashMap<>();
+            for (Map.Entry<Security, List<PortfolioTransaction>> entry : bySecurity.entrySet())
+                securities.computeIfAbsent(entry.getKey(), HoldingsIndex::newIndex).addAll(entry.getValue());
+            count = transactions.size();
+        }
+    }
+
+    private void index(PortfolioTransaction transaction)
+    {
+        securities.computeIfAbsent(transaction.getSecurity(), HoldingsIndex::newIndex).add(transaction);
+    }
+
+    private static CumulativeIndex<PortfolioTransaction> newIndex(Security security)
+    {
+        return new CumulativeIndex<>(t -> t.getType().isPurchase() ? t.getShares() : -t.getShares());
+    }
+}
@@ -0,0 +1,183 @@
+package name.abuchen.portfolio.model;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of a binary file which consists of a base snapshot followed by
+ * journal records. A journal record contains the client except for the
+ * historical prices which did not change since the base snapshot: they are
+ * referenced as prefix of the prices stored in the base. Appending a record
+ * therefore does not rewrite the (large) price history, and a record
+ * typically contains only the latest quotes.
+ * <p>
+ * The journal remembers for every security how many leading prices are equal
+ * to the prices of the base snapshot. Together with
+ * {@link SecurityPriceSeries#getChangedFrom()} this is the prefix which can
+ * be referenced by the next record.
+ */
+/* package */final class Journal
+{
+    /**
+     * The securities written with a frame, the number of leading prices equal
+     * to the base snapshot, and the number of prices written.
+     */
+    /* package */static final class Frame
+    {
+        private final Map<Security, int[]> prices = new IdentityHashMap<>();
+        private long length;
+
+        /* package */void add(Security security, int basePrefix, int size)
+        {
+            prices.put(security, new int[] { basePrefix, size });
+        }
+
+        /* package */long getLength()
+        {
+            return length;
+        }
+
+        /* package */void setLength(long length)
+        {
+            this.length = length;
+        }
+    }
+
+    /**
+     * Maximum number of records before the journal is compacted into a new
+     * base snapshot.
+     */
+    private static final int MAX_RECORDS = 50;
+
+    private File file;
+    private long fileLength;
+
+    /**
+     * Length of an incomplete frame at the end of the file, e.g. if writing a
+     * record has been interrupted
+     */
+    private long incompleteLength;
+
+    private long baseLength;
+    private long journalLength;
+    private int records;
+
+    /**
+     * Security UUID -&gt; number of leading prices equal to the base snapshot
+     * and number of prices at the time of the last save
+     */
+    private final Map<String, int[]> prices = new HashMap<>();
+
+    /* package */Journal(Frame base)
+    {
+        this(base.getLength(), 0, 0, 0, base);
+    }
+
+    /* package */Journal(long baseLength, long journalLength, int records, long incompleteLength, Frame current)
+    {
+        this.baseLength = baseLength;
+        this.journalLength = journalLength;
+        this.records = records;
+        this.incompleteLength = incompleteLength;
+        update(current);
+    }
+
+    /**
+     * Associates the journal with the file it has been read from or written
+     * to.
+     */
+    /* package */void attach(File file)
+    {
+        this.file = file;
+        this.fileLength = file.length();
+    }
+
+    /* package */File getFile()
+    {
+        return file;
+    }
+
+    /* package */long getFileLength()
+    {
+        return fileLength;
+    }
+
+    /**
+     * Returns the length of the file without an incomplete frame at its end,
+     * i.e. the position at which the next record is appended.
+     */
+    /* package */long getCompleteLength()
+    {
+        return fileLength - incompleteLength;
+    }
+
+    /**
+     * Returns true if a record can be appended to the file, i.e. the file has
+     * not been modified since it has been read or written.
+     */
+    /* package */boolean isAppendableTo(File file)
+    {
+        return file.equals(this.file) && file.length() == fileLength;
+    }
+
+    /* package */boolean isCompactionDue()
+    {
+        return records >= MAX_RECORDS || journalLength > baseLength;
+    }
+
+    /**
+     * Returns the number of leading prices of the security which are equal to
+     * the prices of the base snapshot.
+     */
+    /* package */int getBasePrefix(Security security)
+    {
+        int[] entry = prices.get(security.getUUID());
+        if (entry == null)
+            return 0;
+
+        SecurityPriceSeries series = security.getPriceSeries();
+        return Math.min(entry[0], Math.min(series.getChangedFrom(), series.size()));
+    }
+
+    /**
+     * Updates the journal after a record has been appended to the file.
+     */
+    /* package */void recordAppended(Frame frame)
+    {
+        incompleteLength = 0;
+        journalLength += frame.getLength();
+        records++;
+        update(frame);
+        attach(file);
+    }
+
+    /**
+     * Updates the journal after the file has been replaced by a new base
+     * snapshot of the last saved state.
+     */
+    /* package */void compacted(long baseLength)
+    {
+        this.baseLength = baseLength;
+        this.journalLength = 0;
+        this.records = 0;
+        this.incompleteLength = 0;
+
+        for (int[] entry : prices.values())
+            entry[0] = entry[1];
+
+        attach(file);
+    }
+
+    private void update(Frame frame)
+    {
+        prices.clear();
+
+        for (Map.Entry<Security, int[]> entry : frame.prices.entrySet())
+        {
+            prices.put(entry.getKey().getUUID(), entry.getValue());
+            entry.getKey().getPriceSeries().resetChangedFrom();
+        }
+    }
+}
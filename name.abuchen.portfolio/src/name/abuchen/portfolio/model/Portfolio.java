@@ -15,6 +15,8 @@ public class Portfolio implements Named, TransactionOwner<PortfolioTransaction>
 
     private List<PortfolioTransaction> transactions = new ArrayList<PortfolioTransaction>();
 
+    private transient HoldingsIndex holdingsIndex;
+
     public Portfolio()
     {
         this.uuid = UUID.randomUUID().toString();
@@ -31,6 +33,12 @@ public class Portfolio implements Named, TransactionOwner<PortfolioTransaction>
         uuid = UUID.randomUUID().toString();
     }
 
+    /* package */void setUUID(String uuid)
+    {
+        // needed to restore UUIDs when loading without XStream
+        this.uuid = uuid;
+    }
+
     @Override
     public String getName()
     {
@@ -85,12 +93,16 @@ public class Portfolio implements Named, TransactionOwner<PortfolioTransaction>
     public void addTransaction(PortfolioTransaction transaction)
     {
         this.transactions.add(transaction);
+
+        if (holdingsIndex != null)
+            holdingsIndex.added(transaction);
     }
 
     @Override
     public void shallowDeleteTransaction(PortfolioTransaction transaction, Client client)
     {
-        this.transactions.remove(transaction);
+        if (this.transactions.remove(transaction) && holdingsIndex != null)
+            holdingsIndex.removed(transaction);
 
         client.getPlans().stream().forEach(plan -> plan.removeTransaction(transaction));
     }
@@ -98,6 +110,25 @@ public class Portfolio implements Named, TransactionOwner<PortfolioTransaction>
     public void addAllTransaction(List<PortfolioTransaction> transactions)
     {
         this.transactions.addAll(transactions);
+
+        if (holdingsIndex != null)
+            transactions.forEach(holdingsIndex::added);
+    }
+
+    /**
+     * Returns the index to look up the holdings at a given date.
+     */
+    public synchronized HoldingsIndex getHoldingsIndex()
+    {
+        if (holdingsIndex == null)
+            holdingsIndex = new HoldingsIndex(this);
+        return holdingsIndex;
+    }
+
+    /* package */void invalidateHoldingsIndex()
+    {
+        if (holdingsIndex != null)
+            holdingsIndex.invalidate();
     }
 
     @Override
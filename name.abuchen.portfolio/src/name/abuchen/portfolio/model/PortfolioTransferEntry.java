@@ -37,6 +37,17 @@ public class PortfolioTransferEntry implements CrossEntry, Annotated
         return this.transactionTo;
     }
 
+    /* package */void setSourceTransaction(PortfolioTransaction transaction)
+    {
+        // needed to link the transactions read by the streaming XML reader
+        this.transactionFrom = transaction;
+    }
+
+    /* package */void setTargetTransaction(PortfolioTransaction transaction)
+    {
+        this.transactionTo = transaction;
+    }
+
     public void setSourcePortfolio(Portfolio portfolio)
     {
         this.portfolioFrom = portfolio;
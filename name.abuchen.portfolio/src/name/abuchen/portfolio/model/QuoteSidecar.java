@@ -0,0 +1,254 @@
+package name.abuchen.portfolio.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import name.abuchen.portfolio.Messages;
+
+/**
+ * Stores the historical prices of all securities in a file next to the binary
+ * client file. The prices are stored as fixed-width records (epoch day and
+ * value) per security. When loading the client, the file is memory mapped and
+ * the prices of a security are read only when they are accessed (see
+ * {@link SecurityPriceSeries}).
+ * <p>
+ * The file starts with the signature, the format version, and an index with
+ * the UUID of the security, the first record, and the number of records. A
+ * sidecar file is never modified: if too many prices changed, a new file with
+ * a new name is written and referenced by the client file.
+ */
+/* package */final class QuoteSidecar
+{
+    /* package */static final int RECORD_SIZE = 12;
+
+    private static final byte[] SIGNATURE = new byte[] { 'P', 'P', 'Q', 'U', 'O', 'T', 'E', 'S' };
+    private static final int FORMAT_VERSION = 1;
+    private static final String EXTENSION = ".quotes"; //$NON-NLS-1$
+
+    private final File file;
+    private final ByteBuffer records;
+
+    /**
+     * Security UUID -&gt; first record and number of records
+     */
+    private final Map<String, int[]> index;
+
+    private QuoteSidecar(File file, ByteBuffer records, Map<String, int[]> index)
+    {
+        this.file = file;
+        this.records = records;
+        this.index = index;
+    }
+
+    /**
+     * Returns the name of the sidecar file which is stored in the client file.
+     */
+    /* package */String getName()
+    {
+        return file.getName();
+    }
+
+    /**
+     * Returns true if the sidecar file has been written for the given client
+     * file.
+     */
+    /* package */boolean belongsTo(File clientFile)
+    {
+        return file.getParentFile().equals(clientFile.getAbsoluteFile().getParentFile())
+                        && file.getName().startsWith(clientFile.getName() + '.');
+    }
+
+    /* package */int getCount(Security security)
+    {
+        int[] entry = index.get(security.getUUID());
+        return entry != null ? entry[1] : 0;
+    }
+
+    /**
+     * Returns the number of leading prices of the security which can be read
+     * from the sidecar file.
+     */
+    /* package */int getPrefix(Security security)
+    {
+        return Math.min(security.getPriceSeries().getSidecarPrefix(), getCount(security));
+    }
+
+    /**
+     * Returns the records of the security as buffer starting at the first
+     * record.
+     */
+    /* package */ByteBuffer getRecords(String uuid)
+    {
+        int[] entry = index.get(uuid);
+        if (entry == null)
+            return null;
+
+        ByteBuffer buffer = records.duplicate();
+        buffer.position(entry[0] * RECORD_SIZE);
+        buffer.limit((entry[0] + entry[1]) * RECORD_SIZE);
+        return buffer.slice();
+    }
+
+    /**
+     * Returns true if so many prices were changed since writing the sidecar
+     * file that the prices should be written to a new sidecar file.
+     */
+    /* package */boolean isOutdated(List<Security> securities)
+    {
+        long stored = 0;
+        long changed = 0;
+
+        for (Security security : securities)
+        {
+            int prefix = getPrefix(security);
+            stored += prefix;
+            changed += security.getPriceSeries().size() - prefix;
+        }
+
+        return changed * 4 > stored;
+    }
+
+    /**
+     * Writes the prices of the securities to a new sidecar file next to the
+     * client file.
+     */
+    /* package */static QuoteSidecar write(File clientFile, List<Security> securities) throws IOException
+    {
+        File directory = clientFile.getAbsoluteFile().getParentFile();
+        String name = clientFile.getName() + '.' + UUID.randomUUID().toString().substring(0, 8) + EXTENSION;
+        File file = new File(directory, name);
+
+        File temp = File.createTempFile(name, ".tmp", directory); //$NON-NLS-1$
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(
+                            new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024)))
+            {
+                out.write(SIGNATURE);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(securities.size());
+
+                int first = 0;
+                for (Security security : securities)
+                {
+                    byte[] uuid = security.getUUID().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(uuid.length);
+                    out.write(uuid);
+                    out.writeInt(first);
+                    out.writeInt(security.getPriceSeries().size());
+                    first += security.getPriceSeries().size();
+                }
+
+                for (Security security : securities)
+                    security.getPriceSeries().writeRecords(out);
+            }
+
+            try
+            {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(temp.toPath(), file.toPath());
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(temp.toPath());
+        }
+
+        for (Security security : securities)
+            security.getPriceSeries().setSidecarPrefix(Integer.MAX_VALUE);
+
+        return open(clientFile, name);
+    }
+
+    /**
+     * Maps the sidecar file with the given name next to the client file.
+     */
+    /* package */static QuoteSidecar open(File clientFile, String name) throws IOException
+    {
+        File file = new File(clientFile.getAbsoluteFile().getParentFile(), name);
+        if (!file.exists())
+            throw new IOException(MessageFormat.format(Messages.MsgFileNotFound, file.getAbsolutePath()));
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            // the mapping remains valid after closing the channel
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            byte[] signature = new byte[SIGNATURE.length];
+            buffer.get(signature);
+            if (!Arrays.equals(signature, SIGNATURE) || buffer.getInt() > FORMAT_VERSION)
+                throw new IOException(Messages.MsgNotAPortflioFile);
+
+            int count = buffer.getInt();
+            Map<String, int[]> index = new HashMap<>();
+            long total = 0;
+            for (int ii = 0; ii < count; ii++)
+            {
+                byte[] uuid = new byte[buffer.getShort()];
+                buffer.get(uuid);
+                int[] entry = new int[] { buffer.getInt(), buffer.getInt() };
+                index.put(new String(uuid, StandardCharsets.UTF_8), entry);
+                total = Math.max(total, (long) entry[0] + entry[1]);
+            }
+
+            ByteBuffer records = buffer.slice();
+            if (records.capacity() < total * RECORD_SIZE)
+                throw new IOException(Messages.MsgNotAPortflioFile);
+
+            return new QuoteSidecar(file, records, index);
+        }
+        catch (RuntimeException e)
+        {
+            // buffer underflow if the file is truncated
+            throw new IOException(Messages.MsgNotAPortflioFile, e);
+        }
+    }
+
+    /**
+     * Deletes the sidecar files of the client file except for the given ones.
+     * Files which cannot be deleted (for example because they are still
+     * mapped on Windows) are deleted with a later save.
+     */
+    /* package */static void deleteUnused(File clientFile, Set<String> keep)
+    {
+        String prefix = clientFile.getName() + '.';
+        File[] files = clientFile.getAbsoluteFile().getParentFile()
+                        .listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(EXTENSION)
+                                        && !keep.contains(name));
+
+        if (files == null)
+            return;
+
+        for (File file : files)
+        {
+            try
+            {
+                Files.deleteIfExists(file.toPath());
+            }
+            catch (IOException ignore)
+            {
+                // retry with the next save
+            }
+        }
+    }
+}
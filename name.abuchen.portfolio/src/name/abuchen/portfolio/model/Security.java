@@ -3,7 +3,7 @@ package name.abuchen.portfolio.model;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
@@ -41,7 +41,7 @@ public final class Security implements Attributable, InvestmentVehicle
     // feed and feedURL are used to update historical prices
     private String feed;
     private String feedURL;
-    private List<SecurityPrice> prices = new ArrayList<>();
+    private SecurityPriceSeries prices = new SecurityPriceSeries();
 
     // latestFeed and latestFeedURL are used to update the latest (current)
     // quote. If null, the values from feed and feedURL are used instead.
@@ -94,6 +94,12 @@ public final class Security implements Attributable, InvestmentVehicle
         uuid = UUID.randomUUID().toString();
     }
 
+    /* package */void setUUID(String uuid)
+    {
+        // needed to restore UUIDs when loading without XStream
+        this.uuid = uuid;
+    }
+
     /**
      * Generates a UUID only if no UUID exists. For not yet known reasons, some
      * securities do miss the UUID. However, we do not want to make the
@@ -230,9 +236,21 @@ public final class Security implements Attributable, InvestmentVehicle
         this.feedURL = feedURL;
     }
 
+    /**
+     * Returns a read-only view of the historical quotes sorted by date.
+     */
     public List<SecurityPrice> getPrices()
     {
-        return Collections.unmodifiableList(prices);
+        return prices.asList();
+    }
+
+    /**
+     * Returns the historical quotes as columnar series which allows to access
+     * dates and values without creating {@link SecurityPrice} objects.
+     */
+    public SecurityPriceSeries getPriceSeries()
+    {
+        return prices;
     }
 
     /**
@@ -243,34 +261,23 @@ public final class Security implements Attributable, InvestmentVehicle
     public boolean addPrice(SecurityPrice price)
     {
         Objects.requireNonNull(price);
+        return prices.put(price.getTime(), price.getValue());
+    }
 
-        int index = Collections.binarySearch(prices, price);
-
-        if (index < 0)
-        {
-            prices.add(~index, price);
-            return true;
-        }
-        else
-        {
-            SecurityPrice replaced = prices.get(index);
-
-            if (!replaced.equals(price))
-            {
-                // only replace if necessary -> UI might keep reference!
-                prices.set(index, price);
-                return true;
-            }
-            else
-            {
-                return false;
-            }
-        }
+    /**
+     * Adds multiple security prices to the historical quotes. Prices sorted by
+     * date which are newer than the existing quotes are appended in bulk.
+     * 
+     * @return true if the historical quotes were updated.
+     */
+    public boolean addAllPrices(Collection<? extends SecurityPrice> prices)
+    {
+        return this.prices.putAll(prices);
     }
 
     public void removePrice(SecurityPrice price)
     {
-        prices.remove(price);
+        prices.remove(price.getTime(), price.getValue());
     }
 
     public void removeAllPrices()
@@ -283,7 +290,7 @@ public final class Security implements Attributable, InvestmentVehicle
         // assumption: prefer historic quote over latest if there are more
         // up-to-date historic quotes
 
-        SecurityPrice lastHistoric = prices.isEmpty() ? null : prices.get(prices.size() - 1);
+        int size = prices.size();
 
         // use latest quote only
         // * if one exists
@@ -293,28 +300,20 @@ public final class Security implements Attributable, InvestmentVehicle
         // ** and the historic quotes are older than the latest quote
 
         if (latest != null //
-                        && (lastHistoric == null //
+                        && (size == 0 //
                                         || (!requestedTime.isBefore(latest.getTime()) && //
-                                                        !latest.getTime().isBefore(lastHistoric.getTime()) //
+                                                        latest.getTime().toEpochDay() >= prices
+                                                                        .getEpochDay(size - 1) //
                                         )))
             return latest;
 
-        if (lastHistoric == null)
+        if (size == 0)
             return new SecurityPrice(requestedTime, 0);
 
-        // avoid binary search if last historic quote <= requested date
-        if (!lastHistoric.getTime().isAfter(requestedTime))
-            return lastHistoric;
-
-        SecurityPrice p = new SecurityPrice(requestedTime, 0);
-        int index = Collections.binarySearch(prices, p);
+        int index = prices.floorIndex(requestedTime);
 
-        if (index >= 0)
-            return prices.get(index);
-        else if (index == -1) // requested is date before first historic quote
-            return prices.get(0);
-        else
-            return prices.get(-index - 2);
+        // requested date is before first historic quote
+        return prices.get(Math.max(0, index));
     }
 
     public String getLatestFeed()
@@ -462,7 +461,7 @@ public final class Security implements Attributable, InvestmentVehicle
 
         answer.feed = feed;
         answer.feedURL = feedURL;
-        answer.prices = new ArrayList<>(prices);
+        answer.prices = new SecurityPriceSeries(prices);
 
         answer.latestFeed = latestFeed;
         answer.latestFeedURL = latestFeedURL;
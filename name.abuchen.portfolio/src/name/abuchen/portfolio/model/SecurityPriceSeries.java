@@ -0,0 +1,617 @@
+package name.abuchen.portfolio.model;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Historical prices of a security stored in two parallel arrays: the dates as
+ * epoch days (sorted ascending, no duplicates) and the values. Compared to a
+ * list of {@link SecurityPrice} objects, the series needs a fraction of the
+ * memory and lookups by date are a binary search over an int array.
+ * <p>
+ * Callers which expect a list of prices get a read-only {@link #asList() view}
+ * which creates the {@link SecurityPrice} objects on access. Modifications are
+ * only possible through {@link Security}.
+ * <p>
+ * The leading prices can be backed by the records of a {@link QuoteSidecar}
+ * which are read into the arrays on first access to the prices.
+ */
+public final class SecurityPriceSeries
+{
+    private static final int[] EMPTY_DAYS = new int[0];
+    private static final long[] EMPTY_VALUES = new long[0];
+
+    private int[] days = EMPTY_DAYS;
+    private long[] values = EMPTY_VALUES;
+    private int size;
+
+    /**
+     * Index of the first price which changed since the last call to
+     * {@link #resetChangedFrom()}. A new series is considered changed.
+     */
+    private int changedFrom = 0;
+
+    /**
+     * Records of the sidecar file backing the first prices, or null if all
+     * prices are in the arrays. While mapped, the arrays hold only the prices
+     * after the mapped records.
+     */
+    private volatile ByteBuffer mapped;
+    private int mappedCount;
+
+    /**
+     * Number of leading prices equal to the records of the quote sidecar of
+     * the client.
+     */
+    private int sidecarPrefix = 0;
+
+    private final PriceList view = new PriceList(0, -1);
+
+    /* package */SecurityPriceSeries()
+    {}
+
+    /* package */SecurityPriceSeries(SecurityPriceSeries other)
+    {
+        other.ensureLoaded();
+        this.days = Arrays.copyOf(other.days, other.size);
+        this.values = Arrays.copyOf(other.values, other.size);
+        this.size = other.size;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int getEpochDay(int index)
+    {
+        checkIndex(index);
+        ensureLoaded();
+        return days[index];
+    }
+
+    public LocalDate getDate(int index)
+    {
+        return LocalDate.ofEpochDay(getEpochDay(index));
+    }
+
+    public long getValue(int index)
+    {
+        checkIndex(index);
+        ensureLoaded();
+        return values[index];
+    }
+
+    public SecurityPrice get(int index)
+    {
+        checkIndex(index);
+        ensureLoaded();
+        return new SecurityPrice(LocalDate.ofEpochDay(days[index]), values[index]);
+    }
+
+    /**
+     * Searches the price at the given date.
+     *
+     * @return index of the price if it exists; otherwise
+     *         <tt>(-(insertion point) - 1)</tt> as with
+     *         {@link Arrays#binarySearch(int[], int)}
+     */
+    public int binarySearch(LocalDate date)
+    {
+        ensureLoaded();
+        return Arrays.binarySearch(days, 0, size, (int) date.toEpochDay());
+    }
+
+    /**
+     * Returns the index of the last price at or before the given date or -1 if
+     * all prices are after the given date.
+     */
+    public int floorIndex(LocalDate date)
+    {
+        int index = binarySearch(date);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Returns a read-only list view of all prices. The view reflects later
+     * changes to the series.
+     */
+    public List<SecurityPrice> asList()
+    {
+        return view;
+    }
+
+    /**
+     * Returns a read-only list view of the prices between the given dates
+     * (both inclusive). The boundaries are determined when creating the view.
+     */
+    public List<SecurityPrice> asList(LocalDate from, LocalDate to)
+    {
+        int start = binarySearch(from);
+        if (start < 0)
+            start = -start - 1;
+
+        int end = floorIndex(to) + 1;
+
+        return new PriceList(start, Math.max(start, end));
+    }
+
+    /**
+     * Adds the price or replaces the value of an existing price at the same
+     * date.
+     *
+     * @return true if the series was changed
+     */
+    /* package */boolean put(LocalDate date, long value)
+    {
+        ensureLoaded();
+
+        int day = (int) date.toEpochDay();
+
+        // fast path: quotes are typically appended in chronological order
+        if (size == 0 || days[size - 1] < day)
+        {
+            changed(size);
+            append(day, value);
+            return true;
+        }
+
+        int index = Arrays.binarySearch(days, 0, size, day);
+
+        if (index >= 0)
+        {
+            if (values[index] == value)
+                return false;
+
+            values[index] = value;
+            changed(index);
+            return true;
+        }
+
+        int insertAt = ~index;
+        changed(insertAt);
+        ensureCapacity(size + 1);
+        System.arraycopy(days, insertAt, days, insertAt + 1, size - insertAt);
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        days[insertAt] = day;
+        values[insertAt] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds all prices. If the prices are sorted and start after the last price
+     * of the series, they are appended in bulk. Otherwise the prices are sorted
+     * and merged with the existing prices in one pass. If the collection
+     * contains multiple prices for the same date, the last one wins.
+     *
+     * @return true if the series was changed
+     */
+    /* package */boolean putAll(Collection<? extends SecurityPrice> prices)
+    {
+        if (prices.isEmpty())
+            return false;
+
+        ensureLoaded();
+
+        int count = prices.size();
+        int[] newDays = new int[count];
+        long[] newValues = new long[count];
+
+        boolean isAppendable = true;
+        int previous = size == 0 ? Integer.MIN_VALUE : days[size - 1];
+
+        int ii = 0;
+        for (SecurityPrice price : prices)
+        {
+            Objects.requireNonNull(price);
+            int day = (int) price.getTime().toEpochDay();
+
+            isAppendable = isAppendable && day > previous;
+            previous = day;
+
+            newDays[ii] = day;
+            newValues[ii] = price.getValue();
+            ii++;
+        }
+
+        if (isAppendable)
+        {
+            changed(size);
+            ensureCapacity(size + count);
+            System.arraycopy(newDays, 0, days, size, count);
+            System.arraycopy(newValues, 0, values, size, count);
+            size += count;
+            return true;
+        }
+
+        return merge(newDays, newValues, count);
+    }
+
+    private boolean merge(int[] newDays, long[] newValues, int count)
+    {
+        // sort incoming prices by date; stable so that later prices for the
+        // same date win
+        Integer[] order = new Integer[count];
+        for (int ii = 0; ii < count; ii++)
+            order[ii] = ii;
+        Arrays.sort(order, (l, r) -> Integer.compare(newDays[l], newDays[r]));
+
+        int[] mergedDays = new int[size + count];
+        long[] mergedValues = new long[size + count];
+        int mergedSize = 0;
+        int firstUpdate = -1;
+
+        int ii = 0; // existing prices
+        int jj = 0; // incoming prices
+        while (ii < size || jj < count)
+        {
+            if (jj < count)
+            {
+                int index = order[jj];
+
+                // skip to the last incoming price of the same date
+                while (jj + 1 < count && newDays[order[jj + 1]] == newDays[index])
+                    index = order[++jj];
+
+                int day = newDays[index];
+
+                while (ii < size && days[ii] < day)
+                {
+                    mergedDays[mergedSize] = days[ii];
+                    mergedValues[mergedSize++] = values[ii++];
+                }
+
+                if (ii < size && days[ii] == day)
+                {
+                    if (firstUpdate < 0 && values[ii] != newValues[index])
+                        firstUpdate = mergedSize;
+                    ii++;
+                }
+                else if (firstUpdate < 0)
+                {
+                    firstUpdate = mergedSize;
+                }
+
+                mergedDays[mergedSize] = day;
+                mergedValues[mergedSize++] = newValues[index];
+                jj++;
+            }
+            else
+            {
+                mergedDays[mergedSize] = days[ii];
+                mergedValues[mergedSize++] = values[ii++];
+            }
+        }
+
+        if (firstUpdate < 0)
+            return false;
+
+        days = mergedDays;
+        values = mergedValues;
+        size = mergedSize;
+        changed(firstUpdate);
+        return true;
+    }
+
+    /**
+     * Removes the price if both date and value match.
+     */
+    /* package */boolean remove(LocalDate date, long value)
+    {
+        int index = binarySearch(date);
+        if (index < 0 || values[index] != value)
+            return false;
+
+        System.arraycopy(days, index + 1, days, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        changed(index);
+        return true;
+    }
+
+    /**
+     * Replaces all prices with the given dates (as epoch days, sorted
+     * ascending, no duplicates) and values. The series takes ownership of the
+     * arrays.
+     */
+    /* package */void setAll(int[] days, long[] values)
+    {
+        if (days.length != values.length)
+            throw new IllegalArgumentException();
+
+        for (int ii = 1; ii < days.length; ii++)
+        {
+            if (days[ii] <= days[ii - 1])
+                throw new IllegalArgumentException(LocalDate.ofEpochDay(days[ii]).toString());
+        }
+
+        this.mapped = null;
+        this.mappedCount = 0;
+        this.days = days;
+        this.values = values;
+        this.size = days.length;
+        this.changedFrom = 0;
+        this.sidecarPrefix = 0;
+    }
+
+    /**
+     * Replaces all prices with the first prices of the base series followed by
+     * the given dates and values. If the prefix of the base series is not read
+     * yet, it is shared with the base series and read on first access.
+     */
+    /* package */void setAll(SecurityPriceSeries base, int prefix, int[] tailDays, long[] tailValues)
+    {
+        if (prefix > base.size())
+            throw new IllegalArgumentException();
+
+        ByteBuffer records = base.mapped;
+        if (records != null && prefix <= base.mappedCount)
+        {
+            setMapped(records, prefix, tailDays, tailValues);
+        }
+        else
+        {
+            base.ensureLoaded();
+
+            int[] newDays = new int[prefix + tailDays.length];
+            long[] newValues = new long[prefix + tailValues.length];
+            System.arraycopy(base.days, 0, newDays, 0, prefix);
+            System.arraycopy(base.values, 0, newValues, 0, prefix);
+            System.arraycopy(tailDays, 0, newDays, prefix, tailDays.length);
+            System.arraycopy(tailValues, 0, newValues, prefix, tailValues.length);
+            setAll(newDays, newValues);
+        }
+
+        this.sidecarPrefix = Math.min(prefix, base.sidecarPrefix);
+    }
+
+    /**
+     * Backs the first prices of the series by the given records of a quote
+     * sidecar file. The records are read on first access to the prices.
+     */
+    /* package */void setMapped(ByteBuffer records, int count, int[] tailDays, long[] tailValues)
+    {
+        if (tailDays.length != tailValues.length || records.capacity() < count * QuoteSidecar.RECORD_SIZE)
+            throw new IllegalArgumentException();
+
+        int previous = count > 0 ? records.getInt((count - 1) * QuoteSidecar.RECORD_SIZE) : Integer.MIN_VALUE;
+        for (int day : tailDays)
+        {
+            if (day <= previous)
+                throw new IllegalArgumentException(LocalDate.ofEpochDay(day).toString());
+            previous = day;
+        }
+
+        this.days = tailDays;
+        this.values = tailValues;
+        this.size = count + tailDays.length;
+        this.mappedCount = count;
+        this.mapped = count > 0 ? records : null;
+        this.changedFrom = 0;
+        this.sidecarPrefix = count;
+    }
+
+    /* package */boolean isLoaded()
+    {
+        return mapped == null;
+    }
+
+    /**
+     * Writes the prices as fixed-width records of a {@link QuoteSidecar}
+     * without reading the mapped records into the arrays.
+     */
+    /* package */synchronized void writeRecords(DataOutput out) throws IOException
+    {
+        int offset = 0;
+        ByteBuffer records = mapped;
+        if (records != null)
+        {
+            byte[] bytes = new byte[mappedCount * QuoteSidecar.RECORD_SIZE];
+            records.duplicate().get(bytes);
+            out.write(bytes);
+            offset = mappedCount;
+        }
+
+        for (int ii = 0; ii < size - offset; ii++)
+        {
+            out.writeInt(days[ii]);
+            out.writeLong(values[ii]);
+        }
+    }
+
+    /* package */void clear()
+    {
+        mapped = null;
+        mappedCount = 0;
+        days = EMPTY_DAYS;
+        values = EMPTY_VALUES;
+        size = 0;
+        changedFrom = 0;
+        sidecarPrefix = 0;
+    }
+
+    /**
+     * Applies the operator to all values in place.
+     */
+    /* package */void updateValues(LongUnaryOperator operator)
+    {
+        ensureLoaded();
+        for (int ii = 0; ii < size; ii++)
+            values[ii] = operator.applyAsLong(values[ii]);
+        changedFrom = 0;
+        sidecarPrefix = 0;
+    }
+
+    /**
+     * Returns the index of the first price which was added, removed, or
+     * changed since the last call to {@link #resetChangedFrom()}. All prices
+     * before the index are unchanged. If nothing changed, the index is
+     * {@link Integer#MAX_VALUE}.
+     */
+    /* package */int getChangedFrom()
+    {
+        return changedFrom;
+    }
+
+    /* package */void resetChangedFrom()
+    {
+        changedFrom = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the number of leading prices which are equal to the records of
+     * the quote sidecar of the client.
+     */
+    /* package */int getSidecarPrefix()
+    {
+        return sidecarPrefix;
+    }
+
+    /* package */void setSidecarPrefix(int sidecarPrefix)
+    {
+        this.sidecarPrefix = Math.min(sidecarPrefix, size);
+    }
+
+    private void changed(int index)
+    {
+        if (index < changedFrom)
+            changedFrom = index;
+        if (index < sidecarPrefix)
+            sidecarPrefix = index;
+    }
+
+    private void ensureLoaded()
+    {
+        if (mapped != null)
+            load();
+    }
+
+    private synchronized void load()
+    {
+        ByteBuffer records = mapped;
+        if (records == null)
+            return;
+
+        int[] newDays = new int[size];
+        long[] newValues = new long[size];
+
+        for (int ii = 0; ii < mappedCount; ii++)
+        {
+            int offset = ii * QuoteSidecar.RECORD_SIZE;
+            newDays[ii] = records.getInt(offset);
+            newValues[ii] = records.getLong(offset + 4);
+        }
+
+        System.arraycopy(days, 0, newDays, mappedCount, size - mappedCount);
+        System.arraycopy(values, 0, newValues, mappedCount, size - mappedCount);
+
+        days = newDays;
+        values = newValues;
+        mappedCount = 0;
+        mapped = null;
+    }
+
+    /* package */void trimToSize()
+    {
+        if (mapped == null && days.length > size)
+        {
+            days = Arrays.copyOf(days, size);
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    private void append(int day, long value)
+    {
+        ensureCapacity(size + 1);
+        days[size] = day;
+        values[size] = value;
+        size++;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity <= days.length)
+            return;
+
+        int newCapacity = Math.max(capacity, days.length + (days.length >> 1) + 1);
+        days = Arrays.copyOf(days, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Read-only list view on a range of the series. An end of -1 denotes a
+     * view on the whole (growing) series.
+     */
+    private final class PriceList extends AbstractList<SecurityPrice> implements RandomAccess
+    {
+        private final int start;
+        private final int end;
+
+        private PriceList(int start, int end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public SecurityPrice get(int index)
+        {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size()); //$NON-NLS-1$ //$NON-NLS-2$
+            return SecurityPriceSeries.this.get(start + index);
+        }
+
+        @Override
+        public int size()
+        {
+            int to = end < 0 ? size : Math.min(end, size);
+            return Math.max(0, to - start);
+        }
+
+        @Override
+        public int indexOf(Object o)
+        {
+            // elements are plain security prices which are only equal to
+            // objects of the very same class
+            if (o == null || o.getClass() != SecurityPrice.class)
+                return -1;
+
+            SecurityPrice price = (SecurityPrice) o;
+            if (price.getTime() == null)
+                return -1;
+
+            int index = binarySearch(price.getTime()) - start;
+            if (index < 0 || index >= size() || values[start + index] != price.getValue())
+                return -1;
+
+            return index;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return indexOf(o) >= 0;
+        }
+    }
+}
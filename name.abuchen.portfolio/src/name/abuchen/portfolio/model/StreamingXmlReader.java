@@ -0,0 +1,1393 @@
+package name.abuchen.portfolio.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import name.abuchen.portfolio.Messages;
+import name.abuchen.portfolio.model.Classification.Assignment;
+import name.abuchen.portfolio.model.ConfigurationSet.Configuration;
+import name.abuchen.portfolio.model.Transaction.Unit;
+import name.abuchen.portfolio.money.Money;
+
+/**
+ * Reads the XML format of the current client version directly from the StAX
+ * event stream. Unlike XStream, the reader does not build an intermediate
+ * tree of the document: objects are created by their setters while the
+ * elements are read and historical prices are loaded into the
+ * {@link SecurityPriceSeries} without creating {@link SecurityPrice} objects.
+ * <p>
+ * XStream writes shared objects once and refers to them by relative paths
+ * (for example <code>reference="../../../securities/security[2]"</code>).
+ * The reader registers every object under the absolute path of its element
+ * and resolves the references on the fly. Files written by older versions
+ * contain legacy fields and must be read by XStream and upgraded by
+ * {@link ClientFactory}.
+ */
+@SuppressWarnings("nls")
+/* package */class StreamingXmlReader
+{
+    /**
+     * An element on the current path. The index counts the preceding siblings
+     * with the same name as used in XStream reference paths.
+     */
+    private static class Level
+    {
+        private final Level parent;
+        private final String name;
+        private final int index;
+
+        private String path;
+        private Map<String, int[]> children;
+
+        public Level(Level parent, String name, int index)
+        {
+            this.parent = parent;
+            this.name = name;
+            this.index = index;
+        }
+
+        public int nextIndex(String child)
+        {
+            if (children == null)
+                children = new HashMap<>();
+            int[] count = children.computeIfAbsent(child, k -> new int[1]);
+            return ++count[0];
+        }
+
+        public String segment()
+        {
+            return name + '[' + index + ']';
+        }
+
+        public String path()
+        {
+            if (path == null)
+                path = parent == null ? '/' + segment() : parent.path() + '/' + segment();
+            return path;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T>
+    {
+        T read() throws XMLStreamException;
+    }
+
+    private static final Map<String, Class<?>> CLASS_ALIASES = new HashMap<>();
+
+    static
+    {
+        CLASS_ALIASES.put("security", Security.class);
+        CLASS_ALIASES.put("account", Account.class);
+        CLASS_ALIASES.put("portfolio", Portfolio.class);
+        CLASS_ALIASES.put("string", String.class);
+        CLASS_ALIASES.put("long", Long.class);
+        CLASS_ALIASES.put("int", Integer.class);
+        CLASS_ALIASES.put("double", Double.class);
+        CLASS_ALIASES.put("boolean", Boolean.class);
+    }
+
+    private static final int PEEK_SIZE = 1024;
+    private static final Pattern VERSION = Pattern
+                    .compile("\\s*(<\\?xml[^>]*\\?>)?\\s*<client>\\s*<version>\\s*(\\d+)\\s*</version>");
+
+    private XMLStreamReader reader;
+    private Level level;
+    private final Map<String, Object> objects = new HashMap<>();
+
+    /**
+     * Returns the client version of the given XML document or -1 if the
+     * document does not start with a version element. The reader is reset to
+     * the beginning of the document.
+     */
+    public static int peekVersion(BufferedReader input) throws IOException
+    {
+        char[] buffer = new char[PEEK_SIZE];
+
+        input.mark(PEEK_SIZE);
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = input.read(buffer, length, buffer.length - length)) >= 0)
+            length += read;
+        input.reset();
+
+        Matcher matcher = VERSION.matcher(CharBuffer.wrap(buffer, 0, length));
+        return matcher.lookingAt() ? Integer.parseInt(matcher.group(2)) : -1;
+    }
+
+    public Client load(Reader input) throws IOException
+    {
+        try
+        {
+            reader = createFactory().createXMLStreamReader(input);
+            try
+            {
+                if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !"client".equals(reader.getLocalName()))
+                    throw unexpected();
+                level = new Level(null, "client", 1);
+
+                return readClient();
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        catch (XMLStreamException | RuntimeException e)
+        {
+            throw new IOException(MessageFormat.format(Messages.MsgXMLFormatInvalid, e.getMessage()), e);
+        }
+    }
+
+    private static XMLInputFactory createFactory()
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        return factory;
+    }
+
+    private Client readClient() throws XMLStreamException
+    {
+        Client client = new Client();
+        register(client);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "version":
+                    client.setVersion(Integer.parseInt(text()));
+                    break;
+                case "baseCurrency":
+                    client.setBaseCurrency(text());
+                    break;
+                case "securities":
+                    while (nextChild())
+                        client.addSecurity(object("security", this::readSecurity));
+                    break;
+                case "watchlists":
+                    while (nextChild())
+                        client.getWatchlists().add(object("watchlist", this::readWatchlist));
+                    break;
+                case "consumerPriceIndeces":
+                    while (nextChild())
+                        client.addConsumerPriceIndex(object("cpi", this::readConsumerPriceIndex));
+                    break;
+                case "accounts":
+                    while (nextChild())
+                        client.addAccount(object("account", this::readAccount));
+                    break;
+                case "portfolios":
+                    while (nextChild())
+                        client.addPortfolio(object("portfolio", this::readPortfolio));
+                    break;
+                case "plans":
+                    while (nextChild())
+                        client.addPlan(object("investment-plan", this::readPlan));
+                    break;
+                case "taxonomies":
+                    while (nextChild())
+                        client.addTaxonomy(object("taxonomy", this::readTaxonomy));
+                    break;
+                case "dashboards":
+                    while (nextChild())
+                        client.addDashboard(object("dashboard", this::readDashboard));
+                    break;
+                case "properties":
+                    readMap(client.getProperties());
+                    break;
+                case "settings":
+                    readSettings(client.getSettings());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return client;
+    }
+
+    private Security readSecurity() throws XMLStreamException
+    {
+        Security security = new Security();
+        security.setCurrencyCode(null);
+        register(security);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "uuid":
+                    security.setUUID(text());
+                    break;
+                case "name":
+                    security.setName(text());
+                    break;
+                case "currencyCode":
+                    security.setCurrencyCode(text());
+                    break;
+                case "note":
+                    security.setNote(text());
+                    break;
+                case "isin":
+                    security.setIsin(text());
+                    break;
+                case "tickerSymbol":
+                    security.setTickerSymbol(text());
+                    break;
+                case "wkn":
+                    security.setWkn(text());
+                    break;
+                case "feed":
+                    security.setFeed(text());
+                    break;
+                case "feedURL":
+                    security.setFeedURL(text());
+                    break;
+                case "prices":
+                    readPrices(security.getPriceSeries());
+                    break;
+                case "latestFeed":
+                    security.setLatestFeed(text());
+                    break;
+                case "latestFeedURL":
+                    security.setLatestFeedURL(text());
+                    break;
+                case "latest":
+                    security.setLatest(object(null, this::readLatest));
+                    break;
+                case "attributes":
+                    readAttributes(security.getAttributes());
+                    break;
+                case "events":
+                    while (nextChild())
+                        security.addEvent(object("event", this::readEvent));
+                    break;
+                case "isRetired":
+                    security.setRetired(Boolean.parseBoolean(text()));
+                    break;
+                case "type":
+                    security.setType(text());
+                    break;
+                case "industryClassification":
+                    security.setIndustryClassification(text());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return security;
+    }
+
+    /**
+     * Reads the price elements directly into the columnar price series.
+     * Prices are never referenced, hence they are not tracked on the path.
+     */
+    private void readPrices(SecurityPriceSeries series) throws XMLStreamException
+    {
+        int[] days = new int[256];
+        long[] values = new long[256];
+        int size = 0;
+        boolean isSorted = true;
+
+        while (true)
+        {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT)
+                break;
+            if (event != XMLStreamConstants.START_ELEMENT)
+                continue;
+            if (!"price".equals(reader.getLocalName()))
+                throw unexpected();
+
+            if (size == days.length)
+            {
+                days = Arrays.copyOf(days, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            days[size] = (int) LocalDate.parse(attribute("t")).toEpochDay();
+            values[size] = Long.parseLong(attribute("v"));
+            if (size > 0 && days[size] <= days[size - 1])
+                isSorted = false;
+            size++;
+
+            if (reader.nextTag() != XMLStreamConstants.END_ELEMENT)
+                throw unexpected();
+        }
+        level = level.parent;
+
+        if (isSorted)
+        {
+            series.setAll(Arrays.copyOf(days, size), Arrays.copyOf(values, size));
+        }
+        else
+        {
+            // same as the XStream converter: later prices replace earlier
+            // prices of the same date
+            List<SecurityPrice> prices = new ArrayList<>(size);
+            for (int ii = 0; ii < size; ii++)
+                prices.add(new SecurityPrice(LocalDate.ofEpochDay(days[ii]), values[ii]));
+            series.putAll(prices);
+            series.trimToSize();
+        }
+    }
+
+    private LatestSecurityPrice readLatest() throws XMLStreamException
+    {
+        LatestSecurityPrice latest = new LatestSecurityPrice();
+        register(latest);
+
+        String time = reader.getAttributeValue(null, "t");
+        if (time != null)
+            latest.setTime(LocalDate.parse(time));
+        String value = reader.getAttributeValue(null, "v");
+        if (value != null)
+            latest.setValue(Long.parseLong(value));
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "high":
+                    latest.setHigh(Long.parseLong(text()));
+                    break;
+                case "low":
+                    latest.setLow(Long.parseLong(text()));
+                    break;
+                case "volume":
+                    latest.setVolume(Integer.parseInt(text()));
+                    break;
+                case "previousClose":
+                    latest.setPreviousClose(Long.parseLong(text()));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return latest;
+    }
+
+    private void readAttributes(Attributes attributes) throws XMLStreamException
+    {
+        while (nextChild())
+        {
+            if (!"map".equals(name()))
+                throw unexpected();
+
+            while (nextChild())
+            {
+                if (!"entry".equals(name()))
+                    throw unexpected();
+
+                if (!nextChild())
+                    throw unexpected();
+                String key = object("string", this::text);
+
+                Object value = null;
+                if (nextChild())
+                {
+                    value = readValue();
+                    if (nextChild())
+                        throw unexpected();
+                }
+
+                attributes.getMap().put(key, value);
+            }
+        }
+    }
+
+    private Object readValue() throws XMLStreamException
+    {
+        switch (name())
+        {
+            case "null":
+                skip();
+                return null;
+            case "string":
+                return text();
+            case "long":
+                return Long.parseLong(text());
+            case "int":
+                return Integer.parseInt(text());
+            case "double":
+                return Double.parseDouble(text());
+            case "boolean":
+                return Boolean.parseBoolean(text());
+            case "java.time.LocalDate":
+                return readDate();
+            default:
+                throw unexpected();
+        }
+    }
+
+    private SecurityEvent readEvent() throws XMLStreamException
+    {
+        String path = level.path();
+
+        LocalDate date = null;
+        SecurityEvent.Type type = null;
+        String details = null;
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "date":
+                    date = readDate();
+                    break;
+                case "type":
+                    type = SecurityEvent.Type.valueOf(text());
+                    break;
+                case "details":
+                    details = text();
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        SecurityEvent event = new SecurityEvent(date, type, details);
+        objects.put(path, event);
+        return event;
+    }
+
+    private Watchlist readWatchlist() throws XMLStreamException
+    {
+        Watchlist watchlist = new Watchlist();
+        register(watchlist);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "name":
+                    watchlist.setName(text());
+                    break;
+                case "securities":
+                    while (nextChild())
+                        watchlist.getSecurities().add(object("security", this::readSecurity));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return watchlist;
+    }
+
+    private ConsumerPriceIndex readConsumerPriceIndex() throws XMLStreamException
+    {
+        ConsumerPriceIndex index = new ConsumerPriceIndex();
+        register(index);
+
+        index.setYear(Integer.parseInt(attribute("y")));
+        index.setMonth(Integer.parseInt(attribute("m")));
+        index.setIndex(Integer.parseInt(attribute("i")));
+        skip();
+
+        return index;
+    }
+
+    private Account readAccount() throws XMLStreamException
+    {
+        Account account = new Account();
+        account.setUUID(null);
+        account.setCurrencyCode(null);
+        register(account);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "uuid":
+                    account.setUUID(text());
+                    break;
+                case "name":
+                    account.setName(text());
+                    break;
+                case "currencyCode":
+                    account.setCurrencyCode(text());
+                    break;
+                case "note":
+                    account.setNote(text());
+                    break;
+                case "isRetired":
+                    account.setRetired(Boolean.parseBoolean(text()));
+                    break;
+                case "transactions":
+                    while (nextChild())
+                        account.getTransactions().add(object("account-transaction", this::readAccountTransaction));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return account;
+    }
+
+    private Portfolio readPortfolio() throws XMLStreamException
+    {
+        Portfolio portfolio = new Portfolio();
+        portfolio.setUUID(null);
+        register(portfolio);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "uuid":
+                    portfolio.setUUID(text());
+                    break;
+                case "name":
+                    portfolio.setName(text());
+                    break;
+                case "note":
+                    portfolio.setNote(text());
+                    break;
+                case "isRetired":
+                    portfolio.setRetired(Boolean.parseBoolean(text()));
+                    break;
+                case "referenceAccount":
+                    portfolio.setReferenceAccount(object(null, this::readAccount));
+                    break;
+                case "transactions":
+                    while (nextChild())
+                        portfolio.getTransactions()
+                                        .add(object("portfolio-transaction", this::readPortfolioTransaction));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return portfolio;
+    }
+
+    private AccountTransaction readAccountTransaction() throws XMLStreamException
+    {
+        AccountTransaction transaction = new AccountTransaction();
+        register(transaction);
+
+        while (nextChild())
+        {
+            if ("type".equals(name()))
+                transaction.setType(AccountTransaction.Type.valueOf(text()));
+            else
+                readTransactionField(transaction);
+        }
+
+        return transaction;
+    }
+
+    private PortfolioTransaction readPortfolioTransaction() throws XMLStreamException
+    {
+        PortfolioTransaction transaction = new PortfolioTransaction();
+        register(transaction);
+
+        while (nextChild())
+        {
+            if ("type".equals(name()))
+                transaction.setType(PortfolioTransaction.Type.valueOf(text()));
+            else
+                readTransactionField(transaction);
+        }
+
+        return transaction;
+    }
+
+    private void readTransactionField(Transaction transaction) throws XMLStreamException
+    {
+        switch (name())
+        {
+            case "date":
+                transaction.setDate(readDate());
+                break;
+            case "currencyCode":
+                transaction.setCurrencyCode(text());
+                break;
+            case "amount":
+                transaction.setAmount(Long.parseLong(text()));
+                break;
+            case "security":
+                transaction.setSecurity(object(null, this::readSecurity));
+                break;
+            case "crossEntry":
+                transaction.setCrossEntry(object(null, this::readCrossEntry));
+                break;
+            case "shares":
+                transaction.setShares(Long.parseLong(text()));
+                break;
+            case "note":
+                transaction.setNote(text());
+                break;
+            case "units":
+                while (nextChild())
+                    transaction.addUnit(object("unit", this::readUnit));
+                break;
+            default:
+                throw unexpected();
+        }
+    }
+
+    private CrossEntry readCrossEntry() throws XMLStreamException
+    {
+        String type = attribute("class");
+        switch (type)
+        {
+            case "buysell":
+                return readBuySellEntry();
+            case "account-transfer":
+                return readAccountTransferEntry();
+            case "portfolio-transfer":
+                return readPortfolioTransferEntry();
+            default:
+                throw unexpected();
+        }
+    }
+
+    private BuySellEntry readBuySellEntry() throws XMLStreamException
+    {
+        BuySellEntry entry = new BuySellEntry();
+        register(entry);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "portfolio":
+                    entry.setPortfolio(object(null, this::readPortfolio));
+                    break;
+                case "portfolioTransaction":
+                    entry.setPortfolioTransaction(object(null, this::readPortfolioTransaction));
+                    break;
+                case "account":
+                    entry.setAccount(object(null, this::readAccount));
+                    break;
+                case "accountTransaction":
+                    entry.setAccountTransaction(object(null, this::readAccountTransaction));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return entry;
+    }
+
+    private AccountTransferEntry readAccountTransferEntry() throws XMLStreamException
+    {
+        AccountTransferEntry entry = new AccountTransferEntry();
+        register(entry);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "accountFrom":
+                    entry.setSourceAccount(object(null, this::readAccount));
+                    break;
+                case "transactionFrom":
+                    entry.setSourceTransaction(object(null, this::readAccountTransaction));
+                    break;
+                case "accountTo":
+                    entry.setTargetAccount(object(null, this::readAccount));
+                    break;
+                case "transactionTo":
+                    entry.setTargetTransaction(object(null, this::readAccountTransaction));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return entry;
+    }
+
+    private PortfolioTransferEntry readPortfolioTransferEntry() throws XMLStreamException
+    {
+        PortfolioTransferEntry entry = new PortfolioTransferEntry();
+        register(entry);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "portfolioFrom":
+                    entry.setSourcePortfolio(object(null, this::readPortfolio));
+                    break;
+                case "transactionFrom":
+                    entry.setSourceTransaction(object(null, this::readPortfolioTransaction));
+                    break;
+                case "portfolioTo":
+                    entry.setTargetPortfolio(object(null, this::readPortfolio));
+                    break;
+                case "transactionTo":
+                    entry.setTargetTransaction(object(null, this::readPortfolioTransaction));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return entry;
+    }
+
+    private Unit readUnit() throws XMLStreamException
+    {
+        String path = level.path();
+
+        Unit.Type type = Unit.Type.valueOf(attribute("type"));
+        Money amount = null;
+        Money forex = null;
+        BigDecimal exchangeRate = null;
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "amount":
+                    amount = object(null, this::readMoney);
+                    break;
+                case "forex":
+                    forex = object(null, this::readMoney);
+                    break;
+                case "exchangeRate":
+                    exchangeRate = new BigDecimal(text());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        Unit unit = forex == null ? new Unit(type, amount) : new Unit(type, amount, forex, exchangeRate);
+        objects.put(path, unit);
+        return unit;
+    }
+
+    private Money readMoney() throws XMLStreamException
+    {
+        Money money = Money.of(attribute("currency"), Long.parseLong(attribute("amount")));
+        register(money);
+        skip();
+        return money;
+    }
+
+    private InvestmentPlan readPlan() throws XMLStreamException
+    {
+        InvestmentPlan plan = new InvestmentPlan();
+        register(plan);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "name":
+                    plan.setName(text());
+                    break;
+                case "note":
+                    plan.setNote(text());
+                    break;
+                case "security":
+                    plan.setSecurity(object(null, this::readSecurity));
+                    break;
+                case "portfolio":
+                    plan.setPortfolio(object(null, this::readPortfolio));
+                    break;
+                case "account":
+                    plan.setAccount(object(null, this::readAccount));
+                    break;
+                case "start":
+                    plan.setStart(readDate());
+                    break;
+                case "interval":
+                    plan.setInterval(Integer.parseInt(text()));
+                    break;
+                case "amount":
+                    plan.setAmount(Long.parseLong(text()));
+                    break;
+                case "fees":
+                    plan.setFees(Long.parseLong(text()));
+                    break;
+                case "transactions":
+                    while (nextChild())
+                        plan.getTransactions().add(object("portfolio-transaction", this::readPortfolioTransaction));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return plan;
+    }
+
+    private Taxonomy readTaxonomy() throws XMLStreamException
+    {
+        Taxonomy taxonomy = new Taxonomy();
+        register(taxonomy);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "id":
+                    taxonomy.setId(text());
+                    break;
+                case "name":
+                    taxonomy.setName(text());
+                    break;
+                case "dimensions":
+                    taxonomy.setDimensions(readStrings());
+                    break;
+                case "root":
+                    taxonomy.setRootNode(object(null, this::readClassification));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return taxonomy;
+    }
+
+    /**
+     * Reads a list of strings. Lists created by Arrays#asList are wrapped
+     * into an additional string array element.
+     */
+    private List<String> readStrings() throws XMLStreamException
+    {
+        List<String> strings = new ArrayList<>();
+        while (nextChild())
+        {
+            if ("a".equals(name()))
+            {
+                while (nextChild())
+                    strings.add(object("string", this::text));
+            }
+            else
+            {
+                strings.add(object("string", this::text));
+            }
+        }
+        return strings;
+    }
+
+    private Classification readClassification() throws XMLStreamException
+    {
+        Classification classification = new Classification();
+        register(classification);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "id":
+                    classification.setId(text());
+                    break;
+                case "name":
+                    classification.setName(text());
+                    break;
+                case "description":
+                    classification.setNote(text());
+                    break;
+                case "color":
+                    classification.setColor(text());
+                    break;
+                case "parent":
+                    classification.setParent(object(null, this::readClassification));
+                    break;
+                case "children":
+                    while (nextChild())
+                        classification.addChild(object("classification", this::readClassification));
+                    break;
+                case "assignments":
+                    while (nextChild())
+                        classification.addAssignment(object("assignment", this::readAssignment));
+                    break;
+                case "weight":
+                    classification.setWeight(Integer.parseInt(text()));
+                    break;
+                case "rank":
+                    classification.setRank(Integer.parseInt(text()));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return classification;
+    }
+
+    private Assignment readAssignment() throws XMLStreamException
+    {
+        String path = level.path();
+
+        InvestmentVehicle vehicle = null;
+        int weight = 0;
+        int rank = 0;
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "investmentVehicle":
+                    String type = attribute("class");
+                    if ("security".equals(type))
+                        vehicle = object(null, this::readSecurity);
+                    else if ("account".equals(type))
+                        vehicle = object(null, this::readAccount);
+                    else
+                        throw unexpected();
+                    break;
+                case "weight":
+                    weight = Integer.parseInt(text());
+                    break;
+                case "rank":
+                    rank = Integer.parseInt(text());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        Assignment assignment = new Assignment(vehicle, weight);
+        assignment.setRank(rank);
+        objects.put(path, assignment);
+        return assignment;
+    }
+
+    private Dashboard readDashboard() throws XMLStreamException
+    {
+        Dashboard dashboard = new Dashboard();
+        register(dashboard);
+
+        dashboard.setName(reader.getAttributeValue(null, "name"));
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "configuration":
+                    readMap(dashboard.getConfiguration());
+                    break;
+                case "columns":
+                    while (nextChild())
+                        dashboard.getColumns().add(object("column", this::readColumn));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return dashboard;
+    }
+
+    private Dashboard.Column readColumn() throws XMLStreamException
+    {
+        Dashboard.Column column = new Dashboard.Column();
+        register(column);
+
+        while (nextChild())
+        {
+            if (!"widgets".equals(name()))
+                throw unexpected();
+
+            while (nextChild())
+                column.getWidgets().add(object("widget", this::readWidget));
+        }
+
+        return column;
+    }
+
+    private Dashboard.Widget readWidget() throws XMLStreamException
+    {
+        Dashboard.Widget widget = new Dashboard.Widget();
+        register(widget);
+
+        widget.setType(reader.getAttributeValue(null, "type"));
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "label":
+                    widget.setLabel(text());
+                    break;
+                case "configuration":
+                    readMap(widget.getConfiguration());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return widget;
+    }
+
+    private void readSettings(ClientSettings settings) throws XMLStreamException
+    {
+        register(settings);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "bookmarks":
+                    // replace the defaults created by the constructor
+                    settings.getBookmarks().clear();
+                    while (nextChild())
+                        settings.getBookmarks().add(object("bookmark", this::readBookmark));
+                    break;
+                case "attributeTypes":
+                    settings.getAttributeTypes().collect(Collectors.toList()).forEach(settings::removeAttributeType);
+                    while (nextChild())
+                        settings.addAttributeType(object("attribute-type", this::readAttributeType));
+                    break;
+                case "configurationSets":
+                    while (nextChild())
+                    {
+                        if (!"entry".equals(name()) || !nextChild())
+                            throw unexpected();
+                        String key = object("string", this::text);
+                        if (!nextChild())
+                            throw unexpected();
+                        readConfigurationSet(settings.getConfigurationSet(key));
+                        if (nextChild())
+                            throw unexpected();
+                    }
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+    }
+
+    private Bookmark readBookmark() throws XMLStreamException
+    {
+        String path = level.path();
+
+        String label = null;
+        String pattern = null;
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "label":
+                    label = text();
+                    break;
+                case "pattern":
+                    pattern = text();
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        Bookmark bookmark = new Bookmark(label, pattern);
+        objects.put(path, bookmark);
+        return bookmark;
+    }
+
+    private AttributeType readAttributeType() throws XMLStreamException
+    {
+        String path = level.path();
+
+        if (!nextChild() || !"id".equals(name()))
+            throw unexpected();
+
+        AttributeType type = new AttributeType(text());
+        objects.put(path, type);
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "name":
+                    type.setName(text());
+                    break;
+                case "columnLabel":
+                    type.setColumnLabel(text());
+                    break;
+                case "target":
+                    type.setTarget(readClass().asSubclass(Attributable.class));
+                    break;
+                case "type":
+                    type.setType(readClass());
+                    break;
+                case "converterClass":
+                    type.setConverterClass(text());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return type;
+    }
+
+    private Class<?> readClass() throws XMLStreamException
+    {
+        String name = text();
+
+        Class<?> type = CLASS_ALIASES.get(name);
+        if (type != null)
+            return type;
+
+        try
+        {
+            return Class.forName(name, false, StreamingXmlReader.class.getClassLoader());
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new XMLStreamException(e.getMessage(), reader.getLocation(), e);
+        }
+    }
+
+    private void readConfigurationSet(ConfigurationSet set) throws XMLStreamException
+    {
+        if (!"config-set".equals(name()))
+            throw unexpected();
+        register(set);
+
+        while (nextChild())
+        {
+            if (!"configurations".equals(name()))
+                throw unexpected();
+
+            while (nextChild())
+                set.add(object("config", this::readConfiguration));
+        }
+    }
+
+    private Configuration readConfiguration() throws XMLStreamException
+    {
+        String path = level.path();
+
+        String uuid = null;
+        String name = null;
+        String data = null;
+
+        while (nextChild())
+        {
+            switch (name())
+            {
+                case "uuid":
+                    uuid = text();
+                    break;
+                case "name":
+                    name = text();
+                    break;
+                case "data":
+                    data = text();
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        Configuration configuration = new Configuration(uuid, name, data);
+        objects.put(path, configuration);
+        return configuration;
+    }
+
+    /**
+     * Reads a map of strings written as entry elements with key and value.
+     */
+    private void readMap(Map<String, String> map) throws XMLStreamException
+    {
+        while (nextChild())
+        {
+            if (!"entry".equals(name()) || !nextChild())
+                throw unexpected();
+            String key = object("string", this::text);
+
+            String value = null;
+            if (nextChild())
+            {
+                value = object("string", this::text);
+                if (nextChild())
+                    throw unexpected();
+            }
+
+            map.put(key, value);
+        }
+    }
+
+    private LocalDate readDate() throws XMLStreamException
+    {
+        String reference = reader.getAttributeValue(null, "reference");
+        if (reference != null)
+            return resolve(reference, LocalDate.class);
+
+        String path = level.path();
+        try
+        {
+            LocalDate date = LocalDate.parse(text());
+            objects.put(path, date);
+            return date;
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new XMLStreamException(e.getMessage(), reader.getLocation(), e);
+        }
+    }
+
+    /**
+     * Reads the object of the current element: either a reference to an
+     * object read before, a null element, or the object itself. If the
+     * element name is given, the current element must match it.
+     */
+    private <T> T object(String element, ElementReader<T> elementReader) throws XMLStreamException
+    {
+        if ("null".equals(name()))
+        {
+            skip();
+            return null;
+        }
+
+        if (element != null && !element.equals(name()))
+            throw unexpected();
+
+        String reference = reader.getAttributeValue(null, "reference");
+        if (reference == null)
+            return elementReader.read();
+
+        @SuppressWarnings("unchecked")
+        T object = (T) resolve(reference, Object.class);
+        return object;
+    }
+
+    /**
+     * Resolves the reference path relative to the current element and skips
+     * the (empty) element.
+     */
+    private <T> T resolve(String reference, Class<T> type) throws XMLStreamException
+    {
+        List<String> segments = new ArrayList<>();
+        for (Level l = level; l != null; l = l.parent)
+            segments.add(0, l.segment());
+
+        for (String token : reference.split("/"))
+        {
+            if ("..".equals(token))
+            {
+                if (segments.isEmpty())
+                    throw unresolved(reference);
+                segments.remove(segments.size() - 1);
+            }
+            else if (!token.isEmpty() && !".".equals(token))
+            {
+                segments.add(token.endsWith("]") ? token : token + "[1]");
+            }
+        }
+
+        Object object = objects.get('/' + String.join("/", segments));
+        if (!type.isInstance(object))
+            throw unresolved(reference);
+
+        skip();
+        return type.cast(object);
+    }
+
+    private void register(Object object)
+    {
+        objects.put(level.path(), object);
+    }
+
+    /**
+     * Moves to the next child element of the current element. Returns false
+     * if the end of the current element is reached.
+     */
+    private boolean nextChild() throws XMLStreamException
+    {
+        while (true)
+        {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT)
+            {
+                String name = reader.getLocalName();
+                level = new Level(level, name, level.nextIndex(name));
+                return true;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT)
+            {
+                level = level.parent;
+                return false;
+            }
+            else if (event == XMLStreamConstants.END_DOCUMENT)
+            {
+                throw unexpected();
+            }
+        }
+    }
+
+    private String name()
+    {
+        return level.name;
+    }
+
+    private String attribute(String name) throws XMLStreamException
+    {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null)
+            throw new XMLStreamException("missing attribute '" + name + "' of " + level.path(), reader.getLocation());
+        return value;
+    }
+
+    /**
+     * Returns the text of the current element and moves to its end.
+     */
+    private String text() throws XMLStreamException
+    {
+        String text = reader.getElementText();
+        level = level.parent;
+        return text;
+    }
+
+    /**
+     * Moves to the end of the current element which must not have children.
+     */
+    private void skip() throws XMLStreamException
+    {
+        if (nextChild())
+            throw unexpected();
+    }
+
+    private XMLStreamException unexpected()
+    {
+        String element = level != null ? level.path() : reader.getLocalName();
+        return new XMLStreamException("unexpected element " + element, reader.getLocation());
+    }
+
+    private XMLStreamException unresolved(String reference)
+    {
+        return new XMLStreamException("unresolved reference " + reference + " at " + level.path(),
+                        reader.getLocation());
+    }
+}
@@ -8,6 +8,50 @@ public interface CurrencyConverter
 
     Money convert(LocalDate date, Money amount);
 
+    /**
+     * Converts the amount given in the currency into the term currency without
+     * creating intermediate {@link Money} objects (if supported by the
+     * implementation).
+     */
+    default long convert(LocalDate date, String currencyCode, long amount)
+    {
+        return convert(date, Money.of(currencyCode, amount)).getAmount();
+    }
+
+    /**
+     * Converts the amounts given in the currency into the term currency. The
+     * amount at position i is converted with the exchange rate of the epoch
+     * day at position i. The result is written into target which can be the
+     * amounts array itself.
+     */
+    default void convert(long[] epochDays, String currencyCode, long[] amounts, long[] target)
+    {
+        if (epochDays.length != amounts.length || target.length < amounts.length)
+            throw new IllegalArgumentException();
+
+        for (int ii = 0; ii < amounts.length; ii++)
+            target[ii] = convert(LocalDate.ofEpochDay(epochDays[ii]), currencyCode, amounts[ii]);
+    }
+
+    /**
+     * Converts the amounts of consecutive days given in the currency into the
+     * term currency. The amount at position i is converted with the exchange
+     * rate of the given date plus i days. The result is written into target
+     * which can be the amounts array itself.
+     */
+    default void convert(LocalDate from, String currencyCode, long[] amounts, long[] target)
+    {
+        if (target.length < amounts.length)
+            throw new IllegalArgumentException();
+
+        LocalDate date = from;
+        for (int ii = 0; ii < amounts.length; ii++)
+        {
+            target[ii] = convert(date, currencyCode, amounts[ii]);
+            date = date.plusDays(1);
+        }
+    }
+
     default MonetaryOperator at(LocalDate date)
     {
         return m -> convert(date, m);
@@ -19,4 +63,14 @@ public interface CurrencyConverter
      * Returns a CurrencyConverter with the provided term currency
      */
     CurrencyConverter with(String currencyCode);
+
+    /**
+     * Returns a CurrencyConverter which is optimized for many conversions
+     * between the given dates, for example by pre-calculating the exchange
+     * rates for every day. By default, the converter itself is returned.
+     */
+    default CurrencyConverter materialize(LocalDate from, LocalDate to)
+    {
+        return this;
+    }
 }
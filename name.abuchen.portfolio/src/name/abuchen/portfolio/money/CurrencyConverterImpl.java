@@ -3,23 +3,71 @@ package name.abuchen.portfolio.money;
 import java.math.BigDecimal;
 import java.text.MessageFormat;
 import java.time.LocalDate;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import name.abuchen.portfolio.Messages;
 
 public class CurrencyConverterImpl implements CurrencyConverter
 {
+    /**
+     * Materialized exchange rates by currency pair. The tables are discarded
+     * as soon as the version of the exchange rates changes, i.e. if a
+     * provider has loaded or updated its rates. In order to bound the memory,
+     * all tables are discarded if the maximum number of tables is reached.
+     */
+    private static final class MaterializedTables
+    {
+        private static final int MAX_TABLES = 64;
+
+        private final long version;
+        private final Map<String, MaterializedExchangeRates> tables = new ConcurrentHashMap<>();
+
+        private MaterializedTables(long version)
+        {
+            this.version = version;
+        }
+    }
+
     private final ExchangeRateProviderFactory factory;
     private final String termCurrency;
 
-    private final Map<String, ExchangeRateTimeSeries> cache = new HashMap<>();
+    private final Map<String, ExchangeRateTimeSeries> cache = new ConcurrentHashMap<>();
+    private volatile long cacheVersion;
+
+    /**
+     * The materialized exchange rates shared by all converters created via
+     * {@link #with} and {@link #materialize} so that the converters reuse the
+     * tables. Like the time series cache, the tables are safe for concurrent
+     * use.
+     */
+    private final AtomicReference<MaterializedTables> materialized;
+
+    /**
+     * The interval for which the exchange rates are materialized. If null, the
+     * converter looks up the rates in the time series.
+     */
+    private final LocalDate materializedFrom;
+    private final LocalDate materializedTo;
 
     public CurrencyConverterImpl(ExchangeRateProviderFactory factory, String termCurrency)
+    {
+        this(factory, termCurrency, new AtomicReference<>(new MaterializedTables(factory.getVersion())), null,
+                        null);
+    }
+
+    private CurrencyConverterImpl(ExchangeRateProviderFactory factory, String termCurrency,
+                    AtomicReference<MaterializedTables> materialized, LocalDate materializedFrom,
+                    LocalDate materializedTo)
     {
         this.factory = factory;
         this.termCurrency = termCurrency;
+        this.cacheVersion = factory.getVersion();
+        this.materialized = materialized;
+        this.materializedFrom = materializedFrom;
+        this.materializedTo = materializedTo;
     }
 
     @Override
@@ -34,12 +82,144 @@ public class CurrencyConverterImpl implements CurrencyConverter
         if (termCurrency.equals(amount.getCurrencyCode()))
             return amount;
 
-        if (amount.isZero())
-            return Money.of(termCurrency, 0);
+        return Money.of(termCurrency, convert(date, amount.getCurrencyCode(), amount.getAmount()));
+    }
+
+    @Override
+    public long convert(LocalDate date, String currencyCode, long amount)
+    {
+        if (termCurrency.equals(currencyCode) || amount == 0)
+            return amount;
+
+        if (materializedFrom != null)
+        {
+            long day = date.toEpochDay();
+            MaterializedExchangeRates rates = getMaterializedRates(currencyCode, day, day);
+            if (rates != null)
+                return Math.round(rates.getRate(day) * amount);
+        }
+
+        ExchangeRate rate = getRate(date, currencyCode);
+        BigDecimal converted = rate.getValue().multiply(BigDecimal.valueOf(amount));
+        return Math.round(converted.doubleValue());
+    }
+
+    /**
+     * Converts all amounts with the materialized exchange rates of the days,
+     * i.e. with one array lookup and one multiplication per amount.
+     */
+    @Override
+    public void convert(long[] epochDays, String currencyCode, long[] amounts, long[] target)
+    {
+        if (epochDays.length != amounts.length || target.length < amounts.length)
+            throw new IllegalArgumentException();
+
+        if (amounts.length == 0)
+            return;
+
+        if (termCurrency.equals(currencyCode))
+        {
+            System.arraycopy(amounts, 0, target, 0, amounts.length);
+            return;
+        }
+
+        long first = epochDays[0];
+        long last = epochDays[0];
+        for (long day : epochDays)
+        {
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
 
-        ExchangeRate rate = getRate(date, amount.getCurrencyCode());
-        BigDecimal converted = rate.getValue().multiply(BigDecimal.valueOf(amount.getAmount()));
-        return Money.of(termCurrency, Math.round(converted.doubleValue()));
+        MaterializedExchangeRates rates = ((CurrencyConverterImpl) materialize(LocalDate.ofEpochDay(first),
+                        LocalDate.ofEpochDay(last))).getMaterializedRates(currencyCode, first, last);
+        if (rates == null)
+        {
+            CurrencyConverter.super.convert(epochDays, currencyCode, amounts, target);
+            return;
+        }
+
+        for (int ii = 0; ii < amounts.length; ii++)
+            target[ii] = amounts[ii] == 0 ? 0 : Math.round(rates.getRate(epochDays[ii]) * amounts[ii]);
+    }
+
+    /**
+     * Converts all amounts with the materialized exchange rates of the days,
+     * i.e. with one array lookup and one multiplication per amount.
+     */
+    @Override
+    public void convert(LocalDate from, String currencyCode, long[] amounts, long[] target)
+    {
+        if (target.length < amounts.length)
+            throw new IllegalArgumentException();
+
+        if (amounts.length == 0)
+            return;
+
+        if (termCurrency.equals(currencyCode))
+        {
+            System.arraycopy(amounts, 0, target, 0, amounts.length);
+            return;
+        }
+
+        long first = from.toEpochDay();
+        long last = first + amounts.length - 1;
+        MaterializedExchangeRates rates = ((CurrencyConverterImpl) materialize(from, LocalDate.ofEpochDay(last)))
+                        .getMaterializedRates(currencyCode, first, last);
+        if (rates == null)
+        {
+            CurrencyConverter.super.convert(from, currencyCode, amounts, target);
+            return;
+        }
+
+        for (int ii = 0; ii < amounts.length; ii++)
+            target[ii] = amounts[ii] == 0 ? 0 : Math.round(rates.getRate(first + ii) * amounts[ii]);
+    }
+
+    /**
+     * Returns the materialized exchange rates covering the given days (both
+     * inclusive) or null if the days are outside the materialized interval.
+     */
+    private MaterializedExchangeRates getMaterializedRates(String currencyCode, long first, long last)
+    {
+        long version = factory.getVersion();
+
+        MaterializedTables tables = materialized.get();
+        if (tables.version != version)
+        {
+            MaterializedTables current = new MaterializedTables(version);
+            tables = materialized.compareAndSet(tables, current) ? current : materialized.get();
+        }
+
+        String key = currencyCode + '/' + termCurrency;
+        MaterializedExchangeRates rates = tables.tables.get(key);
+
+        if (rates != null && rates.isCovered(first) && rates.isCovered(last))
+            return rates;
+
+        if (first < materializedFrom.toEpochDay() || last > materializedTo.toEpochDay())
+            return null;
+
+        // (re-)build the table covering the interval of this converter and
+        // the interval of previously materialized rates
+        LocalDate from = materializedFrom;
+        LocalDate to = materializedTo;
+        if (rates != null)
+        {
+            if (rates.getFirstDate().isBefore(from))
+                from = rates.getFirstDate();
+            if (rates.getLastDate().isAfter(to))
+                to = rates.getLastDate();
+        }
+
+        rates = MaterializedExchangeRates.of(getSeries(currencyCode), from, to);
+        if (rates == null)
+            return null;
+
+        if (tables.tables.size() >= MaterializedTables.MAX_TABLES)
+            tables.tables.clear();
+        tables.tables.put(key, rates);
+        return rates;
     }
 
     @Override
@@ -48,7 +228,7 @@ public class CurrencyConverterImpl implements CurrencyConverter
         if (termCurrency.equals(currencyCode))
             return new ExchangeRate(date, BigDecimal.ONE);
 
-        ExchangeRateTimeSeries series = cache.computeIfAbsent(currencyCode, this::lookupSeries);
+        ExchangeRateTimeSeries series = getSeries(currencyCode);
 
         Optional<ExchangeRate> rate = series.lookupRate(date);
         if (!rate.isPresent())
@@ -58,6 +238,20 @@ public class CurrencyConverterImpl implements CurrencyConverter
         return rate.get();
     }
 
+    private ExchangeRateTimeSeries getSeries(String currencyCode)
+    {
+        // the providers replace the time series when loading or updating the
+        // exchange rates
+        long version = factory.getVersion();
+        if (cacheVersion != version)
+        {
+            cache.clear();
+            cacheVersion = version;
+        }
+
+        return cache.computeIfAbsent(currencyCode, this::lookupSeries);
+    }
+
     private ExchangeRateTimeSeries lookupSeries(String currencyCode) // NOSONAR
     {
         ExchangeRateTimeSeries series = factory.getTimeSeries(currencyCode, termCurrency);
@@ -74,6 +268,26 @@ public class CurrencyConverterImpl implements CurrencyConverter
         if (currencyCode.equals(termCurrency))
             return this;
 
-        return new CurrencyConverterImpl(factory, currencyCode);
+        return new CurrencyConverterImpl(factory, currencyCode, materialized, materializedFrom, materializedTo);
+    }
+
+    /**
+     * Returns a converter which expands the exchange rates of every currency
+     * pair used into a dense array with one rate per day between the given
+     * dates. Conversions within the interval are an array lookup and a
+     * multiplication with a double value. Because the rate is not multiplied
+     * as a BigDecimal, the converted amount can in rare cases differ by one
+     * unit in the last place.
+     * <p>
+     * The tables are shared with all converters derived from the same
+     * converter and are rebuilt if the exchange rates change.
+     */
+    @Override
+    public CurrencyConverter materialize(LocalDate from, LocalDate to)
+    {
+        if (materializedFrom != null && !from.isBefore(materializedFrom) && !to.isAfter(materializedTo))
+            return this;
+
+        return new CurrencyConverterImpl(factory, termCurrency, materialized, from, to);
     }
 }
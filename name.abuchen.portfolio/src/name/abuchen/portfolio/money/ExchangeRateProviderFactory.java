@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.imageio.spi.ServiceRegistry;
 import javax.inject.Singleton;
@@ -16,6 +17,12 @@ public class ExchangeRateProviderFactory
 {
     private final List<ExchangeRateProvider> providers;
 
+    /**
+     * Incremented whenever a provider has loaded or updated its exchange
+     * rates.
+     */
+    private final AtomicLong version = new AtomicLong();
+
     public ExchangeRateProviderFactory()
     {
         providers = new ArrayList<ExchangeRateProvider>();
@@ -33,6 +40,25 @@ public class ExchangeRateProviderFactory
         return Collections.unmodifiableList(providers);
     }
 
+    /**
+     * Returns the version of the exchange rates. The version changes whenever
+     * a provider has loaded or updated its exchange rates, i.e. exchange rates
+     * cached by converters must not be used anymore.
+     */
+    public long getVersion()
+    {
+        return version.get();
+    }
+
+    /**
+     * Notifies the factory that a provider has loaded or updated its
+     * exchange rates.
+     */
+    public void ratesChanged()
+    {
+        version.incrementAndGet();
+    }
+
     public List<ExchangeRateTimeSeries> getAvailableTimeSeries()
     {
         List<ExchangeRateTimeSeries> series = new ArrayList<ExchangeRateTimeSeries>();
@@ -0,0 +1,70 @@
+package name.abuchen.portfolio.money;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Exchange rates of one currency pair expanded into a dense array with one
+ * rate per day. Looking up a rate is an array access instead of a binary
+ * search over the time series.
+ */
+/* package */final class MaterializedExchangeRates
+{
+    private final long firstDay;
+    private final double[] rates;
+
+    private MaterializedExchangeRates(long firstDay, double[] rates)
+    {
+        this.firstDay = firstDay;
+        this.rates = rates;
+    }
+
+    /**
+     * Expands the time series for the given interval (both inclusive). Returns
+     * null if the time series has no rates at all.
+     */
+    /* package */static MaterializedExchangeRates of(ExchangeRateTimeSeries series, LocalDate from, LocalDate to)
+    {
+        long firstDay = from.toEpochDay();
+        int size = (int) (to.toEpochDay() - firstDay) + 1;
+
+        double[] rates = new double[Math.max(0, size)];
+
+        LocalDate date = from;
+        for (int ii = 0; ii < rates.length; ii++)
+        {
+            Optional<ExchangeRate> rate = series.lookupRate(date);
+            if (!rate.isPresent())
+                return null;
+
+            rates[ii] = rate.get().getValue().doubleValue();
+            date = date.plusDays(1);
+        }
+
+        return new MaterializedExchangeRates(firstDay, rates);
+    }
+
+    /* package */LocalDate getFirstDate()
+    {
+        return LocalDate.ofEpochDay(firstDay);
+    }
+
+    /* package */LocalDate getLastDate()
+    {
+        return LocalDate.ofEpochDay(firstDay + rates.length - 1);
+    }
+
+    /* package */boolean isCovered(long day)
+    {
+        return day >= firstDay && day < firstDay + rates.length;
+    }
+
+    /**
+     * Returns the rate at the given epoch day which must be
+     * {@link #isCovered(long) covered} by this table.
+     */
+    /* package */double getRate(long day)
+    {
+        return rates[(int) (day - firstDay)];
+    }
+}
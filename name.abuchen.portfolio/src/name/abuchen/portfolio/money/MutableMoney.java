@@ -1,5 +1,7 @@
 package name.abuchen.portfolio.money;
 
+import java.time.LocalDate;
+
 public final class MutableMoney
 {
     private final String currencyCode;
@@ -55,6 +57,26 @@ public final class MutableMoney
         return this;
     }
 
+    /**
+     * Converts the amount given in the currency into the currency of this
+     * money and adds it. If the term currency of the converter matches the
+     * currency of this money, no intermediate objects are created.
+     */
+    public MutableMoney add(CurrencyConverter converter, LocalDate date, String currencyCode, long amount)
+    {
+        if (amount == 0)
+            return this;
+
+        if (this.currencyCode.equals(currencyCode))
+            this.amount += amount;
+        else if (this.currencyCode.equals(converter.getTermCurrency()))
+            this.amount += converter.convert(date, currencyCode, amount);
+        else
+            this.amount += converter.with(this.currencyCode).convert(date, currencyCode, amount);
+
+        return this;
+    }
+
     public MutableMoney add(MutableMoney money)
     {
         if (!this.currencyCode.equals(money.currencyCode))
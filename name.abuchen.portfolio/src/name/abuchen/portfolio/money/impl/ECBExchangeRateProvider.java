@@ -45,6 +45,7 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
 
     private volatile XStream xstream;
     private ECBData data = new ECBData();
+    private ExchangeRateProviderFactory factory;
 
     public ECBExchangeRateProvider()
     {
@@ -65,7 +66,7 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
     @Override
     public void init(ExchangeRateProviderFactory factory)
     {
-        // nothing to do
+        this.factory = factory;
     }
 
     @Override
@@ -100,6 +101,8 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
             data = loaded;
         }
         monitor.worked(1);
+
+        ratesChanged();
     }
 
     @Override
@@ -108,6 +111,14 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
         ECBData copy = this.data.copy();
         new ECBUpdater().update(this, copy);
         this.data = copy;
+
+        ratesChanged();
+    }
+
+    private void ratesChanged()
+    {
+        if (factory != null)
+            factory.ratesChanged();
     }
 
     @Override
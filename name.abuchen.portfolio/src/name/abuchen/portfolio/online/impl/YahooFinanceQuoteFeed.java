@@ -30,6 +30,7 @@ import name.abuchen.portfolio.model.Exchange;
 import name.abuchen.portfolio.model.LatestSecurityPrice;
 import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.model.SecurityPrice;
+import name.abuchen.portfolio.model.SecurityPriceSeries;
 import name.abuchen.portfolio.money.Values;
 import name.abuchen.portfolio.online.QuoteFeed;
 
@@ -162,16 +163,7 @@ public class YahooFinanceQuoteFeed implements QuoteFeed
 
         List<SecurityPrice> quotes = internalGetQuotes(SecurityPrice.class, security, start, errors);
 
-        boolean isUpdated = false;
-        if (quotes != null)
-        {
-            for (SecurityPrice p : quotes)
-            {
-                boolean isAdded = security.addPrice(p);
-                isUpdated = isUpdated || isAdded;
-            }
-        }
-        return isUpdated;
+        return quotes != null && security.addAllPrices(quotes);
     }
 
     /**
@@ -179,10 +171,10 @@ public class YahooFinanceQuoteFeed implements QuoteFeed
      */
     /* package */final LocalDate caculateStart(Security security)
     {
-        if (!security.getPrices().isEmpty())
+        SecurityPriceSeries prices = security.getPriceSeries();
+        if (!prices.isEmpty())
         {
-            SecurityPrice lastHistoricalQuote = security.getPrices().get(security.getPrices().size() - 1);
-            return lastHistoricalQuote.getTime();
+            return prices.getDate(prices.size() - 1);
         }
         else
         {
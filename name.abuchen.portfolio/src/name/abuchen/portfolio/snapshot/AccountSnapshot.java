@@ -3,9 +3,9 @@ package name.abuchen.portfolio.snapshot;
 import java.time.LocalDate;
 
 import name.abuchen.portfolio.model.Account;
-import name.abuchen.portfolio.model.AccountTransaction;
 import name.abuchen.portfolio.money.CurrencyConverter;
 import name.abuchen.portfolio.money.Money;
+import name.abuchen.portfolio.money.MutableMoney;
 import name.abuchen.portfolio.snapshot.filter.ReadOnlyAccount;
 
 public class AccountSnapshot
@@ -16,18 +16,7 @@ public class AccountSnapshot
 
     public static AccountSnapshot create(Account account, CurrencyConverter converter, LocalDate date)
     {
-        long funds = 0;
-
-        for (AccountTransaction t : account.getTransactions())
-        {
-            if (!t.getDate().isAfter(date))
-            {
-                if (t.getType().isDebit())
-                    funds -= t.getAmount();
-                else
-                    funds += t.getAmount();
-            }
-        }
+        long funds = account.getBalanceIndex().getBalance(date);
 
         return new AccountSnapshot(
                         account instanceof ReadOnlyAccount ? ((ReadOnlyAccount) account).getSource() : account, date,
@@ -71,6 +60,14 @@ public class AccountSnapshot
         return funds.with(converter.at(date));
     }
 
+    /**
+     * Adds the funds converted into the currency of the given accumulator.
+     */
+    public MutableMoney addFundsTo(MutableMoney accumulator)
+    {
+        return accumulator.add(converter, date, funds.getCurrencyCode(), funds.getAmount());
+    }
+
     public Money getUnconvertedFunds()
     {
         return funds;
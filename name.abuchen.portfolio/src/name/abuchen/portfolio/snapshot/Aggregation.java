@@ -4,8 +4,7 @@ import java.time.LocalDate;
 import java.time.temporal.TemporalAmount;
 import java.time.temporal.TemporalField;
 import java.time.temporal.WeekFields;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.ResourceBundle;
 
@@ -85,7 +84,22 @@ public class Aggregation
         }
     }
 
+    /**
+     * Returns the index aggregated to the given period. The aggregated indices
+     * are cached with the daily index (see
+     * {@link PerformanceIndex#getAggregatedIndex(Period)}).
+     */
     public static PerformanceIndex aggregate(PerformanceIndex index, Period period)
+    {
+        return index.getAggregatedIndex(period);
+    }
+
+    /**
+     * Aggregates the index to all periods in one pass over the daily values.
+     * The end of the current period is kept as epoch day per period, i.e. the
+     * period boundaries are calculated once per period and not per day.
+     */
+    /* package */static PerformanceIndex[] aggregateAll(PerformanceIndex index)
     {
         LocalDate[] dates = index.getDates();
         double[] accumulated = index.getAccumulatedPercentage();
@@ -93,64 +107,74 @@ public class Aggregation
         long[] transferals = index.getTransferals();
         long[] totals = index.getTotals();
 
-        LocalDate start = period.getStartDateFor(dates[0]).plus(period.getPeriod());
-        LocalDate kill = start.minusDays(1);
+        Period[] periods = Period.values();
+        int length = dates.length;
 
-        List<LocalDate> cDates = new ArrayList<LocalDate>();
-        List<Double> cAccumulated = new ArrayList<Double>();
-        List<Double> cDelta = new ArrayList<Double>();
-        List<Long> cTransferals = new ArrayList<Long>();
-        List<Long> cTotals = new ArrayList<Long>();
+        LocalDate[] start = new LocalDate[periods.length];
+        long[] kill = new long[periods.length];
+        double[] d = new double[periods.length];
+        long[] t = new long[periods.length];
+        int[] count = new int[periods.length];
 
-        double d = 0d;
-        long t = 0;
+        // positions of the period ends in the daily index
+        int[][] ends = new int[periods.length][length];
+        double[][] cDelta = new double[periods.length][length];
+        long[][] cTransferals = new long[periods.length][length];
 
-        for (int ii = 0; ii < dates.length; ii++)
+        for (int p = 0; p < periods.length && length > 0; p++)
         {
-            LocalDate current = dates[ii];
-            d = ((d + 1) * (delta[ii] + 1)) - 1;
-            t += transferals[ii];
-
-            if (current.equals(kill) || ii == dates.length - 1)
-            {
-                cDates.add(current);
-                cAccumulated.add(accumulated[ii]);
-                cDelta.add(d);
-                cTransferals.add(t);
-                cTotals.add(totals[ii]);
+            start[p] = periods[p].getStartDateFor(dates[0]).plus(periods[p].getPeriod());
+            kill[p] = start[p].toEpochDay() - 1;
+        }
 
-                d = 0d;
-                t = 0;
+        for (int ii = 0; ii < length; ii++)
+        {
+            long current = dates[ii].toEpochDay();
+            boolean last = ii == length - 1;
 
-                start = start.plus(period.getPeriod());
-                kill = start.minusDays(1);
+            for (int p = 0; p < periods.length; p++)
+            {
+                d[p] = ((d[p] + 1) * (delta[ii] + 1)) - 1;
+                t[p] += transferals[ii];
+
+                if (current == kill[p] || last)
+                {
+                    ends[p][count[p]] = ii;
+                    cDelta[p][count[p]] = d[p];
+                    cTransferals[p][count[p]] = t[p];
+                    count[p]++;
+
+                    d[p] = 0d;
+                    t[p] = 0;
+
+                    start[p] = start[p].plus(periods[p].getPeriod());
+                    kill[p] = start[p].toEpochDay() - 1;
+                }
             }
         }
 
-        PerformanceIndex answer = new PerformanceIndex(index.getClient(), index.getCurrencyConverter(),
-                        index.getReportInterval());
-        answer.dates = cDates.toArray(new LocalDate[0]);
-        answer.accumulated = asArrayD(cAccumulated);
-        answer.delta = asArrayD(cDelta);
-        answer.transferals = asArrayL(cTransferals);
-        answer.totals = asArrayL(cTotals);
-        return answer;
-    }
+        PerformanceIndex[] answer = new PerformanceIndex[periods.length];
+        for (int p = 0; p < periods.length; p++)
+        {
+            PerformanceIndex aggregated = new PerformanceIndex(index.getClient(), index.getCurrencyConverter(),
+                            index.getReportInterval());
 
-    private static double[] asArrayD(List<Double> cAccumulated)
-    {
-        double[] answer = new double[cAccumulated.size()];
-        for (int ii = 0; ii < answer.length; ii++)
-            answer[ii] = cAccumulated.get(ii);
-        return answer;
-    }
+            aggregated.dates = new LocalDate[count[p]];
+            aggregated.accumulated = new double[count[p]];
+            aggregated.totals = new long[count[p]];
+            for (int ii = 0; ii < count[p]; ii++)
+            {
+                int end = ends[p][ii];
+                aggregated.dates[ii] = dates[end];
+                aggregated.accumulated[ii] = accumulated[end];
+                aggregated.totals[ii] = totals[end];
+            }
+
+            aggregated.delta = Arrays.copyOf(cDelta[p], count[p]);
+            aggregated.transferals = Arrays.copyOf(cTransferals[p], count[p]);
+            answer[p] = aggregated;
+        }
 
-    private static long[] asArrayL(List<Long> cAccumulated)
-    {
-        long[] answer = new long[cAccumulated.size()];
-        for (int ii = 0; ii < answer.length; ii++)
-            answer[ii] = cAccumulated.get(ii);
         return answer;
     }
-
 }
@@ -40,7 +40,10 @@ import name.abuchen.portfolio.money.Money;
             }
         });
 
-        return PerformanceIndex.forClient(pseudoClient, converter, reportInterval, warnings);
+        // the pseudo client is a copy -> the index cannot be updated
+        ClientIndex index = new ClientIndex(pseudoClient, converter, reportInterval);
+        index.calculate(warnings);
+        return index;
     }
 
     private static void addSecurity(Client pseudoClient, Client client, Security security, int weight)
@@ -1,9 +1,13 @@
 package name.abuchen.portfolio.snapshot;
 
 import java.time.LocalDate;
+import java.time.Month;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import name.abuchen.portfolio.math.IRR;
 import name.abuchen.portfolio.model.Account;
@@ -21,27 +25,80 @@ public class ClientIRRYield
 {
     public static ClientIRRYield create(Client client, ClientSnapshot snapshotStart, ClientSnapshot snapshotEnd)
     {
-        Interval interval = Interval.of(snapshotStart.getTime(), snapshotEnd.getTime());
-
-        List<Transaction> transactions = new ArrayList<Transaction>();
-        collectAccountTransactions(client, interval, transactions);
-        collectPortfolioTransactions(client, interval, transactions);
-        Collections.sort(transactions, new Transaction.ByDate());
-
         List<LocalDate> dates = new ArrayList<LocalDate>();
         List<Double> values = new ArrayList<Double>();
-        collectDatesAndValues(interval, snapshotStart, snapshotEnd, transactions, dates, values);
+        collectCashFlows(client, snapshotStart, snapshotEnd, dates, values);
+
+        return new ClientIRRYield(IRR.solve(dates, values, Double.NaN));
+    }
+
+    /**
+     * Calculates the internal rate of return of the periods between
+     * consecutive snapshots, e.g. of every year of a reporting period. The
+     * rate of a period is the start value to solve the next period.
+     * 
+     * @return one yield per period, i.e. one less than there are snapshots
+     */
+    public static List<ClientIRRYield> create(Client client, List<ClientSnapshot> snapshots)
+    {
+        if (snapshots.size() < 2)
+            return Collections.emptyList();
+
+        List<List<LocalDate>> dates = new ArrayList<>();
+        List<List<Double>> values = new ArrayList<>();
+        for (int ii = 1; ii < snapshots.size(); ii++)
+        {
+            List<LocalDate> d = new ArrayList<LocalDate>();
+            List<Double> v = new ArrayList<Double>();
+            collectCashFlows(client, snapshots.get(ii - 1), snapshots.get(ii), d, v);
+            dates.add(d);
+            values.add(v);
+        }
+
+        return IRR.solveConsecutive(dates, values).stream() //
+                        .map(ClientIRRYield::new) //
+                        .collect(Collectors.toList());
+    }
+
+    /**
+     * Calculates the internal rate of return of every calendar year of the
+     * interval. The first and the last year are cut to the interval.
+     * 
+     * @return yields by year in ascending order
+     */
+    public static Map<Integer, ClientIRRYield> createYearly(Client client, CurrencyConverter converter,
+                    Interval interval)
+    {
+        List<LocalDate> dates = new ArrayList<>();
+        dates.add(interval.getStart());
+
+        for (int year = interval.getStart().getYear(); year <= interval.getEnd().getYear(); year++)
+        {
+            LocalDate endOfYear = LocalDate.of(year, Month.DECEMBER, 31);
+            LocalDate date = endOfYear.isAfter(interval.getEnd()) ? interval.getEnd() : endOfYear;
+            if (date.isAfter(dates.get(dates.size() - 1)))
+                dates.add(date);
+        }
+
+        List<ClientSnapshot> snapshots = dates.stream() //
+                        .map(date -> ClientSnapshot.create(client, converter, date)) //
+                        .collect(Collectors.toList());
 
-        double irr = IRR.calculate(dates, values);
+        List<ClientIRRYield> yields = create(client, snapshots);
 
-        return new ClientIRRYield(irr);
+        Map<Integer, ClientIRRYield> answer = new LinkedHashMap<>();
+        for (int ii = 0; ii < yields.size(); ii++)
+            answer.put(dates.get(ii + 1).getYear(), yields.get(ii));
+        return answer;
     }
 
     private double irr;
+    private boolean isConverged;
 
-    private ClientIRRYield(double irr)
+    private ClientIRRYield(IRR.Result result)
     {
-        this.irr = irr;
+        this.irr = result.getRate();
+        this.isConverged = result.isConverged();
     }
 
     public double getIrr()
@@ -49,6 +106,28 @@ public class ClientIRRYield
         return irr;
     }
 
+    /**
+     * Returns false if the calculation did not converge and {@link #getIrr()}
+     * is only an approximation.
+     */
+    public boolean isConverged()
+    {
+        return isConverged;
+    }
+
+    private static void collectCashFlows(Client client, ClientSnapshot snapshotStart, ClientSnapshot snapshotEnd,
+                    List<LocalDate> dates, List<Double> values)
+    {
+        Interval interval = Interval.of(snapshotStart.getTime(), snapshotEnd.getTime());
+
+        List<Transaction> transactions = new ArrayList<Transaction>();
+        collectAccountTransactions(client, interval, transactions);
+        collectPortfolioTransactions(client, interval, transactions);
+        Collections.sort(transactions, new Transaction.ByDate());
+
+        collectDatesAndValues(interval, snapshotStart, snapshotEnd, transactions, dates, values);
+    }
+
     private static void collectPortfolioTransactions(Client client, Interval interval, List<Transaction> transactions)
     {
         for (Portfolio portfolio : client.getPortfolios())
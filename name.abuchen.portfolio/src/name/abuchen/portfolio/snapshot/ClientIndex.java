@@ -4,41 +4,156 @@ import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import name.abuchen.portfolio.Messages;
 import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.AccountTransaction;
 import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.PortfolioTransaction;
 import name.abuchen.portfolio.model.Transaction.Unit;
 import name.abuchen.portfolio.money.CurrencyConverter;
-import name.abuchen.portfolio.money.Money;
 import name.abuchen.portfolio.util.Dates;
 import name.abuchen.portfolio.util.Interval;
 
 /* package */class ClientIndex extends PerformanceIndex
 {
+    /**
+     * True if the index has been calculated for the actual client (and not
+     * for a filtered copy) and therefore can be updated incrementally.
+     */
+    private boolean isUpdatable = false;
+
     /* package */ ClientIndex(Client client, CurrencyConverter converter, ReportingPeriod reportInterval)
     {
         super(client, converter, reportInterval);
     }
 
+    /* package */void setUpdatable(boolean isUpdatable)
+    {
+        this.isUpdatable = isUpdatable;
+    }
+
     /* package */void calculate(List<Exception> warnings)
     {
-        Interval interval = getReportInterval().toInterval();
+        Interval interval = calculateActualInterval();
+
+        initArrays(interval);
+        calculateTail(interval, 0);
+        calculateDeltas(0, warnings);
+    }
+
+    /**
+     * Calculates the totals, transferals and taxes starting with the given
+     * index. The values before the index must have been calculated already.
+     */
+    private void calculateTail(Interval interval, int from)
+    {
+        collectTransferalsAndTaxes(interval, from);
+
+        // the sweep converts every open position on every day
+        CurrencyConverter converter = getCurrencyConverter().materialize(dates[from], interval.getEnd());
+
+        // the complete calculation applies all transactions. An update resumes
+        // with the balances and holdings at the day before the first date and
+        // only applies the later transactions
+        ValuationSweep sweep = from == 0 ? new ValuationSweep(getClient(), converter)
+                        : new ValuationSweep(getClient(), converter, dates[from]);
+        for (int ii = from; ii < dates.length; ii++)
+            totals[ii] = sweep.valuate(dates[ii]);
+    }
+
+    /**
+     * Returns an updated index if the client changed on or after the given
+     * date or if the reporting period moved forward (e.g. because a new day
+     * started). The values before the given date are copied from this index
+     * and only the remaining days are calculated. If the start of the
+     * reporting period moved forward, the values of the overlapping days are
+     * copied, too, and only the delta and accumulated performance are
+     * calculated again. If the start moved backwards, the index is calculated
+     * completely.
+     */
+    @Override
+    public Optional<PerformanceIndex> update(LocalDate changedFrom, List<Exception> warnings)
+    {
+        return update(getReportInterval(), changedFrom, warnings);
+    }
+
+    /**
+     * Returns an index for the given reporting period which reuses the values
+     * of this index before the given date.
+     */
+    /* package */Optional<PerformanceIndex> update(ReportingPeriod reportInterval, LocalDate changedFrom,
+                    List<Exception> warnings)
+    {
+        if (!isUpdatable)
+            return Optional.empty();
+
+        ClientIndex index = new ClientIndex(getClient(), getCurrencyConverter(), reportInterval);
+        index.isUpdatable = true;
+
+        Interval interval = index.calculateActualInterval();
+        index.initArrays(interval);
+
+        // Dates#daysBetween is not signed -> compare epoch days
+        long offset = interval.getStart().toEpochDay() - dates[0].toEpochDay();
 
-        // the actual interval should not extend into the future
-        if (interval.getEnd().isAfter(LocalDate.now()))
+        int from = 0;
+        if (offset >= 0 && offset < dates.length)
         {
-            LocalDate start = interval.getStart();
-            LocalDate end = LocalDate.now();
+            // the days of this index which are part of the updated index
+            int overlap = (int) Math.min(dates.length - offset, index.dates.length);
 
-            if (start.isAfter(end))
-                start = end;
+            // if the end moved, the last day of this index has been "today"
+            // and is calculated again with the closing prices
+            if (overlap < index.dates.length)
+                overlap--;
 
-            interval = Interval.of(start, end);
+            long changed = changedFrom.toEpochDay() - interval.getStart().toEpochDay();
+            from = (int) Math.max(0, Math.min(changed, overlap));
         }
 
+        if (offset == 0 && from >= index.dates.length && reportInterval.equals(getReportInterval()))
+            return Optional.of(this);
+
+        int source = (int) Math.max(0, offset);
+        System.arraycopy(totals, source, index.totals, 0, from);
+        System.arraycopy(transferals, source, index.transferals, 0, from);
+        System.arraycopy(taxes, source, index.taxes, 0, from);
+        System.arraycopy(dividends, source, index.dividends, 0, from);
+        System.arraycopy(interest, source, index.interest, 0, from);
+
+        if (from < index.dates.length)
+            index.calculateTail(interval, from);
+
+        if (offset == 0)
+        {
+            System.arraycopy(delta, 0, index.delta, 0, from);
+            System.arraycopy(accumulated, 0, index.accumulated, 0, from);
+            index.calculateDeltas(from, warnings);
+        }
+        else
+        {
+            // the accumulated performance starts with the first day
+            index.calculateDeltas(0, warnings);
+        }
+
+        return Optional.of(index);
+    }
+
+    /**
+     * Returns the reporting interval but without extending into the future.
+     */
+    /* package */Interval calculateActualInterval()
+    {
+        return getCalculatedInterval();
+    }
+
+    /* package */void initArrays(Interval interval)
+    {
         // reported via forum: if the user selects as 'since' date something in
         // the future, then #getDays will return something negative. Ensure the
         // 'size' is at least 1 which will create an empty ClientIndex
@@ -53,24 +168,40 @@ import name.abuchen.portfolio.util.Interval;
         dividends = new long[size];
         interest = new long[size];
 
-        collectTransferalsAndTaxes(interval);
+        LocalDate date = interval.getStart();
+        for (int ii = 0; ii < size; ii++)
+        {
+            dates[ii] = date;
+            date = date.plusDays(1);
+        }
+    }
 
-        // first value = reference value
-        dates[0] = interval.getStart();
-        delta[0] = 0;
-        accumulated[0] = 0;
-        ClientSnapshot snapshot = ClientSnapshot.create(getClient(), getCurrencyConverter(), dates[0]);
-        long valuation = totals[0] = snapshot.getMonetaryAssets().getAmount();
+    /**
+     * Calculates the daily delta and the accumulated performance from the
+     * totals and the transferals.
+     */
+    /* package */void calculateDeltas(List<Exception> warnings)
+    {
+        calculateDeltas(0, warnings);
+    }
+
+    private void calculateDeltas(int from, List<Exception> warnings)
+    {
+        int start = from;
 
-        // calculate series
-        int index = 1;
-        LocalDate date = interval.getStart().plusDays(1);
-        while (date.compareTo(interval.getEnd()) <= 0)
+        if (start == 0)
         {
-            dates[index] = date;
+            // first value = reference value
+            delta[0] = 0;
+            accumulated[0] = 0;
+            start = 1;
+        }
+
+        long valuation = totals[start - 1];
 
-            snapshot = ClientSnapshot.create(getClient(), getCurrencyConverter(), dates[index]);
-            long thisValuation = totals[index] = snapshot.getMonetaryAssets().getAmount();
+        for (int index = start; index < dates.length; index++)
+        {
+            long thisValuation = totals[index];
             long thisDelta = thisValuation - transferals[index] - valuation;
 
             if (valuation == 0)
@@ -84,7 +215,7 @@ import name.abuchen.portfolio.util.Interval;
                     else
                         warnings.add(new RuntimeException(MessageFormat.format(Messages.MsgDeltaWithoutAssets,
                                         thisDelta,
-                                        date.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)))));
+                                        dates[index].format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)))));
                 }
             }
             else
@@ -94,13 +225,11 @@ import name.abuchen.portfolio.util.Interval;
 
             accumulated[index] = ((accumulated[index - 1] + 1) * (delta[index] + 1)) - 1;
 
-            date = date.plusDays(1);
             valuation = thisValuation;
-            index++;
         }
     }
 
-    private void addValue(long[] array, String currencyCode, long value, Interval interval, LocalDate time)
+    /* package */void addValue(long[] array, String currencyCode, long value, Interval interval, LocalDate time)
     {
         if (value == 0)
             return;
@@ -108,82 +237,99 @@ import name.abuchen.portfolio.util.Interval;
         int ii = Dates.daysBetween(interval.getStart(), time);
 
         if (!currencyCode.equals(getCurrencyConverter().getTermCurrency()))
-            array[ii] += getCurrencyConverter().convert(time, Money.of(currencyCode, value)).getAmount();
+            array[ii] += getCurrencyConverter().convert(time, currencyCode, value);
         else
             array[ii] += value;
     }
 
-    private void collectTransferalsAndTaxes(Interval interval)
+    /**
+     * Collects transferals and taxes of all transactions between the date at
+     * the given index and the end of the interval. If the index is not the
+     * first one, the transactions are looked up in the
+     * {@link Account#getBalanceIndex() balance} and
+     * {@link Portfolio#getHoldingsIndex() holdings} indices instead of
+     * scanning all transactions.
+     */
+    private void collectTransferalsAndTaxes(Interval interval, int from)
     {
+        LocalDate start = dates[from];
+
         for (Account account : getClient().getAccounts())
         {
-            account.getTransactions() //
-                            .stream() //
-                            .filter(t -> !t.getDate().isBefore(interval.getStart())
-                                            && !t.getDate().isAfter(interval.getEnd()))
-                            .forEach(t -> { // NOSONAR
-                                switch (t.getType())
-                                {
-                                    case DEPOSIT:
-                                        addValue(transferals, t.getCurrencyCode(), t.getAmount(), interval,
-                                                        t.getDate());
-                                        break;
-                                    case REMOVAL:
-                                        addValue(transferals, t.getCurrencyCode(), -t.getAmount(), interval,
-                                                        t.getDate());
-                                        break;
-                                    case TAXES:
-                                        addValue(taxes, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
-                                        break;
-                                    case TAX_REFUND:
-                                        addValue(taxes, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
-                                        break;
-                                    case DIVIDENDS:
-                                        addValue(taxes, t.getCurrencyCode(), t.getUnitSum(Unit.Type.TAX).getAmount(),
-                                                        interval, t.getDate());
-                                        addValue(dividends, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
-                                        break;
-                                    case INTEREST:
-                                        addValue(interest, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
-                                        break;
-                                    case INTEREST_CHARGE:
-                                        addValue(interest, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
-                                        break;
-                                    default:
-                                        // do nothing
-                                        break;
-                                }
-                            });
+            List<AccountTransaction> transactions = from == 0 ? account.getTransactions()
+                            : account.getBalanceIndex().getTransactionsAfter(start.minusDays(1));
 
+            transactions.stream() //
+                            .filter(t -> !t.getDate().isBefore(start) && !t.getDate().isAfter(interval.getEnd()))
+                            .forEach(t -> collect(interval, t));
         }
 
         for (Portfolio portfolio : getClient().getPortfolios())
         {
-            portfolio.getTransactions() //
-                            .stream() //
-                            .filter(t -> !t.getDate().isBefore(interval.getStart())
-                                            && !t.getDate().isAfter(interval.getEnd()))
-                            .forEach(t -> {
-                                // collect taxes
-                                addValue(taxes, t.getCurrencyCode(), t.getUnitSum(Unit.Type.TAX).getAmount(), //
-                                                interval, t.getDate());
-
-                                // collect transferals
-                                switch (t.getType())
-                                {
-                                    case DELIVERY_INBOUND:
-                                        addValue(transferals, t.getCurrencyCode(), t.getAmount(), interval,
-                                                        t.getDate());
-                                        break;
-                                    case DELIVERY_OUTBOUND:
-                                        addValue(transferals, t.getCurrencyCode(), -t.getAmount(), interval,
-                                                        t.getDate());
-                                        break;
-                                    default:
-                                        break;
-                                }
-                            });
+            List<PortfolioTransaction> transactions = portfolio.getTransactions();
+            if (from > 0)
+            {
+                List<PortfolioTransaction> later = new ArrayList<>();
+                portfolio.getHoldingsIndex().forEachSecurity(start.minusDays(1), (s, shares, l) -> later.addAll(l));
+                transactions = later;
+            }
 
+            transactions.stream() //
+                            .filter(t -> !t.getDate().isBefore(start) && !t.getDate().isAfter(interval.getEnd()))
+                            .forEach(t -> collect(interval, t));
+        }
+    }
+
+    private void collect(Interval interval, AccountTransaction t)
+    {
+        switch (t.getType())
+        {
+            case DEPOSIT:
+                addValue(transferals, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                break;
+            case REMOVAL:
+                addValue(transferals, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
+                break;
+            case TAXES:
+                addValue(taxes, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                break;
+            case TAX_REFUND:
+                addValue(taxes, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
+                break;
+            case DIVIDENDS:
+                addValue(taxes, t.getCurrencyCode(), t.getUnitSum(Unit.Type.TAX).getAmount(), interval,
+                                t.getDate());
+                addValue(dividends, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                break;
+            case INTEREST:
+                addValue(interest, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                break;
+            case INTEREST_CHARGE:
+                addValue(interest, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
+                break;
+            default:
+                // do nothing
+                break;
+        }
+    }
+
+    private void collect(Interval interval, PortfolioTransaction t)
+    {
+        // collect taxes
+        addValue(taxes, t.getCurrencyCode(), t.getUnitSum(Unit.Type.TAX).getAmount(), //
+                        interval, t.getDate());
+
+        // collect transferals
+        switch (t.getType())
+        {
+            case DELIVERY_INBOUND:
+                addValue(transferals, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                break;
+            case DELIVERY_OUTBOUND:
+                addValue(transferals, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
+                break;
+            default:
+                break;
         }
     }
 }
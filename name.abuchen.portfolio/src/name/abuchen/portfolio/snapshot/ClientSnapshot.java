@@ -112,12 +112,12 @@ public class ClientSnapshot
         {
             MutableMoney sum = MutableMoney.of(getCurrencyCode());
 
-            for (AccountSnapshot account : accounts)
-                sum.add(account.getFunds());
+            for (int ii = 0; ii < accounts.size(); ii++)
+                accounts.get(ii).addFundsTo(sum);
 
             // use joint portfolio to reduce rounding errors if a security is
             // split across multiple portfolio
-            sum.add(getJointPortfolio().getValue());
+            getJointPortfolio().addValueTo(sum);
 
             this.assets = sum.toMoney();
         }
@@ -0,0 +1,142 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.AccountTransaction;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.PortfolioTransaction;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.Transaction.Unit;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.util.Interval;
+
+/**
+ * Calculates the performance indices of multiple securities in one pass over
+ * the transactions and the reporting interval. The result of each index is
+ * identical to
+ * {@link PerformanceIndex#forInvestment(Client, CurrencyConverter, Security, ReportingPeriod, List)}
+ * , i.e. dividends are treated as removals and taxes are excluded from
+ * purchases and sales.
+ */
+/* package */class InvestmentIndex extends ClientIndex
+{
+    private InvestmentIndex(Client client, CurrencyConverter converter, ReportingPeriod reportInterval)
+    {
+        super(client, converter, reportInterval);
+    }
+
+    /* package */static Map<Security, PerformanceIndex> calculate(Client client, CurrencyConverter converter,
+                    Collection<Security> securities, ReportingPeriod reportInterval, List<Exception> warnings)
+    {
+        Map<Security, InvestmentIndex> indices = new HashMap<>();
+
+        Interval interval = null;
+        for (Security security : securities)
+        {
+            InvestmentIndex index = new InvestmentIndex(client, converter, reportInterval);
+
+            if (interval == null)
+                interval = index.calculateActualInterval();
+
+            index.initArrays(interval);
+            indices.put(security, index);
+        }
+
+        if (interval == null)
+            return Collections.emptyMap();
+
+        collectTransferals(client, indices, interval);
+        collectValuation(client, converter, indices, interval);
+
+        for (InvestmentIndex index : indices.values())
+            index.calculateDeltas(warnings);
+
+        return Collections.unmodifiableMap(indices);
+    }
+
+    private static void collectTransferals(Client client, Map<Security, InvestmentIndex> indices, Interval interval)
+    {
+        for (Portfolio portfolio : client.getPortfolios())
+        {
+            for (PortfolioTransaction t : portfolio.getTransactions())
+            {
+                if (t.getDate().isBefore(interval.getStart()) || t.getDate().isAfter(interval.getEnd()))
+                    continue;
+
+                InvestmentIndex index = lookup(indices, t.getSecurity());
+                if (index == null)
+                    continue;
+
+                // calculation is without taxes -> remove any taxes from the
+                // purchase or sale
+                long taxes = t.getUnitSum(Unit.Type.TAX).getAmount();
+
+                if (t.getType().isPurchase())
+                    index.addValue(index.transferals, t.getCurrencyCode(), t.getAmount() - taxes, interval,
+                                    t.getDate());
+                else
+                    index.addValue(index.transferals, t.getCurrencyCode(), -(t.getAmount() + taxes), interval,
+                                    t.getDate());
+            }
+        }
+
+        for (Account account : client.getAccounts())
+        {
+            for (AccountTransaction t : account.getTransactions())
+            {
+                if (t.getType() != AccountTransaction.Type.DIVIDENDS)
+                    continue;
+
+                if (t.getDate().isBefore(interval.getStart()) || t.getDate().isAfter(interval.getEnd()))
+                    continue;
+
+                InvestmentIndex index = lookup(indices, t.getSecurity());
+                if (index == null)
+                    continue;
+
+                // dividends are paid out, i.e. removed from the investment
+                index.addValue(index.dividends, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                index.addValue(index.transferals, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
+            }
+        }
+    }
+
+    private static void collectValuation(Client client, CurrencyConverter converter,
+                    Map<Security, InvestmentIndex> indices, Interval interval)
+    {
+        ValuationSweep sweep = new ValuationSweep(Collections.emptyList(), client.getPortfolios(),
+                        converter.materialize(interval.getStart(), interval.getEnd()));
+
+        LocalDate date = interval.getStart();
+        int size = indices.values().iterator().next().dates.length;
+
+        for (int ii = 0; ii < size; ii++)
+        {
+            final int day = ii;
+            sweep.valuate(date, (vehicle, value) -> {
+                InvestmentIndex index = lookup(indices, (Security) vehicle);
+                if (index != null)
+                    index.totals[day] = value;
+            });
+
+            date = date.plusDays(1);
+        }
+    }
+
+    private static InvestmentIndex lookup(Map<Security, InvestmentIndex> indices, Security security)
+    {
+        // if a security has no currency code, it must be an index and must not
+        // have transactions after all
+        if (security == null || security.getCurrencyCode() == null)
+            return null;
+
+        return indices.get(security);
+    }
+}
@@ -7,15 +7,18 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVStrategy;
 
 import name.abuchen.portfolio.Messages;
 import name.abuchen.portfolio.math.Risk.Drawdown;
+import name.abuchen.portfolio.math.Risk.Rolling;
 import name.abuchen.portfolio.math.Risk.Volatility;
 import name.abuchen.portfolio.model.Account;
 import name.abuchen.portfolio.model.Classification;
@@ -27,6 +30,7 @@ import name.abuchen.portfolio.money.CurrencyConverter;
 import name.abuchen.portfolio.money.Values;
 import name.abuchen.portfolio.snapshot.filter.PortfolioClientFilter;
 import name.abuchen.portfolio.snapshot.filter.PortfolioPlusClientFilter;
+import name.abuchen.portfolio.snapshot.filter.ReadOnlyClient;
 import name.abuchen.portfolio.util.Interval;
 import name.abuchen.portfolio.util.TradeCalendar;
 
@@ -36,6 +40,12 @@ public class PerformanceIndex
     private final CurrencyConverter converter;
     private final ReportingPeriod reportInterval;
 
+    /**
+     * The reporting interval at the time of the calculation but without
+     * extending into the future.
+     */
+    private final Interval calculatedInterval;
+
     protected LocalDate[] dates;
     protected long[] totals;
     protected long[] transferals;
@@ -47,6 +57,9 @@ public class PerformanceIndex
 
     private Drawdown drawdown;
     private Volatility volatility;
+    private Rolling rolling;
+    private PerformanceIndex[] aggregated;
+    private ReturnMatrix returnMatrix;
     private ClientPerformanceSnapshot performanceSnapshot;
 
     /* package */ PerformanceIndex(Client client, CurrencyConverter converter, ReportingPeriod reportInterval)
@@ -54,12 +67,36 @@ public class PerformanceIndex
         this.client = client;
         this.converter = converter;
         this.reportInterval = reportInterval;
+        this.calculatedInterval = actualIntervalOf(reportInterval);
+    }
+
+    /**
+     * Returns the reporting interval but without extending into the future.
+     */
+    /* package */static Interval actualIntervalOf(ReportingPeriod reportInterval)
+    {
+        Interval interval = reportInterval.toInterval();
+
+        // the actual interval should not extend into the future
+        if (interval.getEnd().isAfter(LocalDate.now()))
+        {
+            LocalDate start = interval.getStart();
+            LocalDate end = LocalDate.now();
+
+            if (start.isAfter(end))
+                start = end;
+
+            interval = Interval.of(start, end);
+        }
+
+        return interval;
     }
 
     public static ClientIndex forClient(Client client, CurrencyConverter converter, ReportingPeriod reportInterval,
                     List<Exception> warnings)
     {
         ClientIndex index = new ClientIndex(client, converter, reportInterval);
+        index.setUpdatable(!(client instanceof ReadOnlyClient));
         index.calculate(warnings);
         return index;
     }
@@ -100,6 +137,20 @@ public class PerformanceIndex
         return forClassification(client, converter, classification, reportInterval, warnings);
     }
 
+    /**
+     * Calculates the performance indices of multiple securities in one pass.
+     * Each index is identical to the one returned by
+     * {@link #forInvestment(Client, CurrencyConverter, Security, ReportingPeriod, List)}
+     * . However, the indices are calculated in the context of the given
+     * client, i.e. {@link #getClientPerformanceSnapshot()} refers to the client
+     * and not to the security.
+     */
+    public static Map<Security, PerformanceIndex> forInvestments(Client client, CurrencyConverter converter,
+                    Collection<Security> securities, ReportingPeriod reportInterval, List<Exception> warnings)
+    {
+        return InvestmentIndex.calculate(client, converter, securities, reportInterval, warnings);
+    }
+
     public static PerformanceIndex forSecurity(PerformanceIndex clientIndex, Security security)
     {
         SecurityIndex index = new SecurityIndex(clientIndex.getClient(), clientIndex.getCurrencyConverter(),
@@ -116,6 +167,34 @@ public class PerformanceIndex
         return index;
     }
 
+    /**
+     * Returns an updated index if the client changed on or after the given
+     * date or if the reporting period moved forward. Only the values starting
+     * with the given date are recalculated. Pass {@link LocalDate#MAX} to only
+     * move the index to the current reporting period. Returns an empty
+     * optional if the index does not support incremental updates and must be
+     * recalculated instead.
+     */
+    public Optional<PerformanceIndex> update(LocalDate changedFrom, List<Exception> warnings)
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns true if the index does not match the reporting period anymore
+     * because a new day started since the index has been calculated. Cached
+     * indices must be {@link #update updated} or recalculated.
+     */
+    public boolean isOutdated()
+    {
+        return !calculatedInterval.equals(actualIntervalOf(reportInterval));
+    }
+
+    /* package */Interval getCalculatedInterval()
+    {
+        return calculatedInterval;
+    }
+
     /* package */
     Client getClient()
     {
@@ -193,6 +272,42 @@ public class PerformanceIndex
         return volatility;
     }
 
+    /**
+     * Returns the index aggregated to the given period. On first access, the
+     * index is aggregated to all periods in one pass and cached.
+     */
+    public synchronized PerformanceIndex getAggregatedIndex(Aggregation.Period period)
+    {
+        if (aggregated == null)
+            aggregated = Aggregation.aggregateAll(this);
+
+        return aggregated[period.ordinal()];
+    }
+
+    /**
+     * Returns the returns per month and year calculated in one pass over the
+     * daily returns of this index.
+     */
+    public synchronized ReturnMatrix getReturnMatrix()
+    {
+        if (returnMatrix == null)
+            returnMatrix = ReturnMatrix.of(this);
+
+        return returnMatrix;
+    }
+
+    /**
+     * Returns the risk metrics over a rolling window of the given number of
+     * trading days. The same days as for the volatility are excluded.
+     */
+    public synchronized Rolling getRollingRisk(int window)
+    {
+        if (rolling == null || rolling.getWindow() != window)
+            rolling = new Rolling(delta, accumulated, filterReturnsForVolatilityCalculation(), window);
+
+        return rolling;
+    }
+
     /**
      * The volatility calculation must exclude returns
      * <ul>
@@ -204,7 +319,7 @@ public class PerformanceIndex
      * <li>on weekends or public holidays</li>
      * </ul>
      */
-    private Predicate<Integer> filterReturnsForVolatilityCalculation()
+    private IntPredicate filterReturnsForVolatilityCalculation()
     {
         TradeCalendar calendar = new TradeCalendar();
         return index -> index > 0 && totals[index] != 0 && totals[index - 1] != 0 && !calendar.isHoliday(dates[index]);
@@ -276,7 +391,7 @@ public class PerformanceIndex
         exportTo(file, filterReturnsForVolatilityCalculation());
     }
 
-    private void exportTo(File file, Predicate<Integer> filter) throws IOException
+    private void exportTo(File file, IntPredicate filter) throws IOException
     {
         CSVStrategy strategy = new CSVStrategy(';', '"', CSVStrategy.COMMENTS_DISABLED, CSVStrategy.ESCAPE_DISABLED,
                         false, false, false, false);
@@ -1,6 +1,7 @@
 package name.abuchen.portfolio.snapshot;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -14,7 +15,7 @@ import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.model.Taxonomy;
 import name.abuchen.portfolio.money.CurrencyConverter;
 import name.abuchen.portfolio.money.Money;
-import name.abuchen.portfolio.money.MoneyCollectors;
+import name.abuchen.portfolio.money.MutableMoney;
 import name.abuchen.portfolio.snapshot.filter.ReadOnlyPortfolio;
 
 public class PortfolioSnapshot
@@ -25,16 +26,9 @@ public class PortfolioSnapshot
 
     public static PortfolioSnapshot create(Portfolio portfolio, CurrencyConverter converter, LocalDate date)
     {
-        List<SecurityPosition> positions = portfolio.getTransactions() //
-                        .stream() //
-                        .filter(t -> !t.getDate().isAfter(date)) //
-                        .collect(Collectors.groupingBy(t -> t.getSecurity())) //
-                        .entrySet() //
-                        .stream() //
-                        .map(e -> new SecurityPosition(e.getKey(), converter, e.getKey().getSecurityPrice(date),
-                                        e.getValue())) //
-                        .filter(p -> p.getShares() != 0) //
-                        .collect(Collectors.toList());
+        List<SecurityPosition> positions = new ArrayList<>();
+        portfolio.getHoldingsIndex().forEachHolding(date, (security, transactions) -> positions
+                        .add(new SecurityPosition(security, converter, security.getSecurityPrice(date), transactions)));
 
         return new PortfolioSnapshot(portfolio instanceof ReadOnlyPortfolio
                         ? ((ReadOnlyPortfolio) portfolio).getSource() : portfolio, converter, date, positions);
@@ -114,10 +108,24 @@ public class PortfolioSnapshot
 
     public Money getValue()
     {
-        return positions.stream() //
-                        .map(SecurityPosition::calculateValue) //
-                        .map(money -> money.with(converter.at(date))) //
-                        .collect(MoneyCollectors.sum(converter.getTermCurrency()));
+        return addValueTo(MutableMoney.of(converter.getTermCurrency())).toMoney();
+    }
+
+    /**
+     * Adds the market value of all positions converted into the currency of
+     * the given accumulator. Callers valuing many snapshots can reuse the
+     * accumulator to avoid creating intermediate {@link Money} objects.
+     */
+    public MutableMoney addValueTo(MutableMoney accumulator)
+    {
+        for (int ii = 0; ii < positions.size(); ii++)
+        {
+            SecurityPosition position = positions.get(ii);
+            accumulator.add(converter, date, position.getInvestmentVehicle().getCurrencyCode(),
+                            position.calculateValueAmount());
+        }
+
+        return accumulator;
     }
 
     public GroupByTaxonomy groupByTaxonomy(Taxonomy taxonomy)
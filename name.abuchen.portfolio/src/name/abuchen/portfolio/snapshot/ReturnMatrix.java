@@ -0,0 +1,114 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+
+/**
+ * The returns of a performance index per month and per year. The returns are
+ * the daily returns of the index chain-linked within each month and year,
+ * i.e. a cell has the same value as the accumulated performance of an index
+ * calculated for the month only.
+ * <p>
+ * A month (or year) has a return only if the index contains a return for its
+ * first day. The first day of the index is the base of the first return and
+ * therefore not part of any period. The last month and year can be partial
+ * if the index ends within the period.
+ */
+public final class ReturnMatrix
+{
+    private final int firstYear;
+    private final double[][] monthly;
+    private final double[] yearly;
+
+    private ReturnMatrix(int firstYear, double[][] monthly, double[] yearly)
+    {
+        this.firstYear = firstYear;
+        this.monthly = monthly;
+        this.yearly = yearly;
+    }
+
+    /* package */static ReturnMatrix of(PerformanceIndex index)
+    {
+        LocalDate[] dates = index.getDates();
+        double[] delta = index.getDeltaPercentage();
+
+        if (dates.length < 2)
+            return new ReturnMatrix(0, new double[0][], new double[0]);
+
+        int firstYear = dates[1].getYear();
+        int years = dates[dates.length - 1].getYear() - firstYear + 1;
+
+        double[][] monthly = new double[years][12];
+        double[] yearly = new double[years];
+        for (double[] row : monthly)
+            Arrays.fill(row, Double.NaN);
+        Arrays.fill(yearly, Double.NaN);
+
+        // NaN until the first day of the period is found
+        double month = Double.NaN;
+        double year = Double.NaN;
+        int row = 0;
+        int column = 0;
+        int yearRow = 0;
+
+        for (int ii = 1; ii < dates.length; ii++)
+        {
+            LocalDate date = dates[ii];
+
+            if (date.getDayOfMonth() == 1 || date.getYear() - firstYear != row
+                            || date.getMonthValue() - 1 != column)
+            {
+                monthly[row][column] = month;
+                row = date.getYear() - firstYear;
+                column = date.getMonthValue() - 1;
+                month = date.getDayOfMonth() == 1 ? 0 : Double.NaN;
+            }
+
+            if (date.getDayOfYear() == 1 || date.getYear() - firstYear != yearRow)
+            {
+                yearly[yearRow] = year;
+                yearRow = date.getYear() - firstYear;
+                year = date.getDayOfYear() == 1 ? 0 : Double.NaN;
+            }
+
+            month = (month + 1) * (delta[ii] + 1) - 1;
+            year = (year + 1) * (delta[ii] + 1) - 1;
+        }
+
+        monthly[row][column] = month;
+        yearly[yearRow] = year;
+
+        return new ReturnMatrix(firstYear, monthly, yearly);
+    }
+
+    public int getFirstYear()
+    {
+        return firstYear;
+    }
+
+    public int getLastYear()
+    {
+        return firstYear + yearly.length - 1;
+    }
+
+    /**
+     * Returns the return of the month or {@link Double#NaN} if the index does
+     * not cover the month.
+     */
+    public double getReturn(int year, Month month)
+    {
+        int row = year - firstYear;
+        return row >= 0 && row < monthly.length ? monthly[row][month.ordinal()] : Double.NaN;
+    }
+
+    /**
+     * Returns the return of the year or {@link Double#NaN} if the index does
+     * not cover the year.
+     */
+    public double getReturn(int year)
+    {
+        int row = year - firstYear;
+        return row >= 0 && row < yearly.length ? yearly[row] : Double.NaN;
+    }
+}
@@ -8,7 +8,6 @@ import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.model.SecurityPrice;
 import name.abuchen.portfolio.money.CurrencyConverter;
-import name.abuchen.portfolio.money.Money;
 import name.abuchen.portfolio.util.Dates;
 import name.abuchen.portfolio.util.Interval;
 
@@ -72,42 +71,34 @@ import name.abuchen.portfolio.util.Interval;
         final double adjustment = clientIndex.getAccumulatedPercentage()[Dates.daysBetween(actualInterval.getStart(),
                         startDate)];
 
+        // collect the prices of all days and convert them in one go. Use the
+        // date of the day for currency conversion, not the date of the quote.
+        // This could differ for example on weekends.
+        LocalDate date = startDate;
+        for (int ii = 0; ii < size; ii++)
+        {
+            dates[ii] = date;
+            totals[ii] = security.getSecurityPrice(date).getValue();
+            date = date.plusDays(1);
+        }
+
+        if (converter != null)
+            converter.convert(startDate, security.getCurrencyCode(), totals, totals);
+
         // first value = reference value
-        dates[0] = startDate;
         delta[0] = 0;
         accumulated[0] = adjustment;
-        long valuation = totals[0] = convert(converter, security, startDate);
 
         // calculate series
-        int index = 1;
-        LocalDate date = startDate.plusDays(1);
-        while (date.compareTo(endDate) <= 0)
+        for (int index = 1; index < size; index++)
         {
-            dates[index] = date;
-
-            long thisValuation = totals[index] = convert(converter, security, date);
-            long thisDelta = thisValuation - valuation;
+            long thisDelta = totals[index] - totals[index - 1];
 
-            delta[index] = (double) thisDelta / (double) valuation;
+            delta[index] = (double) thisDelta / (double) totals[index - 1];
             accumulated[index] = ((accumulated[index - 1] + 1 - adjustment) * (delta[index] + 1)) - 1 + adjustment;
-
-            date = date.plusDays(1);
-            valuation = thisValuation;
-            index++;
         }
     }
 
-    private long convert(CurrencyConverter converter, Security security, LocalDate date)
-    {
-        SecurityPrice price = security.getSecurityPrice(date);
-        if (converter == null)
-            return price.getValue();
-
-        // use the picked date for currency conversion, not the date of the
-        // quote. This could differ for example on weekends.
-        return converter.convert(date, Money.of(security.getCurrencyCode(), price.getValue())).getAmount();
-    }
-
     private void initEmpty(PerformanceIndex clientIndex)
     {
         LocalDate startDate = clientIndex.getFirstDataPoint().orElse(clientIndex.getActualInterval().getStart());
@@ -239,12 +239,20 @@ public class SecurityPosition
     }
 
     public Money calculateValue()
+    {
+        return Money.of(investment.getCurrencyCode(), calculateValueAmount());
+    }
+
+    /**
+     * Returns the market value in the currency of the investment vehicle.
+     */
+    /* package */long calculateValueAmount()
     {
         if (price == null)
-            return Money.of(investment.getCurrencyCode(), 0);
+            return 0;
 
         double marketValue = shares * price.getValue() / Values.Share.divider() / Values.Quote.dividerToMoney();
-        return Money.of(investment.getCurrencyCode(), Math.round(marketValue));
+        return Math.round(marketValue);
     }
 
     public Money getFIFOPurchasePrice()
@@ -0,0 +1,306 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.AccountTransaction;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.InvestmentVehicle;
+import name.abuchen.portfolio.model.LatestSecurityPrice;
+import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.PortfolioTransaction;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.SecurityPriceSeries;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.Values;
+
+/**
+ * Calculates the monetary assets of a client for a sequence of ascending dates.
+ * Instead of creating a {@link ClientSnapshot} for every single day, the
+ * transactions are sorted once and applied as the sweep moves forward. The
+ * sweep keeps the running balance of every account and the running number of
+ * shares of every security. Securities are valued with a price cursor which
+ * only moves forward, too.
+ * <p>
+ * The valuation is identical to {@link ClientSnapshot#getMonetaryAssets()}:
+ * shares are summed up across all portfolios (like the joint portfolio) before
+ * the market value is calculated and converted.
+ */
+/* package */class ValuationSweep
+{
+    private abstract static class Position
+    {
+        protected final InvestmentVehicle vehicle;
+        protected long amount;
+        protected boolean isOpen;
+
+        public Position(InvestmentVehicle vehicle)
+        {
+            this.vehicle = vehicle;
+        }
+
+        abstract long valuate(CurrencyConverter converter, LocalDate date);
+    }
+
+    private static class Balance extends Position
+    {
+        private final String currencyCode;
+
+        public Balance(Account account)
+        {
+            super(account);
+            this.currencyCode = account.getCurrencyCode();
+        }
+
+        @Override
+        long valuate(CurrencyConverter converter, LocalDate date)
+        {
+            if (converter.getTermCurrency().equals(currencyCode))
+                return amount;
+
+            return converter.convert(date, currencyCode, amount);
+        }
+    }
+
+    private static class Holding extends Position
+    {
+        private final Security security;
+        private final SecurityPriceSeries prices;
+        private int cursor = -1;
+        private boolean isPositioned;
+
+        public Holding(Security security)
+        {
+            super(security);
+            this.security = security;
+            this.prices = security.getPriceSeries();
+        }
+
+        /**
+         * Returns the same price as {@link Security#getSecurityPrice} under the
+         * assumption that the requested dates are ascending.
+         */
+        private long price(LocalDate date)
+        {
+            int size = prices.size();
+            long day = date.toEpochDay();
+
+            // position the cursor with a binary search if the sweep does not
+            // start with the first price
+            if (!isPositioned)
+            {
+                if (size > 0)
+                    cursor = prices.floorIndex(date);
+                isPositioned = true;
+            }
+
+            while (cursor + 1 < size && prices.getEpochDay(cursor + 1) <= day)
+                cursor++;
+
+            LatestSecurityPrice latest = security.getLatest();
+
+            if (latest != null //
+                            && (size == 0 //
+                                            || (!date.isBefore(latest.getTime()) && //
+                                                            latest.getTime().toEpochDay() >= prices
+                                                                            .getEpochDay(size - 1))))
+                return latest.getValue();
+
+            if (size == 0)
+                return 0;
+
+            return prices.getValue(Math.max(0, cursor));
+        }
+
+        @Override
+        long valuate(CurrencyConverter converter, LocalDate date)
+        {
+            double marketValue = amount * price(date) / Values.Share.divider() / Values.Quote.dividerToMoney();
+            long value = Math.round(marketValue);
+
+            if (value == 0 || converter.getTermCurrency().equals(security.getCurrencyCode()))
+                return value;
+
+            return converter.convert(date, security.getCurrencyCode(), value);
+        }
+    }
+
+    private static class Posting
+    {
+        private final LocalDate date;
+        private final Position position;
+        private final long change;
+
+        public Posting(LocalDate date, Position position, long change)
+        {
+            this.date = date;
+            this.position = position;
+            this.change = change;
+        }
+    }
+
+    private final CurrencyConverter converter;
+    private final List<Posting> postings = new ArrayList<>();
+    private final List<Position> open = new ArrayList<>();
+
+    private int next = 0;
+    private LocalDate current;
+
+    public ValuationSweep(Client client, CurrencyConverter converter)
+    {
+        this(client.getAccounts(), client.getPortfolios(), converter);
+    }
+
+    public ValuationSweep(List<Account> accounts, List<Portfolio> portfolios, CurrencyConverter converter)
+    {
+        this.converter = converter;
+
+        for (Account account : accounts)
+        {
+            Balance balance = new Balance(account);
+
+            for (AccountTransaction t : account.getTransactions())
+                postings.add(new Posting(t.getDate(), balance,
+                                t.getType().isDebit() ? -t.getAmount() : t.getAmount()));
+        }
+
+        Map<Security, Holding> holdings = new HashMap<>();
+
+        for (Portfolio portfolio : portfolios)
+        {
+            for (PortfolioTransaction t : portfolio.getTransactions())
+            {
+                Holding holding = holdings.computeIfAbsent(t.getSecurity(), Holding::new);
+                postings.add(new Posting(t.getDate(), holding,
+                                t.getType().isPurchase() ? t.getShares() : -t.getShares()));
+            }
+        }
+
+        postings.sort(Comparator.comparing(p -> p.date));
+    }
+
+    /**
+     * Creates a sweep which starts with the given date. Instead of applying
+     * all transactions, the positions start with the balances and holdings at
+     * the end of the previous day as looked up in the
+     * {@link Account#getBalanceIndex() balance} and
+     * {@link Portfolio#getHoldingsIndex() holdings} indices. Only the later
+     * transactions are sorted and applied. Dates passed to
+     * {@link #valuate(LocalDate)} must not be before the given date.
+     */
+    public ValuationSweep(Client client, CurrencyConverter converter, LocalDate from)
+    {
+        this.converter = converter;
+        this.current = from;
+
+        LocalDate before = from.minusDays(1);
+
+        for (Account account : client.getAccounts())
+        {
+            Balance balance = new Balance(account);
+            balance.amount = account.getBalanceIndex().getBalance(before);
+            open(balance);
+
+            for (AccountTransaction t : account.getBalanceIndex().getTransactionsAfter(before))
+                postings.add(new Posting(t.getDate(), balance,
+                                t.getType().isDebit() ? -t.getAmount() : t.getAmount()));
+        }
+
+        Map<Security, Holding> holdings = new HashMap<>();
+
+        for (Portfolio portfolio : client.getPortfolios())
+        {
+            portfolio.getHoldingsIndex().forEachSecurity(before, (security, shares, later) -> {
+                Holding holding = holdings.computeIfAbsent(security, Holding::new);
+                holding.amount += shares;
+
+                for (PortfolioTransaction t : later)
+                    postings.add(new Posting(t.getDate(), holding,
+                                    t.getType().isPurchase() ? t.getShares() : -t.getShares()));
+            });
+        }
+
+        holdings.values().forEach(this::open);
+
+        postings.sort(Comparator.comparing(p -> p.date));
+    }
+
+    private void open(Position position)
+    {
+        if (position.amount != 0 && !position.isOpen)
+        {
+            position.isOpen = true;
+            open.add(position);
+        }
+    }
+
+    /**
+     * Returns the monetary assets at the given date converted into the term
+     * currency of the currency converter. Dates must be passed in ascending
+     * order.
+     */
+    public long valuate(LocalDate date)
+    {
+        return valuate(date, null);
+    }
+
+    /**
+     * Returns the monetary assets at the given date and additionally passes
+     * the converted value of each open position to the given consumer.
+     */
+    public long valuate(LocalDate date, ObjLongConsumer<InvestmentVehicle> consumer)
+    {
+        if (current != null && date.isBefore(current))
+            throw new IllegalArgumentException(date + " < " + current); //$NON-NLS-1$
+
+        current = date;
+
+        while (next < postings.size() && !postings.get(next).date.isAfter(date))
+        {
+            Posting posting = postings.get(next++);
+            Position position = posting.position;
+
+            position.amount += posting.change;
+
+            if (!position.isOpen)
+            {
+                position.isOpen = true;
+                open.add(position);
+            }
+        }
+
+        long total = 0;
+
+        int ii = 0;
+        while (ii < open.size())
+        {
+            Position position = open.get(ii);
+
+            if (position.amount == 0)
+            {
+                // remove closed position by swapping in the last element
+                position.isOpen = false;
+                Position last = open.remove(open.size() - 1);
+                if (ii < open.size())
+                    open.set(ii, last);
+                continue;
+            }
+
+            long value = position.valuate(converter, date);
+            total += value;
+
+            if (consumer != null)
+                consumer.accept(position.vehicle, value);
+
+            ii++;
+        }
+
+        return total;
+    }
+}
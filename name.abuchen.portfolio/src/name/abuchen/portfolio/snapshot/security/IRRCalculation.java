@@ -1,10 +1,13 @@
 package name.abuchen.portfolio.snapshot.security;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import name.abuchen.portfolio.math.IRR;
+import name.abuchen.portfolio.math.IRR.Result;
 import name.abuchen.portfolio.model.AccountTransaction;
 import name.abuchen.portfolio.model.PortfolioTransaction;
 import name.abuchen.portfolio.model.Transaction.Unit;
@@ -66,13 +69,53 @@ import name.abuchen.portfolio.money.Values;
         }
     }
 
-    public double getIRR()
+    /**
+     * Calculates the internal rate of return of all records. The cash flows
+     * are collected per record and then solved in parallel. The annualized
+     * true time-weighted rate of return (which is equal to the internal rate
+     * of return if there are no cash flows in between) is the start value.
+     */
+    public static void calculateAll(CurrencyConverter converter, List<SecurityPerformanceRecord> records)
     {
-        // see #457: if the reporting period contains only tax refunds, dates
-        // (and values) can be empty and no IRR can be calculated
-        if (dates.size() == 0)
+        List<SecurityPerformanceRecord> solvable = new ArrayList<>();
+        List<List<LocalDate>> dates = new ArrayList<>();
+        List<List<Double>> values = new ArrayList<>();
+        List<Double> guesses = new ArrayList<>();
+
+        for (SecurityPerformanceRecord record : records)
+        {
+            IRRCalculation calculation = Calculation.perform(IRRCalculation.class, converter,
+                            record.getTransactions());
+
+            // see #457: if the reporting period contains only tax refunds,
+            // dates (and values) can be empty and no IRR can be calculated
+            if (calculation.dates.isEmpty())
+            {
+                record.setIrr(Double.NaN, true);
+            }
+            else
+            {
+                solvable.add(record);
+                dates.add(calculation.dates);
+                values.add(calculation.values);
+                guesses.add(annualize(record.getTrueTimeWeightedRateOfReturn(), calculation.dates));
+            }
+        }
+
+        List<Result> results = IRR.solveAll(dates, values, guesses);
+        for (int ii = 0; ii < results.size(); ii++)
+            solvable.get(ii).setIrr(results.get(ii).getRate(), results.get(ii).isConverged());
+    }
+
+    private static double annualize(double rate, List<LocalDate> dates)
+    {
+        LocalDate first = Collections.min(dates);
+        LocalDate last = Collections.max(dates);
+        long days = ChronoUnit.DAYS.between(first, last);
+
+        if (days <= 0 || !(rate > -1))
             return Double.NaN;
 
-        return IRR.calculate(dates, values);
+        return Math.pow(1 + rate, 365d / days) - 1;
     }
 }
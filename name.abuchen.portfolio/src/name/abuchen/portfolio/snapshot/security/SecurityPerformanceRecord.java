@@ -10,7 +10,6 @@ import name.abuchen.portfolio.math.Risk;
 import name.abuchen.portfolio.model.Adaptable;
 import name.abuchen.portfolio.model.Annotated;
 import name.abuchen.portfolio.model.Attributable;
-import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.InvestmentVehicle;
 import name.abuchen.portfolio.model.Named;
 import name.abuchen.portfolio.model.Security;
@@ -22,7 +21,6 @@ import name.abuchen.portfolio.money.MutableMoney;
 import name.abuchen.portfolio.money.Quote;
 import name.abuchen.portfolio.money.Values;
 import name.abuchen.portfolio.snapshot.PerformanceIndex;
-import name.abuchen.portfolio.snapshot.ReportingPeriod;
 
 public final class SecurityPerformanceRecord implements Adaptable
 {
@@ -48,21 +46,27 @@ public final class SecurityPerformanceRecord implements Adaptable
      */
     private double irr;
 
+    /**
+     * False if the solver did not converge and the {@link #irr} is only an
+     * approximation
+     */
+    private boolean irrConverged = true;
+
     /**
      * True time-weighted rate of return
-     * {@link #calculatePerformance(ReportingPeriod)}
+     * {@link #calculateTTWROR(PerformanceIndex)}
      */
     private double twror;
 
     /**
      * Max Drawdown and Max Drawdown Duration
-     * {@link #calculatePerformance(ReportingPeriod)}
+     * {@link #calculateTTWROR(PerformanceIndex)}
      */
     private Risk.Drawdown drawdown;
 
     /**
      * Volatility and semi-volatility
-     * {@link #calculatePerformance(ReportingPeriod)}
+     * {@link #calculateTTWROR(PerformanceIndex)}
      */
     private Risk.Volatility volatility;
 
@@ -169,6 +173,15 @@ public final class SecurityPerformanceRecord implements Adaptable
         return irr;
     }
 
+    /**
+     * Returns false if the calculation of the internal rate of return did
+     * not converge and {@link #getIrr()} is only an approximation.
+     */
+    public boolean isIrrConverged()
+    {
+        return irrConverged;
+    }
+
     public double getTrueTimeWeightedRateOfReturn()
     {
         return twror;
@@ -313,15 +326,14 @@ public final class SecurityPerformanceRecord implements Adaptable
     }
 
     /* package */
-    void calculate(Client client, CurrencyConverter converter, ReportingPeriod period)
+    void calculate(CurrencyConverter converter, PerformanceIndex index)
     {
         Collections.sort(transactions, new TransactionComparator());
 
         if (!transactions.isEmpty())
         {
             calculateMarketValue(converter);
-            calculateIRR(converter);
-            calculateTTWROR(client, converter, period);
+            calculateTTWROR(index);
             calculateDelta(converter);
             calculateFifoCosts(converter);
             calculateDividends(converter);
@@ -339,15 +351,18 @@ public final class SecurityPerformanceRecord implements Adaptable
         this.quote = security.getSecurityPrice(LocalDate.now());
     }
 
-    private void calculateIRR(CurrencyConverter converter)
+    /**
+     * Sets the internal rate of return which is calculated for all records of
+     * a snapshot in one go (see {@link IRRCalculation#calculateAll}).
+     */
+    /* package */void setIrr(double irr, boolean isConverged)
     {
-        this.irr = Calculation.perform(IRRCalculation.class, converter, transactions).getIRR();
+        this.irr = irr;
+        this.irrConverged = isConverged;
     }
 
-    private void calculateTTWROR(Client client, CurrencyConverter converter, ReportingPeriod period)
+    private void calculateTTWROR(PerformanceIndex index)
     {
-        PerformanceIndex index = PerformanceIndex.forInvestment(client, converter, security, period,
-                        new ArrayList<Exception>());
         this.twror = index.getFinalAccumulatedPercentage();
         this.drawdown = index.getDrawdown();
         this.volatility = index.getVolatility();
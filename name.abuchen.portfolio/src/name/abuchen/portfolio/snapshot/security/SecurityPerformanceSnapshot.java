@@ -2,23 +2,50 @@ package name.abuchen.portfolio.snapshot.security;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import name.abuchen.portfolio.Messages;
 import name.abuchen.portfolio.model.Account;
 import name.abuchen.portfolio.model.AccountTransaction;
 import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.Portfolio;
 import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.snapshot.PortfolioSnapshot;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
 import name.abuchen.portfolio.snapshot.SecurityPosition;
 
 public class SecurityPerformanceSnapshot
 {
+    /**
+     * Number of threads calculating the records of a snapshot. The pool is
+     * shared by all snapshots.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
     public static SecurityPerformanceSnapshot create(Client client, CurrencyConverter converter, ReportingPeriod period)
+    {
+        return create(client, converter, period, new NullProgressMonitor());
+    }
+
+    /**
+     * Creates the snapshot and calculates the records in parallel. The
+     * converter must be safe for use by multiple threads.
+     *
+     * @throws OperationCanceledException
+     *             if the monitor has been canceled
+     */
+    public static SecurityPerformanceSnapshot create(Client client, CurrencyConverter converter, ReportingPeriod period,
+                    IProgressMonitor monitor)
     {
         Map<Security, SecurityPerformanceRecord> transactions = initRecords(client);
 
@@ -30,7 +57,7 @@ public class SecurityPerformanceSnapshot
             addPseudoValuationTansactions(portfolio, converter, period, transactions);
         }
 
-        return doCreateSnapshot(client, converter, transactions, period);
+        return doCreateSnapshot(client, converter, transactions, period, monitor);
     }
 
     public static SecurityPerformanceSnapshot create(Client client, CurrencyConverter converter, Portfolio portfolio,
@@ -44,7 +71,7 @@ public class SecurityPerformanceSnapshot
         extractSecurityRelatedPortfolioTransactions(portfolio, period, transactions);
         addPseudoValuationTansactions(portfolio, converter, period, transactions);
 
-        return doCreateSnapshot(client, converter, transactions, period);
+        return doCreateSnapshot(client, converter, transactions, period, new NullProgressMonitor());
     }
 
     private static Map<Security, SecurityPerformanceRecord> initRecords(Client client)
@@ -57,29 +84,73 @@ public class SecurityPerformanceSnapshot
     }
 
     private static SecurityPerformanceSnapshot doCreateSnapshot(Client client, CurrencyConverter converter,
-                    Map<Security, SecurityPerformanceRecord> records, ReportingPeriod period)
+                    Map<Security, SecurityPerformanceRecord> records, ReportingPeriod period,
+                    IProgressMonitor monitor)
     {
         List<SecurityPerformanceRecord> list = new ArrayList<SecurityPerformanceRecord>(records.values());
 
-        for (Iterator<SecurityPerformanceRecord> iter = list.iterator(); iter.hasNext();)
-        {
-            SecurityPerformanceRecord record = iter.next();
-            if (record.getTransactions().isEmpty())
-            {
-                // remove records that have no transactions
-                // during the reporting period
-                iter.remove();
-            }
-            else
-            {
-                // calculate values for each security
-                record.calculate(client, converter, period);
-            }
-        }
+        // remove records that have no transactions during the reporting period
+        list.removeIf(record -> record.getTransactions().isEmpty());
+
+        // calculate the performance indices of all securities in one go
+        Map<Security, PerformanceIndex> indices = PerformanceIndex.forInvestments(client, converter,
+                        list.stream().map(SecurityPerformanceRecord::getSecurity).collect(Collectors.toList()),
+                        period, new ArrayList<Exception>());
+
+        // calculate values for each security in parallel
+        monitor.beginTask(Messages.MsgCalculatingSecurityPerformance, list.size());
+
+        runInPool(() -> {
+            list.parallelStream().forEach(record -> {
+                if (monitor.isCanceled())
+                    return;
+
+                record.calculate(converter, indices.get(record.getSecurity()));
+
+                synchronized (monitor)
+                {
+                    monitor.worked(1);
+                }
+            });
+
+            // calculate the internal rates of return in one batch
+            if (!monitor.isCanceled())
+                IRRCalculation.calculateAll(converter, list);
+        });
+
+        if (monitor.isCanceled())
+            throw new OperationCanceledException();
+
+        monitor.done();
 
         return new SecurityPerformanceSnapshot(list);
     }
 
+    /**
+     * Runs the task in the pool. Parallel streams started by the task use the
+     * threads of the pool as well.
+     */
+    private static void runInPool(Runnable task)
+    {
+        try
+        {
+            POOL.submit(task).get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     private static void extractSecurityRelatedAccountTransactions(Account account, ReportingPeriod period,
                     Map<Security, SecurityPerformanceRecord> records)
     {